@@ -0,0 +1,59 @@
+package holygrail;
+
+import java.util.Comparator;
+import java.util.Random;
+
+// Test data shared by the benchmarks, made the same way as Tester's: random keys out of a given
+// number of distinct ones, always from the same seed so every run sorts the same arrays
+final public class BenchmarkInputs {
+    static final Comparator<Integer> CMP = Integer::compare;
+
+    // the external buffers Tester tries, by type
+    public enum BufferMode {
+        NONE,
+        STATIC,     // HolyGrailSort.STATIC_EXT_BUFFER_LEN
+        SQRT,       // smallest power of two >= sqrt n
+        HALF;       // n / 2
+
+        int getLength(int length) {
+            switch(this) {
+                case STATIC: return HolyGrailSort.STATIC_EXT_BUFFER_LEN;
+                case SQRT: {
+                    int bufferLen = 1;
+                    while((bufferLen * bufferLen) < length) {
+                        bufferLen *= 2;
+                    }
+                    return bufferLen;
+                }
+                case HALF:   return length / 2;
+                default:     return 0;
+            }
+        }
+    }
+
+    private BenchmarkInputs() {}
+
+    // 'keys' is either a number of distinct keys or "half", for 'length / 2' of them
+    static int parseKeyCount(String keys, int length) {
+        return keys.equals("half") ? Math.max(1, length / 2) : Integer.parseInt(keys);
+    }
+
+    static Integer[] randomItems(int length, int keyCount) {
+        Random random = new Random(100000001);
+
+        Integer[] items = new Integer[length];
+        for(int i = 0; i < length; i++) {
+            items[i] = random.nextInt(keyCount);
+        }
+        return items;
+    }
+
+    // 'length' distinct items in ascending order
+    static Integer[] ascendingItems(int length) {
+        Integer[] items = new Integer[length];
+        for(int i = 0; i < length; i++) {
+            items[i] = i;
+        }
+        return items;
+    }
+}
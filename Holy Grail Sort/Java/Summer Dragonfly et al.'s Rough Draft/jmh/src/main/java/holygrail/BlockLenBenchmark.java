@@ -0,0 +1,82 @@
+package holygrail;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Strategy 1 sorts with each BlockLenPolicy. At 50M items, SQRT's blocks are 8192 long; how much shorter
+// L1 and L2 take them depends on the caches of the machine, or -Dholygrail.l1CacheSize /
+// -Dholygrail.l2CacheSize passed with -jvmArgsAppend.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+@State(Scope.Thread)
+public class BlockLenBenchmark {
+    @Param({"6000000", "50000000"})
+    int length;
+
+    @Param({"SQRT", "L1", "L2"})
+    String policy;
+
+    int[] items;
+    int[] work;
+
+    Integer[] boxedItems;
+    Integer[] boxedWork;
+
+    IntHolyGrailSort intSorter;
+    HolyGrailSort<Integer> sorter;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(100000001);
+
+        this.items      = new int[this.length];
+        this.boxedItems = new Integer[this.length];
+        for(int i = 0; i < this.length; i++) {
+            this.items[i]      = random.nextInt(this.length / 2);
+            this.boxedItems[i] = this.items[i];
+        }
+        this.work      = new int[this.length];
+        this.boxedWork = new Integer[this.length];
+
+        BlockLenPolicy blockLenPolicy;
+        switch(this.policy) {
+            case "L1": blockLenPolicy = BlockLenPolicy.L1;   break;
+            case "L2": blockLenPolicy = BlockLenPolicy.L2;   break;
+            default:   blockLenPolicy = BlockLenPolicy.SQRT;
+        }
+
+        this.intSorter = new IntHolyGrailSort();
+        this.intSorter.setBlockLenPolicy(blockLenPolicy);
+        this.sorter = new HolyGrailSort<>(BenchmarkInputs.CMP);
+        this.sorter.setBlockLenPolicy(blockLenPolicy);
+    }
+
+    @Benchmark
+    public int[] intHolyGrailSort() {
+        System.arraycopy(this.items, 0, this.work, 0, this.length);
+        this.intSorter.commonSort(this.work, 0, this.length, null, 0);
+        return this.work;
+    }
+
+    @Benchmark
+    public Integer[] holyGrailSort() {
+        System.arraycopy(this.boxedItems, 0, this.boxedWork, 0, this.length);
+        this.sorter.commonSort(this.boxedWork, 0, this.length, null, 0);
+        return this.boxedWork;
+    }
+}
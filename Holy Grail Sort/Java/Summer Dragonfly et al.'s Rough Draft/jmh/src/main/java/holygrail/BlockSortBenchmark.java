@@ -0,0 +1,117 @@
+package holygrail;
+
+import java.util.Arrays;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Block selection and the key sorts that undo its permutation, on one merge of two sorted subarrays
+// of sqrt n sized blocks, tagged by distinct keys in front. Each invocation copies the keys and
+// blocks back in first. 'selector' picks how sortBlocks finds each next block: "auto" is sortBlocks
+// choosing by the block count, "scan" and "tournament" are each way on its own. The key sorts
+// ignore it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockSortBenchmark {
+    @Param({"4096", "65536", "1048576"})
+    int length;
+
+    @Param({"16", "half"})
+    String keys;
+
+    @Param({"auto", "scan", "tournament"})
+    String selector;
+
+    int blockLen;
+    int blockCount;
+    int leftBlocks;
+    Integer medianKey;
+
+    // keys + blocks, before and after sortBlocks
+    Integer[] unsorted;
+    Integer[] scrambledKeys;
+
+    Integer[] work;
+
+    // keeps sortBlocksByTournament's tree from one invocation to the next, as it would within a sort
+    HolyGrailSort<Integer> sorter;
+
+    @Setup
+    public void setup() throws Throwable {
+        this.blockLen = 4;
+        while((this.blockLen * this.blockLen) < this.length) {
+            this.blockLen *= 2;
+        }
+        this.blockCount = this.length / this.blockLen;
+        this.leftBlocks = this.blockCount / 2;
+
+        int dataLen = this.blockCount * this.blockLen;
+        int leftLen = this.leftBlocks * this.blockLen;
+
+        Integer[] data = BenchmarkInputs.randomItems(dataLen, BenchmarkInputs.parseKeyCount(this.keys, dataLen));
+        Arrays.sort(data, 0, leftLen);
+        Arrays.sort(data, leftLen, dataLen);
+
+        this.unsorted = new Integer[this.blockCount + dataLen];
+        System.arraycopy(BenchmarkInputs.ascendingItems(this.blockCount), 0, this.unsorted, 0, this.blockCount);
+        System.arraycopy(data, 0, this.unsorted, this.blockCount, dataLen);
+        this.medianKey = this.unsorted[this.leftBlocks];
+
+        this.sorter = new HolyGrailSort<>(BenchmarkInputs.CMP);
+
+        // sortKeys needs room for half the keys or so; the blocks stand in for its buffer
+        this.scrambledKeys = this.unsorted.clone();
+        Kernels.sortBlocks(this.sorter, this.scrambledKeys, 0, this.blockCount, this.blockCount, this.leftBlocks,
+                           this.blockLen, false, BenchmarkInputs.CMP);
+
+        this.work = new Integer[this.unsorted.length];
+    }
+
+    @Benchmark
+    public Object[] sortBlocks() throws Throwable {
+        System.arraycopy(this.unsorted, 0, this.work, 0, this.unsorted.length);
+        switch(this.selector) {
+            case "scan":
+                Kernels.sortBlocksByScan(this.work, 0, this.blockCount, this.blockCount, this.leftBlocks, this.blockLen,
+                                         false, BenchmarkInputs.CMP);
+                break;
+            case "tournament":
+                Kernels.sortBlocksByTournament(this.sorter, this.work, 0, this.blockCount, this.blockCount,
+                                               this.leftBlocks, this.blockLen, false, BenchmarkInputs.CMP);
+                break;
+            default:
+                Kernels.sortBlocks(this.sorter, this.work, 0, this.blockCount, this.blockCount, this.leftBlocks,
+                                   this.blockLen, false, BenchmarkInputs.CMP);
+        }
+        return this.work;
+    }
+
+    @Benchmark
+    public Object[] sortKeys() throws Throwable {
+        System.arraycopy(this.scrambledKeys, 0, this.work, 0, 2 * this.blockCount);
+        Kernels.sortKeys(this.work, 0, this.medianKey, this.blockCount, this.blockCount, BenchmarkInputs.CMP);
+        return this.work;
+    }
+
+    @Benchmark
+    public Object[] lazySortKeys() throws Throwable {
+        System.arraycopy(this.scrambledKeys, 0, this.work, 0, this.blockCount);
+        Kernels.lazySortKeys(this.work, 0, this.blockCount, this.medianKey, null, 0, BenchmarkInputs.CMP);
+        return this.work;
+    }
+}
@@ -0,0 +1,53 @@
+package holygrail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// collectKeys() looking for as many keys as commonSort would, with the distinct key count deciding
+// whether it finds them early or scans the whole array. Each invocation copies fresh items in first.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollectKeysBenchmark {
+    @Param({"100000", "1000000"})
+    int length;
+
+    @Param({"3", "1023", "half"})
+    String keys;
+
+    Integer[] items;
+    Integer[] work;
+    int idealKeys;
+
+    @Setup
+    public void setup() {
+        this.items = BenchmarkInputs.randomItems(this.length, BenchmarkInputs.parseKeyCount(this.keys, this.length));
+        this.work  = new Integer[this.length];
+
+        int blockLen = 4;
+        while((blockLen * blockLen) < this.length) {
+            blockLen *= 2;
+        }
+        this.idealKeys = ((this.length - 1) / blockLen) + 1 + blockLen;
+    }
+
+    @Benchmark
+    public int collectKeys() throws Throwable {
+        System.arraycopy(this.items, 0, this.work, 0, this.length);
+        return Kernels.collectKeys(this.work, 0, this.length, this.idealKeys, null, 0, BenchmarkInputs.CMP);
+    }
+}
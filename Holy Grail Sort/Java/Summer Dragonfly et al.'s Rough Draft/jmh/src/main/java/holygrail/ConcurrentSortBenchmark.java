@@ -0,0 +1,83 @@
+package holygrail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Request-handler-sized sorts from several threads at once: a new HolyGrailSort and external buffer
+// for every sort, against one ConcurrentHolyGrailSort shared by all the threads. Run with "-prof gc"
+// to see the allocations the shared sorter saves.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+@Threads(4)
+public class ConcurrentSortBenchmark {
+    @State(Scope.Thread)
+    public static class Input {
+        @Param({"1000", "10000"})
+        int length;
+
+        Integer[] items;
+        Integer[] work;
+
+        @Setup
+        public void setup() {
+            this.items = BenchmarkInputs.randomItems(this.length, this.length);
+            this.work  = new Integer[this.length];
+        }
+
+        Integer[] copy() {
+            System.arraycopy(this.items, 0, this.work, 0, this.length);
+            return this.work;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        @Param({"STATIC", "SQRT"})
+        ConcurrentHolyGrailSort.BufferLen buffer;
+
+        ConcurrentHolyGrailSort<Integer> sorter;
+
+        @Setup
+        public void setup() {
+            this.sorter = new ConcurrentHolyGrailSort<>(BenchmarkInputs.CMP, this.buffer);
+        }
+
+        // what the shared sorter gives each thread, made anew
+        Integer[] newBuffer(int length) {
+            BenchmarkInputs.BufferMode mode = this.buffer == ConcurrentHolyGrailSort.BufferLen.STATIC
+                                            ? BenchmarkInputs.BufferMode.STATIC
+                                            : BenchmarkInputs.BufferMode.SQRT;
+            return new Integer[mode.getLength(length)];
+        }
+    }
+
+    @Benchmark
+    public Integer[] newSorter(Input input, Shared shared) {
+        Integer[] array  = input.copy();
+        Integer[] buffer = shared.newBuffer(array.length);
+        new HolyGrailSort<>(BenchmarkInputs.CMP).commonSort(array, 0, array.length, buffer, buffer.length);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] sharedSorter(Input input, Shared shared) {
+        Integer[] array = input.copy();
+        shared.sorter.sort(array);
+        return array;
+    }
+}
@@ -0,0 +1,152 @@
+package holygrail;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Comparator;
+
+// Calls the private kernels of HolyGrailSort and its primitive ports for the benchmarks. The handles
+// are static final, so the JIT treats them as constants and inlines the kernels just like a direct
+// call would. Kernels that are instance methods (the block sorts keep their tournament tree in the
+// sorter) take the sorter first.
+final class Kernels {
+    private static final MethodHandle ROTATE          = find("rotate",           void.class, Object[].class, int.class, int.class, int.class);
+    private static final MethodHandle ROTATE_BUFFER   = find("rotate",           void.class, Object[].class, int.class, int.class, int.class, Object[].class, int.class);
+    private static final MethodHandle GRIES_MILLS     = find("rotateGriesMills", void.class, Object[].class, int.class, int.class, int.class);
+    private static final MethodHandle TRINITY         = find("rotateTrinity",    void.class, Object[].class, int.class, int.class, int.class);
+    private static final MethodHandle INSERT_SORT     = find("insertSort",       void.class, Object[].class, int.class, int.class, Comparator.class);
+    private static final MethodHandle SHELL_SORT      = find("shellSort",        void.class, Object[].class, int.class, int.class, Comparator.class);
+    private static final MethodHandle COLLECT_KEYS    = find("collectKeys",      int.class,  Object[].class, int.class, int.class, int.class, Object[].class, int.class, Comparator.class);
+    private static final MethodHandle MERGE_FORWARDS  = find("mergeForwards",    void.class, Object[].class, int.class, int.class, int.class, int.class, Comparator.class);
+    private static final MethodHandle MERGE_BACKWARDS = find("mergeBackwards",   void.class, Object[].class, int.class, int.class, int.class, int.class, Comparator.class);
+    private static final MethodHandle SORT_BLOCKS     = find("sortBlocks",       void.class, Object[].class, int.class, int.class, int.class, int.class, int.class, boolean.class, Comparator.class);
+    private static final MethodHandle BLOCKS_SCAN     = find("sortBlocksByScan", void.class, Object[].class, int.class, int.class, int.class, int.class, int.class, boolean.class, Comparator.class);
+    private static final MethodHandle BLOCKS_TOURNEY  = find("sortBlocksByTournament", void.class, Object[].class, int.class, int.class, int.class, int.class, int.class, boolean.class, Comparator.class);
+    private static final MethodHandle SORT_KEYS       = find("sortKeys",         void.class, Object[].class, int.class, Object.class, int.class, int.class, Comparator.class);
+    private static final MethodHandle LAZY_SORT_KEYS  = find("lazySortKeys",     void.class, Object[].class, int.class, int.class, Object.class, Object[].class, int.class, Comparator.class);
+
+    private static final MethodHandle INT_INSERT_SORT    = find(IntHolyGrailSort.class,    "insertSort", void.class, int[].class,    int.class, int.class);
+    private static final MethodHandle LONG_INSERT_SORT   = find(LongHolyGrailSort.class,   "insertSort", void.class, long[].class,   int.class, int.class);
+    private static final MethodHandle DOUBLE_INSERT_SORT = find(DoubleHolyGrailSort.class, "insertSort", void.class, double[].class, int.class, int.class);
+
+    private Kernels() {}
+
+    private static MethodHandle find(String name, Class<?> returnType, Class<?>... paramTypes) {
+        return find(HolyGrailSort.class, name, returnType, paramTypes);
+    }
+
+    private static MethodHandle find(Class<?> owner, String name, Class<?> returnType, Class<?>... paramTypes) {
+        try {
+            Method method = owner.getDeclaredMethod(name, paramTypes);
+            method.setAccessible(true);
+
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            MethodType type = MethodType.methodType(returnType, paramTypes);
+            if(!Modifier.isStatic(method.getModifiers())) {
+                type = type.insertParameterTypes(0, owner);
+            }
+            if(!handle.type().equals(type)) {
+                throw new IllegalStateException(owner.getSimpleName() + "." + name + " has changed: " + handle.type());
+            }
+            return handle;
+        }
+        catch(ReflectiveOperationException e) {
+            throw new IllegalStateException(owner.getSimpleName() + "." + name + " can't be benchmarked", e);
+        }
+    }
+
+    static void rotate(Object[] array, int start, int leftLen, int rightLen) throws Throwable {
+        ROTATE.invokeExact(array, start, leftLen, rightLen);
+    }
+
+    static void rotate(Object[] array, int start, int leftLen, int rightLen, Object[] extBuffer,
+                       int extBufferLen) throws Throwable {
+        ROTATE_BUFFER.invokeExact(array, start, leftLen, rightLen, extBuffer, extBufferLen);
+    }
+
+    static void rotateGriesMills(Object[] array, int start, int leftLen, int rightLen) throws Throwable {
+        GRIES_MILLS.invokeExact(array, start, leftLen, rightLen);
+    }
+
+    // Plain triple reversal, which HolyGrailSort doesn't use: it never beats the other rotations,
+    // so it only lives here, for RotateBenchmark to compare them against
+    static void rotateReversal(Object[] array, int start, int leftLen, int rightLen) {
+        reverse(array, start, leftLen);
+        reverse(array, start + leftLen, rightLen);
+        reverse(array, start, leftLen + rightLen);
+    }
+
+    private static void reverse(Object[] array, int start, int length) {
+        for(int left = start, right = start + length - 1; left < right; left++, right--) {
+            Object temp  = array[left];
+            array[left]  = array[right];
+            array[right] = temp;
+        }
+    }
+
+    static void rotateTrinity(Object[] array, int start, int leftLen, int rightLen) throws Throwable {
+        TRINITY.invokeExact(array, start, leftLen, rightLen);
+    }
+
+    static void insertSort(Object[] array, int start, int length, Comparator<?> cmp) throws Throwable {
+        INSERT_SORT.invokeExact(array, start, length, (Comparator) cmp);
+    }
+
+    static void shellSort(Object[] array, int start, int length, Comparator<?> cmp) throws Throwable {
+        SHELL_SORT.invokeExact(array, start, length, (Comparator) cmp);
+    }
+
+    static int collectKeys(Object[] array, int start, int length, int idealKeys, Object[] extBuffer, int extBufferLen,
+                           Comparator<?> cmp) throws Throwable {
+        return (int) COLLECT_KEYS.invokeExact(array, start, length, idealKeys, extBuffer, extBufferLen, (Comparator) cmp);
+    }
+
+    static void mergeForwards(Object[] array, int start, int leftLen, int rightLen, int bufferOffset,
+                              Comparator<?> cmp) throws Throwable {
+        MERGE_FORWARDS.invokeExact(array, start, leftLen, rightLen, bufferOffset, (Comparator) cmp);
+    }
+
+    static void mergeBackwards(Object[] array, int start, int leftLen, int rightLen, int bufferOffset,
+                               Comparator<?> cmp) throws Throwable {
+        MERGE_BACKWARDS.invokeExact(array, start, leftLen, rightLen, bufferOffset, (Comparator) cmp);
+    }
+
+    static void sortBlocks(HolyGrailSort<?> sorter, Object[] array, int firstKey, int start, int blockCount,
+                           int leftBlocks, int blockLen, boolean sortByTail, Comparator<?> cmp) throws Throwable {
+        SORT_BLOCKS.invokeExact((HolyGrailSort) sorter, array, firstKey, start, blockCount, leftBlocks, blockLen, sortByTail, (Comparator) cmp);
+    }
+
+    static void sortBlocksByScan(Object[] array, int firstKey, int start, int blockCount, int leftBlocks, int blockLen,
+                                 boolean sortByTail, Comparator<?> cmp) throws Throwable {
+        BLOCKS_SCAN.invokeExact(array, firstKey, start, blockCount, leftBlocks, blockLen, sortByTail, (Comparator) cmp);
+    }
+
+    static void sortBlocksByTournament(HolyGrailSort<?> sorter, Object[] array, int firstKey, int start, int blockCount,
+                                       int leftBlocks, int blockLen, boolean sortByTail, Comparator<?> cmp) throws Throwable {
+        BLOCKS_TOURNEY.invokeExact((HolyGrailSort) sorter, array, firstKey, start, blockCount, leftBlocks, blockLen, sortByTail, (Comparator) cmp);
+    }
+
+    static void sortKeys(Object[] array, int firstKey, Object medianKey, int keyCount, int buffer,
+                         Comparator<?> cmp) throws Throwable {
+        SORT_KEYS.invokeExact(array, firstKey, medianKey, keyCount, buffer, (Comparator) cmp);
+    }
+
+    static void lazySortKeys(Object[] array, int firstKey, int keyCount, Object medianKey, Object[] extBuffer,
+                             int extBufferLen, Comparator<?> cmp) throws Throwable {
+        LAZY_SORT_KEYS.invokeExact(array, firstKey, keyCount, medianKey, extBuffer, extBufferLen, (Comparator) cmp);
+    }
+
+    static void insertSort(int[] array, int start, int length) throws Throwable {
+        INT_INSERT_SORT.invokeExact(array, start, length);
+    }
+
+    static void insertSort(long[] array, int start, int length) throws Throwable {
+        LONG_INSERT_SORT.invokeExact(array, start, length);
+    }
+
+    static void insertSort(double[] array, int start, int length) throws Throwable {
+        DOUBLE_INSERT_SORT.invokeExact(array, start, length);
+    }
+}
@@ -0,0 +1,63 @@
+package holygrail;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// IntHolyGrailSort on arrays far bigger than L2/L3, where how often each phase streams the whole
+// array through memory matters more than comparisons. A sort takes seconds, so each one is timed
+// on its own. Arrays.sort (Dual-Pivot Quicksort) is there for scale.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+@State(Scope.Thread)
+public class LargeSortBenchmark {
+    @Param({"10000000", "50000000"})
+    int length;
+
+    @Param({"1023", "half"})
+    String keys;
+
+    int[] items;
+    int[] work;
+
+    @Setup
+    public void setup() {
+        int keyCount = BenchmarkInputs.parseKeyCount(this.keys, this.length);
+        Random random = new Random(100000001);
+
+        this.items = new int[this.length];
+        for(int i = 0; i < this.length; i++) {
+            this.items[i] = random.nextInt(keyCount);
+        }
+        this.work = new int[this.length];
+    }
+
+    @Benchmark
+    public int[] intHolyGrailSort() {
+        System.arraycopy(this.items, 0, this.work, 0, this.length);
+        new IntHolyGrailSort().commonSort(this.work, 0, this.length, null, 0);
+        return this.work;
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        System.arraycopy(this.items, 0, this.work, 0, this.length);
+        Arrays.sort(this.work);
+        return this.work;
+    }
+}
@@ -0,0 +1,87 @@
+package holygrail;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// How much slower HolyGrailSort gets once its comparisons have seen several comparator classes, and
+// how much of that SpecializedHolyGrailSort wins back. Before measuring, HolyGrailSort sorts with
+// 'comparators - 1' other comparator classes besides the measured one; every set of parameters runs
+// in a fork of its own, so those sorts can't leak into the others' profiles.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+public class MegamorphicBenchmark {
+    // all different classes from BenchmarkInputs.CMP, and from each other
+    private static final List<Comparator<Integer>> OTHER_CMPS = Arrays.asList(
+        (left, right) -> Integer.compare(right, left),
+        Comparator.naturalOrder(),
+        Comparator.comparingInt(Integer::intValue)
+    );
+
+    @State(Scope.Thread)
+    public static class Input {
+        @Param({"1", "4"})
+        int comparators;
+
+        @Param({"10000", "1000000"})
+        int length;
+
+        Integer[] items;
+        Integer[] work;
+
+        HolyGrailSort<Integer> sorter;
+        SpecializedHolyGrailSort<Integer> specialized;
+
+        @Setup
+        public void setup() {
+            this.items = BenchmarkInputs.randomItems(this.length, this.length);
+            this.work  = new Integer[this.length];
+
+            Integer[] small = BenchmarkInputs.randomItems(10000, 10000);
+            for(int i = 0; i < this.comparators - 1; i++) {
+                HolyGrailSort<Integer> other = new HolyGrailSort<>(OTHER_CMPS.get(i));
+                for(int run = 0; run < 100; run++) {
+                    other.commonSort(small.clone(), 0, small.length, null, 0);
+                }
+            }
+
+            this.sorter      = new HolyGrailSort<>(BenchmarkInputs.CMP);
+            this.specialized = new SpecializedHolyGrailSort<>(BenchmarkInputs.CMP);
+        }
+
+        Integer[] copy() {
+            System.arraycopy(this.items, 0, this.work, 0, this.length);
+            return this.work;
+        }
+    }
+
+    @Benchmark
+    public Integer[] holyGrailSort(Input input) {
+        Integer[] array = input.copy();
+        input.sorter.commonSort(array, 0, array.length, null, 0);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] specializedSort(Input input) {
+        Integer[] array = input.copy();
+        input.specialized.commonSort(array, 0, array.length, null, 0);
+        return array;
+    }
+}
@@ -0,0 +1,107 @@
+package holygrail;
+
+import java.util.Arrays;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The scrolling buffer merges: two sorted runs of 'length / 2' items each, with a buffer as long
+// as the run it has to make room for. Each invocation copies the runs and buffer back in first.
+// With 'shape' "skewed", the runs take turns owning stretches of 64 items, so the merges gallop.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MergeBenchmark {
+    @Param({"1024", "65536"})
+    int length;
+
+    @Param({"16", "half"})
+    String keys;
+
+    @Param({"interleaved", "skewed"})
+    String shape;
+
+    Integer[] forwards;
+    Integer[] backwards;
+    Integer[] work;
+    int leftLen;
+    int rightLen;
+
+    @Setup
+    public void setup() {
+        this.leftLen  = this.length / 2;
+        this.rightLen = this.length - this.leftLen;
+
+        Integer[] runs = BenchmarkInputs.randomItems(this.length, BenchmarkInputs.parseKeyCount(this.keys, this.length));
+        if(this.shape.equals("skewed")) {
+            Arrays.sort(runs);
+            runs = deal(runs, this.leftLen, 64);
+        }
+        Arrays.sort(runs, 0, this.leftLen);
+        Arrays.sort(runs, this.leftLen, this.length);
+
+        // buffer + left run + right run
+        this.forwards = new Integer[this.leftLen + this.length];
+        Arrays.fill(this.forwards, 0, this.leftLen, -1);
+        System.arraycopy(runs, 0, this.forwards, this.leftLen, this.length);
+
+        // left run + right run + buffer
+        this.backwards = new Integer[this.length + this.rightLen];
+        System.arraycopy(runs, 0, this.backwards, 0, this.length);
+        Arrays.fill(this.backwards, this.length, this.length + this.rightLen, -1);
+
+        this.work = new Integer[Math.max(this.forwards.length, this.backwards.length)];
+    }
+
+    // Deals 'stretch' items at a time from the sorted 'items' to the left run, then the right one,
+    // until the left run is full
+    private static Integer[] deal(Integer[] items, int leftLen, int stretch) {
+        Integer[] dealt = new Integer[items.length];
+        int left = 0, right = leftLen;
+
+        for(int i = 0; i < items.length; i += stretch) {
+            int count = Math.min(stretch, items.length - i);
+            if((i / stretch) % 2 == 0 && left + count <= leftLen) {
+                System.arraycopy(items, i, dealt, left, count);
+                left += count;
+            }
+            else if(right + count <= items.length) {
+                System.arraycopy(items, i, dealt, right, count);
+                right += count;
+            }
+            else {
+                System.arraycopy(items, i, dealt, left, count);
+                left += count;
+            }
+        }
+        return dealt;
+    }
+
+    @Benchmark
+    public Object[] mergeForwards() throws Throwable {
+        System.arraycopy(this.forwards, 0, this.work, 0, this.forwards.length);
+        Kernels.mergeForwards(this.work, this.leftLen, this.leftLen, this.rightLen, this.leftLen, BenchmarkInputs.CMP);
+        return this.work;
+    }
+
+    @Benchmark
+    public Object[] mergeBackwards() throws Throwable {
+        System.arraycopy(this.backwards, 0, this.work, 0, this.backwards.length);
+        Kernels.mergeBackwards(this.work, 0, this.leftLen, this.rightLen, this.rightLen, BenchmarkInputs.CMP);
+        return this.work;
+    }
+}
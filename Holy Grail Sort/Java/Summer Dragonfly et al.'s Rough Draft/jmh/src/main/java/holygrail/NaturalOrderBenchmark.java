@@ -0,0 +1,81 @@
+package holygrail;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Integers in their natural order, through Comparator.naturalOrder() and through HolyGrailSort.sort.
+// Before measuring, Comparator.naturalOrder() sorts 'elementClasses - 1' other Comparable classes
+// besides Integer, like it would in a program that sorts strings and longs too, which turns its one
+// compareTo call megamorphic.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+public class NaturalOrderBenchmark {
+    @State(Scope.Thread)
+    public static class Input {
+        @Param({"1", "3"})
+        int elementClasses;
+
+        @Param({"10000", "1000000"})
+        int length;
+
+        Integer[] items;
+        Integer[] work;
+
+        @Setup
+        public void setup() {
+            this.items = BenchmarkInputs.randomItems(this.length, this.length);
+            this.work  = new Integer[this.length];
+
+            Integer[] small = BenchmarkInputs.randomItems(10000, 10000);
+            String[] strings = new String[small.length];
+            Long[]   longs   = new Long[small.length];
+            for(int i = 0; i < small.length; i++) {
+                strings[i] = small[i].toString();
+                longs[i]   = small[i].longValue();
+            }
+
+            for(int run = 0; run < 100; run++) {
+                if(this.elementClasses > 1) {
+                    new HolyGrailSort<String>(Comparator.naturalOrder()).commonSort(strings.clone(), 0, strings.length, null, 0);
+                }
+                if(this.elementClasses > 2) {
+                    new HolyGrailSort<Long>(Comparator.naturalOrder()).commonSort(longs.clone(), 0, longs.length, null, 0);
+                }
+            }
+        }
+
+        Integer[] copy() {
+            System.arraycopy(this.items, 0, this.work, 0, this.length);
+            return this.work;
+        }
+    }
+
+    @Benchmark
+    public Integer[] naturalOrderComparator(Input input) {
+        Integer[] array = input.copy();
+        new HolyGrailSort<Integer>(Comparator.naturalOrder()).commonSort(array, 0, array.length, null, 0);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] comparableSort(Input input) {
+        Integer[] array = input.copy();
+        HolyGrailSort.sort(array, 0, array.length);
+        return array;
+    }
+}
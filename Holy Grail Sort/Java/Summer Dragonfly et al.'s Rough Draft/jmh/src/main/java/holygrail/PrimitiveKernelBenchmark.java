@@ -0,0 +1,114 @@
+package holygrail;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The scalar PrimitiveKernels against the VectorKernels (which needs the "vector" profile and Java 17).
+// sortPairs goes over 'length' random items; the searches look for 'length' random targets in
+// 'searchLen' sorted items, as the lazy merges do on short runs and on whole blocks.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class PrimitiveKernelBenchmark {
+    @Param({"PrimitiveKernels", "VectorKernels"})
+    String kernelClass;
+
+    @Param({"1048576"})
+    int length;
+
+    @Param({"16", "256", "4096"})
+    int searchLen;
+
+    PrimitiveKernels kernels;
+
+    int[]  ints;
+    long[] longs;
+    int[]  intWork;
+    long[] longWork;
+
+    int[]  sortedInts;
+    long[] sortedLongs;
+    int[]  intTargets;
+    long[] longTargets;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        this.kernels = (PrimitiveKernels) Class.forName("holygrail." + this.kernelClass)
+                                               .getDeclaredConstructor().newInstance();
+
+        Random random = new Random(42);
+
+        this.ints  = new int[this.length + 2];
+        this.longs = new long[this.length + 2];
+        for(int i = 2; i < this.length + 2; i++) {
+            this.ints[i]  = random.nextInt();
+            this.longs[i] = random.nextLong();
+        }
+        this.intWork  = new int[this.length + 2];
+        this.longWork = new long[this.length + 2];
+
+        this.sortedInts  = new int[this.searchLen];
+        this.sortedLongs = new long[this.searchLen];
+        for(int i = 0; i < this.searchLen; i++) {
+            this.sortedInts[i]  = random.nextInt(4 * this.searchLen);
+            this.sortedLongs[i] = this.sortedInts[i];
+        }
+        Arrays.sort(this.sortedInts);
+        Arrays.sort(this.sortedLongs);
+
+        this.intTargets  = new int[this.length];
+        this.longTargets = new long[this.length];
+        for(int i = 0; i < this.length; i++) {
+            this.intTargets[i]  = random.nextInt(4 * this.searchLen);
+            this.longTargets[i] = this.intTargets[i];
+        }
+    }
+
+    @Benchmark
+    public int[] intSortPairs() {
+        System.arraycopy(this.ints, 0, this.intWork, 0, this.length + 2);
+        this.kernels.sortPairs(this.intWork, 2, this.length);
+        return this.intWork;
+    }
+
+    @Benchmark
+    public long[] longSortPairs() {
+        System.arraycopy(this.longs, 0, this.longWork, 0, this.length + 2);
+        this.kernels.sortPairs(this.longWork, 2, this.length);
+        return this.longWork;
+    }
+
+    @Benchmark
+    public int intBinarySearch() {
+        int sum = 0;
+        for(int target : this.intTargets) {
+            sum += this.kernels.binarySearchLeft(this.sortedInts, 0, this.searchLen, target);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int longBinarySearch() {
+        int sum = 0;
+        for(long target : this.longTargets) {
+            sum += this.kernels.binarySearchLeft(this.sortedLongs, 0, this.searchLen, target);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,71 @@
+package holygrail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Each rotation algorithm on its own; "auto" is rotate() choosing between them, and "extBuffer" is
+// rotate() with an external buffer long enough for the shorter side. Rotations don't depend on the
+// items, so the same array is rotated over and over without being reset.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RotateBenchmark {
+    @Param({"1000", "100000"})
+    int length;
+
+    // length of the left side: a few items, a block's worth, or half
+    @Param({"1", "8", "32", "sqrt", "half"})
+    String leftLen;
+
+    @Param({"auto", "griesMills", "reversal", "trinity", "extBuffer"})
+    String algorithm;
+
+    Integer[] array;
+    Integer[] extBuffer;
+    int left;
+
+    @Setup
+    public void setup() {
+        this.array = BenchmarkInputs.ascendingItems(this.length);
+
+        if(this.leftLen.equals("half")) {
+            this.left = this.length / 2;
+        }
+        else if(this.leftLen.equals("sqrt")) {
+            this.left = (int) Math.sqrt(this.length);
+        }
+        else {
+            this.left = Integer.parseInt(this.leftLen);
+        }
+
+        this.extBuffer = new Integer[this.left];
+    }
+
+    @Benchmark
+    public Object[] rotate() throws Throwable {
+        int rightLen = this.length - this.left;
+
+        switch(this.algorithm) {
+            case "griesMills": Kernels.rotateGriesMills(this.array, 0, this.left, rightLen); break;
+            case "reversal":   Kernels.rotateReversal(this.array, 0, this.left, rightLen); break;
+            case "trinity":    Kernels.rotateTrinity(this.array, 0, this.left, rightLen); break;
+            case "extBuffer":  Kernels.rotate(this.array, 0, this.left, rightLen, this.extBuffer, this.left); break;
+            default:           Kernels.rotate(this.array, 0, this.left, rightLen);
+        }
+        return this.array;
+    }
+}
@@ -0,0 +1,61 @@
+package holygrail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The sorts Holy Grail uses on small pieces of the array: insertSort on runs of a few items while
+// building blocks, and shellSort on the buffer, which is about sqrt n items long. Each invocation
+// copies fresh items in first.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SmallSortBenchmark {
+    final static int TOTAL_LENGTH = 1 << 16;
+
+    // insertSort sorts every run of this many items in TOTAL_LENGTH items
+    @Param({"8", "16", "32"})
+    int runLen;
+
+    // shellSort sorts this many items
+    @Param({"256", "1024", "8192"})
+    int shellLen;
+
+    Integer[] items;
+    Integer[] work;
+
+    @Setup
+    public void setup() {
+        this.items = BenchmarkInputs.randomItems(TOTAL_LENGTH, TOTAL_LENGTH);
+        this.work  = new Integer[TOTAL_LENGTH];
+    }
+
+    @Benchmark
+    public Object[] insertSort() throws Throwable {
+        System.arraycopy(this.items, 0, this.work, 0, TOTAL_LENGTH);
+        for(int start = 0; start < TOTAL_LENGTH; start += this.runLen) {
+            Kernels.insertSort(this.work, start, this.runLen, BenchmarkInputs.CMP);
+        }
+        return this.work;
+    }
+
+    @Benchmark
+    public Object[] shellSort() throws Throwable {
+        System.arraycopy(this.items, 0, this.work, 0, this.shellLen);
+        Kernels.shellSort(this.work, 0, this.shellLen, BenchmarkInputs.CMP);
+        return this.work;
+    }
+}
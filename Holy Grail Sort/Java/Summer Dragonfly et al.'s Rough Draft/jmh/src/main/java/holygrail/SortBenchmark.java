@@ -0,0 +1,81 @@
+package holygrail;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import holygrail.BenchmarkInputs.BufferMode;
+
+// End-to-end commonSort against Arrays.sort (Timsort). Both copy the unsorted input into a work
+// array first, so each pays the same O(n) overhead on top of the sort.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+public class SortBenchmark {
+    @State(Scope.Thread)
+    public static class Input {
+        @Param({"10000", "1000000"})
+        int length;
+
+        @Param({"3", "1023", "half"})
+        String keys;
+
+        Integer[] items;
+        Integer[] work;
+
+        @Setup
+        public void setup() {
+            this.items = BenchmarkInputs.randomItems(this.length, BenchmarkInputs.parseKeyCount(this.keys, this.length));
+            this.work  = new Integer[this.length];
+        }
+
+        Integer[] copy() {
+            System.arraycopy(this.items, 0, this.work, 0, this.length);
+            return this.work;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Buffer {
+        @Param
+        BufferMode buffer;
+
+        HolyGrailSort<Integer> sorter;
+        Integer[] extBuffer;
+        int extBufferLen;
+
+        @Setup
+        public void setup(Input input) {
+            this.sorter       = new HolyGrailSort<>(BenchmarkInputs.CMP);
+            this.extBufferLen = this.buffer.getLength(input.length);
+            this.extBuffer    = this.extBufferLen == 0 ? null : new Integer[this.extBufferLen];
+        }
+    }
+
+    @Benchmark
+    public Integer[] holyGrailSort(Input input, Buffer buffer) {
+        Integer[] array = input.copy();
+        buffer.sorter.commonSort(array, 0, array.length, buffer.extBuffer, buffer.extBufferLen);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] arraysSort(Input input) {
+        Integer[] array = input.copy();
+        Arrays.sort(array, BenchmarkInputs.CMP);
+        return array;
+    }
+}
@@ -0,0 +1,115 @@
+package holygrail;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The primitive ports' sorts of small runs: SortingNetworks against the insertSort they replaced,
+// on every run of 'runLen' items in TOTAL_LENGTH items. Each invocation copies fresh items in first.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SortingNetworkBenchmark {
+    final static int TOTAL_LENGTH = 1 << 16;
+
+    @Param({"4", "8", "16"})
+    int runLen;
+
+    @Param({"random", "ascending"})
+    String order;
+
+    int[]    ints;
+    long[]   longs;
+    double[] doubles;
+
+    int[]    intWork;
+    long[]   longWork;
+    double[] doubleWork;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+
+        this.ints    = new int[TOTAL_LENGTH];
+        this.longs   = new long[TOTAL_LENGTH];
+        this.doubles = new double[TOTAL_LENGTH];
+
+        for(int i = 0; i < TOTAL_LENGTH; i++) {
+            this.ints[i]    = this.order.equals("ascending") ? i : random.nextInt();
+            this.longs[i]   = this.order.equals("ascending") ? i : random.nextLong();
+            this.doubles[i] = this.order.equals("ascending") ? i : random.nextGaussian();
+        }
+
+        this.intWork    = new int[TOTAL_LENGTH];
+        this.longWork   = new long[TOTAL_LENGTH];
+        this.doubleWork = new double[TOTAL_LENGTH];
+    }
+
+    @Benchmark
+    public int[] intInsertSort() throws Throwable {
+        System.arraycopy(this.ints, 0, this.intWork, 0, TOTAL_LENGTH);
+        for(int start = 0; start < TOTAL_LENGTH; start += this.runLen) {
+            Kernels.insertSort(this.intWork, start, this.runLen);
+        }
+        return this.intWork;
+    }
+
+    @Benchmark
+    public int[] intNetwork() {
+        System.arraycopy(this.ints, 0, this.intWork, 0, TOTAL_LENGTH);
+        for(int start = 0; start < TOTAL_LENGTH; start += this.runLen) {
+            SortingNetworks.sort(this.intWork, start, this.runLen);
+        }
+        return this.intWork;
+    }
+
+    @Benchmark
+    public long[] longInsertSort() throws Throwable {
+        System.arraycopy(this.longs, 0, this.longWork, 0, TOTAL_LENGTH);
+        for(int start = 0; start < TOTAL_LENGTH; start += this.runLen) {
+            Kernels.insertSort(this.longWork, start, this.runLen);
+        }
+        return this.longWork;
+    }
+
+    @Benchmark
+    public long[] longNetwork() {
+        System.arraycopy(this.longs, 0, this.longWork, 0, TOTAL_LENGTH);
+        for(int start = 0; start < TOTAL_LENGTH; start += this.runLen) {
+            SortingNetworks.sort(this.longWork, start, this.runLen);
+        }
+        return this.longWork;
+    }
+
+    @Benchmark
+    public double[] doubleInsertSort() throws Throwable {
+        System.arraycopy(this.doubles, 0, this.doubleWork, 0, TOTAL_LENGTH);
+        for(int start = 0; start < TOTAL_LENGTH; start += this.runLen) {
+            Kernels.insertSort(this.doubleWork, start, this.runLen);
+        }
+        return this.doubleWork;
+    }
+
+    @Benchmark
+    public double[] doubleNetwork() {
+        System.arraycopy(this.doubles, 0, this.doubleWork, 0, TOTAL_LENGTH);
+        for(int start = 0; start < TOTAL_LENGTH; start += this.runLen) {
+            SortingNetworks.sort(this.doubleWork, start, this.runLen);
+        }
+        return this.doubleWork;
+    }
+}
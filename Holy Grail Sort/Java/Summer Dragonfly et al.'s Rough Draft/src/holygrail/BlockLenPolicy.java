@@ -0,0 +1,141 @@
+package holygrail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2021 The Holy Grail Sort Project
+ *
+ * See LICENSE at the root of the repository for the full license text.
+ */
+
+// How commonSort picks its block length. SQRT, the default, is the smallest power of two >= sqrt n, like
+// Holy Grail Sort always has. At 50M items that's 8192 of them, and a block merge works on two blocks and
+// the scrolling buffer at once, which can outgrow the faster caches. A cache policy takes shorter blocks
+// whenever those three would fill more than half of its cache (the rest is left for the keys, and for
+// whatever the comparator looks at).
+//
+// Each halving doubles the keys a sort needs, and the blocks each merge has to select, so a policy
+// stops at MAX_HALVINGS below SQRT: at 50M references, a 32K L1 gets blocks of 1024 instead of 8192.
+// If the array doesn't have enough distinct items for them, the sort goes on with SQRT's blocks, as
+// if there were no policy.
+// (With shorter blocks, a merge can have more keys on the right than a block of buffer holds, which
+// sortKeys makes room for by rotating them into place a buffer's worth at a time.)
+final public class BlockLenPolicy {
+    // a reference, compressed (the default for heaps under 32 GB)
+    final static int REFERENCE_BYTES = 4;
+
+    // the shortest blocks a policy takes are SQRT's divided by 2^MAX_HALVINGS
+    final static int MAX_HALVINGS = 3;
+
+    // L1 and L2 data cache sizes in bytes: -Dholygrail.l1CacheSize / -Dholygrail.l2CacheSize if given,
+    // otherwise what Linux reports for the first CPU, otherwise common sizes for today's cores. Each is
+    // only looked up once a sort uses its policy, so sorts with SQRT or forCacheSize never read sysfs.
+    final private static class L1CacheSize {
+        final static int SIZE = getCacheSize(1, "holygrail.l1CacheSize",  32 << 10);
+    }
+
+    final private static class L2CacheSize {
+        final static int SIZE = getCacheSize(2, "holygrail.l2CacheSize", 256 << 10);
+    }
+
+    public final static BlockLenPolicy SQRT = new BlockLenPolicy("SQRT", 0, 0);
+    public final static BlockLenPolicy L1   = new BlockLenPolicy("L1",   1, 0);
+    public final static BlockLenPolicy L2   = new BlockLenPolicy("L2",   2, 0);
+
+    private final String name;
+
+    // the cache level whose size this fits into, or 0 for 'cacheSize' bytes
+    private final int level;
+    private final int cacheSize;
+
+    private BlockLenPolicy(String name, int level, int cacheSize) {
+        this.name      = name;
+        this.level     = level;
+        this.cacheSize = cacheSize;
+    }
+
+    // Fits block merges into a cache of 'cacheSize' bytes, as far as there are keys for it
+    public static BlockLenPolicy forCacheSize(int cacheSize) {
+        return new BlockLenPolicy("cache " + cacheSize, 0, cacheSize);
+    }
+
+    private int getCacheSize() {
+        switch(this.level) {
+            case 1:  return L1CacheSize.SIZE;
+            case 2:  return L2CacheSize.SIZE;
+            default: return this.cacheSize;
+        }
+    }
+
+    // 'sqrtLen' is SQRT's block length for the array, of items 'itemBytes' long
+    int getBlockLen(int sqrtLen, int itemBytes) {
+        int cacheSize = this.getCacheSize();
+        if(cacheSize == 0) return sqrtLen;
+
+        int blockLen = sqrtLen;
+        for(int halvings = 0; halvings < MAX_HALVINGS && blockLen >= 8
+                          && 6L * blockLen * itemBytes > cacheSize; halvings++) {
+            blockLen /= 2;
+        }
+        return blockLen;
+    }
+
+    // Never throws, since the holder classes calling it would only ever fail with an
+    // ExceptionInInitializerError, and then a NoClassDefFoundError for every sort after
+    private static int getCacheSize(int level, String property, int defaultSize) {
+        int size;
+        try {
+            size = Integer.getInteger(property, 0);
+            if(size <= 0) {
+                size = detectCacheSize(level);
+            }
+        }
+        catch(RuntimeException e) {
+            // e.g. a SecurityManager that won't let us read the property or sysfs
+            size = 0;
+        }
+        return size > 0 ? size : defaultSize;
+    }
+
+    // The size of the first CPU's data (or unified) cache at 'level', from sysfs; 0 where there's none,
+    // like on anything but Linux
+    private static int detectCacheSize(int level) {
+        File[] caches = new File("/sys/devices/system/cpu/cpu0/cache").listFiles((dir, name) -> name.startsWith("index"));
+        if(caches == null) return 0;
+
+        for(File cache : caches) {
+            try {
+                if(Integer.parseInt(readLine(new File(cache, "level"))) != level ||
+                   readLine(new File(cache, "type")).equals("Instruction")) {
+                    continue;
+                }
+
+                // like "48K" or "2048K"
+                String size = readLine(new File(cache, "size"));
+                char unit = size.charAt(size.length() - 1);
+                switch(unit) {
+                    case 'K': return Integer.parseInt(size.substring(0, size.length() - 1)) << 10;
+                    case 'M': return Integer.parseInt(size.substring(0, size.length() - 1)) << 20;
+                    default:  return Integer.parseInt(size);
+                }
+            }
+            catch(IOException | RuntimeException e) {
+                // unreadable or unexpected; try the next one
+            }
+        }
+        return 0;
+    }
+
+    private static String readLine(File file) throws IOException {
+        return Files.readAllLines(file.toPath()).get(0).trim();
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
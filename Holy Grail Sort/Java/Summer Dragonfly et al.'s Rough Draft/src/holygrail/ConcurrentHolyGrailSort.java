@@ -0,0 +1,134 @@
+package holygrail;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2021 The Holy Grail Sort Project
+ *
+ * See LICENSE at the root of the repository for the full license text.
+ */
+
+// A HolyGrailSort that any number of threads can share, e.g. between request handlers. A sort keeps
+// its state in the HolyGrailSort running it, so every thread sorts with one of its own, and with an
+// external buffer of its own; both are made by the thread's first sort and reused by all the ones
+// after it. The sorter keeps its scratch space (the tournament tree) too, so a thread's sorts only
+// allocate when the thread hasn't sorted an array this long before, or one of another type. The
+// settings are fixed when this is constructed, since other threads could be in the middle of a sort
+// when they change.
+//
+// Every thread that has sorted with an instance keeps that instance's sorter and buffer until the
+// thread dies, and pool threads rarely do, so an instance is meant to be long-lived and shared, like
+// a static final field, not made for a few sorts and dropped. Buffers longer than
+// MAX_KEPT_BUFFER_LEN (SQRT buffers of arrays over 16M items) are let go after every sort, so what a
+// thread keeps stays small either way.
+final public class ConcurrentHolyGrailSort<T> {
+    final static int MAX_KEPT_BUFFER_LEN = 1 << 12;
+
+    // how large an external buffer each thread keeps
+    public enum BufferLen {
+        STATIC,    // HolyGrailSort.STATIC_EXT_BUFFER_LEN
+        SQRT;      // smallest power of two >= sqrt n; grows to fit the longest array the thread sorts
+    }
+
+    // What one thread sorts with; only ever touched by that thread
+    final private static class Context<T> {
+        final HolyGrailSort<T> sorter;
+        T[] buffer;
+
+        // true while a sort is running, in case the comparator sorts something itself
+        boolean busy;
+
+        Context(HolyGrailSort<T> sorter) {
+            this.sorter = sorter;
+        }
+    }
+
+    private final Comparator<T> cmp;
+    private final BufferLen bufferLen;
+    private final boolean adaptive;
+    private final BlockLenPolicy blockLenPolicy;
+
+    private final ThreadLocal<Context<T>> contexts;
+
+    public ConcurrentHolyGrailSort(Comparator<T> cmp, BufferLen bufferLen) {
+        this(cmp, bufferLen, false);
+    }
+
+    // See HolyGrailSort.setAdaptive
+    public ConcurrentHolyGrailSort(Comparator<T> cmp, BufferLen bufferLen, boolean adaptive) {
+        this(cmp, bufferLen, adaptive, BlockLenPolicy.SQRT);
+    }
+
+    // See HolyGrailSort.setBlockLenPolicy. Only sorts whose buffer has no room for a block go by the
+    // policy, so it does nothing with SQRT buffers, and with STATIC ones only for arrays longer than
+    // STATIC_EXT_BUFFER_LEN squared.
+    public ConcurrentHolyGrailSort(Comparator<T> cmp, BufferLen bufferLen, boolean adaptive,
+                                   BlockLenPolicy blockLenPolicy) {
+        this.cmp            = cmp;
+        this.bufferLen      = bufferLen;
+        this.adaptive       = adaptive;
+        this.blockLenPolicy = blockLenPolicy;
+
+        this.contexts = ThreadLocal.withInitial(this::newContext);
+    }
+
+    private Context<T> newContext() {
+        HolyGrailSort<T> sorter = new HolyGrailSort<>(this.cmp);
+        sorter.setAdaptive(this.adaptive);
+        sorter.setBlockLenPolicy(this.blockLenPolicy);
+        return new Context<>(sorter);
+    }
+
+    private int getBufferLen(int length) {
+        if(this.bufferLen == BufferLen.STATIC) {
+            return HolyGrailSort.STATIC_EXT_BUFFER_LEN;
+        }
+
+        int bufferLen = 1;
+        while((bufferLen * bufferLen) < length) {
+            bufferLen *= 2;
+        }
+        return bufferLen;
+    }
+
+    public void sort(T[] array, int start, int length) {
+        Context<T> context = this.contexts.get();
+
+        // a sort started from inside this thread's own comparator can't share its context
+        if(context.busy) {
+            context = this.newContext();
+        }
+
+        int bufferLen = this.getBufferLen(length);
+        T[] buffer    = context.buffer;
+
+        // the buffer has to be able to hold the array's items, so an array of another type gets a new one
+        if(buffer == null || buffer.length < bufferLen || buffer.getClass() != array.getClass()) {
+            buffer = HolyGrailSort.newArray(array, bufferLen);
+            context.buffer = buffer;
+        }
+
+        context.busy = true;
+        try {
+            context.sorter.commonSort(array, start, length, buffer, bufferLen);
+        }
+        finally {
+            context.busy = false;
+
+            if(buffer.length > MAX_KEPT_BUFFER_LEN) {
+                context.buffer = null;
+            }
+            else {
+                // otherwise the buffer would keep the last items it held from being collected
+                Arrays.fill(buffer, 0, bufferLen, null);
+            }
+        }
+    }
+
+    public void sort(T[] array) {
+        this.sort(array, 0, array.length);
+    }
+}
@@ -0,0 +1,321 @@
+package holygrail;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import holygrail.Tester.GrailComparator;
+import holygrail.Tester.GrailPair;
+
+// Runs Holy Grail Sort over a catalog of input distributions with every external buffer type,
+// checks each result like Tester does, and records comparisons, writes and time. The results can be
+// saved as a baseline, and later runs compared against one:
+//
+//   java -Dholygrail.countMoves=true -cp bin holygrail.CorpusTester -save corpus-baseline.tsv
+//   java -Dholygrail.countMoves=true -cp bin holygrail.CorpusTester -baseline corpus-baseline.tsv
+//
+// Comparisons and writes don't depend on the machine, so any increase counts as a regression. Times
+// do, so they're only checked when '-tolerance' is given, e.g. "-tolerance 0.25" for 25% slower.
+// Other options: "-lengths 10000,1000000" and "-runs 3" (the best time of that many runs is kept).
+public class CorpusTester {
+    enum Distribution {
+        RANDOM,
+        FEW_UNIQUE,        // 8 distinct keys
+        ALL_EQUAL,
+        SORTED,
+        REVERSED,
+        SAWTOOTH,          // 16 ascending runs
+        ORGAN_PIPE,        // ascending, then descending
+        MOSTLY_SORTED,     // sorted, then 1% of the items swapped at random
+        ZIPF;              // key k is about 1/k as common as key 1
+    }
+
+    final static String[] BUFFER_TYPES = {"none", "O(1)", "O(sqrt n)", "O(n)"};
+
+    // FEW_UNIQUE also runs at these lengths with the O(1) and O(sqrt n) buffers: with only 8 keys, they
+    // leave combineOutOfPlace as many blocks per merge as it has keys, which the usual lengths don't
+    final static int[] FEW_UNIQUE_LENGTHS = {2159, 8496};
+
+    final static String HEADER = "distribution\tlength\tbuffer\tcomparisons\twrites\tmillis";
+
+    // one line of the results, or of a baseline
+    final static class Result {
+        final String key;
+        final long comparisons;
+        final long writes;
+        final double millis;
+
+        Result(String key, long comparisons, long writes, double millis) {
+            this.key         = key;
+            this.comparisons = comparisons;
+            this.writes      = writes;
+            this.millis      = millis;
+        }
+
+        @Override
+        public String toString() {
+            return this.key + "\t" + this.comparisons + "\t" + this.writes + "\t" + String.format(Locale.ROOT, "%.3f", this.millis);
+        }
+    }
+
+    private final GrailComparator cmp = new GrailComparator();
+    private final int runs;
+
+    private int count, failures;
+
+    public CorpusTester(int runs) {
+        this.runs = runs;
+    }
+
+    private static int[] generateKeys(Distribution distribution, int length) {
+        Random random = new Random(100000001L * length + distribution.ordinal());
+        int[] keys = new int[length];
+
+        switch(distribution) {
+            case RANDOM:
+                for(int i = 0; i < length; i++) {
+                    keys[i] = random.nextInt(length);
+                }
+                break;
+            case FEW_UNIQUE:
+                for(int i = 0; i < length; i++) {
+                    keys[i] = random.nextInt(8);
+                }
+                break;
+            case ALL_EQUAL:
+                break;
+            case SORTED:
+            case REVERSED:
+            case MOSTLY_SORTED:
+                for(int i = 0; i < length; i++) {
+                    keys[i] = random.nextInt(length);
+                }
+                Arrays.sort(keys);
+
+                if(distribution == Distribution.REVERSED) {
+                    for(int i = 0, j = length - 1; i < j; i++, j--) {
+                        int temp = keys[i];
+                        keys[i]  = keys[j];
+                        keys[j]  = temp;
+                    }
+                }
+                else if(distribution == Distribution.MOSTLY_SORTED) {
+                    for(int swap = 0; swap < length / 100; swap++) {
+                        int i = random.nextInt(length);
+                        int j = random.nextInt(length);
+
+                        int temp = keys[i];
+                        keys[i]  = keys[j];
+                        keys[j]  = temp;
+                    }
+                }
+                break;
+            case SAWTOOTH: {
+                int toothLen = Math.max(1, length / 16);
+                for(int i = 0; i < length; i++) {
+                    keys[i] = i % toothLen;
+                }
+                break;
+            }
+            case ORGAN_PIPE:
+                for(int i = 0; i < length; i++) {
+                    keys[i] = i < length / 2 ? i : length - i;
+                }
+                break;
+            case ZIPF: {
+                // inverse of the cumulative distribution over 'length / 8' keys
+                int keyCount = Math.max(2, length / 8);
+                double[] cumulative = new double[keyCount];
+
+                double sum = 0;
+                for(int k = 0; k < keyCount; k++) {
+                    sum += 1.0d / (k + 1);
+                    cumulative[k] = sum;
+                }
+                for(int i = 0; i < length; i++) {
+                    int key = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                    keys[i] = key >= 0 ? key : -key - 1;
+                }
+                break;
+            }
+        }
+        return keys;
+    }
+
+    // Equal keys keep their original index as the value, so stability can be checked without a reference sort
+    private static GrailPair[] generateTestArray(int[] keys) {
+        GrailPair[] array = new GrailPair[keys.length];
+        for(int i = 0; i < keys.length; i++) {
+            array[i] = new GrailPair(keys[i], i);
+        }
+        return array;
+    }
+
+    private static GrailPair[] getBuffer(int bufferType, int length) {
+        if(bufferType == 1) {
+            return new GrailPair[HolyGrailSort.STATIC_EXT_BUFFER_LEN];
+        }
+        else if(bufferType == 2) {
+            int bufferLen = 1;
+            while((bufferLen * bufferLen) < length) {
+                bufferLen *= 2;
+            }
+            return new GrailPair[bufferLen];
+        }
+        else if(bufferType == 3) {
+            return new GrailPair[length / 2];
+        }
+        return null;
+    }
+
+    private String testArray(GrailPair[] array, int[] keys) {
+        int[] sortedKeys = keys.clone();
+        Arrays.sort(sortedKeys);
+
+        for(int i = 0; i < array.length; i++) {
+            if(array[i].getKey() != sortedKeys[i]) {
+                return "testArray[" + i + "] does not have the right key";
+            }
+            if(i > 0 && array[i - 1].getKey() == array[i].getKey() && array[i - 1].getValue() > array[i].getValue()) {
+                return "testArray[" + (i - 1) + "] and testArray[" + i + "] are unstable";
+            }
+        }
+        return null;
+    }
+
+    private Result check(Distribution distribution, int length, int bufferType) {
+        int[] keys = generateKeys(distribution, length);
+        String key = distribution + "\t" + length + "\t" + BUFFER_TYPES[bufferType];
+
+        SortStats[] reported = new SortStats[1];
+        HolyGrailSort<GrailPair> sorter = new HolyGrailSort<>(this.cmp);
+        sorter.setSortListener(stats -> reported[0] = stats);
+
+        long best = Long.MAX_VALUE;
+        String failReason = null;
+
+        for(int run = 0; run < this.runs && failReason == null; run++) {
+            GrailPair[] array  = generateTestArray(keys);
+            GrailPair[] buffer = getBuffer(bufferType, length);
+
+            sorter.commonSort(array, 0, length, buffer, buffer == null ? 0 : buffer.length);
+            best = Math.min(best, reported[0].getTotalNanos());
+
+            failReason = this.testArray(array, keys);
+        }
+
+        this.count++;
+        if(failReason != null) {
+            System.out.println("- " + key.replace('\t', ' ') + ": the sort was NOT successful!!\nReason: " + failReason);
+            this.failures++;
+        }
+
+        return new Result(key, reported[0].getComparisons(), reported[0].getWrites(), best * 1e-6d);
+    }
+
+    private static Map<String, Result> readResults(String path) throws IOException {
+        Map<String, Result> results = new HashMap<>();
+        for(String line : Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8)) {
+            if(line.isEmpty() || line.equals(HEADER)) continue;
+
+            String[] fields = line.split("\t");
+            String key = fields[0] + "\t" + fields[1] + "\t" + fields[2];
+            results.put(key, new Result(key, Long.parseLong(fields[3]), Long.parseLong(fields[4]), Double.parseDouble(fields[5])));
+        }
+        return results;
+    }
+
+    // Returns why 'result' is worse than 'baseline', or null if it isn't
+    private static String getRegression(Result result, Result baseline, double tolerance) {
+        if(result.comparisons > baseline.comparisons) {
+            return "comparisons " + baseline.comparisons + " -> " + result.comparisons;
+        }
+        // -1 means writes weren't counted on one side or the other
+        if(result.writes >= 0 && baseline.writes >= 0 && result.writes > baseline.writes) {
+            return "writes " + baseline.writes + " -> " + result.writes;
+        }
+        if(tolerance >= 0 && result.millis > baseline.millis * (1 + tolerance)) {
+            return String.format(Locale.ROOT, "time %.3fms -> %.3fms", baseline.millis, result.millis);
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int runs = Integer.parseInt(Tester.getJOpt(args, "runs", "3"));
+        double tolerance = Double.parseDouble(Tester.getJOpt(args, "tolerance", "-1"));
+        String savePath = Tester.getJOpt(args, "save");
+        String baselinePath = Tester.getJOpt(args, "baseline");
+
+        String[] lengthArgs = Tester.getJOpt(args, "lengths", "10000,1000000").split(",");
+        int[] lengths = new int[lengthArgs.length];
+        for(int i = 0; i < lengths.length; i++) {
+            lengths[i] = Integer.parseInt(lengthArgs[i].trim());
+        }
+
+        if(!SortStats.COUNT_MOVES) {
+            System.out.println("Writes aren't counted; run with -Dholygrail.countMoves=true to count them.");
+        }
+
+        Map<String, Result> baseline = baselinePath != null ? readResults(baselinePath) : null;
+
+        CorpusTester tester = new CorpusTester(runs);
+        List<Result> results = new ArrayList<>();
+        int regressions = 0;
+
+        // distribution, length and buffer type of every test
+        List<int[]> cases = new ArrayList<>();
+        for(Distribution distribution : Distribution.values()) {
+            for(int length : lengths) {
+                for(int bufferType = 0; bufferType < BUFFER_TYPES.length; bufferType++) {
+                    cases.add(new int[] {distribution.ordinal(), length, bufferType});
+                }
+            }
+        }
+        for(int length : FEW_UNIQUE_LENGTHS) {
+            cases.add(new int[] {Distribution.FEW_UNIQUE.ordinal(), length, 1});
+            cases.add(new int[] {Distribution.FEW_UNIQUE.ordinal(), length, 2});
+        }
+
+        System.out.println(HEADER);
+        for(int[] test : cases) {
+            Result result = tester.check(Distribution.values()[test[0]], test[1], test[2]);
+            results.add(result);
+
+            String regression = null;
+            if(baseline != null && baseline.containsKey(result.key)) {
+                regression = getRegression(result, baseline.get(result.key), tolerance);
+            }
+
+            if(regression != null) {
+                System.out.println(result + "\tREGRESSION: " + regression);
+                regressions++;
+            }
+            else {
+                System.out.println(result);
+            }
+        }
+
+        if(savePath != null) {
+            try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(savePath), StandardCharsets.UTF_8))) {
+                writer.println(HEADER);
+                for(Result result : results) {
+                    writer.println(result);
+                }
+            }
+            System.out.println("Saved results to " + savePath);
+        }
+
+        System.out.println("Ran " + tester.count + " tests with " + tester.failures + " failure(s) and " + regressions + " regression(s).");
+        // exit codes wrap around at 256, so a count could come out as 0
+        System.exit((tester.failures + regressions) > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,350 @@
+package holygrail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import holygrail.RecordHolyGrailSort.RecordComparator;
+
+/*
+ * MIT License
+ *
+ * Copyright (c) 2013 Andrey Astrelin
+ * Copyright (c) 2020-2021 The Holy Grail Sort Project
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// HOLY GRAILSORT FOR JAVA - A faster implementation of in-place, stable,
+//                          worst-case O(n log n) sorting based on Andrey
+//                          Astrelin's Grailsort
+//
+// ** Written and maintained by The Holy Grail Sort Project
+//
+// Primary authors: Summer Dragonfly and Anonymous0726, with the incredible aid
+// from the rest of the team!
+
+/*
+ * The Holy Grail Sort Project
+ * Project Manager:      Summer Dragonfly
+ * Project Contributors: 666666t
+ *                       Anonymous0726
+ *                       aphitorite
+ *                       Control
+ *                       dani_dlg
+ *                       DeveloperSort
+ *                       EilrahcF
+ *                       Enver
+ *                       Gaming32
+ *                       lovebuny
+ *                       Morwenn
+ *                       MP
+ *                       phoenixbound
+ *                       Spex_guy
+ *                       Taihennami
+ *                       thatsOven
+ *                       _fluffyy
+ *
+ * Special thanks to "The Studio" Discord community!
+ */
+
+// Sorts files of fixed-width records that don't fit in memory. The input is cut into chunks as large
+// as the memory budget, each chunk is sorted in place with RecordHolyGrailSort and spilled to a run
+// file, and the runs are then merged k ways into the output. Since the chunk sort needs no extra
+// space, the whole budget goes to the chunks, and the merge reuses the same memory for its buffers.
+// Stable: equal records keep the order they had in the input.
+final public class ExternalHolyGrailSort {
+    // every run being merged gets at least this many bytes of read buffer, or one record,
+    // whichever is larger; more runs than that are merged in several passes
+    final static int MIN_RUN_BUFFER_LEN = 1 << 16;
+
+    private final int recordLen;
+    private final RecordComparator cmp;
+    private final int memoryLen;
+
+    private final RecordHolyGrailSort chunkSorter;
+
+    private ByteOrder order = ByteOrder.BIG_ENDIAN;
+    private Path tempDir;
+
+    private ByteBuffer memory;
+
+    // A run file being merged, read through its own slice of memory
+    final private static class Run {
+        final FileChannel channel;
+        final ByteBuffer  buffer;
+
+        Run(FileChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer  = buffer;
+        }
+
+        // Returns false once the run is exhausted
+        boolean refill() throws IOException {
+            this.buffer.clear();
+            while(this.buffer.hasRemaining() && this.channel.read(this.buffer) >= 0);
+            this.buffer.flip();
+            return this.buffer.hasRemaining();
+        }
+    }
+
+    // 'memoryLen' is the budget in bytes for sorting chunks and merging runs; it's allocated
+    // once, off-heap, and needs to hold at least three records
+    public ExternalHolyGrailSort(int recordLen, RecordComparator cmp, int memoryLen) {
+        if(recordLen <= 0) {
+            throw new IllegalArgumentException("recordLen must be positive: " + recordLen);
+        }
+        if(memoryLen / recordLen < 3) {
+            throw new IllegalArgumentException("memoryLen must fit at least three records: " + memoryLen);
+        }
+        this.recordLen = recordLen;
+        this.cmp       = cmp;
+        this.memoryLen = memoryLen - (memoryLen % recordLen);
+
+        this.chunkSorter = new RecordHolyGrailSort(recordLen, cmp);
+    }
+
+    // The byte order of the records, as seen by the comparator; big-endian by default
+    public void setByteOrder(ByteOrder order) {
+        this.order = order;
+    }
+
+    // Where run files are spilled; the system's default temporary directory if null
+    public void setTempDirectory(Path tempDir) {
+        this.tempDir = tempDir;
+    }
+
+    public void sort(Path input, Path output) throws IOException {
+        if(this.memory == null) {
+            this.memory = ByteBuffer.allocateDirect(this.memoryLen);
+        }
+
+        // every run file made so far, merged or not, so that a failure anywhere leaves none behind
+        List<Path> temps = new ArrayList<>();
+        List<Path> runs  = new ArrayList<>();
+        try {
+            try(FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                if(in.size() % this.recordLen != 0) {
+                    throw new IllegalArgumentException("Size of " + input + " isn't a multiple of recordLen: " + in.size());
+                }
+
+                // a file that fits in memory is simply sorted and written back out
+                if(in.size() <= this.memoryLen) {
+                    try(FileChannel out = openOutput(output)) {
+                        this.sortChunk(in, out);
+                    }
+                    return;
+                }
+
+                while(in.position() < in.size()) {
+                    Path run = this.createRun(temps);
+                    runs.add(run);
+
+                    try(FileChannel out = openOutput(run)) {
+                        this.sortChunk(in, out);
+                    }
+                }
+            }
+
+            int maxRuns = this.getMaxMergeRuns();
+
+            // merge neighbouring runs only, so earlier records still come first among equals
+            while(runs.size() > maxRuns) {
+                List<Path> merged = new ArrayList<>();
+
+                for(int i = 0; i < runs.size(); i += maxRuns) {
+                    List<Path> group = runs.subList(i, Math.min(i + maxRuns, runs.size()));
+                    if(group.size() == 1) {
+                        merged.add(group.get(0));
+                        continue;
+                    }
+
+                    Path run = this.createRun(temps);
+                    merged.add(run);
+                    this.mergeRuns(group, run);
+
+                    for(Path done : group) {
+                        Files.delete(done);
+                    }
+                }
+
+                runs = merged;
+            }
+
+            this.mergeRuns(runs, output);
+        }
+        finally {
+            for(Path run : temps) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    private Path createRun(List<Path> temps) throws IOException {
+        Path run = this.tempDir == null ? Files.createTempFile("holygrail-run", ".tmp")
+                                        : Files.createTempFile(this.tempDir, "holygrail-run", ".tmp");
+        temps.add(run);
+        return run;
+    }
+
+    private static FileChannel openOutput(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                                      StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    // Reads as much of 'in' as fits in memory, sorts it in place and writes it to 'out'
+    private void sortChunk(FileChannel in, FileChannel out) throws IOException {
+        ByteBuffer chunk = this.memory;
+        chunk.clear();
+        while(chunk.hasRemaining() && in.read(chunk) >= 0);
+        chunk.flip();
+
+        this.chunkSorter.commonSort(chunk.slice().order(this.order), 0, chunk.limit() / this.recordLen);
+
+        writeFully(out, chunk);
+    }
+
+    private int getMaxMergeRuns() {
+        int memoryRecords = this.memoryLen / this.recordLen;
+        int   runRecords  = Math.max(1, MIN_RUN_BUFFER_LEN / this.recordLen);
+
+        // one share of memory for every run, plus one for the output
+        return Math.max(2, memoryRecords / runRecords - 1);
+    }
+
+    // Stable k-way merge of 'runs' into 'output', with a binary heap of runs ordered
+    // by their next record; ties go to the earlier run
+    private void mergeRuns(List<Path> runs, Path output) throws IOException {
+        RecordComparator cmp = this.cmp; // local variable for performance à la Timsort
+
+        int  runCount = runs.size();
+        int shareLen  = (this.memoryLen / this.recordLen / (runCount + 1)) * this.recordLen;
+
+        Run[] heap = new Run[runCount];
+        int[] rank = new int[runCount];
+        int heapLen = 0;
+
+        try(FileChannel out = openOutput(output)) {
+            try {
+                for(int i = 0; i < runCount; i++) {
+                    Run run = new Run(FileChannel.open(runs.get(i), StandardOpenOption.READ),
+                                      this.slice(i * shareLen, shareLen));
+
+                    if(run.refill()) {
+                        heap[heapLen] = run;
+                        rank[heapLen] = i;
+                        heapLen++;
+                    }
+                    else {
+                        run.channel.close();
+                    }
+                }
+
+                // the output gets its own share, along with whatever rounding left over
+                ByteBuffer outBuffer = this.slice(runCount * shareLen, this.memoryLen - (runCount * shareLen));
+
+                for(int i = (heapLen / 2) - 1; i >= 0; i--) {
+                    siftDown(heap, rank, i, heapLen, cmp);
+                }
+
+                while(heapLen > 0) {
+                    ByteBuffer next = heap[0].buffer;
+                    int  nextLimit  = next.limit();
+
+                    next.limit(next.position() + this.recordLen);
+                    outBuffer.put(next);
+                    next.limit(nextLimit);
+
+                    if(!outBuffer.hasRemaining()) {
+                        outBuffer.flip();
+                        writeFully(out, outBuffer);
+                        outBuffer.clear();
+                    }
+
+                    if(!next.hasRemaining() && !heap[0].refill()) {
+                        heap[0].channel.close();
+                        heapLen--;
+                        heap[0] = heap[heapLen];
+                        rank[0] = rank[heapLen];
+                        heap[heapLen] = null;
+                    }
+                    siftDown(heap, rank, 0, heapLen, cmp);
+                }
+
+                outBuffer.flip();
+                writeFully(out, outBuffer);
+            }
+            finally {
+                for(int i = 0; i < heapLen; i++) {
+                    heap[i].channel.close();
+                }
+            }
+        }
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer memory = this.memory;
+        memory.clear();
+        memory.position(offset);
+        memory.limit(offset + length);
+        return memory.slice().order(this.order);
+    }
+
+    private static boolean runBefore(Run[] heap, int[] rank, int a, int b, RecordComparator cmp) {
+        ByteBuffer left  = heap[a].buffer;
+        ByteBuffer right = heap[b].buffer;
+
+        int cmpResult = cmp.compare(left, left.position(), right, right.position());
+        return cmpResult < 0 || (cmpResult == 0 && rank[a] < rank[b]);
+    }
+
+    private static void siftDown(Run[] heap, int[] rank, int index, int heapLen, RecordComparator cmp) {
+        while(true) {
+            int child = (2 * index) + 1;
+            if(child >= heapLen) return;
+
+            if(child + 1 < heapLen && runBefore(heap, rank, child + 1, child, cmp)) {
+                child++;
+            }
+            if(!runBefore(heap, rank, child, index, cmp)) return;
+
+            Run temp    = heap[index];
+            heap[index] = heap[child];
+            heap[child] = temp;
+
+            int tempRank = rank[index];
+            rank[index]  = rank[child];
+            rank[child]  = tempRank;
+
+            index = child;
+        }
+    }
+}
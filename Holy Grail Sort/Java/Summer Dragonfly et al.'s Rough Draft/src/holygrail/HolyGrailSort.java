@@ -1,6 +1,13 @@
 package holygrail;
 
+import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /*
  * MIT License
@@ -76,12 +83,54 @@ final public class HolyGrailSort<T> {
         RIGHT;
     }
 
+    public interface SortListener {
+        void sortFinished(SortStats stats);
+    }
+
     private Comparator<T> cmp;
 
     final static int STATIC_EXT_BUFFER_LEN = 512;
 
-    private T[] extBuffer;
-    private int extBufferLen;
+    // arrays shorter than this are always sorted on the calling thread,
+    // and parallel tasks split until they cover about this many items
+    final static int PARALLEL_MIN_LENGTH  = 1 << 17;
+    final static int PARALLEL_TASK_LENGTH = 1 << 13;
+
+    private ForkJoinPool pool;
+
+    // Building and combining blocks level by level would stream the whole array through the caches once
+    // for every doubling of the run length. Instead, both phases first take regions of up to this many
+    // items through every level that fits in them, one region after the other, and only then go on level
+    // by level (see buildInPlace and combineDepthFirst)
+    final static int DEPTH_FIRST_LEN = 1 << 16;
+
+    // adaptive mode extends natural runs shorter than this with Insertion Sort, like Timsort's "minrun"
+    final static int NATURAL_MIN_RUN   = 16;
+
+    // plenty for 2^31 items with runs of at least NATURAL_MIN_RUN (Timsort's is 49 for minrun 32)
+    final static int NATURAL_STACK_LEN = 64;
+
+    private boolean adaptive;
+
+    // collectKeys stops early once it has found this many keys, if a sample agrees
+    private int distinctHint;
+
+    private BlockLenPolicy blockLenPolicy = BlockLenPolicy.SQRT;
+
+    // Package-private, like sortIndependently and mergeIndependently, for BuildTask and CombineTask:
+    // compiled for Java 8, their access to private members would go through synthetic methods naming
+    // HolyGrailSort, which the hidden copies made by SpecializedHolyGrailSort fail to verify
+    T[] extBuffer;
+    int extBufferLen;
+
+    // estimateDistinct's scratch space, kept from one sort to the next
+    private T[] sampleValues;
+
+    // sortBlocksByTournament's tree, kept from one sort to the next
+    private int[] tournamentTree;
+
+    private SortListener listener;
+    private SortStats stats;
 
     private int currBlockLen;
     private Subarray currBlockOrigin;
@@ -90,10 +139,43 @@ final public class HolyGrailSort<T> {
         this.cmp = cmp;
     }
 
+    // Sorts large arrays with the help of 'pool'; the result is identical to the sequential sort
+    public HolyGrailSort(Comparator<T> cmp, ForkJoinPool pool) {
+        this.cmp  = cmp;
+        this.pool = pool;
+    }
+
+    // Detects runs that are already sorted, or strictly descending, and merges them instead of
+    // doing the full sort; still in-place and O(n log n) in the worst case
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    // How many distinct items the arrays about to be sorted have, if the caller knows; 0 (the default)
+    // has each sort scan the whole array for keys. Key collection stops once it has found that many,
+    // so a good hint saves most of its scan on data with few distinct items. A hint is ignored if a
+    // sample has more distinct items than it, and with a wrong one that slips past, the result is
+    // still sorted and stable; only the speed suffers.
+    public void setDistinctHint(int distinct) {
+        this.distinctHint = distinct;
+    }
+
+    // How long the blocks merged by Strategy 1 are; see BlockLenPolicy. SQRT (the default) is the
+    // classic sqrt n; the others can take shorter ones when long blocks would outgrow a cache
+    public void setBlockLenPolicy(BlockLenPolicy policy) {
+        this.blockLenPolicy = policy;
+    }
+
+    // Reports what each sort did to 'listener', or nothing if null; see SortStats
+    public void setSortListener(SortListener listener) {
+        this.listener = listener;
+    }
+
     private static <T> void swap(T[] array, int a, int b) {
         T temp   = array[a];
         array[a] = array[b];
         array[b] = temp;
+        SortStats.countWrites(2);
     }
 
     private static <T> void swapBlocksForwards(T[] array, int a, int b, int blockLen) {
@@ -114,6 +196,7 @@ final public class HolyGrailSort<T> {
         T item = array[start];
         System.arraycopy(array, start + 1, array, start, length);
         array[start + length] = item;
+        SortStats.countWrites(length + 1);
     }
 
     // Shift elements [start, start + length) to the right by 1
@@ -122,9 +205,61 @@ final public class HolyGrailSort<T> {
         T item = array[start + length];
         System.arraycopy(array, start, array, start + 1, length);
         array[start] = item;
+        SortStats.countWrites(length + 1);
+    }
+
+    private static <T> void reverse(T[] array, int start, int length) {
+        for(int left = start, right = start + length - 1; left < right; left++, right--) {
+            swap(array, left, right);
+        }
     }
 
+    // ROTATIONS
+    // Which algorithm is fastest depends on the lengths involved (see RotateBenchmark in the jmh module).
+    // Gries-Mills wins when it only takes one pass: a single item moved with System.arraycopy, or two
+    // equal sides swapped with each other. Everything else is up to twice as fast with the trinity
+    // rotation, which sweeps through the array once. Plain triple reversal never wins (RotateBenchmark
+    // still has it, for comparison).
     private static <T> void rotate(T[] array, int start, int leftLen, int rightLen) {
+        SortStats.countRotation();
+
+        if(leftLen <= 1 || rightLen <= 1 || leftLen == rightLen) {
+            rotateGriesMills(array, start, leftLen, rightLen);
+        }
+        else {
+            rotateTrinity(array, start, leftLen, rightLen);
+        }
+    }
+
+    // With room in 'extBuffer' for the shorter side, three array copies are faster than any
+    // in-place rotation. Only pass an extBuffer whose contents can be thrown away.
+    private static <T> void rotate(T[] array, int start, int leftLen, int rightLen, T[] extBuffer, int extBufferLen) {
+        if(leftLen <= rightLen) {
+            if(leftLen > 1 && leftLen <= extBufferLen) {
+                SortStats.countRotation();
+
+                System.arraycopy(array, start, extBuffer, 0, leftLen);
+                System.arraycopy(array, start + leftLen, array, start, rightLen);
+                System.arraycopy(extBuffer, 0, array, start + rightLen, leftLen);
+                SortStats.countWrites(2 * leftLen + rightLen);
+                return;
+            }
+        }
+        else if(rightLen > 1 && rightLen <= extBufferLen) {
+            SortStats.countRotation();
+
+            System.arraycopy(array, start + leftLen, extBuffer, 0, rightLen);
+            System.arraycopy(array, start, array, start + rightLen, leftLen);
+            System.arraycopy(extBuffer, 0, array, start, rightLen);
+            SortStats.countWrites(2 * rightLen + leftLen);
+            return;
+        }
+
+        rotate(array, start, leftLen, rightLen);
+    }
+
+    // block swaps, a.k.a. Gries-Mills
+    private static <T> void rotateGriesMills(T[] array, int start, int leftLen, int rightLen) {
         int minLen = leftLen <= rightLen ? leftLen : rightLen;
 
         while(minLen > 1) {
@@ -157,6 +292,54 @@ final public class HolyGrailSort<T> {
         }
     }
 
+
+    // conjoined triple reversal, a.k.a. Scandum's trinity rotation: the three reversals of
+    // a triple reversal, but done together in one sweep from both ends of the array, so each item
+    // only moves once
+    private static <T> void rotateTrinity(T[] array, int start, int leftLen, int rightLen) {
+        int a = start;
+        int b = start + leftLen;
+        int c = start + leftLen;
+        int d = start + leftLen + rightLen;
+
+        if(leftLen > rightLen) {
+            for(int loop = rightLen / 2; loop > 0; loop--) {
+                T temp     = array[--b];
+                array[b]   = array[a];
+                array[a++] = array[c];
+                array[c++] = array[--d];
+                array[d]   = temp;
+            }
+            for(int loop = (b - a) / 2; loop > 0; loop--) {
+                T temp     = array[--b];
+                array[b]   = array[a];
+                array[a++] = array[--d];
+                array[d]   = temp;
+            }
+        }
+        else {
+            for(int loop = leftLen / 2; loop > 0; loop--) {
+                T temp     = array[--b];
+                array[b]   = array[a];
+                array[a++] = array[c];
+                array[c++] = array[--d];
+                array[d]   = temp;
+            }
+            for(int loop = (d - c) / 2; loop > 0; loop--) {
+                T temp     = array[c];
+                array[c++] = array[--d];
+                array[d]   = array[a];
+                array[a++] = temp;
+            }
+        }
+        for(int loop = (d - a) / 2; loop > 0; loop--) {
+            T temp     = array[a];
+            array[a++] = array[--d];
+            array[d]   = temp;
+        }
+        SortStats.countWrites(leftLen + rightLen);
+    }
+
     // unguarded insertion sort
     // implementation thanks to Control and Scandum!
     private static <T> void insertSort(T[] array, int start, int length, Comparator<T> cmp) {
@@ -176,9 +359,11 @@ final public class HolyGrailSort<T> {
             do {
                 array[index] = array[index - 1];
                 index--;
+                SortStats.countWrites(1);
             } while(cmp.compare(array[index - 1], temp) > 0);
 
             array[index] = temp;
+            SortStats.countWrites(1);
         }
     }
 
@@ -194,9 +379,11 @@ final public class HolyGrailSort<T> {
             do {
                 array[index] = array[index - gap];
                 index -= gap;
+                SortStats.countWrites(1);
             } while(index - gap > start && cmp.compare(array[index - gap], temp) > 0);
 
             array[index] = temp;
+            SortStats.countWrites(1);
         }
     }
 
@@ -281,8 +468,74 @@ final public class HolyGrailSort<T> {
         return left;
     }
 
+    // GALLOPING
+    // Like Timsort, the merges count how many times in a row each side has won. Once one side wins
+    // 'minGallop' times, the rest of its winning streak is found with an exponential search and moved
+    // all at once, so merging a short run into a long one takes O(log n) comparisons per stretch
+    // instead of one per item. 'minGallop' rises every time galloping doesn't pay off, which keeps
+    // merges of random data from doing extra comparisons, and falls every time it does.
+    final static int MIN_GALLOP = 7;
+
+    private static int adjustMinGallop(int minGallop, int count) {
+        if(count >= MIN_GALLOP) {
+            return minGallop > 1 ? minGallop - 1 : 1;
+        }
+        return minGallop + 1;
+    }
+
+    // Counts the items at the start of array[start, start + length) that are less than 'target',
+    // or less than or equal to it if 'inclusive'
+    private static <T> int gallopForwards(T[] array, int start, int length, T target, boolean inclusive,
+                                                     Comparator<T> cmp) {
+        int  low = 0;
+        int high = 1;
+
+        // the count is at least 'low' and less than 'high'
+        while(high <= length) {
+            int order = cmp.compare(array[start + high - 1], target);
+            if(order > 0 || (order == 0 && !inclusive)) break;
+
+            low  = high;
+            high = 2 * high + 1;
+
+            if(high <= 0) high = length + 1; // overflow
+        }
+        high = Math.min(high - 1, length);
+
+        if(inclusive) {
+            return low + binarySearchRight(array, start + low, high - low, target, cmp);
+        }
+        return low + binarySearchLeft(array, start + low, high - low, target, cmp);
+    }
+
+    // Counts the items at the end of array[start, start + length) that are greater than 'target',
+    // or greater than or equal to it if 'inclusive'
+    private static <T> int gallopBackwards(T[] array, int start, int length, T target, boolean inclusive,
+                                                      Comparator<T> cmp) {
+        int  end = start + length;
+        int  low = 0;
+        int high = 1;
+
+        while(high <= length) {
+            int order = cmp.compare(array[end - high], target);
+            if(order < 0 || (order == 0 && !inclusive)) break;
+
+            low  = high;
+            high = 2 * high + 1;
+
+            if(high <= 0) high = length + 1; // overflow
+        }
+        high = Math.min(high - 1, length);
+
+        if(inclusive) {
+            return high - binarySearchLeft(array, end - high, high - low, target, cmp);
+        }
+        return high - binarySearchRight(array, end - high, high - low, target, cmp);
+    }
+
     // cost: 2 * length + idealKeys^2 / 2
-    private static <T> int collectKeys(T[] array, int start, int length, int idealKeys, Comparator<T> cmp) {
+    private static <T> int collectKeys(T[] array, int start, int length, int idealKeys,
+                                                T[] extBuffer, int extBufferLen, Comparator<T> cmp) {
         int keysFound = 1; // by itself, the first item in the array is our first unique key
         int  firstKey = 0; // the first item in the array is at the first position in the array
         int   currKey = 1; // the index used for finding potentially unique items ("keys") in the array
@@ -298,7 +551,7 @@ final public class HolyGrailSort<T> {
             if(insertPos != -1) {
                 // First, rotate the key-buffer over to currKey's immediate left...
                 // (this helps save a TON of swaps/writes!!!)
-                rotate(array, start + firstKey, keysFound, currKey - (firstKey + keysFound));
+                rotate(array, start + firstKey, keysFound, currKey - (firstKey + keysFound), extBuffer, extBufferLen);
 
                 // Update the new position of firstKey...
                 firstKey = currKey - keysFound;
@@ -318,10 +571,69 @@ final public class HolyGrailSort<T> {
 
         // Bring however many keys we found back to the beginning of our array,
         // and return the number of keys collected.
-        rotate(array, start, firstKey, keysFound);
+        rotate(array, start, firstKey, keysFound, extBuffer, extBufferLen);
         return keysFound;
     }
 
+    // SAMPLING
+    // A sample of DISTINCT_SAMPLE_LEN items, one from a random spot in each stretch of the array,
+    // checks a distinct count hint: if the sample has more distinct items than the hint, the hint is
+    // wrong. Random spots keep periodic data from fooling it, like a sawtooth whose teeth line up with
+    // the stretches. A sample can't show that an array has few distinct items, though, since a few
+    // rare ones are easily missed, and stopping key collection early with far too few keys makes for
+    // a very slow sort. So without a hint, nothing is sampled and key collection takes the full scan.
+    final static int DISTINCT_SAMPLE_LEN = 256;
+
+    // arrays shorter than this aren't sampled, and always take the full scan
+    final static int DISTINCT_SAMPLE_MIN_LENGTH = 1 << 12;
+
+    // Returns how many distinct items the sample saw, or 0 if it saw more than 'maxDistinct';
+    // 'values' needs room for that many
+    private static <T> int estimateDistinct(T[] array, int start, int length, int maxDistinct,
+                                            T[] values, Comparator<T> cmp) {
+        int distinct = 0;
+
+        // xorshift, seeded so that the same array is always sampled the same way
+        int random = length;
+        int stretch = length / DISTINCT_SAMPLE_LEN;
+
+        for(int i = 0; i < DISTINCT_SAMPLE_LEN; i++) {
+            random ^= random << 13;
+            random ^= random >>> 17;
+            random ^= random <<  5;
+
+            T item = array[start + (i * stretch) + ((random >>> 1) % stretch)];
+
+            // a binary search that stops as soon as it finds an equal item
+            int  left = 0;
+            int right = distinct;
+            int equal = -1;
+
+            while(left < right && equal == -1) {
+                int middle  = (left + right) >>> 1;
+                int compare = cmp.compare(values[middle], item);
+
+                if(compare < 0) {
+                    left = middle + 1;
+                }
+                else if(compare > 0) {
+                    right = middle;
+                }
+                else {
+                    equal = middle;
+                }
+            }
+
+            if(equal != -1) continue;
+            if(distinct == maxDistinct) return 0;
+
+            System.arraycopy(values, left, values, left + 1, distinct - left);
+            values[left] = item;
+            distinct++;
+        }
+        return distinct;
+    }
+
     // Much thanks to Spex_guy for this beautiful optimization!!
     private static <T> void sortPairsWithKeys(T[] array, int start, int length, Comparator<T> cmp) {
         // first, save the keys to stack memory
@@ -335,6 +647,7 @@ final public class HolyGrailSort<T> {
         // to the end of the array
         array[start + length - 2] =  firstKey;
         array[start + length - 1] = secondKey;
+        SortStats.countWrites(2);
     }
 
     private static <T> void sortPairs(T[] array, int start, int length, Comparator<T> cmp) {
@@ -351,11 +664,13 @@ final public class HolyGrailSort<T> {
                 array[ left - 2] = array[ left];
                 array[right - 2] = array[right];
             }
+            SortStats.countWrites(2);
         }
 
         int left = start + index - 1;
         if(left < start + length) {
             array[left - 2] = array[left];
+            SortStats.countWrites(1);
         }
     }
 
@@ -371,17 +686,57 @@ final public class HolyGrailSort<T> {
         int  right = middle;
         int    end = middle + rightLen;
 
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
         while(right < end) {
             if(left == middle || cmp.compare(array[ left],
                                              array[right]) > 0) {
                 swap(array, buffer, right);
                 right++;
+                rightStreak++;
+                leftStreak = 0;
             }
             else {
                 swap(array, buffer,  left);
                 left++;
+                leftStreak++;
+                rightStreak = 0;
             }
             buffer++;
+
+            if(leftStreak >= minGallop) {
+                int count = gallopForwards(array, left, middle - left, array[right], true, cmp);
+                swapBlocksForwards(array, buffer, left, count);
+                buffer += count;
+                left   += count;
+
+                // the right item is next, no need to compare it again
+                swap(array, buffer, right);
+                buffer++;
+                right++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left < middle) {
+                int count = gallopForwards(array, right, end - right, array[left], false, cmp);
+                swapBlocksForwards(array, buffer, right, count);
+                buffer += count;
+                right  += count;
+
+                if(right < end) {
+                    swap(array, buffer, left);
+                    buffer++;
+                    left++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
         }
 
         if(buffer != left) {
@@ -398,21 +753,61 @@ final public class HolyGrailSort<T> {
         int  right = middle + rightLen;
         int buffer = right  + bufferOffset;
 
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
         while(left > end) {
             if(right == middle || cmp.compare(array[ left],
                                               array[right]) > 0) {
                 swap(array, buffer,  left);
                 left--;
+                leftStreak++;
+                rightStreak = 0;
             }
             else {
                 swap(array, buffer, right);
                 right--;
+                rightStreak++;
+                leftStreak = 0;
             }
             buffer--;
+
+            if(rightStreak >= minGallop) {
+                int count = gallopBackwards(array, middle + 1, right - middle, array[left], true, cmp);
+                swapBlocksBackwards(array, buffer - count + 1, right - count + 1, count);
+                buffer -= count;
+                right  -= count;
+
+                // the left item is next, no need to compare it again
+                swap(array, buffer, left);
+                buffer--;
+                left--;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+            else if(leftStreak >= minGallop && right > middle) {
+                int count = gallopBackwards(array, end + 1, left - end, array[right], false, cmp);
+                swapBlocksBackwards(array, buffer - count + 1, left - count + 1, count);
+                buffer -= count;
+                left   -= count;
+
+                if(left > end) {
+                    swap(array, buffer, right);
+                    buffer--;
+                    right--;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
         }
 
         if(right != buffer) {
-            swapBlocksBackwards(array, right, buffer, right - middle);
+            swapBlocksBackwards(array, middle + 1, buffer - (right - middle) + 1, right - middle);
         }
     }
 
@@ -430,72 +825,85 @@ final public class HolyGrailSort<T> {
         int  right = middle;
         int    end = middle + rightLen;
 
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
         while(right < end) {
             if(left == middle || cmp.compare(array[ left],
                                              array[right]) > 0) {
                 array[buffer] = array[right];
+                SortStats.countWrites(1);
                 right++;
+                rightStreak++;
+                leftStreak = 0;
             }
             else {
                 array[buffer] = array[ left];
+                SortStats.countWrites(1);
                 left++;
+                leftStreak++;
+                rightStreak = 0;
             }
             buffer++;
-        }
 
-        if(buffer != left) {
-            System.arraycopy(array, left, array, buffer, middle - left);
-
-            // swapBlocksForwards(array, buffer, left, middle - left);
+            if(leftStreak >= minGallop) {
+                int count = gallopForwards(array, left, middle - left, array[right], true, cmp);
+                System.arraycopy(array, left, array, buffer, count);
+                buffer += count;
+                left   += count;
 
-            /*
-            while(left < middle) {
-                array[buffer] = array[left];
+                // the right item is next, no need to compare it again
+                array[buffer] = array[right];
+                SortStats.countWrites(count + 1);
                 buffer++;
-                left++;
+                right++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
             }
-            */
-        }
-    }
+            else if(rightStreak >= minGallop && left < middle) {
+                int count = gallopForwards(array, right, end - right, array[left], false, cmp);
+                System.arraycopy(array, right, array, buffer, count);
+                buffer += count;
+                right  += count;
 
-    private static <T> void mergeBackwardsOutOfPlace(T[] array, int start, int leftLen, int rightLen,
-                                                                int bufferOffset, Comparator<T> cmp) {
-        int    end = start  -  1;
-        int   left = end    +  leftLen;
-        int middle = left;
-        int  right = middle + rightLen;
-        int buffer = right  + bufferOffset;
+                if(right < end) {
+                    array[buffer] = array[left];
+                    SortStats.countWrites(1);
+                    buffer++;
+                    left++;
+                }
+                SortStats.countWrites(count);
 
-        while(left > end) {
-            if(right == middle || cmp.compare(array[ left],
-                                              array[right]) > 0) {
-                array[buffer] = array[ left];
-                left--;
-            }
-            else {
-                array[buffer] = array[right];
-                right--;
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
             }
-            buffer--;
         }
 
-        if(right != buffer) {
-            System.arraycopy(array, right, array, buffer, right - middle);
+        if(buffer != left) {
+            System.arraycopy(array, left, array, buffer, middle - left);
+            SortStats.countWrites(middle - left);
 
-            // swapBlocksBackwards(array, right, buffer, right - middle);
+            // swapBlocksForwards(array, buffer, left, middle - left);
 
             /*
-            while(right > middle) {
-                array[buffer] = array[right];
-                buffer--;
-                right--;
+            while(left < middle) {
+                array[buffer] = array[left];
+                buffer++;
+                left++;
             }
             */
         }
     }
 
-    private static <T> void buildInPlace(T[] array, int start, int length, int currentLen, int bufferLen, Comparator<T> cmp) {
-        for(int mergeLen = currentLen; mergeLen < bufferLen; mergeLen *= 2) {
+    // Merges runs of 'currentLen' into runs of 'targetLen', one level at a time, each level moving the array
+    // down by its run length into the buffer in front of it; returns where the array starts afterwards
+    private static <T> int buildLevels(T[] array, int start, int length, int currentLen, int targetLen,
+                                               T[] extBuffer, int extBufferLen, Comparator<T> cmp) {
+        for(int mergeLen = currentLen; mergeLen < targetLen; mergeLen *= 2) {
             int fullMerge = 2 * mergeLen;
 
             int mergeIndex;
@@ -511,19 +919,42 @@ final public class HolyGrailSort<T> {
             if(leftOver > mergeLen) {
                 mergeForwards(array, mergeIndex, mergeLen, leftOver - mergeLen, bufferOffset, cmp);
             }
-            else {
-                rotate(array, mergeIndex - mergeLen, mergeLen, leftOver);
+            else if(leftOver != 0) {
+                rotate(array, mergeIndex - mergeLen, mergeLen, leftOver, extBuffer, extBufferLen);
             }
 
             start -= mergeLen;
         }
+        return start;
+    }
+
+    private static <T> void buildInPlace(T[] array, int start, int length, int currentLen, int bufferLen,
+                                                 T[] extBuffer, int extBufferLen, Comparator<T> cmp) {
+        // Depth-first: every region of 'regionLen' goes through all of its levels before the next one is
+        // touched. A region only reaches into as much of the buffer in front as its own levels need, and
+        // leaves just as much behind it, right in front of the next region.
+        int regionLen = currentLen;
+        while(regionLen < bufferLen && regionLen <= DEPTH_FIRST_LEN / 2) {
+            regionLen *= 2;
+        }
+
+        if(regionLen > currentLen && regionLen < length) {
+            for(int offset = 0; offset < length; offset += regionLen) {
+                buildLevels(array, start + offset, Math.min(regionLen, length - offset), currentLen, regionLen,
+                            extBuffer, extBufferLen, cmp);
+            }
+            start -= regionLen - currentLen;
+            currentLen = regionLen;
+        }
+
+        start = buildLevels(array, start, length, currentLen, bufferLen, extBuffer, extBufferLen, cmp);
 
         int fullMerge  = 2 * bufferLen;
         int lastBlock  = length % fullMerge;
         int lastOffset = start + length - lastBlock;
 
         if(lastBlock <= bufferLen) {
-            rotate(array, lastOffset, lastBlock, bufferLen);
+            rotate(array, lastOffset, lastBlock, bufferLen, extBuffer, extBufferLen);
         }
         else {
             mergeBackwards(array, lastOffset, bufferLen, lastBlock - bufferLen, bufferLen, cmp);
@@ -534,89 +965,143 @@ final public class HolyGrailSort<T> {
         }
     }
 
-    private void buildOutOfPlace(T[] array, int start, int length, int bufferLen, int extLen, Comparator<T> cmp) {
-        System.arraycopy(array, start - extLen, this.extBuffer, 0, extLen);
-
-        sortPairs(array, start, length, cmp);
-        start -= 2;
-
-        int mergeLen;
-        for(mergeLen = 2; mergeLen < extLen; mergeLen *= 2) {
-            int fullMerge = 2 * mergeLen;
+    // build blocks of length 'bufferLen'
+    // input: [start - mergeLen, start - 1] elements are buffer
+    // output: first 'bufferLen' elements are buffer, blocks (2 * bufferLen) and last subblock sorted
+    private void buildBlocks(T[] array, int start, int length, int bufferLen, Comparator<T> cmp) {
+        if(this.pool != null && length >= PARALLEL_MIN_LENGTH) {
+            this.buildParallel(array, start, length, bufferLen);
+            return;
+        }
 
-            int mergeIndex;
-            int mergeEnd = start + length - fullMerge;
-            int bufferOffset = mergeLen;
+        // the longest runs the external buffer can merge on its own
+        int runLen = 1;
+        while((runLen * 2) <= this.extBufferLen && runLen < bufferLen) {
+            runLen *= 2;
+        }
+        runLen *= 2;
 
-            for(mergeIndex = start; mergeIndex <= mergeEnd; mergeIndex += fullMerge) {
-                mergeForwardsOutOfPlace(array, mergeIndex, mergeLen, mergeLen, bufferOffset, cmp);
+        if(runLen > 2) {
+            for(int offset = 0; offset < length; offset += runLen) {
+                this.sortIndependently(array, start + offset, Math.min(runLen, length - offset));
             }
 
-            int leftOver = length - (mergeIndex - start);
-
-            if(leftOver > mergeLen) {
-                mergeForwardsOutOfPlace(array, mergeIndex, mergeLen, leftOver - mergeLen, bufferOffset, cmp);
-            }
-            else {
-                System.arraycopy(array, mergeIndex, array, mergeIndex - mergeLen, leftOver);
+            if(runLen < 2 * bufferLen) {
+                // scroll 'runLen' items of the buffer past the runs, just like sorting pairs would
+                swapBlocksForwards(array, start - runLen, start, length);
+                buildInPlace(array, start - runLen, length, runLen, bufferLen, this.extBuffer, this.extBufferLen, cmp);
             }
+        }
+        else {
+            sortPairsWithKeys(array, start, length, cmp);
+            buildInPlace(array, start - 2, length, 2, bufferLen, this.extBuffer, this.extBufferLen, cmp);
+        }
+    }
 
-            start -= mergeLen;
+    // Sorts array[start, start + length) on its own, using at most 'length / 2' items of this sorter's
+    // extBuffer: runs of 16 are insertion sorted, then merged bottom-up by parking each right run
+    // in the buffer and merging it back in from the end
+    void sortIndependently(T[] array, int start, int length) {
+        Comparator<T> cmp = this.cmp; // local variable for performance à la Timsort
+        T[] extBuffer = this.extBuffer;
+
+        int i;
+        for(i = 0; i <= length - 16; i += 16) {
+            insertSort(array, start + i, 16, cmp);
         }
+        insertSort(array, start + i, length - i, cmp);
+
+        for(int mergeLen = 16; mergeLen < length; mergeLen *= 2) {
+            int fullMerge = 2 * mergeLen;
 
-        if(extLen == bufferLen) {
-            int fullMerge  = 2 * bufferLen;
-            int lastBlock  = length % fullMerge;
-            int lastOffset = start + length - lastBlock;
+            for(int mergeIndex = start; mergeIndex < start + length - mergeLen; mergeIndex += fullMerge) {
+                int   middle = mergeIndex + mergeLen;
+                int rightLen = Math.min(mergeLen, start + length - middle);
 
-            if(lastBlock <= bufferLen) {
-                System.arraycopy(array, lastOffset, array, lastOffset + bufferLen, lastBlock);
+                // runs that are already in order don't need to be merged
+                if(cmp.compare(array[middle - 1], array[middle]) > 0) {
+                    System.arraycopy(array, middle, extBuffer, 0, rightLen);
+                    SortStats.countWrites(rightLen);
+                    mergeBackwardsFromBuffer(array, mergeIndex, mergeLen, extBuffer, rightLen, cmp);
+                }
             }
-            else {
-                mergeBackwardsOutOfPlace(array, lastOffset, bufferLen, lastBlock - bufferLen, bufferLen, cmp);
+        }
+    }
+
+    // Sorts the runs of 'runLen' [low, high) for buildParallel. Each task gets its own external buffer,
+    // so the scrolling buffer in front of the array is never touched.
+    @SuppressWarnings("serial")
+    final static class BuildTask<T> extends RecursiveAction {
+        private final Comparator<T> cmp;
+        private final T[] array;
+        private final int start, length, runLen;
+        private final int low, high;
+
+        BuildTask(Comparator<T> cmp, T[] array, int start, int length, int runLen, int low, int high) {
+            this.cmp    = cmp;
+            this.array  = array;
+            this.start  = start;
+            this.length = length;
+            this.runLen = runLen;
+            this.low    = low;
+            this.high   = high;
+        }
+
+        @Override
+        protected void compute() {
+            if(this.high - this.low > 1 && (this.high - this.low) * this.runLen > PARALLEL_TASK_LENGTH) {
+                int middle = (this.low + this.high) >>> 1;
+                invokeAll(new BuildTask<>(this.cmp, this.array, this.start, this.length, this.runLen,
+                                          this.low, middle),
+                          new BuildTask<>(this.cmp, this.array, this.start, this.length, this.runLen,
+                                          middle, this.high));
+                return;
             }
 
-            for(int mergeIndex = lastOffset - fullMerge; mergeIndex >= start; mergeIndex -= fullMerge) {
-                mergeBackwardsOutOfPlace(array, mergeIndex, bufferLen, bufferLen, bufferLen, cmp);
+            HolyGrailSort<T> sorter = new HolyGrailSort<>(this.cmp);
+            sorter.extBuffer    = newArray(this.array, this.runLen / 2);
+            sorter.extBufferLen = this.runLen / 2;
+
+            for(int runIndex = this.low; runIndex < this.high; runIndex++) {
+                int offset = runIndex * this.runLen;
+                sorter.sortIndependently(this.array, this.start + offset, Math.min(this.runLen, this.length - offset));
             }
         }
-        else {
-            System.arraycopy(this.extBuffer, 0, array, start + length, extLen);
-            buildInPlace(array, start, length, mergeLen, bufferLen, cmp);
-        }
     }
 
-    // build blocks of length 'bufferLen'
-    // input: [start - mergeLen, start - 1] elements are buffer
-    // output: first 'bufferLen' elements are buffer, blocks (2 * bufferLen) and last subblock sorted
-    private void buildBlocks(T[] array, int start, int length, int bufferLen, Comparator<T> cmp) {
-        if(this.extBuffer != null) {
-            int extLen;
+    // Same output as buildBlocks -- the buffer in front of the array, followed by sorted runs of
+    // '2 * bufferLen' and a sorted last run -- but every run is built independently in parallel
+    private void buildParallel(T[] array, int start, int length, int bufferLen) {
+        int   runLen = 2 * bufferLen;
+        int runCount = ((length - 1) / runLen) + 1;
 
-            if(bufferLen < this.extBufferLen) {
-                extLen = bufferLen;
-            }
-            else {
-                // max power of 2 -- just in case
-                extLen = 1;
-                while((extLen * 2) <= this.extBufferLen) {
-                    extLen *= 2;
-                }
-            }
+        this.pool.invoke(new BuildTask<>(this.cmp, array, start, length, runLen, 0, runCount));
+    }
 
-            this.buildOutOfPlace(array, start, length, bufferLen, extLen, cmp);
+    // From this many blocks on, sortBlocks finds each next block with a tournament tree instead of a
+    // linear scan over the scrambled area. The tournament always does fewer comparisons past 64 or
+    // so blocks (about 1/40 as many at 4096), but block swaps take most of the time with cheap
+    // comparisons, and there it only pulls ahead at 128.
+    final static int TOURNAMENT_BLOCK_COUNT = 128;
+
+    // Puts the blocks of two sorted subarrays in order by their first items (or last items, if
+    // 'sortByTail'), swapping the keys in front of them along the way
+    private void sortBlocks(T[] array, int firstKey, int start, int blockCount,
+                                       int leftBlocks, int blockLen,
+                                       boolean sortByTail, Comparator<T> cmp) {
+        if(blockCount >= TOURNAMENT_BLOCK_COUNT) {
+            this.sortBlocksByTournament(array, firstKey, start, blockCount, leftBlocks, blockLen, sortByTail, cmp);
         }
         else {
-            sortPairsWithKeys(array, start, length, cmp);
-            buildInPlace(array, start - 2, length, 2, bufferLen, cmp);
+            sortBlocksByScan(array, firstKey, start, blockCount, leftBlocks, blockLen, sortByTail, cmp);
         }
     }
 
     // implementation of "smart block selection" sort
     // code inspired by Anonymous0726
-    private static <T> void sortBlocks(T[] array, int firstKey, int start, int blockCount,
-                                                  int leftBlocks, int blockLen,
-                                                  boolean sortByTail, Comparator<T> cmp) {
+    private static <T> void sortBlocksByScan(T[] array, int firstKey, int start, int blockCount,
+                                                        int leftBlocks, int blockLen,
+                                                        boolean sortByTail, Comparator<T> cmp) {
         // this check might be unnecessary with the new "combine blocks" control flow
 		if(blockCount == leftBlocks) return;
 
@@ -756,58 +1241,199 @@ final public class HolyGrailSort<T> {
         */
     }
 
-    /*
-    private static <T> void rewindBuffer(T[] array, int start, int leftBlock, int buffer) {
-        while(leftBlock >= start) {
-            swap(array, buffer, leftBlock);
-            leftBlock--;
-            buffer--;
-        }
-    }
+    // Of two blocks given by their keys, returns the one that comes first, comparing keys on ties
+    // so that equal blocks keep their order; -1 stands for no block
+    private static <T> int tournamentWinner(T[] array, int firstKey, int start, int blockLen, int cmpIndex,
+                                                       int leftKey, int rightKey, Comparator<T> cmp) {
+        if(leftKey  == -1) return rightKey;
+        if(rightKey == -1) return  leftKey;
 
-    private static <T> void rewindOutOfPlace(T[] array, int start, int leftBlock, int buffer) {
-        while(leftBlock >= start) {
-            array[buffer] = array[leftBlock];
-            leftBlock--;
-            buffer--;
+        int compare = cmp.compare(array[start + ((leftKey  - firstKey) * blockLen) + cmpIndex],
+                                  array[start + ((rightKey - firstKey) * blockLen) + cmpIndex]);
+        if(compare < 0 || (compare == 0 && cmp.compare(array[leftKey], array[rightKey]) < 0)) {
+            return leftKey;
         }
+        return rightKey;
     }
 
-    private static <T> void fastForwardBuffer(T[] array, int buffer, int rightBlock, int end) {
-        while(rightBlock <= end) {
-            swap(array, rightBlock, buffer);
-            rightBlock++;
-            buffer++;
+    // Sets the tree's leaf for 'key' to 'leaf' (either the same key, or -1 to take it out of the
+    // running) and replays the matches on its way up to the root
+    private static <T> void updateTournament(T[] array, int firstKey, int start, int blockLen, int cmpIndex,
+                                                       int[] tree, int leaves, int firstLeafKey, int key, int leaf,
+                                                       Comparator<T> cmp) {
+        int node = leaves + (key - firstLeafKey);
+        tree[node] = leaf;
+
+        for(node /= 2; node > 0; node /= 2) {
+            tree[node] = tournamentWinner(array, firstKey, start, blockLen, cmpIndex,
+                                          tree[2 * node], tree[2 * node + 1], cmp);
         }
     }
 
-    private static <T> void fastForwardOutOfPlace(T[] array, int buffer, int rightBlock, int end) {
-        while(rightBlock <= end) {
-            array[buffer] = array[rightBlock];
-            rightBlock++;
-            buffer++;
+    // A tournament tree with room for 'leaves' leaves; it's only allocated when the one kept from
+    // earlier sorts is too small
+    private int[] getTournamentTree(int leaves) {
+        if(this.tournamentTree == null || this.tournamentTree.length < 2 * leaves) {
+            this.tournamentTree = new int[2 * leaves];
         }
+        return this.tournamentTree;
     }
 
-    // Swaps Grailsort's "scrolling buffer" from the right side of the array all the way back to 'start'.
-    // Costs O(n) swaps.
-    private static <T> void resetBuffer(T[] array, int start, int length, int bufferOffset) {
-        int buffer =  start + length - 1;
-        int  index = buffer - bufferOffset;
+    // Same result as sortBlocksByScan, but the scrambled area is kept in a tournament tree -- an
+    // int[] of twice as many nodes as there are right blocks -- so each block is found in
+    // O(log blockCount) comparisons instead of one per block in the scrambled area. The tree holds
+    // the keys of the blocks that are in the running, which are also where those blocks are.
+    private void sortBlocksByTournament(T[] array, int firstKey, int start, int blockCount,
+                                                   int leftBlocks, int blockLen,
+                                                   boolean sortByTail, Comparator<T> cmp) {
+        if(blockCount == leftBlocks) return;
 
-        while(buffer >= start) {
-            swap(array, index, buffer);
-            buffer--;
-            index--;
-        }
-    }
-    */
+        int cmpIndex   = sortByTail ? blockLen - 1 : 0;
 
-    private static <T> Subarray getSubarray(T[] array, int currentKey, T medianKey, Comparator<T> cmp) {
-        if(cmp.compare(array[currentKey], medianKey) < 0) {
-            return Subarray.LEFT;
-        }
-        else {
+        int blockIndex = start;
+        int keyIndex   = firstKey;
+
+        int rightBlock = start    + (leftBlocks * blockLen);
+        int rightKey   = firstKey +  leftBlocks;
+
+        boolean sorted = true;
+
+        // phase one: same as sortBlocksByScan
+        do {
+            if(cmp.compare(array[rightBlock + cmpIndex], array[blockIndex + cmpIndex]) < 0) {
+                swapBlocksForwards(array, blockIndex, rightBlock, blockLen);
+                swap(array, keyIndex, rightKey);
+                sorted = false;
+            }
+            blockIndex += blockLen;
+            keyIndex++;
+        } while(sorted && keyIndex < rightKey);
+
+        if(sorted) return;
+
+        int lastKey = firstKey + blockCount - 1;
+        int scrambledEnd = rightKey < lastKey ? rightKey + 1 : rightKey;
+
+        // one leaf for every right block; the tree starts with the scrambled area in the running
+        int leaves = 1;
+        while(leaves < blockCount - leftBlocks) {
+            leaves *= 2;
+        }
+        int[] tree = this.getTournamentTree(leaves);
+        Arrays.fill(tree, 0, 2 * leaves, -1);
+
+        for(int key = rightKey; key <= scrambledEnd; key++) {
+            tree[leaves + (key - rightKey)] = key;
+        }
+        for(int node = leaves - 1; node > 0; node--) {
+            tree[node] = tournamentWinner(array, firstKey, start, blockLen, cmpIndex,
+                                          tree[2 * node], tree[2 * node + 1], cmp);
+        }
+
+        // phase two: the winner replaces the next left block, which takes the winner's place in
+        //            the scrambled area
+        while(keyIndex < rightKey) {
+            int selectKey   = tree[1];
+            int selectBlock = start + ((selectKey - firstKey) * blockLen);
+
+            swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+            swap(array, keyIndex, selectKey);
+
+            updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                             selectKey, selectKey, cmp);
+
+            if(selectKey == scrambledEnd && scrambledEnd < lastKey) {
+                scrambledEnd++;
+                updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                                 scrambledEnd, scrambledEnd, cmp);
+            }
+
+            blockIndex += blockLen;
+            keyIndex++;
+        }
+
+        // phases three and four: the winner trades places with the next block, which then leaves
+        //                        the running, until the rest of the blocks are in order
+        while(keyIndex < lastKey) {
+            int selectKey = tree[1];
+
+            if(selectKey != keyIndex) {
+                int selectBlock = start + ((selectKey - firstKey) * blockLen);
+
+                swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+                swap(array, keyIndex, selectKey);
+
+                updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                                 selectKey, selectKey, cmp);
+
+                if(selectKey == scrambledEnd && scrambledEnd < lastKey) {
+                    scrambledEnd++;
+                    updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                                     scrambledEnd, scrambledEnd, cmp);
+                }
+            }
+            updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                             keyIndex, -1, cmp);
+
+            blockIndex += blockLen;
+            keyIndex++;
+
+            if(keyIndex == scrambledEnd && scrambledEnd < lastKey) return;
+        }
+    }
+
+    /*
+    private static <T> void rewindBuffer(T[] array, int start, int leftBlock, int buffer) {
+        while(leftBlock >= start) {
+            swap(array, buffer, leftBlock);
+            leftBlock--;
+            buffer--;
+        }
+    }
+
+    private static <T> void rewindOutOfPlace(T[] array, int start, int leftBlock, int buffer) {
+        while(leftBlock >= start) {
+            array[buffer] = array[leftBlock];
+            leftBlock--;
+            buffer--;
+        }
+    }
+
+    private static <T> void fastForwardBuffer(T[] array, int buffer, int rightBlock, int end) {
+        while(rightBlock <= end) {
+            swap(array, rightBlock, buffer);
+            rightBlock++;
+            buffer++;
+        }
+    }
+
+    private static <T> void fastForwardOutOfPlace(T[] array, int buffer, int rightBlock, int end) {
+        while(rightBlock <= end) {
+            array[buffer] = array[rightBlock];
+            rightBlock++;
+            buffer++;
+        }
+    }
+
+    // Swaps Grailsort's "scrolling buffer" from the right side of the array all the way back to 'start'.
+    // Costs O(n) swaps.
+    private static <T> void resetBuffer(T[] array, int start, int length, int bufferOffset) {
+        int buffer =  start + length - 1;
+        int  index = buffer - bufferOffset;
+
+        while(buffer >= start) {
+            swap(array, index, buffer);
+            buffer--;
+            index--;
+        }
+    }
+    */
+
+    private static <T> Subarray getSubarray(T[] array, int currentKey, T medianKey, Comparator<T> cmp) {
+        if(cmp.compare(array[currentKey], medianKey) < 0) {
+            return Subarray.LEFT;
+        }
+        else {
             return Subarray.RIGHT;
         }
     }
@@ -837,30 +1463,61 @@ final public class HolyGrailSort<T> {
         int  right = middle;
         int    end = middle + rightLen;
 
-        if(leftOrigin == Subarray.LEFT) {
-            while(left < middle && right < end) {
-                if(cmp.compare(array[left], array[right]) <= 0) {
-                    swap(array, buffer, left);
-                    left++;
-                }
-                else {
+        // equal items are taken from whichever subarray came from the left
+        boolean leftFirst = leftOrigin == Subarray.LEFT;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left < middle && right < end) {
+            if(leftFirst ? cmp.compare(array[left], array[right]) <= 0
+                         : cmp.compare(array[left], array[right]) <  0) {
+                swap(array, buffer, left);
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                swap(array, buffer, right);
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer++;
+
+            if(leftStreak >= minGallop && right < end) {
+                int count = gallopForwards(array, left, middle - left, array[right], leftFirst, cmp);
+                swapBlocksForwards(array, buffer, left, count);
+                buffer += count;
+                left   += count;
+
+                if(left < middle) {
+                    // the right item is next, no need to compare it again
                     swap(array, buffer, right);
+                    buffer++;
                     right++;
                 }
-                buffer++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
             }
-        }
-        else {
-            while(left < middle && right < end) {
-                if(cmp.compare(array[left], array[right]) <  0) {
+            else if(rightStreak >= minGallop && left < middle) {
+                int count = gallopForwards(array, right, end - right, array[left], !leftFirst, cmp);
+                swapBlocksForwards(array, buffer, right, count);
+                buffer += count;
+                right  += count;
+
+                if(right < end) {
                     swap(array, buffer, left);
+                    buffer++;
                     left++;
                 }
-                else {
-                    swap(array, buffer, right);
-                    right++;
-                }
-                buffer++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
             }
         }
 
@@ -891,30 +1548,61 @@ final public class HolyGrailSort<T> {
         int  right = middle + rightLen;
         int buffer = right  + bufferOffset;
 
-        if(rightOrigin == Subarray.RIGHT) {
-            while(left > end && right > middle) {
-                if(cmp.compare(array[left], array[right]) >  0) {
-                    swap(array, buffer, left);
-                    left--;
-                }
-                else {
+        // equal items are taken from whichever subarray came from the right
+        boolean rightFirst = rightOrigin == Subarray.RIGHT;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left > end && right > middle) {
+            if(rightFirst ? cmp.compare(array[left], array[right]) >  0
+                          : cmp.compare(array[left], array[right]) >= 0) {
+                swap(array, buffer, left);
+                left--;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                swap(array, buffer, right);
+                right--;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer--;
+
+            if(leftStreak >= minGallop && right > middle) {
+                int count = gallopBackwards(array, end + 1, left - end, array[right], !rightFirst, cmp);
+                swapBlocksBackwards(array, buffer - count + 1, left - count + 1, count);
+                buffer -= count;
+                left   -= count;
+
+                if(left > end) {
+                    // the right item is next, no need to compare it again
                     swap(array, buffer, right);
+                    buffer--;
                     right--;
                 }
-                buffer--;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
             }
-        }
-        else {
-            while(left > end && right > middle) {
-                if(cmp.compare(array[left], array[right]) >= 0) {
+            else if(rightStreak >= minGallop && left > end) {
+                int count = gallopBackwards(array, middle + 1, right - middle, array[left], rightFirst, cmp);
+                swapBlocksBackwards(array, buffer - count + 1, right - count + 1, count);
+                buffer -= count;
+                right  -= count;
+
+                if(right > middle) {
                     swap(array, buffer, left);
+                    buffer--;
                     left--;
                 }
-                else {
-                    swap(array, buffer, right);
-                    right--;
-                }
-                buffer--;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
             }
         }
 
@@ -947,7 +1635,7 @@ final public class HolyGrailSort<T> {
                     int mergeLen = binarySearchLeft(array, middle, rightLen, array[start], cmp);
 
                     if(mergeLen != 0) {
-                        rotate(array, start, leftLen, mergeLen);
+                        rotate(array, start, leftLen, mergeLen, this.extBuffer, this.extBufferLen);
 
                         start    += mergeLen;
                         middle   += mergeLen;
@@ -974,7 +1662,7 @@ final public class HolyGrailSort<T> {
                     int mergeLen = binarySearchRight(array, middle, rightLen, array[start], cmp);
 
                     if(mergeLen != 0) {
-                        rotate(array, start, leftLen, mergeLen);
+                        rotate(array, start, leftLen, mergeLen, this.extBuffer, this.extBufferLen);
 
                         start    += mergeLen;
                         middle   += mergeLen;
@@ -1015,36 +1703,74 @@ final public class HolyGrailSort<T> {
         int  right = middle;
         int    end = middle + rightLen;
 
-        if(leftOrigin == Subarray.LEFT) {
-            while(left < middle && right < end) {
-                if(cmp.compare(array[left], array[right]) <= 0) {
-                    array[buffer] = array[left];
-                    left++;
-                }
-                else {
+        // equal items are taken from whichever subarray came from the left
+        boolean leftFirst = leftOrigin == Subarray.LEFT;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left < middle && right < end) {
+            if(leftFirst ? cmp.compare(array[left], array[right]) <= 0
+                         : cmp.compare(array[left], array[right]) <  0) {
+                array[buffer] = array[left];
+                SortStats.countWrites(1);
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                array[buffer] = array[right];
+                SortStats.countWrites(1);
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer++;
+
+            if(leftStreak >= minGallop && right < end) {
+                int count = gallopForwards(array, left, middle - left, array[right], leftFirst, cmp);
+                System.arraycopy(array, left, array, buffer, count);
+                SortStats.countWrites(count);
+                buffer += count;
+                left   += count;
+
+                if(left < middle) {
+                    // the right item is next, no need to compare it again
                     array[buffer] = array[right];
+                    SortStats.countWrites(1);
+                    buffer++;
                     right++;
                 }
-                buffer++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
             }
-        }
-        else {
-            while(left < middle && right < end) {
-                if(cmp.compare(array[left], array[right]) <  0) {
+            else if(rightStreak >= minGallop && left < middle) {
+                int count = gallopForwards(array, right, end - right, array[left], !leftFirst, cmp);
+                System.arraycopy(array, right, array, buffer, count);
+                SortStats.countWrites(count);
+                buffer += count;
+                right  += count;
+
+                if(right < end) {
                     array[buffer] = array[left];
+                    SortStats.countWrites(1);
+                    buffer++;
                     left++;
                 }
-                else {
-                    array[buffer] = array[right];
-                    right++;
-                }
-                buffer++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
             }
         }
 
         if(left < middle) {
             int leftFrag = middle - left;
             System.arraycopy(array, left, array, end - leftFrag, leftFrag);
+            SortStats.countWrites(leftFrag);
             this.currBlockLen = leftFrag;
 
             //int leftFrag = middle - left;
@@ -1065,64 +1791,6 @@ final public class HolyGrailSort<T> {
         }
     }
 
-    private void localMergeBackwardsOutOfPlace(T[] array, int start, int leftLen, int rightLen, Subarray rightOrigin,
-                                                                     int bufferOffset, Comparator<T> cmp) {
-        int    end = start  -  1;
-        int   left = end    +  leftLen;
-        int middle = left;
-        int  right = middle + rightLen;
-        int buffer = right  + bufferOffset;
-
-        if(rightOrigin == Subarray.RIGHT) {
-            while(left > end && right > middle) {
-                if(cmp.compare(array[left], array[right]) >  0) {
-                    array[buffer] = array[left];
-                    left--;
-                }
-                else {
-                    array[buffer] = array[right];
-                    right--;
-                }
-                buffer--;
-            }
-        }
-        else {
-            while(left > end && right > middle) {
-                if(cmp.compare(array[left], array[right]) >= 0) {
-                    array[buffer] = array[left];
-                    left--;
-                }
-                else {
-                    array[buffer] = array[right];
-                    right--;
-                }
-                buffer--;
-            }
-        }
-
-        if(right > middle) {
-            int rightFrag = right - middle;
-            System.arraycopy(array, middle + 1, array, end + 1, rightFrag);
-            this.currBlockLen = rightFrag;
-
-            //int rightFrag = right - middle;
-            //swapBlocksForwards(array, end + 1, middle + 1, rightFrag);
-            //this.currBlockLen = rightFrag;
-
-            //this.currBlockLen = right - middle;
-            //fastForwardOutOfPlace(array, end + 1, middle + 1, right);
-        }
-        else {
-            this.currBlockLen = left - end;
-            if(rightOrigin == Subarray.RIGHT) {
-                this.currBlockOrigin = Subarray.LEFT;
-            }
-            else {
-                this.currBlockOrigin = Subarray.RIGHT;
-            }
-        }
-    }
-
     private void mergeBlocksForwards(T[] array, int firstKey, T medianKey, int start,
                                                 int blockCount, int blockLen, int lastMergeBlocks,
                                                 int lastLen, Comparator<T> cmp) {
@@ -1210,7 +1878,7 @@ final public class HolyGrailSort<T> {
             }
 
             // TODO: double-check direction
-            lazyMergeBackwards(array, currBlock, this.currBlockLen, lastLen, cmp);
+            lazyMergeBackwards(array, currBlock, this.currBlockLen, lastLen, this.extBuffer, this.extBufferLen, cmp);
         }
     }
 
@@ -1271,6 +1939,7 @@ final public class HolyGrailSort<T> {
                 buffer = currBlock - blockLen;
 
                 System.arraycopy(array, currBlock, array, buffer, this.currBlockLen);
+                SortStats.countWrites(this.currBlockLen);
                 this.currBlockLen = blockLen;
 
             }
@@ -1282,6 +1951,7 @@ final public class HolyGrailSort<T> {
         if(lastLen != 0) {
             if(this.currBlockOrigin == Subarray.RIGHT) {
                 System.arraycopy(array, currBlock, array, buffer, this.currBlockLen);
+                SortStats.countWrites(this.currBlockLen);
 
                 currBlock            = nextBlock;
                 this.currBlockLen    = blockLen * lastMergeBlocks;
@@ -1295,44 +1965,25 @@ final public class HolyGrailSort<T> {
         }
         else {
             System.arraycopy(array, currBlock, array, buffer, this.currBlockLen);
+            SortStats.countWrites(this.currBlockLen);
         }
     }
 
-    private void mergeBlocksBackwardsOutOfPlace(T[] array, int firstKey, T medianKey, int start,
-                                                int blockCount, int blockLen, int lastLen, Comparator<T> cmp) {
-        int nextBlock = start + (blockCount * blockLen) - 1;
-        int buffer    = nextBlock + lastLen + blockLen;
-
-        // The last fragment (lastLen) came from the right subarray,
-        // although it may be empty (lastLen == 0)
-        this.currBlockLen    = lastLen;
-        this.currBlockOrigin = Subarray.RIGHT;
-
-        for(int keyIndex = blockCount - 1; keyIndex >= 0; keyIndex--, nextBlock -= blockLen) {
-            Subarray nextBlockOrigin = getSubarray(array, firstKey + keyIndex, medianKey, cmp);
-
-            if(nextBlockOrigin != this.currBlockOrigin) {
-                this.localMergeBackwardsOutOfPlace(array, nextBlock - blockLen + 1, blockLen, this.currBlockLen, this.currBlockOrigin,
-                                                   blockLen, cmp);
-            }
-            else {
-                buffer = nextBlock + blockLen + 1;
-                System.arraycopy(array, nextBlock + 1, array, buffer, this.currBlockLen);
-                this.currBlockLen = blockLen;
-            }
-        }
-
-        System.arraycopy(array, start, array, start + blockLen, this.currBlockLen);
-    }
-
     // a novel, elegant, and incredibly efficient 1.5 sqrt n key sort, courtesy of Control
     // only works if a) median key is known and b) keys were permutated by "sortBlocks"
     // (keys < medianKey and >= medianKey are each in relative sorted order, resembling a final radix sort pass)
-    private static <T> void sortKeys(T[] array, int firstKey, T medianKey, int keyCount, int buffer, Comparator<T> cmp) {
+    private static <T> void sortKeys(T[] array, int firstKey, T medianKey, int keyCount, int buffer, int bufferLen, Comparator<T> cmp) {
         int currKey     = firstKey;
         int keysEnd     = firstKey + keyCount;
         int bufferSwaps = 0;
 
+        // Blocks shorter than SQRT's (see BlockLenPolicy) can leave more keys >= medianKey than a block
+        // of buffer holds. Whenever it's full, its keys go back in behind the smaller keys found since,
+        // and are rotated past them to join the ones it held before, at [lessEnd, lessEnd + spilled).
+        // With SQRT's blocks, the buffer never fills up.
+        int lessEnd = firstKey;
+        int spilled = 0;
+
         while(currKey < keysEnd) {
             if(cmp.compare(array[currKey], medianKey) < 0) {
                 if(bufferSwaps != 0) {
@@ -1340,13 +1991,31 @@ final public class HolyGrailSort<T> {
                 }
             }
             else {
+                if(bufferSwaps == bufferLen) {
+                    spillKeys(array, lessEnd, spilled, currKey, buffer, bufferSwaps);
+                    lessEnd  = currKey - bufferSwaps - spilled;
+                    spilled += bufferSwaps;
+                    bufferSwaps = 0;
+                }
                 swap(array, currKey, buffer + bufferSwaps);
                 bufferSwaps++;
             }
             currKey++;
         }
 
+        if(spilled != 0) {
+            spillKeys(array, lessEnd, spilled, currKey, buffer, bufferSwaps);
+        }
+        else {
+            swapBlocksBackwards(array, currKey - bufferSwaps, buffer, bufferSwaps);
+        }
+    }
+
+    // [lessEnd, lessEnd + spilled) + smaller keys + 'bufferSwaps' buffer items up to 'currKey', with
+    // the keys they stand in for at 'buffer' --> smaller keys + every key >= medianKey so far
+    private static <T> void spillKeys(T[] array, int lessEnd, int spilled, int currKey, int buffer, int bufferSwaps) {
         swapBlocksBackwards(array, currKey - bufferSwaps, buffer, bufferSwaps);
+        rotate(array, lessEnd, spilled, currKey - bufferSwaps - lessEnd - spilled);
     }
 
     private static <T> void groupKeys(T[] array, int left, int right, T medianKey, Comparator<T> cmp) {
@@ -1360,21 +2029,23 @@ final public class HolyGrailSort<T> {
         }
     }
 
-    private static <T> void mergeGroups(T[] array, int left, int middle, int right, T medianKey, Comparator<T> cmp) {
+    private static <T> void mergeGroups(T[] array, int left, int middle, int right, T medianKey,
+                                                T[] extBuffer, int extBufferLen, Comparator<T> cmp) {
         int leftLen = middle - left;
         int rightLen = right - middle;
 
         int mergeStart = left + binarySearchLeft(array, left, leftLen, medianKey, cmp);
         int mergeLen = binarySearchLeft(array, middle, rightLen, medianKey, cmp);
 
-        rotate(array, mergeStart, middle - mergeStart, mergeLen);
+        rotate(array, mergeStart, middle - mergeStart, mergeLen, extBuffer, extBufferLen);
     }
 
     // another novel, elegant, and efficient key sort for Holy Grailsort, specifically for Strategy 2
     // based on lazy stable sorting, this algorithm achieves less than 2n comparisons and O(n log n) moves
     // works based off of the same assumptions as 'sortKeys'
     // designed and implemented by aphitorite
-    private static <T> void lazySortKeys(T[] array, int firstKey, int keyCount, T medianKey, Comparator<T> cmp) {
+    private static <T> void lazySortKeys(T[] array, int firstKey, int keyCount, T medianKey,
+                                                 T[] extBuffer, int extBufferLen, Comparator<T> cmp) {
         int runLen = 8;
         int keysEnd = firstKey + keyCount;
 
@@ -1391,18 +2062,242 @@ final public class HolyGrailSort<T> {
             int mergeEnd = keysEnd - fullMerge;
 
             for(mergeIndex = firstKey; mergeIndex <= mergeEnd; mergeIndex += fullMerge) {
-                mergeGroups(array, mergeIndex, mergeIndex + runLen, mergeIndex + fullMerge, medianKey, cmp);
+                mergeGroups(array, mergeIndex, mergeIndex + runLen, mergeIndex + fullMerge, medianKey,
+                            extBuffer, extBufferLen, cmp);
             }
 
             int leftOver = keysEnd - mergeIndex;
             if(leftOver > runLen) {
-                mergeGroups(array, mergeIndex, mergeIndex + runLen, keysEnd, medianKey, cmp);
+                mergeGroups(array, mergeIndex, mergeIndex + runLen, keysEnd, medianKey, extBuffer, extBufferLen, cmp);
             }
 
             runLen *= 2;
         }
     }
 
+    // array[start, start + leftLen) + extBuffer[0, rightLen)
+    // --> array[start, start + leftLen + rightLen)
+    private static <T> void mergeBackwardsFromBuffer(T[] array, int start, int leftLen, T[] extBuffer, int rightLen,
+                                                                Comparator<T> cmp) {
+        int   left = start + leftLen - 1;
+        int  right = rightLen - 1;
+        int buffer = left  + rightLen;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(right >= 0) {
+            if(left >= start && cmp.compare(array[    left],
+                                            extBuffer[right]) > 0) {
+                array[buffer] = array[left];
+                SortStats.countWrites(1);
+                left--;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                array[buffer] = extBuffer[right];
+                SortStats.countWrites(1);
+                right--;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer--;
+
+            if(leftStreak >= minGallop) {
+                int count = gallopBackwards(array, start, left - start + 1, extBuffer[right], false, cmp);
+                System.arraycopy(array, left - count + 1, array, buffer - count + 1, count);
+                buffer -= count;
+                left   -= count;
+
+                // the buffered item is next, no need to compare it again
+                array[buffer] = extBuffer[right];
+                SortStats.countWrites(count + 1);
+                buffer--;
+                right--;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left >= start) {
+                int count = gallopBackwards(extBuffer, 0, right + 1, array[left], true, cmp);
+                System.arraycopy(extBuffer, right - count + 1, array, buffer - count + 1, count);
+                buffer -= count;
+                right  -= count;
+
+                if(right >= 0) {
+                    array[buffer] = array[left];
+                    SortStats.countWrites(1);
+                    buffer--;
+                    left--;
+                }
+                SortStats.countWrites(count);
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+    }
+
+    // extBuffer[0, leftLen) + array[start + leftLen, start + leftLen + rightLen)
+    // --> array[start, start + leftLen + rightLen)
+    private static <T> void mergeForwardsFromBuffer(T[] array, int start, T[] extBuffer, int leftLen, int rightLen,
+                                                               Comparator<T> cmp) {
+        int   left = 0;
+        int  right = start + leftLen;
+        int    end = right + rightLen;
+        int buffer = start;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left < leftLen) {
+            if(right < end && cmp.compare(extBuffer[left],
+                                          array[    right]) > 0) {
+                array[buffer] = array[right];
+                SortStats.countWrites(1);
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            else {
+                array[buffer] = extBuffer[left];
+                SortStats.countWrites(1);
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            buffer++;
+
+            if(rightStreak >= minGallop && left < leftLen) {
+                int count = gallopForwards(array, right, end - right, extBuffer[left], false, cmp);
+                System.arraycopy(array, right, array, buffer, count);
+                buffer += count;
+                right  += count;
+
+                // the buffered item is next, no need to compare it again
+                array[buffer] = extBuffer[left];
+                SortStats.countWrites(count + 1);
+                buffer++;
+                left++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+            else if(leftStreak >= minGallop && right < end) {
+                int count = gallopForwards(extBuffer, left, leftLen - left, array[right], true, cmp);
+                System.arraycopy(extBuffer, left, array, buffer, count);
+                buffer += count;
+                left   += count;
+
+                if(left < leftLen) {
+                    array[buffer] = array[right];
+                    SortStats.countWrites(1);
+                    buffer++;
+                    right++;
+                }
+                SortStats.countWrites(count);
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+        }
+    }
+
+    // Merges two subarrays without touching the shared scrolling buffer, so that every merge in a level can
+    // run at the same time. If either subarray fits in this sorter's own extBuffer, it's merged straight back
+    // in from there. Otherwise, the extBuffer holds the right subarray's last block while the rest shifts over
+    // to make room for an out-of-place block merge; the parked block is merged back in afterwards.
+    // Keys [firstKey, firstKey + (leftLen + rightLen) / blockLen) must belong to this merge alone.
+    void mergeIndependently(T[] array, int firstKey, int start, int leftLen, int rightLen, int blockLen) {
+        Comparator<T> cmp = this.cmp; // local variable for performance à la Timsort
+        T[] extBuffer = this.extBuffer;
+
+        // subarrays that are already in order don't need to be merged
+        if(cmp.compare(array[start + leftLen - 1], array[start + leftLen]) <= 0) {
+            return;
+        }
+
+        if(rightLen <= this.extBufferLen) {
+            System.arraycopy(array, start + leftLen, extBuffer, 0, rightLen);
+            SortStats.countWrites(rightLen);
+            mergeBackwardsFromBuffer(array, start, leftLen, extBuffer, rightLen, cmp);
+            return;
+        }
+        if(leftLen <= this.extBufferLen) {
+            System.arraycopy(array, start, extBuffer, 0, leftLen);
+            SortStats.countWrites(leftLen);
+            mergeForwardsFromBuffer(array, start, extBuffer, leftLen, rightLen, cmp);
+            return;
+        }
+
+        int headLen = leftLen + rightLen - blockLen;
+        int  offset = start   + blockLen;
+
+        System.arraycopy(array, start + headLen, extBuffer, 0, blockLen);
+        System.arraycopy(array, start, array, offset, headLen);
+        SortStats.countWrites(blockLen + headLen);
+
+        int blockCount = headLen  / blockLen;
+        int leftBlocks = leftLen  / blockLen;
+        T   medianKey  = array[firstKey + leftBlocks];
+
+        this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
+
+        int lastFragment = headLen - (blockCount * blockLen);
+        int lastMergeBlocks = 0;
+        if(lastFragment != 0) {
+            lastMergeBlocks = countLastMergeBlocks(array, offset, blockCount, blockLen, cmp);
+        }
+
+        int smartMerges = blockCount - lastMergeBlocks;
+
+        if(smartMerges == 0) {
+            mergeForwardsOutOfPlace(array, offset, lastMergeBlocks * blockLen, lastFragment, blockLen, cmp);
+        }
+        else {
+            this.mergeBlocksForwardsOutOfPlace(array, firstKey, medianKey, offset, smartMerges, blockLen,
+                                               lastMergeBlocks, lastFragment, cmp);
+        }
+
+        // the parked block's old spot is free space now, just big enough for Control's key sort
+        sortKeys(array, firstKey, medianKey, blockCount, start + headLen, blockLen, cmp);
+
+        mergeBackwardsFromBuffer(array, start, headLen, extBuffer, blockLen, cmp);
+    }
+
+    // Combines sorted runs of 'subarrayLen' with only the keys and this sorter's extBuffer, so there's no
+    // scrolling buffer to sort back in afterwards. Each level's blocks are as short as its keys allow; once
+    // they're too long to fit in the extBuffer, the level is combined with lazy block merges instead.
+    private void combineOutOfPlace(T[] array, int firstKey, int keyCount, int start, int length,
+                                              int subarrayLen, int blockLen) {
+        for(; subarrayLen < length; subarrayLen *= 2) {
+            int mergeLen = 2 * subarrayLen;
+
+            int levelBlockLen = blockLen;
+            while((Math.min(mergeLen, length) / levelBlockLen) >= keyCount) {
+                levelBlockLen *= 2;
+            }
+
+            if(levelBlockLen > this.extBufferLen) {
+                this.lazyCombine(array, firstKey, start, length, subarrayLen, levelBlockLen);
+                continue;
+            }
+
+            for(int mergeIndex = start; mergeIndex < start + length - subarrayLen; mergeIndex += mergeLen) {
+                int rightLen = Math.min(subarrayLen, start + length - mergeIndex - subarrayLen);
+
+                this.mergeIndependently(array, firstKey, mergeIndex, subarrayLen, rightLen, levelBlockLen);
+            }
+        }
+    }
+
     private void combineForwards(T[] array, int firstKey, int start, int length, int subarrayLen, int blockLen) {
         Comparator<T> cmp = this.cmp; // local variable for performance à la Timsort
 
@@ -1427,11 +2322,11 @@ final public class HolyGrailSort<T> {
         for(int mergeIndex = 0; mergeIndex < fullMerges; mergeIndex++) {
             int offset = start + (mergeIndex * mergeLen);
 
-            sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
             this.mergeBlocksForwards(array, firstKey, medianKey, offset, blockCount, blockLen, 0, 0, cmp);
 
             // TODO: Replace with Control's key sort
-            sortKeys(array, firstKey, medianKey, blockCount, offset + mergeLen - blockLen, cmp);
+            sortKeys(array, firstKey, medianKey, blockCount, offset + mergeLen - blockLen, blockLen, cmp);
             //insertSort(array, firstKey, blockCount, cmp);
         }
 
@@ -1440,7 +2335,7 @@ final public class HolyGrailSort<T> {
         if(lastSubarrays != 0) {
             blockCount = lastSubarrays / blockLen;
 
-            sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
 
             int lastFragment = lastSubarrays - (blockCount * blockLen);
             int lastMergeBlocks = 0;
@@ -1460,7 +2355,7 @@ final public class HolyGrailSort<T> {
             }
 
             //TODO: Why is this 'blockCount + 1'???
-            sortKeys(array, firstKey, medianKey, blockCount, offset + lastSubarrays - blockLen, cmp);
+            sortKeys(array, firstKey, medianKey, blockCount, offset + lastSubarrays - blockLen, blockLen, cmp);
             //insertSort(array, firstKey, blockCount, cmp);
 
             if(fullMerges % 2 == 0 && fullMerges != 0) {
@@ -1473,8 +2368,7 @@ final public class HolyGrailSort<T> {
         else {
             if(fastForwardLen == 0) {
                 if(fullMerges % 2 != 0 && fullMerges != 1) {
-                    // TODO: Double-check if this is equivalent to the rewindBuffer version...
-                    swapBlocksBackwards(array, offset - blockLen - mergeLen, offset - blockLen, mergeLen);
+                    swapBlocksBackwards(array, offset - blockLen - mergeLen, offset - mergeLen, mergeLen);
 
                     // TODO: check arguments
                     // rewindBuffer(array, offset - mergeLen - blockLen, offset - blockLen - 1, offset - 1);
@@ -1519,10 +2413,10 @@ final public class HolyGrailSort<T> {
         for(int mergeIndex = 0; mergeIndex < fullMerges; mergeIndex++) {
             int offset = start + (mergeIndex * mergeLen);
 
-            sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
             this.lazyMergeBlocks(array, firstKey, medianKey, offset, blockCount, blockLen, 0, 0, cmp);
 
-            lazySortKeys(array, firstKey, blockCount, medianKey, cmp);
+            lazySortKeys(array, firstKey, blockCount, medianKey, this.extBuffer, this.extBufferLen, cmp);
             //insertSort(array, firstKey, blockCount, cmp);
         }
 
@@ -1531,7 +2425,7 @@ final public class HolyGrailSort<T> {
         if(lastSubarrays != 0) {
             blockCount = lastSubarrays / blockLen;
 
-            sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
 
             int lastFragment = lastSubarrays - (blockCount * blockLen);
             int lastMergeBlocks = 0;
@@ -1544,7 +2438,7 @@ final public class HolyGrailSort<T> {
             if(smartMerges == 0) {
                 int leftLen = lastMergeBlocks * blockLen;
                 // TODO: double-check direction
-                lazyMergeBackwards(array, offset, leftLen, lastFragment, cmp);
+                lazyMergeBackwards(array, offset, leftLen, lastFragment, this.extBuffer, this.extBufferLen, cmp);
             }
             else {
                 this.lazyMergeBlocks(array, firstKey, medianKey, offset, smartMerges, blockLen,
@@ -1552,7 +2446,7 @@ final public class HolyGrailSort<T> {
             }
 
             //TODO: Why is this 'blockCount + 1'???
-            lazySortKeys(array, firstKey, blockCount, medianKey, cmp);
+            lazySortKeys(array, firstKey, blockCount, medianKey, this.extBuffer, this.extBufferLen, cmp);
         }
     }
 
@@ -1575,7 +2469,7 @@ final public class HolyGrailSort<T> {
         if(lastSubarrays != 0) {
             int offset = start + (fullMerges * mergeLen);
 
-            sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, true, cmp);
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, true, cmp);
 
             int lastFragment = lastSubarrays - (blockCount * blockLen);
 
@@ -1585,7 +2479,7 @@ final public class HolyGrailSort<T> {
             //TODO: Why is this 'blockCount + 1'???
             // We believe this '+ 1' is unnecessary and
             // possibly has a *hilarious* origin story
-            sortKeys(array, firstKey, medianKey, blockCount, offset, cmp);
+            sortKeys(array, firstKey, medianKey, blockCount, offset, blockLen, cmp);
             //insertSort(array, firstKey, blockCount, cmp);
         }
 
@@ -1594,148 +2488,178 @@ final public class HolyGrailSort<T> {
         for(int mergeIndex = fullMerges - 1; mergeIndex >= 0; mergeIndex--) {
             int offset = start + (mergeIndex * mergeLen);
 
-            sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, true, cmp);
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, true, cmp);
             this.mergeBlocksBackwards(array, firstKey, medianKey, offset, blockCount, blockLen, 0, cmp);
 
-            sortKeys(array, firstKey, medianKey, blockCount, offset, cmp);
+            sortKeys(array, firstKey, medianKey, blockCount, offset, blockLen, cmp);
             //insertSort(array, firstKey, blockCount, cmp);
         }
     }
 
-    private void combineForwardsOutOfPlace(T[] array, int firstKey, int start, int length, int subarrayLen, int blockLen) {
-        Comparator<T> cmp = this.cmp; // local variable for performance à la Timsort
-
-        int      mergeLen = 2 * subarrayLen;
-        int    fullMerges = length / mergeLen;
-        int    blockCount = mergeLen / blockLen;
-        int lastSubarrays = length - (mergeLen * fullMerges);
-
-        int fastForwardLen = 0;
-        if(lastSubarrays <= subarrayLen) {
-            if(fullMerges % 2 != 0) {
-                fastForwardLen = lastSubarrays;
+    // Runs the merges of one combineBlocks level [low, high) as fork/join tasks. Each merge gets its own slice
+    // of keys (a level never needs more keys in total than the sequential pass does) and each task gets
+    // its own external buffer, so no two merges ever share any scratch space.
+    @SuppressWarnings("serial")
+    final static class CombineTask<T> extends RecursiveAction {
+        private final Comparator<T> cmp;
+        private final T[] array;
+        private final int firstKey, start, length, subarrayLen, blockLen;
+        private final int low, high;
+
+        CombineTask(Comparator<T> cmp, T[] array, int firstKey, int start, int length, int subarrayLen,
+                                       int blockLen, int low, int high) {
+            this.cmp         = cmp;
+            this.array       = array;
+            this.firstKey    = firstKey;
+            this.start       = start;
+            this.length      = length;
+            this.subarrayLen = subarrayLen;
+            this.blockLen    = blockLen;
+            this.low         = low;
+            this.high        = high;
+        }
+
+        @Override
+        protected void compute() {
+            int mergeLen = 2 * this.subarrayLen;
+
+            if(this.high - this.low > 1 && (this.high - this.low) * mergeLen > PARALLEL_TASK_LENGTH) {
+                int middle = (this.low + this.high) >>> 1;
+                invokeAll(new CombineTask<>(this.cmp, this.array, this.firstKey, this.start, this.length,
+                                            this.subarrayLen, this.blockLen, this.low, middle),
+                          new CombineTask<>(this.cmp, this.array, this.firstKey, this.start, this.length,
+                                            this.subarrayLen, this.blockLen, middle, this.high));
+                return;
             }
-            length -= lastSubarrays;
-            lastSubarrays = 0;
-        }
 
-        int leftBlocks = subarrayLen / blockLen;
-        T   medianKey  = array[firstKey + leftBlocks];
+            HolyGrailSort<T> sorter = new HolyGrailSort<>(this.cmp);
+            sorter.extBuffer    = newArray(this.array, this.blockLen);
+            sorter.extBufferLen = this.blockLen;
 
-        for(int mergeIndex = 0; mergeIndex < fullMerges; mergeIndex++) {
-            int offset = start + (mergeIndex * mergeLen);
+            int keysPerMerge = mergeLen / this.blockLen;
 
-            sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
-            this.mergeBlocksForwardsOutOfPlace(array, firstKey, medianKey, offset, blockCount, blockLen, 0, 0, cmp);
+            for(int mergeIndex = this.low; mergeIndex < this.high; mergeIndex++) {
+                int offset   = mergeIndex * mergeLen;
+                int rightLen = Math.min(this.subarrayLen, this.length - offset - this.subarrayLen);
 
-            insertSort(array, firstKey, blockCount, cmp);
+                sorter.mergeIndependently(this.array, this.firstKey + (mergeIndex * keysPerMerge),
+                                          this.start + offset, this.subarrayLen, rightLen, this.blockLen);
+            }
         }
+    }
 
-        int offset = start + (fullMerges * mergeLen);
+    @SuppressWarnings("unchecked")
+    static <T> T[] newArray(T[] array, int length) {
+        return (T[]) Array.newInstance(array.getClass().getComponentType(), length);
+    }
 
-        if(lastSubarrays != 0) {
-            blockCount = lastSubarrays / blockLen;
+    // For arrays that only ever hold items to compare them, so that they can hold items of any type
+    @SuppressWarnings("unchecked")
+    private static <T> T[] newScratchArray(int length) {
+        return (T[]) new Object[length];
+    }
 
-            sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
+    // Runs every level of combineBlocks with at least two independent merges in parallel, leaving the scrolling
+    // buffer where it started. Returns the subarray length the sequential combine should pick up from.
+    private int combineParallel(T[] array, int firstKey, int start, int length, int subarrayLen, int blockLen) {
+        while(true) {
+            int      mergeLen = 2 * subarrayLen;
+            int    fullMerges = length / mergeLen;
+            int lastSubarrays = length - (mergeLen * fullMerges);
 
-            int lastFragment = lastSubarrays - (blockCount * blockLen);
-            int lastMergeBlocks = 0;
-            if (lastFragment != 0) {
-                lastMergeBlocks = countLastMergeBlocks(array, offset, blockCount, blockLen, cmp);
+            if(fullMerges < 2) {
+                return subarrayLen;
             }
 
-            int smartMerges = blockCount - lastMergeBlocks;
-
-            if(smartMerges == 0) {
-                int leftLen = lastMergeBlocks * blockLen;
-                mergeForwardsOutOfPlace(array, offset, leftLen, lastFragment, blockLen, cmp);
-            }
-            else {
-                this.mergeBlocksForwardsOutOfPlace(array, firstKey, medianKey, offset, smartMerges, blockLen,
-                                                   lastMergeBlocks, lastFragment, cmp);
+            int mergeCount = fullMerges;
+            if(lastSubarrays > subarrayLen) {
+                mergeCount++;
             }
 
-            //TODO: Why is this 'blockCount + 1'???
-            insertSort(array, firstKey, blockCount, cmp);
+            this.pool.invoke(new CombineTask<>(this.cmp, array, firstKey, start, length, subarrayLen,
+                                               blockLen, 0, mergeCount));
+            subarrayLen *= 2;
+        }
+    }
 
-            if(fullMerges % 2 == 0 && fullMerges != 0) {
-                System.arraycopy(array, offset - blockLen, array, offset, lastSubarrays);
+    // The longest region, of no more than DEPTH_FIRST_LEN or 'maxLen' items, that takes an odd number
+    // of levels to combine from runs of 'subarrayLen', so that its last level is a forwards one and
+    // leaves the scrolling buffer at its end; 0 if even one level is too long
+    private static int getRegionLen(int subarrayLen, int maxLen) {
+        int regionLen = subarrayLen;
+        int    levels = 0;
 
-                // swapBlocksBackwards(array, offset - blockLen, offset, lastSubarrays);
+        while(regionLen <= DEPTH_FIRST_LEN / 2 && regionLen <= maxLen / 2) {
+            regionLen *= 2;
+            levels++;
+        }
 
-                // lastSubarrays--;
-                // rewindOutOfPlace(array, offset - blockLen, offset + lastSubarrays - blockLen, offset + lastSubarrays);
-            }
+        if(levels % 2 == 0) {
+            regionLen /= 2;
+            levels--;
         }
-        else {
-            if(fastForwardLen == 0) {
-                if(fullMerges % 2 != 0 && fullMerges != 1) {
-                    // TODO: Double-check if this is equivalent to the rewindBuffer version...
-                    System.arraycopy(array, offset - blockLen - mergeLen, array, offset - blockLen, mergeLen);
 
-                    // swapBlocksBackwards(array, offset - blockLen - mergeLen, offset - blockLen, mergeLen);
+        return levels > 0 ? regionLen : 0;
+    }
 
-                    // TODO: check arguments
-                    // rewindOutOfPlace(array, offset - fullMerge - blockLen, offset - blockLen - 1, offset - 1);
-                }
+    // Combines the region of 'length' after the scrolling 'buffer' into one run, then moves the buffer to
+    // its end. That's where its last level has left it already, unless the region is the shorter last one.
+    private void combineRegion(T[] array, int firstKey, int buffer, int length, int subarrayLen, int blockLen) {
+        LocalMerge direction = LocalMerge.FORWARDS;
+
+        while(length > subarrayLen) {
+            if(direction == LocalMerge.FORWARDS) {
+                this.combineForwards(array, firstKey, buffer + blockLen, length, subarrayLen, blockLen);
+                direction = LocalMerge.BACKWARDS;
             }
             else {
-                System.arraycopy(array, offset, array, offset - blockLen, fastForwardLen);
-
-                // swapBlocksForwards(array, offset - blockLen, offset, fastForwardLen);
-
-                // fastForwardOutOfPlace(array, offset - blockLen, offset, offset + fastForwardLen - 1);
+                this.combineBackwards(array, firstKey, buffer, length, subarrayLen, blockLen);
+                direction = LocalMerge.FORWARDS;
             }
+            subarrayLen *= 2;
         }
-    }
-
-    private void combineBackwardsOutOfPlace(T[] array, int firstKey, int start, int length, int subarrayLen, int blockLen) {
-        Comparator<T> cmp = this.cmp; // local variable for performance à la Timsort
 
-        int      mergeLen = 2 * subarrayLen;
-        int    fullMerges = length / mergeLen;
-        int lastSubarrays = length - (mergeLen * fullMerges);
+        int frontLen = direction == LocalMerge.FORWARDS ? 0 : getBufferRewindLen(length, subarrayLen / 2);
+        swapBlocksForwards(array, buffer + frontLen, buffer + frontLen + blockLen, length - frontLen);
+    }
 
-        if(lastSubarrays <= subarrayLen) {
-            length -= lastSubarrays;
-            lastSubarrays = 0;
+    // Combines runs of 'subarrayLen' into runs of 'regionLen' one region at a time, instead of one level
+    // at a time over the whole array. Each region leaves the scrolling buffer right in front of the next
+    // one, and once they're all done, it's moved back to where the last of those levels would have left
+    // it going forwards, so combineBlocks can go on backwards from there.
+    private void combineDepthFirst(T[] array, int firstKey, int buffer, int length, int subarrayLen,
+                                              int regionLen, int blockLen) {
+        for(int offset = 0; offset < length; offset += regionLen) {
+            this.combineRegion(array, firstKey, buffer + offset, Math.min(regionLen, length - offset),
+                               subarrayLen, blockLen);
         }
 
-        int blockCount = lastSubarrays / blockLen;
-        int leftBlocks = subarrayLen / blockLen;
-        T   medianKey  = array[firstKey + leftBlocks];
+        int rewindLen = getBufferRewindLen(length, regionLen / 2);
+        swapBlocksBackwards(array, buffer + rewindLen, buffer + rewindLen + blockLen, length - rewindLen);
+    }
 
-        if(lastSubarrays != 0) {
-            int offset = start + (fullMerges * mergeLen);
+    // combineForwards only fast-forwards the scrolling buffer as far as the next (backwards) level
+    // needs it, so it isn't always at the end of the array; returns how many items are in front of it
+    private static int getBufferRewindLen(int length, int subarrayLen) {
+        int   mergeLen = 2 * subarrayLen;
+        int fullMerges = length / mergeLen;
+        int   leftOver = length - (mergeLen * fullMerges);
 
-            if(lastSubarrays - subarrayLen <= blockLen) {
-                mergeBackwards(array, offset, subarrayLen, lastSubarrays - subarrayLen, blockLen, cmp);
+        if(leftOver > subarrayLen) {
+            if(fullMerges % 2 == 0 && fullMerges != 0) {
+                return fullMerges * mergeLen;
             }
-            else {
-                sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, true, cmp);
-
-                int lastFragment = lastSubarrays - (blockCount * blockLen);
-
-                this.mergeBlocksBackwardsOutOfPlace(array, firstKey, medianKey, offset, blockCount, blockLen,
-                                                    lastFragment, cmp);
-
-                //TODO: Why is this 'blockCount + 1'???
-                // We believe this '+ 1' is unnecessary and
-                // possibly has a *hilarious* origin story
-                insertSort(array, firstKey, blockCount, cmp);
+        }
+        else if(leftOver != 0) {
+            if(fullMerges % 2 == 0) {
+                return fullMerges * mergeLen;
             }
         }
-
-        blockCount = mergeLen / blockLen;
-
-        for(int mergeIndex = fullMerges - 1; mergeIndex >= 0; mergeIndex--) {
-            int offset = start + (mergeIndex * mergeLen);
-
-            sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, true, cmp);
-            this.mergeBlocksBackwardsOutOfPlace(array, firstKey, medianKey, offset, blockCount, blockLen, 0, cmp);
-
-            insertSort(array, firstKey, blockCount, cmp);
+        else if(fullMerges % 2 != 0 && fullMerges != 1) {
+            return (fullMerges - 1) * mergeLen;
         }
+
+        return length;
     }
 
     // 'keys' are on the left side of array. Blocks of length 'subarrayLen' combined. We'll combine them in pairs
@@ -1745,78 +2669,68 @@ final public class HolyGrailSort<T> {
         LocalMerge direction = LocalMerge.FORWARDS;
         subarrayLen *= 2;
 
-        T[] extBuffer = this.extBuffer;
-
         if(idealBuffer) {
-            if(extBuffer == null) {
-                while((length - bufferLen) > subarrayLen) {
-                    if(direction == LocalMerge.FORWARDS) {
-                        this.combineForwards(array, start, start + bufferLen, length - bufferLen,
-                                                    subarrayLen, blockLen);
-                        direction = LocalMerge.BACKWARDS;
-                    }
-                    else {
-                        this.combineBackwards(array, start, start + keyLen, length - bufferLen,
-                                                     subarrayLen, blockLen);
-                        direction = LocalMerge.FORWARDS;
-                    }
-                    subarrayLen *= 2;
-                }
+            if(this.pool != null && length >= PARALLEL_MIN_LENGTH) {
+                subarrayLen = this.combineParallel(array, start, start + bufferLen, length - bufferLen,
+                                                   subarrayLen, blockLen);
             }
             else {
-                while((length - bufferLen) > subarrayLen) {
-                    if(direction == LocalMerge.FORWARDS) {
-                        this.combineForwardsOutOfPlace(array, start, start + bufferLen, length - bufferLen,
-                                                       subarrayLen, blockLen);
-                        direction = LocalMerge.BACKWARDS;
-                    }
-                    else {
-                        this.combineBackwardsOutOfPlace(array, start, start + keyLen, length - bufferLen,
-                                                        subarrayLen, blockLen);
-                        direction = LocalMerge.FORWARDS;
-                    }
-                    subarrayLen *= 2;
+                int regionLen = getRegionLen(subarrayLen, length - bufferLen - 1);
+
+                if(regionLen != 0) {
+                    this.combineDepthFirst(array, start, start + keyLen, length - bufferLen,
+                                           subarrayLen, regionLen, blockLen);
+                    subarrayLen = regionLen;
+                    direction = LocalMerge.BACKWARDS;
                 }
             }
+
+            while((length - bufferLen) > subarrayLen) {
+                if(direction == LocalMerge.FORWARDS) {
+                    this.combineForwards(array, start, start + bufferLen, length - bufferLen,
+                                                subarrayLen, blockLen);
+                    direction = LocalMerge.BACKWARDS;
+                }
+                else {
+                    this.combineBackwards(array, start, start + keyLen, length - bufferLen,
+                                                 subarrayLen, blockLen);
+                    direction = LocalMerge.FORWARDS;
+                }
+                subarrayLen *= 2;
+            }
         }
         else {
             int keyBuffer = keyLen / 2;
             shellSort(array, start, keyBuffer, this.cmp);
 
-            if(extBuffer == null) {
-                while(keyBuffer >= ((2 * subarrayLen) / keyBuffer)) {
-                    if(direction == LocalMerge.FORWARDS) {
-                        this.combineForwards(array, start, start + keyLen, length - keyLen,
-                                                    subarrayLen, keyBuffer);
-                        direction = LocalMerge.BACKWARDS;
-                    }
-                    else {
-                        this.combineBackwards(array, start, start + keyBuffer, length - keyLen,
-                                                     subarrayLen, keyBuffer);
-                        direction = LocalMerge.FORWARDS;
-                    }
-                    subarrayLen *= 2;
-                }
+            // the keys only last until runs of 'keyBuffer * keyBuffer'
+            int regionLen = getRegionLen(subarrayLen, Math.min(length - keyLen - 1, keyBuffer * keyBuffer));
+
+            if(regionLen != 0) {
+                this.combineDepthFirst(array, start, start + keyBuffer, length - keyLen,
+                                       subarrayLen, regionLen, keyBuffer);
+                subarrayLen = regionLen;
+                direction = LocalMerge.BACKWARDS;
             }
-            else {
-                while(keyBuffer >= ((2 * subarrayLen) / keyBuffer)) {
-                    if(direction == LocalMerge.FORWARDS) {
-                        this.combineForwardsOutOfPlace(array, start, start + keyLen, length - keyLen,
-                                                       subarrayLen, keyBuffer);
-                        direction = LocalMerge.BACKWARDS;
-                    }
-                    else {
-                        this.combineBackwardsOutOfPlace(array, start, start + keyBuffer, length - keyLen,
-                                                        subarrayLen, keyBuffer);
-                        direction = LocalMerge.FORWARDS;
-                    }
-                    subarrayLen *= 2;
+
+            while(keyBuffer >= ((2 * subarrayLen) / keyBuffer)) {
+                if(direction == LocalMerge.FORWARDS) {
+                    this.combineForwards(array, start, start + keyLen, length - keyLen,
+                                                subarrayLen, keyBuffer);
+                    direction = LocalMerge.BACKWARDS;
+                }
+                else {
+                    this.combineBackwards(array, start, start + keyBuffer, length - keyLen,
+                                                 subarrayLen, keyBuffer);
+                    direction = LocalMerge.FORWARDS;
                 }
+                subarrayLen *= 2;
             }
 
             if(direction == LocalMerge.BACKWARDS) {
                 int bufferOffset = start + keyBuffer;
-                swapBlocksBackwards(array, bufferOffset, bufferOffset + keyBuffer, length - keyLen);
+                int    rewindLen = getBufferRewindLen(length - keyLen, subarrayLen / 2);
+                swapBlocksBackwards(array, bufferOffset, bufferOffset + keyBuffer, rewindLen);
                 direction = LocalMerge.FORWARDS;
             }
 
@@ -1832,17 +2746,29 @@ final public class HolyGrailSort<T> {
         return direction;
     }
 
+    // Lazily merges the keys at [start, start + keyLen) into the 'rightLen' items after them, 'chunkLen'
+    // keys at a time, the last ones first. All at once, that would cost keyLen^2, which only takes
+    // over with the many keys of a BlockLenPolicy's shorter blocks; each chunk only costs chunkLen^2,
+    // plus however far it goes. SQRT's keys and buffer always fit in one chunk of twice its blocks.
+    private static <T> void lazyMergeKeys(T[] array, int start, int keyLen, int rightLen, int chunkLen, T[] extBuffer, int extBufferLen, Comparator<T> cmp) {
+        for(int offset = ((keyLen - 1) / chunkLen) * chunkLen; offset >= 0; offset -= chunkLen) {
+            int length = Math.min(chunkLen, keyLen - offset);
+            lazyMergeForwards(array, start + offset, length, keyLen - offset - length + rightLen, extBuffer, extBufferLen, cmp);
+        }
+    }
+
     // "Classic" in-place merge sort using binary searches and rotations
     // Forwards rotates the leftLen into the rightLen
     // cost: leftLen^2 + rightLen
-    private static <T> void lazyMergeForwards(T[] array, int start, int leftLen, int rightLen, Comparator<T> cmp) {
+    private static <T> void lazyMergeForwards(T[] array, int start, int leftLen, int rightLen,
+                                                      T[] extBuffer, int extBufferLen, Comparator<T> cmp) {
         int middle = start + leftLen;
 
         while(leftLen != 0) {
             int mergeLen = binarySearchLeft(array, middle, rightLen, array[start], cmp);
 
             if(mergeLen != 0) {
-                rotate(array, start, leftLen, mergeLen);
+                rotate(array, start, leftLen, mergeLen, extBuffer, extBufferLen);
 
                 start    += mergeLen;
                 middle   += mergeLen;
@@ -1853,11 +2779,17 @@ final public class HolyGrailSort<T> {
                 break;
             }
             else {
-                do {
-                    start++;
-                    leftLen--;
-                } while(leftLen != 0 && cmp.compare(array[start ],
-                                                    array[middle]) <= 0);
+                // the first item already stays before the right side; step past the next few that
+                // do too, then gallop past the rest of a longer stretch
+                int count = 1;
+                while(count < leftLen && count < MIN_GALLOP && cmp.compare(array[start + count], array[middle]) <= 0) {
+                    count++;
+                }
+                if(count == MIN_GALLOP) {
+                    count += gallopForwards(array, start + count, leftLen - count, array[middle], true, cmp);
+                }
+                start   += count;
+                leftLen -= count;
             }
         }
     }
@@ -1865,14 +2797,15 @@ final public class HolyGrailSort<T> {
     // "Classic" in-place merge sort using binary searches and rotations
     // Backwards rotates the rigthLen into the leftLen
     // cost: rightLen^2 + leftLen
-    private static <T> void lazyMergeBackwards(T[] array, int start, int leftLen, int rightLen, Comparator<T> cmp) {
+    private static <T> void lazyMergeBackwards(T[] array, int start, int leftLen, int rightLen,
+                                                       T[] extBuffer, int extBufferLen, Comparator<T> cmp) {
         int end = start + leftLen + rightLen - 1;
 
         while(rightLen != 0) {
             int mergeLen = binarySearchRight(array, start, leftLen, array[end], cmp);
 
             if(mergeLen != leftLen) {
-                rotate(array, start + mergeLen, leftLen - mergeLen, rightLen);
+                rotate(array, start + mergeLen, leftLen - mergeLen, rightLen, extBuffer, extBufferLen);
 
                 end     -=  leftLen - mergeLen;
                 leftLen  = mergeLen;
@@ -1883,24 +2816,30 @@ final public class HolyGrailSort<T> {
             }
             else {
                 int middle = start + leftLen;
-                // TODO: Replace with galloping search
-                do {
-                    rightLen--;
-                    end--;
-                } while(rightLen != 0 && cmp.compare(array[middle - 1],
-                                                     array[end       ]) <= 0);
+                // the last item already stays after the left side; step past the next few that
+                // do too, then gallop past the rest of a longer stretch
+                int count = 1;
+                while(count < rightLen && count < MIN_GALLOP && cmp.compare(array[middle - 1], array[end - count]) <= 0) {
+                    count++;
+                }
+                if(count == MIN_GALLOP) {
+                    count += gallopBackwards(array, middle, rightLen - count, array[middle - 1], true, cmp);
+                }
+                rightLen -= count;
+                end      -= count;
             }
         }
     }
 
-    private static <T> void lazyMergeBufferBackwards(T[] array, int start, int leftLen, int rightLen, Comparator<T> cmp) {
+    private static <T> void lazyMergeBufferBackwards(T[] array, int start, int leftLen, int rightLen,
+                                                             T[] extBuffer, int extBufferLen, Comparator<T> cmp) {
         int end = start + leftLen + rightLen - 1;
 
         while(rightLen != 0) {
             int mergeLen = binarySearchLeft(array, start, leftLen, array[end], cmp);
 
             if(mergeLen != leftLen) {
-                rotate(array, start + mergeLen, leftLen - mergeLen, rightLen);
+                rotate(array, start + mergeLen, leftLen - mergeLen, rightLen, extBuffer, extBufferLen);
 
                 end     -=  leftLen - mergeLen;
                 leftLen  = mergeLen;
@@ -1911,46 +2850,397 @@ final public class HolyGrailSort<T> {
             }
             else {
                 int middle = start + leftLen;
-                // TODO: Replace with galloping search
-                do {
-                    rightLen--;
-                    end--;
-                } while(rightLen != 0 && cmp.compare(array[middle - 1],
-                                                     array[end       ]) <= 0);
+                // the last item already stays after the left side; step past the next few that
+                // do too, then gallop past the rest of a longer stretch
+                int count = 1;
+                while(count < rightLen && count < MIN_GALLOP && cmp.compare(array[middle - 1], array[end - count]) < 0) {
+                    count++;
+                }
+                if(count == MIN_GALLOP) {
+                    count += gallopBackwards(array, middle, rightLen - count, array[middle - 1], false, cmp);
+                }
+                rightLen -= count;
+                end      -= count;
             }
         }
     }
 
-    private static <T> void lazyStableSort(T[] array, int start, int length, Comparator<T> cmp) {
-        int i;
-        for(i = 0; i <= length - 16; i += 16) {
-            insertSort(array, i, 16, cmp);
+    // array[start, start + length) --> items less than 'lower' + items less than 'upper' + the rest,
+    // in one pass with extBuffer holding the two upper groups (the last one back to front)
+    private static <T> void partitionOutOfPlace(T[] array, int start, int length, T lower, T upper,
+                                                           T[] extBuffer, Comparator<T> cmp) {
+        int  end = start  + length;
+        int left = start;
+        int  mid = 0;
+        int high = length;
+
+        for(int i = start; i < end; i++) {
+            T item = array[i];
+
+            if(cmp.compare(item, lower) < 0) {
+                array[left] = item;
+                SortStats.countWrites(1);
+                left++;
+            }
+            else if(cmp.compare(item, upper) < 0) {
+                extBuffer[mid] = item;
+                SortStats.countWrites(1);
+                mid++;
+            }
+            else {
+                high--;
+                extBuffer[high] = item;
+                SortStats.countWrites(1);
+            }
         }
-        insertSort(array, i, length - i, cmp);
 
-        for(int mergeLen = 16; mergeLen < length; mergeLen *= 2) {
-            int fullMerge = 2 * mergeLen;
+        System.arraycopy(extBuffer, 0, array, left, mid);
+        SortStats.countWrites(mid);
+        left += mid;
 
-            int mergeIndex;
-            int mergeEnd = length - fullMerge;
+        for(int i = length - 1; i >= high; i--) {
+            array[left] = extBuffer[i];
+            SortStats.countWrites(1);
+            left++;
+        }
+    }
+
+    // Stable sort for arrays with at most three distinct values, using the middle and highest keys as
+    // pivots ('upper' can be the same as 'lower' when there are only two). Both halves are sorted
+    // into three groups, then two rotations interleave them: O(n) comparisons and O(n log n) writes,
+    // or O(n log (n / extBufferLen)) writes with an external buffer.
+    private static <T> void sortFewValues(T[] array, int start, int length, T lower, T upper,
+                                                     T[] extBuffer, int extBufferLen, Comparator<T> cmp) {
+        if(length <= extBufferLen) {
+            partitionOutOfPlace(array, start, length, lower, upper, extBuffer, cmp);
+            return;
+        }
+        if(length <= 16) {
+            insertSort(array, start, length, cmp);
+            return;
+        }
+
+        int  leftLen = length / 2;
+        int rightLen = length - leftLen;
+        int   middle = start  + leftLen;
+
+        sortFewValues(array, start,  leftLen,  lower, upper, extBuffer, extBufferLen, cmp);
+        sortFewValues(array, middle, rightLen, lower, upper, extBuffer, extBufferLen, cmp);
+
+        int  leftLow = binarySearchLeft(array, start,  leftLen,  lower, cmp);
+        int  leftMid = binarySearchLeft(array, start,  leftLen,  upper, cmp) - leftLow;
+        int leftHigh = leftLen - leftLow - leftMid;
+
+        int rightLow = binarySearchLeft(array, middle, rightLen, lower, cmp);
+        int rightMid = binarySearchLeft(array, middle, rightLen, upper, cmp) - rightLow;
+
+        // low(L) + mid(L) + high(L) + low(R) + mid(R) + high(R)
+        // --> low(L) + low(R) + mid(L) + high(L) + mid(R) + high(R)
+        // --> low(L) + low(R) + mid(L) + mid(R) + high(L) + high(R)
+        rotate(array, start + leftLow, leftMid + leftHigh, rightLow, extBuffer, extBufferLen);
+        rotate(array, start + leftLow + rightLow + leftMid, leftHigh, rightMid, extBuffer, extBufferLen);
+    }
+
+    // ADAPTIVE MODE
+
+    // Returns the length of the run at 'start'. Strictly descending runs are reversed in place;
+    // descending runs with equal items are cut short instead, since reversing them isn't stable.
+    private static <T> int countRun(T[] array, int start, int length, Comparator<T> cmp) {
+        int runEnd = start + 1;
+        int    end = start + length;
+
+        if(runEnd == end) {
+            return 1;
+        }
 
-            for(mergeIndex = 0; mergeIndex <= mergeEnd; mergeIndex += fullMerge) {
-                lazyMergeBackwards(array, start + mergeIndex, mergeLen, mergeLen, cmp);
+        if(cmp.compare(array[start], array[runEnd]) > 0) {
+            do {
+                runEnd++;
+            } while(runEnd < end && cmp.compare(array[runEnd - 1], array[runEnd]) >  0);
+
+            reverse(array, start, runEnd - start);
+        }
+        else {
+            do {
+                runEnd++;
+            } while(runEnd < end && cmp.compare(array[runEnd - 1], array[runEnd]) <= 0);
+        }
+
+        return runEnd - start;
+    }
+
+    // Estimates the work needed to merge the natural runs as the sum of 'runLen * log2(length / runLen)',
+    // which is only 0 if the whole array is one run. Descending runs are reversed along the way, and
+    // the estimate is abandoned as soon as it goes over 'maxCost'.
+    private static <T> long estimateMergeCost(T[] array, int start, int length, long maxCost, Comparator<T> cmp) {
+        long cost  = 0;
+        int  index = start;
+        int  end   = start + length;
+
+        while(index < end && cost <= maxCost) {
+            int runLen = countRun(array, index, end - index, cmp);
+
+            cost  += (long) runLen * (31 - Integer.numberOfLeadingZeros(length / runLen));
+            index += runLen;
+        }
+
+        return cost;
+    }
+
+    // array[start - blockLen, start) <=> "scrolling buffer"
+    //
+    // Same as the last merge in combineForwards, but for any 'leftLen' that's a multiple of blockLen
+    // and any 'rightLen' longer than blockLen. Needs 'leftLen + rightLen' / blockLen + 1 keys.
+    private void mergeSubarraysForwards(T[] array, int firstKey, int start, int leftLen, int rightLen, int blockLen) {
+        Comparator<T> cmp = this.cmp; // local variable for performance à la Timsort
+
+        int     length = leftLen + rightLen;
+        int blockCount = length  / blockLen;
+        int leftBlocks = leftLen / blockLen;
+        T   medianKey  = array[firstKey + leftBlocks];
+
+        this.sortBlocks(array, firstKey, start, blockCount, leftBlocks, blockLen, false, cmp);
+
+        int lastFragment = length - (blockCount * blockLen);
+        int lastMergeBlocks = 0;
+        if(lastFragment != 0) {
+            lastMergeBlocks = countLastMergeBlocks(array, start, blockCount, blockLen, cmp);
+        }
+
+        int smartMerges = blockCount - lastMergeBlocks;
+
+        if(smartMerges == 0) {
+            mergeForwards(array, start, lastMergeBlocks * blockLen, lastFragment, blockLen, cmp);
+        }
+        else {
+            this.mergeBlocksForwards(array, firstKey, medianKey, start, smartMerges, blockLen,
+                                     lastMergeBlocks, lastFragment, cmp);
+        }
+
+        sortKeys(array, firstKey, medianKey, blockCount, start + length - blockLen, blockLen, cmp);
+    }
+
+    // Merges the runs at 'runIndex' and 'runIndex + 1' on the stack. The runs are laid out in
+    // order right before the scrolling buffer at 'buffer', and the buffer is scrolled back there
+    // afterwards, past the run at 'runIndex + 2' if there is one.
+    private void mergeRuns(T[] array, int firstKey, int buffer, int[] runLens, int runIndex, int runCount,
+                           int blockLen) {
+        Comparator<T> cmp = this.cmp; // local variable for performance à la Timsort
+
+        int  leftLen = runLens[runIndex];
+        int rightLen = runLens[runIndex + 1];
+        int afterLen = 0;
+
+        if(runIndex + 2 < runCount) {
+            afterLen = runLens[runIndex + 2];
+            runLens[runIndex + 1] = afterLen;
+        }
+        runLens[runIndex] = leftLen + rightLen;
+
+        int length = leftLen + rightLen;
+        int  start = buffer - afterLen - length;
+
+        // Lazy merges don't need the buffer, and are cheap enough when one run is tiny
+        if(rightLen <= length / rightLen) {
+            lazyMergeBackwards(array, start, leftLen, rightLen, this.extBuffer, this.extBufferLen, cmp);
+        }
+        else if(leftLen <= length / leftLen) {
+            lazyMergeForwards(array, start, leftLen, rightLen, this.extBuffer, this.extBufferLen, cmp);
+        }
+        else if(rightLen <= blockLen) {
+            swapBlocksBackwards(array, start, start + blockLen, length + afterLen);
+            mergeForwards(array, start + blockLen, leftLen, rightLen, blockLen, cmp);
+            swapBlocksForwards(array, start + length, start + length + blockLen, afterLen);
+        }
+        else if(leftLen <= blockLen) {
+            swapBlocksBackwards(array, start + length, start + length + blockLen, afterLen);
+            mergeBackwards(array, start, leftLen, rightLen, blockLen, cmp);
+            swapBlocksForwards(array, start, start + blockLen, length + afterLen);
+        }
+        else {
+            // the left run's first few items get merged separately, so that
+            // the rest of it lines up with whole blocks
+            int fragment = leftLen % blockLen;
+            int  offset  = start + fragment;
+
+            swapBlocksBackwards(array, offset, offset + blockLen, length - fragment + afterLen);
+            this.mergeSubarraysForwards(array, firstKey, offset + blockLen, leftLen - fragment, rightLen, blockLen);
+
+            if(fragment == 0 || fragment <= length / fragment) {
+                lazyMergeForwards(array, start, fragment, length - fragment, this.extBuffer, this.extBufferLen, cmp);
+                swapBlocksForwards(array, start + length, start + length + blockLen, afterLen);
             }
+            else {
+                mergeBackwards(array, start, fragment, length - fragment, blockLen, cmp);
+                swapBlocksForwards(array, start, start + blockLen, length + afterLen);
+            }
+        }
+    }
 
-            int leftOver = length - mergeIndex;
-            if(leftOver > mergeLen) {
-                lazyMergeBackwards(array, start + mergeIndex, mergeLen, leftOver - mergeLen, cmp);
+    // Timsort-style merging of natural runs with the keys and scrolling buffer, which starts at
+    // array[start] and scrolls to the end as runs are found. Because every merge is done by
+    // block merges, lazy merges with tiny runs, or buffered merges with short runs, each one
+    // takes linear time, so presorted data costs O(n log runs).
+    private void mergeNaturalRuns(T[] array, int firstKey, int start, int length, int blockLen) {
+        Comparator<T> cmp = this.cmp; // local variable for performance à la Timsort
+
+        int[] runLens  = new int[NATURAL_STACK_LEN];
+        int   runCount = 0;
+
+        int buffer = start;
+        int    end = start + length;
+
+        while(buffer + blockLen < end) {
+            int runStart = buffer + blockLen;
+            int  runLen  = countRun(array, runStart, end - runStart, cmp);
+
+            if(runLen < NATURAL_MIN_RUN) {
+                runLen = Math.min(NATURAL_MIN_RUN, end - runStart);
+                insertSort(array, runStart, runLen, cmp);
             }
+
+            swapBlocksForwards(array, buffer, runStart, runLen);
+            buffer += runLen;
+            runLens[runCount++] = runLen;
+
+            // keep the stack's run lengths shrinking at least as fast as the Fibonacci
+            // sequence, checking the top three runs *and* the one below them as
+            // de Gouw et al. pointed out Timsort has to
+            while(runCount > 1) {
+                int runIndex = runCount - 2;
+
+                if((runIndex > 0 && runLens[runIndex - 1] <= runLens[runIndex] + runLens[runIndex + 1]) ||
+                   (runIndex > 1 && runLens[runIndex - 2] <= runLens[runIndex] + runLens[runIndex - 1])) {
+                    if(runLens[runIndex - 1] < runLens[runIndex + 1]) {
+                        runIndex--;
+                    }
+                }
+                else if(runLens[runIndex] > runLens[runIndex + 1]) {
+                    break;
+                }
+
+                this.mergeRuns(array, firstKey, buffer, runLens, runIndex, runCount, blockLen);
+                runCount--;
+            }
+        }
+
+        while(runCount > 1) {
+            int runIndex = runCount - 2;
+
+            if(runIndex > 0 && runLens[runIndex - 1] < runLens[runIndex + 1]) {
+                runIndex--;
+            }
+
+            this.mergeRuns(array, firstKey, buffer, runLens, runIndex, runCount, blockLen);
+            runCount--;
+        }
+    }
+
+    // Counts the comparisons of a sort with a listener. A class rather than a lambda, because a lambda
+    // calls back into the class it's written in by name, and the copies of HolyGrailSort made by
+    // SpecializedHolyGrailSort are hidden classes, which can't be found by name.
+    final static class CountingComparator<T> implements Comparator<T> {
+        private final Comparator<T> cmp;
+        private final SortStats stats;
+
+        CountingComparator(Comparator<T> cmp, SortStats stats) {
+            this.cmp   = cmp;
+            this.stats = stats;
+        }
+
+        @Override
+        public int compare(T left, T right) {
+            this.stats.comparisons.increment();
+            return this.cmp.compare(left, right);
         }
     }
 
     void commonSort(T[] array, int start, int length, T[] extBuffer, int extBufferLen) {
+        if(this.listener == null) {
+            this.grailCommonSort(array, start, length, extBuffer, extBufferLen);
+            return;
+        }
+
+        SortStats stats = new SortStats(length, extBuffer == null ? 0 : extBufferLen);
+
+        // every comparison, including those made by parallel tasks, goes through the wrapped comparator
+        Comparator<T> cmp = this.cmp;
+        this.cmp   = new CountingComparator<>(cmp, stats);
+        this.stats = stats;
+
+        long writes    = SortStats.WRITES.sum();
+        long rotations = SortStats.ROTATIONS.sum();
+        long startTime = System.nanoTime();
+        try {
+            this.grailCommonSort(array, start, length, extBuffer, extBufferLen);
+        }
+        finally {
+            this.cmp   = cmp;
+            this.stats = null;
+        }
+        stats.totalNanos = System.nanoTime() - startTime;
+
+        if(SortStats.COUNT_MOVES) {
+            stats.writes    = SortStats.WRITES.sum()    - writes;
+            stats.rotations = SortStats.ROTATIONS.sum() - rotations;
+        }
+
+        this.listener.sortFinished(stats);
+    }
+
+    // Adds the time since 'since' to 'phase' of the current sort's stats, if there are any,
+    // and returns the time now for the next phase
+    private long endPhase(SortStats.Phase phase, long since) {
+        if(this.stats == null) return 0;
+
+        long now = System.nanoTime();
+        this.stats.phaseNanos[phase.ordinal()] += now - since;
+        return now;
+    }
+
+    private void grailCommonSort(T[] array, int start, int length, T[] extBuffer, int extBufferLen) {
+        SortStats stats = this.stats;
+        long time = stats != null ? System.nanoTime() : 0;
+
         if(length < 16) {
+            if(stats != null) stats.strategy = SortStats.Strategy.INSERTION_SORT;
             insertSort(array, start, length, this.cmp);
             return;
         }
 
+        boolean naturalRuns = false;
+        if(this.adaptive) {
+            // each level of natural merges costs about three times
+            // as much as a level of building or combining blocks
+            long maxCost = (long) length * (31 - Integer.numberOfLeadingZeros(length)) / 3;
+            long cost    = estimateMergeCost(array, start, length, maxCost, this.cmp);
+
+            // already sorted, or reversed; done!
+            if(cost == 0) {
+                if(stats != null) stats.strategy = SortStats.Strategy.ALREADY_SORTED;
+                return;
+            }
+
+            naturalRuns = cost <= maxCost;
+        }
+
+        if(extBuffer == null) {
+            extBufferLen = 0;
+        }
+        this.extBuffer    = extBuffer;
+        this.extBufferLen = extBufferLen;
+
+        // GRAILSORT + EXTRA SPACE
+        // with room for half the array, a plain merge sort beats collecting keys
+        if(extBufferLen >= length / 2) {
+            if(stats != null) {
+                stats.strategy   = SortStats.Strategy.MERGE_SORT;
+                stats.bufferMode = SortStats.BufferMode.MERGE_SORT;
+            }
+            this.sortIndependently(array, start, length);
+            return;
+        }
+
         // smallest possible O(sqrt n) block length that
         // doesn't include arrays sorted by Insertion Sort
         int blockLen = 4;
@@ -1973,32 +3263,122 @@ final public class HolyGrailSort<T> {
         // throughout the array
         int idealKeys = keyLen + blockLen;
 
-        int keysFound = collectKeys(array, start, length, idealKeys, this.cmp);
+        // an external buffer with room for a block replaces the internal one
+        boolean outOfPlace = extBufferLen >= blockLen;
+        if(outOfPlace) {
+            idealKeys = Math.max(keyLen, 4);
+        }
 
-        boolean idealBuffer;
-        if(keysFound < idealKeys) {
+        // shorter blocks, if the policy wants them for the caches
+        int sqrtLen = blockLen;
+        if(!outOfPlace) {
+            blockLen  = this.blockLenPolicy.getBlockLen(blockLen, BlockLenPolicy.REFERENCE_BYTES);
+            keyLen    = ((length - 1) / blockLen) + 1;
+            idealKeys = keyLen + blockLen;
+        }
 
-            // HOLY GRAIL STRATEGY 3
-            // No block swaps or scrolling buffer; resort to Lazy Stable Sort
-            if(keysFound < 4) {
+        if(stats != null) {
+            stats.bufferMode = outOfPlace        ? SortStats.BufferMode.OUT_OF_PLACE
+                             : extBufferLen != 0 ? SortStats.BufferMode.BUILD_ONLY
+                             :                     SortStats.BufferMode.NONE;
+        }
 
-                // if all items in the array equal each other,
-                // then they're already sorted. done!
-                if(keysFound == 1) return;
+        // With few distinct items, collectKeys would scan the whole array and still not find
+        // 'idealKeys'; with a hint, it stops once it has found that many (see SAMPLING).
+        // Strategy 3 needs to know there are fewer than 4, though, so it never stops before that.
+        int keyTarget = idealKeys;
+        int hint = this.distinctHint;
+        if(hint > 0 && length >= DISTINCT_SAMPLE_MIN_LENGTH) {
+            int maxDistinct = Math.min(hint, DISTINCT_SAMPLE_LEN);
 
-                lazyStableSort(array, start, length, this.cmp);
-                return;
+            if(this.sampleValues == null || this.sampleValues.length < maxDistinct) {
+                this.sampleValues = newScratchArray(maxDistinct);
             }
-            else {
-                // HOLY GRAIL STRATEGY 2
-                // Block swaps with small scrolling buffer and/or lazy merges
-                keyLen = blockLen;
-                blockLen = 0;
-                idealBuffer = false;
-
-                while(keyLen > keysFound) {
-                    keyLen /= 2;
-                }
+
+            // the hint holds up unless the sample has more distinct items than it
+            if(estimateDistinct(array, start, length, maxDistinct, this.sampleValues, this.cmp) != 0) {
+                keyTarget = Math.min(idealKeys, Math.max(hint, 4));
+            }
+
+            // so the sampled items can be collected before the next sort
+            Arrays.fill(this.sampleValues, null);
+        }
+
+        int keysFound = collectKeys(array, start, length, keyTarget, extBuffer, extBufferLen, this.cmp);
+        time = this.endPhase(SortStats.Phase.COLLECT_KEYS, time);
+
+        if(stats != null) stats.keysFound = keysFound;
+
+        // no merge has more blocks than there are keys, so one tree is enough for the whole sort
+        if(keysFound >= TOURNAMENT_BLOCK_COUNT) {
+            this.getTournamentTree(Integer.highestOneBit(keysFound - 1) << 1);
+        }
+
+        // HOLY GRAIL STRATEGY 3
+        // No block swaps or scrolling buffer; partition around the keys instead
+        if(keysFound < 4) {
+
+            if(stats != null) stats.strategy = SortStats.Strategy.STRATEGY_3;
+
+            // if all items in the array equal each other,
+            // then they're already sorted. done!
+            if(keysFound == 1) return;
+
+            // the keys get moved around, so hold onto them first
+            T lower = array[start + 1];
+            T upper = array[start + keysFound - 1];
+
+            sortFewValues(array, start, length, lower, upper, extBuffer, extBufferLen, this.cmp);
+            this.endPhase(SortStats.Phase.COMBINE_BLOCKS, time);
+            return;
+        }
+
+        if(outOfPlace) {
+            // GRAILSORT + EXTRA SPACE
+            // Runs as long as the external buffer can merge on its own, then block merges
+            // that only need the keys, even when there aren't enough of them for Strategy 1
+            int runLen = 1;
+            while(runLen <= extBufferLen) {
+                runLen *= 2;
+            }
+
+            int dataStart = start  + keysFound;
+            int dataLen   = length - keysFound;
+
+            if(stats != null) {
+                stats.strategy = keysFound < idealKeys ? SortStats.Strategy.STRATEGY_2 : SortStats.Strategy.STRATEGY_1;
+            }
+
+            for(int offset = 0; offset < dataLen; offset += runLen) {
+                this.sortIndependently(array, dataStart + offset, Math.min(runLen, dataLen - offset));
+            }
+            time = this.endPhase(SortStats.Phase.BUILD_BLOCKS, time);
+
+            this.combineOutOfPlace(array, start, keysFound, dataStart, dataLen, runLen, blockLen);
+            time = this.endPhase(SortStats.Phase.COMBINE_BLOCKS, time);
+
+            lazyMergeForwards(array, start, keysFound, dataLen, extBuffer, extBufferLen, this.cmp);
+            this.endPhase(SortStats.Phase.FINAL_MERGE, time);
+            return;
+        }
+
+        // too few keys for the policy's shorter blocks; go on with SQRT's, just like without a policy
+        if(keysFound < idealKeys && blockLen != sqrtLen) {
+            blockLen  = sqrtLen;
+            keyLen    = ((length - 1) / blockLen) + 1;
+            idealKeys = keyLen + blockLen;
+        }
+
+        boolean idealBuffer;
+        if(keysFound < idealKeys) {
+            // HOLY GRAIL STRATEGY 2
+            // Block swaps with small scrolling buffer and/or lazy merges
+            keyLen = blockLen;
+            blockLen = 0;
+            idealBuffer = false;
+
+            while(keyLen > keysFound) {
+                keyLen /= 2;
             }
         }
         else {
@@ -2007,6 +3387,12 @@ final public class HolyGrailSort<T> {
             idealBuffer = true;
         }
 
+        if(stats != null) {
+            stats.strategy    = idealBuffer ? SortStats.Strategy.STRATEGY_1 : SortStats.Strategy.STRATEGY_2;
+            stats.naturalRuns = naturalRuns && idealBuffer;
+            stats.blockLen    = blockLen;
+        }
+
         int bufferLen = blockLen + keyLen;
         int subarrayLen;
         if(idealBuffer) {
@@ -2016,31 +3402,140 @@ final public class HolyGrailSort<T> {
             subarrayLen = keyLen;
         }
 
-        if(extBuffer != null) {
-            // GRAILSORT + EXTRA SPACE
-            this.extBuffer    = extBuffer;
-            this.extBufferLen = extBufferLen;
+        LocalMerge direction;
+        if(naturalRuns && idealBuffer) {
+            // the buffer always ends up on the right after merging natural runs
+            this.mergeNaturalRuns(array, start, start + keyLen, length - keyLen, blockLen);
+            direction = LocalMerge.BACKWARDS;
         }
+        else {
+            // a small external buffer still speeds up building blocks
+            this.buildBlocks(array, start + bufferLen, length - bufferLen, subarrayLen, this.cmp);
+            time = this.endPhase(SortStats.Phase.BUILD_BLOCKS, time);
 
-        this.buildBlocks(array, start + bufferLen, length - bufferLen, subarrayLen, this.cmp);
-
-        // TODO: Handle case where external buffer is not large enough for combine blocks
-
-        LocalMerge direction = this.combineBlocks(array, start, length, bufferLen, subarrayLen,
-                                                  blockLen, keyLen, idealBuffer);
-
-        // TODO: Paste external buffer back into array
+            direction = this.combineBlocks(array, start, length, bufferLen, subarrayLen,
+                                           blockLen, keyLen, idealBuffer);
+        }
+        time = this.endPhase(SortStats.Phase.COMBINE_BLOCKS, time);
 
         // This 'if' case will always run during Strategy 2
         if(direction == LocalMerge.FORWARDS) {
             shellSort(array, start + keyLen, blockLen, this.cmp);
-            lazyMergeForwards(array, start, bufferLen, length - bufferLen, this.cmp);
+            lazyMergeKeys(array, start, bufferLen, length - bufferLen, 2 * sqrtLen, extBuffer, extBufferLen, this.cmp);
         }
         else {
-            lazyMergeForwards(array, start, keyLen, length - bufferLen, this.cmp);
+            lazyMergeKeys(array, start, keyLen, length - bufferLen, 2 * sqrtLen, extBuffer, extBufferLen, this.cmp);
 
             shellSort(array, start + length - blockLen, blockLen, this.cmp);
-            lazyMergeBufferBackwards(array, start, length - blockLen, blockLen, this.cmp);
+            lazyMergeBufferBackwards(array, start, length - blockLen, blockLen, extBuffer, extBufferLen, this.cmp);
+        }
+        this.endPhase(SortStats.Phase.FINAL_MERGE, time);
+    }
+
+    // NATURAL ORDER
+    // For Comparable items. Every element class gets a comparator and a copy of this class of its own
+    // (see SpecializedHolyGrailSort), so once the JIT has inlined both, every kernel calls compareTo
+    // directly, without Comparator.naturalOrder() dispatching on the items' class in between.
+
+    public static <T extends Comparable<? super T>> void sort(T[] array, int start, int length) {
+        Comparator<T> cmp = SpecializedHolyGrailSort.naturalOrder(array.getClass().getComponentType());
+        new SpecializedHolyGrailSort<>(cmp).commonSort(array, start, length, null, 0);
+    }
+
+    public static <T extends Comparable<? super T>> void sort(T[] array) {
+        sort(array, 0, array.length);
+    }
+
+    // KEY EXTRACTORS
+    // For comparators that are expensive to call, like ones that parse their items: each key is
+    // computed once and packed together with its item's index into a long, the longs are sorted
+    // instead of the items, and the items are moved into place afterwards. Ties are broken by
+    // index, so these sorts are stable too. Long and double keys too far apart to pack sort
+    // their items' indices instead (see sortByWideKey).
+
+    public static <T> void sortByIntKey(T[] array, int start, int length, ToIntFunction<? super T> key) {
+        long[] packed = new long[length];
+        for(int i = 0; i < length; i++) {
+            packed[i] = ((long) key.applyAsInt(array[start + i]) << 32) | i;
+        }
+
+        new LongHolyGrailSort().commonSort(packed, 0, length, null, 0);
+        applyPackedOrder(array, start, packed);
+    }
+
+    public static <T> void sortByLongKey(T[] array, int start, int length, ToLongFunction<? super T> key) {
+        long[] keys = new long[length];
+        for(int i = 0; i < length; i++) {
+            keys[i] = key.applyAsLong(array[start + i]);
+        }
+
+        sortByWideKey(array, start, keys);
+    }
+
+    public static <T> void sortByDoubleKey(T[] array, int start, int length, ToDoubleFunction<? super T> key) {
+        long[] keys = new long[length];
+        for(int i = 0; i < length; i++) {
+            // flipping the other bits of negative doubles orders them like Double.compare:
+            // -0.0 before 0.0, and NaN after everything
+            long bits = Double.doubleToLongBits(key.applyAsDouble(array[start + i]));
+            keys[i]   = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+
+        sortByWideKey(array, start, keys);
+    }
+
+    // 64-bit keys only leave room for an index if they span less than 2^32: then each is packed as
+    // its distance from the smallest key. Otherwise, the indices are sorted by their keys, like
+    // IndexHolyGrailSort.argsort does for long[] columns, and the items are moved into that order.
+    private static <T> void sortByWideKey(T[] array, int start, long[] keys) {
+        int length = keys.length;
+
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for(int i = 0; i < length; i++) {
+            min = Math.min(min, keys[i]);
+            max = Math.max(max, keys[i]);
+        }
+
+        // as an unsigned long, 'max - min' can't overflow
+        if((max - min) >>> 32 == 0) {
+            // the keys aren't needed after packing, so they're packed over; flipping the sign bit
+            // keeps distances of 2^31 and more after the shorter ones
+            long[] packed = keys;
+            for(int i = 0; i < length; i++) {
+                packed[i] = (((keys[i] - min) << 32) ^ Long.MIN_VALUE) | i;
+            }
+
+            new LongHolyGrailSort().commonSort(packed, 0, length, null, 0);
+            applyPackedOrder(array, start, packed);
+            return;
+        }
+
+        int[] order = new int[length];
+        IndexHolyGrailSort.argsort(order, start, length, (left, right) -> Long.compare(keys[left - start], keys[right - start]));
+        IndexHolyGrailSort.applyOrder(order, start, length, (Object) array);
+    }
+
+    // Moves the item at index 'start + (int) packed[i]' to 'start + i' for every i by following each
+    // cycle of the permutation once; indices that are done get overwritten with themselves
+    private static <T> void applyPackedOrder(T[] array, int start, long[] packed) {
+        for(int i = 0; i < packed.length; i++) {
+            int next = (int) packed[i];
+            if(next == i) continue;
+
+            T   temp = array[start + i];
+            int curr = i;
+
+            while(next != i) {
+                array[start + curr] = array[start + next];
+                packed[curr] = curr;
+
+                curr = next;
+                next = (int) packed[curr];
+            }
+
+            array[start + curr] = temp;
+            packed[curr] = curr;
         }
     }
 }
\ No newline at end of file
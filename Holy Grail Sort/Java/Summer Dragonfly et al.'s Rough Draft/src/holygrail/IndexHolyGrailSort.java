@@ -0,0 +1,2927 @@
+package holygrail;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/*
+ * MIT License
+ *
+ * Copyright (c) 2013 Andrey Astrelin
+ * Copyright (c) 2020-2021 The Holy Grail Sort Project
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// HOLY GRAILSORT FOR JAVA - A faster implementation of in-place, stable,
+//                          worst-case O(n log n) sorting based on Andrey
+//                          Astrelin's Grailsort
+//
+// ** Written and maintained by The Holy Grail Sort Project
+//
+// Primary authors: Summer Dragonfly and Anonymous0726, with the incredible aid
+// from the rest of the team!
+
+/*
+ * The Holy Grail Sort Project
+ * Project Manager:      Summer Dragonfly
+ * Project Contributors: 666666t
+ *                       Anonymous0726
+ *                       aphitorite
+ *                       Control
+ *                       dani_dlg
+ *                       DeveloperSort
+ *                       EilrahcF
+ *                       Enver
+ *                       Gaming32
+ *                       lovebuny
+ *                       Morwenn
+ *                       MP
+ *                       phoenixbound
+ *                       Spex_guy
+ *                       Taihennami
+ *                       thatsOven
+ *                       _fluffyy
+ *
+ * Special thanks to "The Studio" Discord community!
+ */
+
+// Port of HolyGrailSort for arrays of indices, comparing the items they point to through an
+// IndexComparator. Sorting a column's indices gives the order the column would be sorted in without
+// moving, or copying, the column itself, and that order can then be applied to any number of parallel
+// columns (see argsort and applyOrder). argsort is its only entry point, so unlike the other ports it
+// has no pool, adaptive mode, distinct count hint, block length policy or listener. Otherwise, keep it
+// in lockstep with HolyGrailSort.java!
+final public class IndexHolyGrailSort {
+    enum LocalMerge {
+        FORWARDS,
+        BACKWARDS;
+    }
+
+    //Credit to phoenixbound for this clever idea
+    enum Subarray {
+        LEFT,
+        RIGHT;
+    }
+
+    // Compares the items at indices 'left' and 'right' of whatever is being sorted by index
+    public interface IndexComparator {
+        int compare(int left, int right);
+    }
+
+    private IndexComparator cmp;
+
+    final static int STATIC_EXT_BUFFER_LEN = 512;
+
+    // Building and combining blocks level by level would stream the whole array through the caches once
+    // for every doubling of the run length. Instead, both phases first take regions of up to this many
+    // items through every level that fits in them, one region after the other, and only then go on level
+    // by level (see buildInPlace and combineDepthFirst)
+    final static int DEPTH_FIRST_LEN = 1 << 16;
+
+    private int[] extBuffer;
+    private int extBufferLen;
+
+    // sortBlocksByTournament's tree, kept from one sort to the next
+    private int[] tournamentTree;
+
+    private int currBlockLen;
+    private Subarray currBlockOrigin;
+
+    private IndexHolyGrailSort(IndexComparator cmp) {
+        this.cmp = cmp;
+    }
+
+    private static void swap(int[] array, int a, int b) {
+        int temp = array[a];
+        array[a] = array[b];
+        array[b] = temp;
+        SortStats.countWrites(2);
+    }
+
+    private static void swapBlocksForwards(int[] array, int a, int b, int blockLen) {
+        for(int i = 0; i < blockLen; i++) {
+            swap(array, a + i, b + i);
+        }
+    }
+
+    private static void swapBlocksBackwards(int[] array, int a, int b, int blockLen) {
+        for(int i = blockLen - 1; i >= 0; i--) {
+            swap(array, a + i, b + i);
+        }
+    }
+
+    // Shift elements [start + 1, start + length + 1) to the left by 1
+    // and paste copied element at start + length - 1.
+    private static void insertForwards(int[] array, int start, int length) {
+        int item = array[start];
+        System.arraycopy(array, start + 1, array, start, length);
+        array[start + length] = item;
+        SortStats.countWrites(length + 1);
+    }
+
+    // Shift elements [start, start + length) to the right by 1
+    // and paste copied element at start.
+    private static void insertBackwards(int[] array, int start, int length) {
+        int item = array[start + length];
+        System.arraycopy(array, start, array, start + 1, length);
+        array[start] = item;
+        SortStats.countWrites(length + 1);
+    }
+
+    private static void reverse(int[] array, int start, int length) {
+        for(int left = start, right = start + length - 1; left < right; left++, right--) {
+            swap(array, left, right);
+        }
+    }
+
+    // ROTATIONS
+    // Which algorithm is fastest depends on the lengths involved (see RotateBenchmark in the jmh module).
+    // Gries-Mills wins when it only takes one pass: a single item moved with System.arraycopy, or two
+    // equal sides swapped with each other. Everything else is up to twice as fast with the trinity
+    // rotation, which sweeps through the array once. Plain triple reversal never wins (RotateBenchmark
+    // still has it, for comparison).
+    private static void rotate(int[] array, int start, int leftLen, int rightLen) {
+        SortStats.countRotation();
+
+        if(leftLen <= 1 || rightLen <= 1 || leftLen == rightLen) {
+            rotateGriesMills(array, start, leftLen, rightLen);
+        }
+        else {
+            rotateTrinity(array, start, leftLen, rightLen);
+        }
+    }
+
+    // With room in 'extBuffer' for the shorter side, three array copies are faster than any
+    // in-place rotation. Only pass an extBuffer whose contents can be thrown away.
+    private static void rotate(int[] array, int start, int leftLen, int rightLen, int[] extBuffer, int extBufferLen) {
+        if(leftLen <= rightLen) {
+            if(leftLen > 1 && leftLen <= extBufferLen) {
+                SortStats.countRotation();
+
+                System.arraycopy(array, start, extBuffer, 0, leftLen);
+                System.arraycopy(array, start + leftLen, array, start, rightLen);
+                System.arraycopy(extBuffer, 0, array, start + rightLen, leftLen);
+                SortStats.countWrites(2 * leftLen + rightLen);
+                return;
+            }
+        }
+        else if(rightLen > 1 && rightLen <= extBufferLen) {
+            SortStats.countRotation();
+
+            System.arraycopy(array, start + leftLen, extBuffer, 0, rightLen);
+            System.arraycopy(array, start, array, start + rightLen, leftLen);
+            System.arraycopy(extBuffer, 0, array, start, rightLen);
+            SortStats.countWrites(2 * rightLen + leftLen);
+            return;
+        }
+
+        rotate(array, start, leftLen, rightLen);
+    }
+
+    // block swaps, a.k.a. Gries-Mills
+    private static void rotateGriesMills(int[] array, int start, int leftLen, int rightLen) {
+        int minLen = leftLen <= rightLen ? leftLen : rightLen;
+
+        while(minLen > 1) {
+            if(leftLen <= rightLen) {
+                do {
+                  swapBlocksForwards(array, start, start + leftLen, leftLen);
+                  start    += leftLen;
+                  rightLen -= leftLen;
+                } while(leftLen <= rightLen);
+
+                minLen = rightLen;
+            }
+            else {
+                do {
+                  swapBlocksBackwards(array, start + leftLen - rightLen, start + leftLen, rightLen);
+                  leftLen -= rightLen;
+                } while(leftLen > rightLen);
+
+                minLen = leftLen;
+            }
+        }
+
+        if(minLen == 1) {
+            if(leftLen == 1) {
+                insertForwards(array, start, rightLen);
+            }
+            else {
+                insertBackwards(array, start, leftLen);
+            }
+        }
+    }
+
+
+    // conjoined triple reversal, a.k.a. Scandum's trinity rotation: the three reversals of
+    // a triple reversal, but done together in one sweep from both ends of the array, so each item
+    // only moves once
+    private static void rotateTrinity(int[] array, int start, int leftLen, int rightLen) {
+        int a = start;
+        int b = start + leftLen;
+        int c = start + leftLen;
+        int d = start + leftLen + rightLen;
+
+        if(leftLen > rightLen) {
+            for(int loop = rightLen / 2; loop > 0; loop--) {
+                int temp   = array[--b];
+                array[b]   = array[a];
+                array[a++] = array[c];
+                array[c++] = array[--d];
+                array[d]   = temp;
+            }
+            for(int loop = (b - a) / 2; loop > 0; loop--) {
+                int temp   = array[--b];
+                array[b]   = array[a];
+                array[a++] = array[--d];
+                array[d]   = temp;
+            }
+        }
+        else {
+            for(int loop = leftLen / 2; loop > 0; loop--) {
+                int temp   = array[--b];
+                array[b]   = array[a];
+                array[a++] = array[c];
+                array[c++] = array[--d];
+                array[d]   = temp;
+            }
+            for(int loop = (d - c) / 2; loop > 0; loop--) {
+                int temp   = array[c];
+                array[c++] = array[--d];
+                array[d]   = array[a];
+                array[a++] = temp;
+            }
+        }
+        for(int loop = (d - a) / 2; loop > 0; loop--) {
+            int temp   = array[a];
+            array[a++] = array[--d];
+            array[d]   = temp;
+        }
+        SortStats.countWrites(leftLen + rightLen);
+    }
+
+    // unguarded insertion sort
+    // implementation thanks to Control and Scandum!
+    private static void insertSort(int[] array, int start, int length, IndexComparator cmp) {
+        for(int item = 1; item < length; item++) {
+            int temp = array[start + item];
+            int index = start + item;
+
+            if(cmp.compare(array[index - 1], temp) <= 0) {
+                continue;
+            }
+
+            if(cmp.compare(array[start], temp) > 0) {
+                insertBackwards(array, start, item);
+                continue;
+            }
+
+            do {
+                array[index] = array[index - 1];
+                index--;
+                SortStats.countWrites(1);
+            } while(cmp.compare(array[index - 1], temp) > 0);
+
+            array[index] = temp;
+            SortStats.countWrites(1);
+        }
+    }
+
+    private static void shellPass(int[] array, int start, int length, int gap, IndexComparator cmp) {
+        for(int item = gap; item < length; item++) {
+            int temp = array[start + item];
+            int index = start + item;
+
+            if(cmp.compare(array[index - gap], temp) < 0) {
+                continue;
+            }
+
+            do {
+                array[index] = array[index - gap];
+                index -= gap;
+                SortStats.countWrites(1);
+            } while(index - gap > start && cmp.compare(array[index - gap], temp) > 0);
+
+            array[index] = temp;
+            SortStats.countWrites(1);
+        }
+    }
+
+    // implementation of Shellsort using a modified version of
+    // Sedgewick's '82 gap sequence: 1, *3*, 8, 23, 77, 281, ...
+    // [4^k + 3*2^(k-1) + 1] with an added penultimate gap of 3
+    // written by Taihennami
+    private static void shellSort(int[] array, int start, int length, IndexComparator cmp) {
+        int k = 0;
+        while((4 << (2*k)) + (3 << k) + 1 < length) {
+            k++;
+        }
+
+        while(k-- > 0) {
+            int gap = (4 << (2*k)) + (3 << k) + 1;
+            shellPass(array, start, length, gap, cmp);
+        }
+
+        shellPass(array, start, length, 3, cmp);
+        insertSort(array, start, length, cmp);
+    }
+
+    // Technically a "lower bound" search
+    private static int binarySearchLeft(int[] array, int start, int length, int target, IndexComparator cmp) {
+        int  left = 0;
+        int right = length;
+
+        while(left < right) {
+            // equivalent to (left + right) / 2 with added overflow protection
+            int middle = (left + right) >>> 1;
+
+            if(cmp.compare(array[start + middle], target) < 0) {
+                left = middle + 1;
+            }
+            else {
+                right = middle;
+            }
+        }
+        return left;
+    }
+
+    // Technically a "upper bound" search
+    private static int binarySearchRight(int[] array, int start, int length, int target, IndexComparator cmp) {
+        int  left = 0;
+        int right = length;
+
+        while(left < right) {
+            // equivalent to (left + right) / 2 with added overflow protection
+            int middle = (left + right) >>> 1;
+
+            if(cmp.compare(array[start + middle], target) > 0) {
+                right = middle;
+            }
+            else {
+                left = middle + 1;
+            }
+        }
+        return right;
+    }
+
+    // Returns -1 if an equal key is found, cutting off the search early
+    // FUTURE TODO: first & last key best-cases
+    private static int binarySearchExclusive(int[] array, int start, int length, int target, IndexComparator cmp) {
+        int  left = 0;
+        int right = length;
+
+        while(left < right) {
+            // equivalent to (left + right) / 2 with added overflow protection
+            int middle = (left + right) >>> 1;
+
+            int comp = cmp.compare(array[start + middle], target);
+            if(comp == 0) {
+                return -1;
+            }
+            else if(comp < 0) {
+                left = middle + 1;
+            }
+            else {
+                right = middle;
+            }
+        }
+        return left;
+    }
+
+    // GALLOPING
+    // Like Timsort, the merges count how many times in a row each side has won. Once one side wins
+    // 'minGallop' times, the rest of its winning streak is found with an exponential search and moved
+    // all at once, so merging a short run into a long one takes O(log n) comparisons per stretch
+    // instead of one per item. 'minGallop' rises every time galloping doesn't pay off, which keeps
+    // merges of random data from doing extra comparisons, and falls every time it does.
+    final static int MIN_GALLOP = 7;
+
+    private static int adjustMinGallop(int minGallop, int count) {
+        if(count >= MIN_GALLOP) {
+            return minGallop > 1 ? minGallop - 1 : 1;
+        }
+        return minGallop + 1;
+    }
+
+    // Counts the items at the start of array[start, start + length) that are less than 'target',
+    // or less than or equal to it if 'inclusive'
+    private static int gallopForwards(int[] array, int start, int length, int target, boolean inclusive,
+                                                 IndexComparator cmp) {
+        int  low = 0;
+        int high = 1;
+
+        // the count is at least 'low' and less than 'high'
+        while(high <= length) {
+            int order = cmp.compare(array[start + high - 1], target);
+            if(order > 0 || (order == 0 && !inclusive)) break;
+
+            low  = high;
+            high = 2 * high + 1;
+
+            if(high <= 0) high = length + 1; // overflow
+        }
+        high = Math.min(high - 1, length);
+
+        if(inclusive) {
+            return low + binarySearchRight(array, start + low, high - low, target, cmp);
+        }
+        return low + binarySearchLeft(array, start + low, high - low, target, cmp);
+    }
+
+    // Counts the items at the end of array[start, start + length) that are greater than 'target',
+    // or greater than or equal to it if 'inclusive'
+    private static int gallopBackwards(int[] array, int start, int length, int target, boolean inclusive,
+                                                  IndexComparator cmp) {
+        int  end = start + length;
+        int  low = 0;
+        int high = 1;
+
+        while(high <= length) {
+            int order = cmp.compare(array[end - high], target);
+            if(order < 0 || (order == 0 && !inclusive)) break;
+
+            low  = high;
+            high = 2 * high + 1;
+
+            if(high <= 0) high = length + 1; // overflow
+        }
+        high = Math.min(high - 1, length);
+
+        if(inclusive) {
+            return high - binarySearchLeft(array, end - high, high - low, target, cmp);
+        }
+        return high - binarySearchRight(array, end - high, high - low, target, cmp);
+    }
+
+    // cost: 2 * length + idealKeys^2 / 2
+    private static int collectKeys(int[] array, int start, int length, int idealKeys,
+                                            int[] extBuffer, int extBufferLen, IndexComparator cmp) {
+        int keysFound = 1; // by itself, the first item in the array is our first unique key
+        int  firstKey = 0; // the first item in the array is at the first position in the array
+        int   currKey = 1; // the index used for finding potentially unique items ("keys") in the array
+
+        while(currKey < length && keysFound < idealKeys) {
+
+            // Find the location in the key-buffer where our current key can be inserted in sorted order.
+            // If the key at insertPos is equal to currKey, then currKey isn't unique and we move on.
+            int insertPos = binarySearchExclusive(array, start + firstKey, keysFound, array[start + currKey], cmp);
+
+            // As long as our exclusive binary search didn't return -1 (a.k.a. found an equal key),
+            // we're good to go!
+            if(insertPos != -1) {
+                // First, rotate the key-buffer over to currKey's immediate left...
+                // (this helps save a TON of swaps/writes!!!)
+                rotate(array, start + firstKey, keysFound, currKey - (firstKey + keysFound), extBuffer, extBufferLen);
+
+                // Update the new position of firstKey...
+                firstKey = currKey - keysFound;
+
+                // Then, "insertion sort" currKey to its spot in the key-buffer
+                // as long as it needs to be moved!
+                if(keysFound != insertPos) {
+                    insertBackwards(array, start + firstKey + insertPos, keysFound - insertPos);
+                }
+
+                // One step closer to idealKeys.
+                keysFound++;
+            }
+            // Move on and test the next key...
+            currKey++;
+        }
+
+        // Bring however many keys we found back to the beginning of our array,
+        // and return the number of keys collected.
+        rotate(array, start, firstKey, keysFound, extBuffer, extBufferLen);
+        return keysFound;
+    }
+
+    // Much thanks to Spex_guy for this beautiful optimization!!
+    private static void sortPairsWithKeys(int[] array, int start, int length, IndexComparator cmp) {
+        // first, save the keys to stack memory
+        int  firstKey = array[start - 1];
+        int secondKey = array[start - 2];
+
+        // move all the items down two indices, sorting them simultaneously
+        sortPairs(array, start, length, cmp);
+
+        // finally, stamp the saved keys (remember: order doesn't matter!)
+        // to the end of the array
+        array[start + length - 2] =  firstKey;
+        array[start + length - 1] = secondKey;
+        SortStats.countWrites(2);
+    }
+
+    private static void sortPairs(int[] array, int start, int length, IndexComparator cmp) {
+        int index;
+        for(index = 1; index < length; index += 2) {
+            int  left = start + index - 1;
+            int right = start + index;
+
+            if(cmp.compare(array[left], array[right]) > 0) {
+                array[ left - 2] = array[right];
+                array[right - 2] = array[ left];
+            }
+            else {
+                array[ left - 2] = array[ left];
+                array[right - 2] = array[right];
+            }
+            SortStats.countWrites(2);
+        }
+
+        int left = start + index - 1;
+        if(left < start + length) {
+            array[left - 2] = array[left];
+            SortStats.countWrites(1);
+        }
+    }
+
+    // array[buffer .. start - 1] <=> "scrolling buffer"
+    //
+    // "scrolling buffer" + array[start, middle - 1] + array[middle, end - 1]
+    // --> array[buffer, buffer + end - 1] + "scrolling buffer"
+    private static void mergeForwards(int[] array, int start, int leftLen, int rightLen,
+                                                 int bufferOffset, IndexComparator cmp) {
+        int buffer = start  - bufferOffset;
+        int   left = start;
+        int middle = start  +  leftLen;
+        int  right = middle;
+        int    end = middle + rightLen;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(right < end) {
+            if(left == middle || cmp.compare(array[ left],
+                                             array[right]) > 0) {
+                swap(array, buffer, right);
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            else {
+                swap(array, buffer,  left);
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            buffer++;
+
+            if(leftStreak >= minGallop) {
+                int count = gallopForwards(array, left, middle - left, array[right], true, cmp);
+                swapBlocksForwards(array, buffer, left, count);
+                buffer += count;
+                left   += count;
+
+                // the right item is next, no need to compare it again
+                swap(array, buffer, right);
+                buffer++;
+                right++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left < middle) {
+                int count = gallopForwards(array, right, end - right, array[left], false, cmp);
+                swapBlocksForwards(array, buffer, right, count);
+                buffer += count;
+                right  += count;
+
+                if(right < end) {
+                    swap(array, buffer, left);
+                    buffer++;
+                    left++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+
+        if(buffer != left) {
+            swapBlocksForwards(array, buffer, left, middle - left);
+        }
+    }
+
+    // credit to 666666t for thorough bug-checking/fixing
+    private static void mergeBackwards(int[] array, int start, int leftLen, int rightLen,
+                                                  int bufferOffset, IndexComparator cmp) {
+        int    end = start  -  1;
+        int   left = end    +  leftLen;
+        int middle = left;
+        int  right = middle + rightLen;
+        int buffer = right  + bufferOffset;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left > end) {
+            if(right == middle || cmp.compare(array[ left],
+                                              array[right]) > 0) {
+                swap(array, buffer,  left);
+                left--;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                swap(array, buffer, right);
+                right--;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer--;
+
+            if(rightStreak >= minGallop) {
+                int count = gallopBackwards(array, middle + 1, right - middle, array[left], true, cmp);
+                swapBlocksBackwards(array, buffer - count + 1, right - count + 1, count);
+                buffer -= count;
+                right  -= count;
+
+                // the left item is next, no need to compare it again
+                swap(array, buffer, left);
+                buffer--;
+                left--;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+            else if(leftStreak >= minGallop && right > middle) {
+                int count = gallopBackwards(array, end + 1, left - end, array[right], false, cmp);
+                swapBlocksBackwards(array, buffer - count + 1, left - count + 1, count);
+                buffer -= count;
+                left   -= count;
+
+                if(left > end) {
+                    swap(array, buffer, right);
+                    buffer--;
+                    right--;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+        }
+
+        if(right != buffer) {
+            swapBlocksBackwards(array, middle + 1, buffer - (right - middle) + 1, right - middle);
+        }
+    }
+
+    // array[buffer .. start - 1] <=> "free space"
+    //
+    // "free space" + array[start, middle - 1] + array[middle, end - 1]
+    // --> array[buffer, buffer + end - 1] + "free space"
+    //
+    // FUNCTION RENAMED: More consistent with "out-of-place" being at the end
+    private static void mergeForwardsOutOfPlace(int[] array, int start, int leftLen, int rightLen,
+                                                           int bufferOffset, IndexComparator cmp) {
+        int buffer = start  - bufferOffset;
+        int   left = start;
+        int middle = start  +  leftLen;
+        int  right = middle;
+        int    end = middle + rightLen;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(right < end) {
+            if(left == middle || cmp.compare(array[ left],
+                                             array[right]) > 0) {
+                array[buffer] = array[right];
+                SortStats.countWrites(1);
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            else {
+                array[buffer] = array[ left];
+                SortStats.countWrites(1);
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            buffer++;
+
+            if(leftStreak >= minGallop) {
+                int count = gallopForwards(array, left, middle - left, array[right], true, cmp);
+                System.arraycopy(array, left, array, buffer, count);
+                buffer += count;
+                left   += count;
+
+                // the right item is next, no need to compare it again
+                array[buffer] = array[right];
+                SortStats.countWrites(count + 1);
+                buffer++;
+                right++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left < middle) {
+                int count = gallopForwards(array, right, end - right, array[left], false, cmp);
+                System.arraycopy(array, right, array, buffer, count);
+                buffer += count;
+                right  += count;
+
+                if(right < end) {
+                    array[buffer] = array[left];
+                    SortStats.countWrites(1);
+                    buffer++;
+                    left++;
+                }
+                SortStats.countWrites(count);
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+
+        if(buffer != left) {
+            System.arraycopy(array, left, array, buffer, middle - left);
+            SortStats.countWrites(middle - left);
+
+            // swapBlocksForwards(array, buffer, left, middle - left);
+
+            /*
+            while(left < middle) {
+                array[buffer] = array[left];
+                buffer++;
+                left++;
+            }
+            */
+        }
+    }
+
+    // Merges runs of 'currentLen' into runs of 'targetLen', one level at a time, each level moving the array
+    // down by its run length into the buffer in front of it; returns where the array starts afterwards
+    private static int buildLevels(int[] array, int start, int length, int currentLen, int targetLen,
+                                           int[] extBuffer, int extBufferLen, IndexComparator cmp) {
+        for(int mergeLen = currentLen; mergeLen < targetLen; mergeLen *= 2) {
+            int fullMerge = 2 * mergeLen;
+
+            int mergeIndex;
+            int mergeEnd = start + length - fullMerge;
+            int bufferOffset = mergeLen;
+
+            for(mergeIndex = start; mergeIndex <= mergeEnd; mergeIndex += fullMerge) {
+                mergeForwards(array, mergeIndex, mergeLen, mergeLen, bufferOffset, cmp);
+            }
+
+            int leftOver = length - (mergeIndex - start);
+
+            if(leftOver > mergeLen) {
+                mergeForwards(array, mergeIndex, mergeLen, leftOver - mergeLen, bufferOffset, cmp);
+            }
+            else if(leftOver != 0) {
+                rotate(array, mergeIndex - mergeLen, mergeLen, leftOver, extBuffer, extBufferLen);
+            }
+
+            start -= mergeLen;
+        }
+        return start;
+    }
+
+    private static void buildInPlace(int[] array, int start, int length, int currentLen, int bufferLen,
+                                             int[] extBuffer, int extBufferLen, IndexComparator cmp) {
+        // Depth-first: every region of 'regionLen' goes through all of its levels before the next one is
+        // touched. A region only reaches into as much of the buffer in front as its own levels need, and
+        // leaves just as much behind it, right in front of the next region.
+        int regionLen = currentLen;
+        while(regionLen < bufferLen && regionLen <= DEPTH_FIRST_LEN / 2) {
+            regionLen *= 2;
+        }
+
+        if(regionLen > currentLen && regionLen < length) {
+            for(int offset = 0; offset < length; offset += regionLen) {
+                buildLevels(array, start + offset, Math.min(regionLen, length - offset), currentLen, regionLen,
+                            extBuffer, extBufferLen, cmp);
+            }
+            start -= regionLen - currentLen;
+            currentLen = regionLen;
+        }
+
+        start = buildLevels(array, start, length, currentLen, bufferLen, extBuffer, extBufferLen, cmp);
+
+        int fullMerge  = 2 * bufferLen;
+        int lastBlock  = length % fullMerge;
+        int lastOffset = start + length - lastBlock;
+
+        if(lastBlock <= bufferLen) {
+            rotate(array, lastOffset, lastBlock, bufferLen, extBuffer, extBufferLen);
+        }
+        else {
+            mergeBackwards(array, lastOffset, bufferLen, lastBlock - bufferLen, bufferLen, cmp);
+        }
+
+        for(int mergeIndex = lastOffset - fullMerge; mergeIndex >= start; mergeIndex -= fullMerge) {
+            mergeBackwards(array, mergeIndex, bufferLen, bufferLen, bufferLen, cmp);
+        }
+    }
+
+    // build blocks of length 'bufferLen'
+    // input: [start - mergeLen, start - 1] elements are buffer
+    // output: first 'bufferLen' elements are buffer, blocks (2 * bufferLen) and last subblock sorted
+    private void buildBlocks(int[] array, int start, int length, int bufferLen, IndexComparator cmp) {
+        // the longest runs the external buffer can merge on its own
+        int runLen = 1;
+        while((runLen * 2) <= this.extBufferLen && runLen < bufferLen) {
+            runLen *= 2;
+        }
+        runLen *= 2;
+
+        if(runLen > 2) {
+            for(int offset = 0; offset < length; offset += runLen) {
+                this.sortIndependently(array, start + offset, Math.min(runLen, length - offset));
+            }
+
+            if(runLen < 2 * bufferLen) {
+                // scroll 'runLen' items of the buffer past the runs, just like sorting pairs would
+                swapBlocksForwards(array, start - runLen, start, length);
+                buildInPlace(array, start - runLen, length, runLen, bufferLen, this.extBuffer, this.extBufferLen, cmp);
+            }
+        }
+        else {
+            sortPairsWithKeys(array, start, length, cmp);
+            buildInPlace(array, start - 2, length, 2, bufferLen, this.extBuffer, this.extBufferLen, cmp);
+        }
+    }
+
+    // Sorts array[start, start + length) on its own, using at most 'length / 2' items of this sorter's
+    // extBuffer: runs of 16 are insertion sorted, then merged bottom-up by parking each right run
+    // in the buffer and merging it back in from the end
+    private void sortIndependently(int[] array, int start, int length) {
+        IndexComparator cmp = this.cmp; // local variable for performance à la Timsort
+        int[] extBuffer = this.extBuffer;
+
+        int i;
+        for(i = 0; i <= length - 16; i += 16) {
+            insertSort(array, start + i, 16, cmp);
+        }
+        insertSort(array, start + i, length - i, cmp);
+
+        for(int mergeLen = 16; mergeLen < length; mergeLen *= 2) {
+            int fullMerge = 2 * mergeLen;
+
+            for(int mergeIndex = start; mergeIndex < start + length - mergeLen; mergeIndex += fullMerge) {
+                int   middle = mergeIndex + mergeLen;
+                int rightLen = Math.min(mergeLen, start + length - middle);
+
+                // runs that are already in order don't need to be merged
+                if(cmp.compare(array[middle - 1], array[middle]) > 0) {
+                    System.arraycopy(array, middle, extBuffer, 0, rightLen);
+                    SortStats.countWrites(rightLen);
+                    mergeBackwardsFromBuffer(array, mergeIndex, mergeLen, extBuffer, rightLen, cmp);
+                }
+            }
+        }
+    }
+
+    // From this many blocks on, sortBlocks finds each next block with a tournament tree instead of a
+    // linear scan over the scrambled area. The tournament always does fewer comparisons past 64 or
+    // so blocks (about 1/40 as many at 4096), but block swaps take most of the time with cheap
+    // comparisons, and there it only pulls ahead at 128.
+    final static int TOURNAMENT_BLOCK_COUNT = 128;
+
+    // Puts the blocks of two sorted subarrays in order by their first items (or last items, if
+    // 'sortByTail'), swapping the keys in front of them along the way
+    private void sortBlocks(int[] array, int firstKey, int start, int blockCount,
+                                       int leftBlocks, int blockLen,
+                                       boolean sortByTail, IndexComparator cmp) {
+        if(blockCount >= TOURNAMENT_BLOCK_COUNT) {
+            this.sortBlocksByTournament(array, firstKey, start, blockCount, leftBlocks, blockLen, sortByTail, cmp);
+        }
+        else {
+            sortBlocksByScan(array, firstKey, start, blockCount, leftBlocks, blockLen, sortByTail, cmp);
+        }
+    }
+
+    // implementation of "smart block selection" sort
+    // code inspired by Anonymous0726
+    private static void sortBlocksByScan(int[] array, int firstKey, int start, int blockCount,
+                                                    int leftBlocks, int blockLen,
+                                                    boolean sortByTail, IndexComparator cmp) {
+        // this check might be unnecessary with the new "combine blocks" control flow
+		if(blockCount == leftBlocks) return;
+
+        int cmpIndex   = sortByTail ? blockLen - 1 : 0;
+
+        int blockIndex = start;
+        int keyIndex   = firstKey;
+
+        int rightBlock = start    + (leftBlocks * blockLen);
+        int rightKey   = firstKey +  leftBlocks;
+
+        boolean sorted = true;
+
+        // phase one: find first index in left subarray where a smaller right block can be swapped;
+        //            if no swaps occur, the subarrays are already in order
+        do {
+            if(cmp.compare(array[rightBlock + cmpIndex], array[blockIndex + cmpIndex]) < 0) {
+                swapBlocksForwards(array, blockIndex, rightBlock, blockLen);
+                swap(array, keyIndex, rightKey);
+                sorted = false;
+            }
+            blockIndex += blockLen;
+            keyIndex++;
+        } while(sorted && keyIndex < rightKey);
+
+        if(sorted) return;
+
+		// consider anonymous' suggestion
+
+        int lastKey = firstKey + blockCount - 1;
+        int scrambledEnd = rightKey < lastKey ? rightKey + 1 : rightKey;
+
+        // phase two: replace the entire left subarray with blocks in sorted order from the
+        //            scrambled area, keeping track of the rightmost block swapped
+        while(keyIndex < rightKey) {
+            int selectBlock = rightBlock;
+            int selectKey   = rightKey;
+
+            int currBlock   = rightBlock + blockLen;
+
+            for(int currKey = rightKey + 1; currKey <= scrambledEnd; currKey++, currBlock += blockLen) {
+                int compare = cmp.compare(array[currBlock + cmpIndex], array[selectBlock + cmpIndex]);
+                if (compare < 0 || (compare == 0 && cmp.compare(array[  currKey],
+                                                                array[selectKey]) < 0)) {
+                    selectBlock = currBlock;
+                    selectKey   = currKey;
+                }
+            }
+
+            swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+            swap(array, keyIndex, selectKey);
+
+            if(selectKey == scrambledEnd && scrambledEnd < lastKey) scrambledEnd++;
+
+            blockIndex += blockLen;
+            keyIndex++;
+        }
+
+        // phase three: after the left subarray has been sorted, keep finding the next block in order
+        //              from the scrambled area until either (a) the scrambled area runs out of blocks,
+        //              meaning the rest are sorted, or (b) the scrambled area hits the end of the right
+        //              subarray
+        while(scrambledEnd < lastKey) {
+            int selectBlock = blockIndex;
+            int selectKey   = keyIndex;
+
+            int currBlock   = blockIndex + blockLen;
+
+            for(int currKey = keyIndex + 1; currKey <= scrambledEnd; currKey++, currBlock += blockLen) {
+                int compare = cmp.compare(array[currBlock + cmpIndex], array[selectBlock + cmpIndex]);
+                if (compare < 0 || (compare == 0 && cmp.compare(array[  currKey],
+                                                                array[selectKey]) < 0)) {
+                    selectBlock = currBlock;
+                    selectKey   = currKey;
+                }
+            }
+
+            if(selectKey != keyIndex) {
+                swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+                swap(array, keyIndex, selectKey);
+
+                if(selectKey == scrambledEnd) scrambledEnd++;
+            }
+
+            blockIndex += blockLen;
+            keyIndex++;
+
+            if(keyIndex == scrambledEnd) return;
+        }
+
+        // phase four: sort the remainder blocks from the scrambled area
+        do {
+            int selectBlock = blockIndex;
+            int selectKey   = keyIndex;
+
+            int currBlock   = blockIndex + blockLen;
+
+            for(int currKey = keyIndex + 1; currKey <= lastKey; currKey++, currBlock += blockLen) {
+                int compare = cmp.compare(array[currBlock + cmpIndex], array[selectBlock + cmpIndex]);
+                if (compare < 0 || (compare == 0 && cmp.compare(array[  currKey],
+                                                                array[selectKey]) < 0)) {
+                    selectBlock = currBlock;
+                    selectKey   = currKey;
+                }
+            }
+
+            if(selectKey != keyIndex) {
+                swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+                swap(array, keyIndex, selectKey);
+            }
+
+            blockIndex += blockLen;
+            keyIndex++;
+        } while(keyIndex < lastKey);
+
+        /*
+        for(int blockIndex = 0, keyIndex = 0; keyIndex < keyCount; blockIndex += blockLen, keyIndex++) {
+            int selectBlock = blockIndex;
+            int selectKey   = keyIndex;
+
+            for(int currBlock = selectBlock + blockLen, currKey = keyIndex + 1;
+                    currKey < keyCount; currBlock += blockLen, currKey++) {
+
+                int compare = cmp.compare(array[start + currBlock], array[start + selectBlock]);
+                if (compare < 0 || (compare == 0 && cmp.compare(array[firstKey +   currKey],
+                                                                array[firstKey + selectKey]) < 0)) {
+                    selectBlock = currBlock;
+                    selectKey   = currKey;
+                }
+            }
+
+            if(selectKey != keyIndex) {
+                swapBlocksForwards(array, start + blockIndex, start + selectBlock, blockLen);
+                swap(array, firstKey + keyIndex, firstKey + selectKey);
+            }
+        }
+        */
+    }
+
+    // Of two blocks given by their keys, returns the one that comes first, comparing keys on ties
+    // so that equal blocks keep their order; -1 stands for no block
+    private static int tournamentWinner(int[] array, int firstKey, int start, int blockLen, int cmpIndex,
+                                                   int leftKey, int rightKey, IndexComparator cmp) {
+        if(leftKey  == -1) return rightKey;
+        if(rightKey == -1) return  leftKey;
+
+        int compare = cmp.compare(array[start + ((leftKey  - firstKey) * blockLen) + cmpIndex],
+                                  array[start + ((rightKey - firstKey) * blockLen) + cmpIndex]);
+        if(compare < 0 || (compare == 0 && cmp.compare(array[leftKey], array[rightKey]) < 0)) {
+            return leftKey;
+        }
+        return rightKey;
+    }
+
+    // Sets the tree's leaf for 'key' to 'leaf' (either the same key, or -1 to take it out of the
+    // running) and replays the matches on its way up to the root
+    private static void updateTournament(int[] array, int firstKey, int start, int blockLen, int cmpIndex,
+                                                   int[] tree, int leaves, int firstLeafKey, int key, int leaf,
+                                                   IndexComparator cmp) {
+        int node = leaves + (key - firstLeafKey);
+        tree[node] = leaf;
+
+        for(node /= 2; node > 0; node /= 2) {
+            tree[node] = tournamentWinner(array, firstKey, start, blockLen, cmpIndex,
+                                          tree[2 * node], tree[2 * node + 1], cmp);
+        }
+    }
+
+    // A tournament tree with room for 'leaves' leaves; it's only allocated when the one kept from
+    // earlier sorts is too small
+    private int[] getTournamentTree(int leaves) {
+        if(this.tournamentTree == null || this.tournamentTree.length < 2 * leaves) {
+            this.tournamentTree = new int[2 * leaves];
+        }
+        return this.tournamentTree;
+    }
+
+    // Same result as sortBlocksByScan, but the scrambled area is kept in a tournament tree -- an
+    // int[] of twice as many nodes as there are right blocks -- so each block is found in
+    // O(log blockCount) comparisons instead of one per block in the scrambled area. The tree holds
+    // the keys of the blocks that are in the running, which are also where those blocks are.
+    private void sortBlocksByTournament(int[] array, int firstKey, int start, int blockCount,
+                                                   int leftBlocks, int blockLen,
+                                                   boolean sortByTail, IndexComparator cmp) {
+        if(blockCount == leftBlocks) return;
+
+        int cmpIndex   = sortByTail ? blockLen - 1 : 0;
+
+        int blockIndex = start;
+        int keyIndex   = firstKey;
+
+        int rightBlock = start    + (leftBlocks * blockLen);
+        int rightKey   = firstKey +  leftBlocks;
+
+        boolean sorted = true;
+
+        // phase one: same as sortBlocksByScan
+        do {
+            if(cmp.compare(array[rightBlock + cmpIndex], array[blockIndex + cmpIndex]) < 0) {
+                swapBlocksForwards(array, blockIndex, rightBlock, blockLen);
+                swap(array, keyIndex, rightKey);
+                sorted = false;
+            }
+            blockIndex += blockLen;
+            keyIndex++;
+        } while(sorted && keyIndex < rightKey);
+
+        if(sorted) return;
+
+        int lastKey = firstKey + blockCount - 1;
+        int scrambledEnd = rightKey < lastKey ? rightKey + 1 : rightKey;
+
+        // one leaf for every right block; the tree starts with the scrambled area in the running
+        int leaves = 1;
+        while(leaves < blockCount - leftBlocks) {
+            leaves *= 2;
+        }
+        int[] tree = this.getTournamentTree(leaves);
+        Arrays.fill(tree, 0, 2 * leaves, -1);
+
+        for(int key = rightKey; key <= scrambledEnd; key++) {
+            tree[leaves + (key - rightKey)] = key;
+        }
+        for(int node = leaves - 1; node > 0; node--) {
+            tree[node] = tournamentWinner(array, firstKey, start, blockLen, cmpIndex,
+                                          tree[2 * node], tree[2 * node + 1], cmp);
+        }
+
+        // phase two: the winner replaces the next left block, which takes the winner's place in
+        //            the scrambled area
+        while(keyIndex < rightKey) {
+            int selectKey   = tree[1];
+            int selectBlock = start + ((selectKey - firstKey) * blockLen);
+
+            swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+            swap(array, keyIndex, selectKey);
+
+            updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                             selectKey, selectKey, cmp);
+
+            if(selectKey == scrambledEnd && scrambledEnd < lastKey) {
+                scrambledEnd++;
+                updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                                 scrambledEnd, scrambledEnd, cmp);
+            }
+
+            blockIndex += blockLen;
+            keyIndex++;
+        }
+
+        // phases three and four: the winner trades places with the next block, which then leaves
+        //                        the running, until the rest of the blocks are in order
+        while(keyIndex < lastKey) {
+            int selectKey = tree[1];
+
+            if(selectKey != keyIndex) {
+                int selectBlock = start + ((selectKey - firstKey) * blockLen);
+
+                swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+                swap(array, keyIndex, selectKey);
+
+                updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                                 selectKey, selectKey, cmp);
+
+                if(selectKey == scrambledEnd && scrambledEnd < lastKey) {
+                    scrambledEnd++;
+                    updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                                     scrambledEnd, scrambledEnd, cmp);
+                }
+            }
+            updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                             keyIndex, -1, cmp);
+
+            blockIndex += blockLen;
+            keyIndex++;
+
+            if(keyIndex == scrambledEnd && scrambledEnd < lastKey) return;
+        }
+    }
+
+    /*
+    private static void rewindBuffer(int[] array, int start, int leftBlock, int buffer) {
+        while(leftBlock >= start) {
+            swap(array, buffer, leftBlock);
+            leftBlock--;
+            buffer--;
+        }
+    }
+
+    private static void rewindOutOfPlace(int[] array, int start, int leftBlock, int buffer) {
+        while(leftBlock >= start) {
+            array[buffer] = array[leftBlock];
+            leftBlock--;
+            buffer--;
+        }
+    }
+
+    private static void fastForwardBuffer(int[] array, int buffer, int rightBlock, int end) {
+        while(rightBlock <= end) {
+            swap(array, rightBlock, buffer);
+            rightBlock++;
+            buffer++;
+        }
+    }
+
+    private static void fastForwardOutOfPlace(int[] array, int buffer, int rightBlock, int end) {
+        while(rightBlock <= end) {
+            array[buffer] = array[rightBlock];
+            rightBlock++;
+            buffer++;
+        }
+    }
+
+    // Swaps Grailsort's "scrolling buffer" from the right side of the array all the way back to 'start'.
+    // Costs O(n) swaps.
+    private static void resetBuffer(int[] array, int start, int length, int bufferOffset) {
+        int buffer =  start + length - 1;
+        int  index = buffer - bufferOffset;
+
+        while(buffer >= start) {
+            swap(array, index, buffer);
+            buffer--;
+            index--;
+        }
+    }
+    */
+
+    private static Subarray getSubarray(int[] array, int currentKey, int medianKey, IndexComparator cmp) {
+        if(cmp.compare(array[currentKey], medianKey) < 0) {
+            return Subarray.LEFT;
+        }
+        else {
+            return Subarray.RIGHT;
+        }
+    }
+
+    // FUNCTION RE-RENAMED: last/final left blocks are used to calculate the length of the final merge
+    private static int countLastMergeBlocks(int[] array, int offset, int blockCount, int blockLen,
+                                                       IndexComparator cmp) {
+        int blocksToMerge = 0;
+
+        int lastRightFrag = offset + (blockCount * blockLen);
+        int prevLeftBlock = lastRightFrag - blockLen;
+
+        while(blocksToMerge < blockCount && cmp.compare(array[lastRightFrag],
+                                                        array[prevLeftBlock]) < 0) {
+            blocksToMerge++;
+            prevLeftBlock -= blockLen;
+        }
+
+        return blocksToMerge;
+    }
+
+    private void localMergeForwards(int[] array, int start, int leftLen, Subarray leftOrigin, int rightLen,
+                                                          int bufferOffset, IndexComparator cmp) {
+        int buffer = start  - bufferOffset;
+        int   left = start;
+        int middle = start  +  leftLen;
+        int  right = middle;
+        int    end = middle + rightLen;
+
+        // equal items are taken from whichever subarray came from the left
+        boolean leftFirst = leftOrigin == Subarray.LEFT;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left < middle && right < end) {
+            if(leftFirst ? cmp.compare(array[left], array[right]) <= 0
+                         : cmp.compare(array[left], array[right]) <  0) {
+                swap(array, buffer, left);
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                swap(array, buffer, right);
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer++;
+
+            if(leftStreak >= minGallop && right < end) {
+                int count = gallopForwards(array, left, middle - left, array[right], leftFirst, cmp);
+                swapBlocksForwards(array, buffer, left, count);
+                buffer += count;
+                left   += count;
+
+                if(left < middle) {
+                    // the right item is next, no need to compare it again
+                    swap(array, buffer, right);
+                    buffer++;
+                    right++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left < middle) {
+                int count = gallopForwards(array, right, end - right, array[left], !leftFirst, cmp);
+                swapBlocksForwards(array, buffer, right, count);
+                buffer += count;
+                right  += count;
+
+                if(right < end) {
+                    swap(array, buffer, left);
+                    buffer++;
+                    left++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+
+        if(left < middle) {
+            int leftFrag = middle - left;
+            swapBlocksBackwards(array, left, end - leftFrag, leftFrag);
+            this.currBlockLen = leftFrag;
+
+            //this.currBlockLen = leftFrag;
+            //rewindBuffer(array, left, middle - 1, end - 1);
+        }
+        else {
+            this.currBlockLen = end - right;
+            if(leftOrigin == Subarray.LEFT) {
+                this.currBlockOrigin = Subarray.RIGHT;
+            }
+            else {
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+        }
+    }
+
+    private void localMergeBackwards(int[] array, int start, int leftLen, int rightLen, Subarray rightOrigin,
+                                                           int bufferOffset, IndexComparator cmp) {
+        int    end = start  -  1;
+        int   left = end    +  leftLen;
+        int middle = left;
+        int  right = middle + rightLen;
+        int buffer = right  + bufferOffset;
+
+        // equal items are taken from whichever subarray came from the right
+        boolean rightFirst = rightOrigin == Subarray.RIGHT;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left > end && right > middle) {
+            if(rightFirst ? cmp.compare(array[left], array[right]) >  0
+                          : cmp.compare(array[left], array[right]) >= 0) {
+                swap(array, buffer, left);
+                left--;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                swap(array, buffer, right);
+                right--;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer--;
+
+            if(leftStreak >= minGallop && right > middle) {
+                int count = gallopBackwards(array, end + 1, left - end, array[right], !rightFirst, cmp);
+                swapBlocksBackwards(array, buffer - count + 1, left - count + 1, count);
+                buffer -= count;
+                left   -= count;
+
+                if(left > end) {
+                    // the right item is next, no need to compare it again
+                    swap(array, buffer, right);
+                    buffer--;
+                    right--;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left > end) {
+                int count = gallopBackwards(array, middle + 1, right - middle, array[left], rightFirst, cmp);
+                swapBlocksBackwards(array, buffer - count + 1, right - count + 1, count);
+                buffer -= count;
+                right  -= count;
+
+                if(right > middle) {
+                    swap(array, buffer, left);
+                    buffer--;
+                    left--;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+
+        if(right > middle) {
+            int rightFrag = right - middle;
+            swapBlocksForwards(array, end + 1, middle + 1, rightFrag);
+            this.currBlockLen = rightFrag;
+
+            //this.currBlockLen = right - middle;
+            //fastForwardBuffer(array, end + 1, middle + 1, right);
+        }
+        else {
+            this.currBlockLen = left - end;
+            if(rightOrigin == Subarray.RIGHT) {
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+            else {
+                this.currBlockOrigin = Subarray.RIGHT;
+            }
+        }
+    }
+
+    private void localLazyMerge(int[] array, int start, int leftLen, Subarray leftOrigin, int rightLen,
+                                           IndexComparator cmp) {
+        int middle = start + leftLen;
+
+        if(leftOrigin == Subarray.LEFT) {
+            if(cmp.compare(array[middle - 1], array[middle]) >  0) {
+                while(leftLen != 0) {
+                    int mergeLen = binarySearchLeft(array, middle, rightLen, array[start], cmp);
+
+                    if(mergeLen != 0) {
+                        rotate(array, start, leftLen, mergeLen, this.extBuffer, this.extBufferLen);
+
+                        start    += mergeLen;
+                        middle   += mergeLen;
+                        rightLen -= mergeLen;
+                    }
+
+                    if(rightLen == 0) {
+                        this.currBlockLen = leftLen;
+                        return;
+                    }
+                    else {
+                        do {
+                            start++;
+                            leftLen--;
+                        } while(leftLen != 0 && cmp.compare(array[start ],
+                                                            array[middle]) <= 0);
+                    }
+                }
+            }
+        }
+        else {
+            if(cmp.compare(array[middle - 1], array[middle]) >= 0) {
+                while(leftLen != 0) {
+                    int mergeLen = binarySearchRight(array, middle, rightLen, array[start], cmp);
+
+                    if(mergeLen != 0) {
+                        rotate(array, start, leftLen, mergeLen, this.extBuffer, this.extBufferLen);
+
+                        start    += mergeLen;
+                        middle   += mergeLen;
+                        rightLen -= mergeLen;
+                    }
+
+                    if(rightLen == 0) {
+                        this.currBlockLen = leftLen;
+                        return;
+                    }
+                    else {
+                        do {
+                            start++;
+                            leftLen--;
+                        } while(leftLen != 0 && cmp.compare(array[start ],
+                                                            array[middle]) < 0);
+                    }
+                }
+            }
+        }
+
+        this.currBlockLen = rightLen;
+        if(leftOrigin == Subarray.LEFT) {
+            this.currBlockOrigin = Subarray.RIGHT;
+        }
+        else {
+            this.currBlockOrigin = Subarray.LEFT;
+        }
+    }
+
+    // FUNCTION RENAMED: more consistent with other "out-of-place" merges
+    private void localMergeForwardsOutOfPlace(int[] array, int start, int leftLen, Subarray leftOrigin,
+                                                                    int rightLen, int bufferOffset,
+                                                                    IndexComparator cmp) {
+        int buffer = start  - bufferOffset;
+        int   left = start;
+        int middle = start  +  leftLen;
+        int  right = middle;
+        int    end = middle + rightLen;
+
+        // equal items are taken from whichever subarray came from the left
+        boolean leftFirst = leftOrigin == Subarray.LEFT;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left < middle && right < end) {
+            if(leftFirst ? cmp.compare(array[left], array[right]) <= 0
+                         : cmp.compare(array[left], array[right]) <  0) {
+                array[buffer] = array[left];
+                SortStats.countWrites(1);
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                array[buffer] = array[right];
+                SortStats.countWrites(1);
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer++;
+
+            if(leftStreak >= minGallop && right < end) {
+                int count = gallopForwards(array, left, middle - left, array[right], leftFirst, cmp);
+                System.arraycopy(array, left, array, buffer, count);
+                SortStats.countWrites(count);
+                buffer += count;
+                left   += count;
+
+                if(left < middle) {
+                    // the right item is next, no need to compare it again
+                    array[buffer] = array[right];
+                    SortStats.countWrites(1);
+                    buffer++;
+                    right++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left < middle) {
+                int count = gallopForwards(array, right, end - right, array[left], !leftFirst, cmp);
+                System.arraycopy(array, right, array, buffer, count);
+                SortStats.countWrites(count);
+                buffer += count;
+                right  += count;
+
+                if(right < end) {
+                    array[buffer] = array[left];
+                    SortStats.countWrites(1);
+                    buffer++;
+                    left++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+
+        if(left < middle) {
+            int leftFrag = middle - left;
+            System.arraycopy(array, left, array, end - leftFrag, leftFrag);
+            SortStats.countWrites(leftFrag);
+            this.currBlockLen = leftFrag;
+
+            //int leftFrag = middle - left;
+            //swapBlocksBackwards(array, left, end - leftFrag, leftFrag);
+            //this.currBlockLen = leftFrag;
+
+            //this.currBlockLen = middle - left;
+            //rewindOutOfPlace(array, left, middle - 1, end - 1);
+        }
+        else {
+            this.currBlockLen = end - right;
+            if(leftOrigin == Subarray.LEFT) {
+                this.currBlockOrigin = Subarray.RIGHT;
+            }
+            else {
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+        }
+    }
+
+    private void mergeBlocksForwards(int[] array, int firstKey, int medianKey, int start,
+                                                int blockCount, int blockLen, int lastMergeBlocks,
+                                                int lastLen, IndexComparator cmp) {
+        int buffer;
+
+        int currBlock;
+        int nextBlock = start + blockLen;
+
+        this.currBlockLen    = blockLen;
+        this.currBlockOrigin = getSubarray(array, firstKey, medianKey, cmp);
+
+        for(int keyIndex = 1; keyIndex < blockCount; keyIndex++, nextBlock += blockLen) {
+            Subarray nextBlockOrigin;
+
+            currBlock       = nextBlock - this.currBlockLen;
+            nextBlockOrigin = getSubarray(array, firstKey + keyIndex, medianKey, cmp);
+
+            if(nextBlockOrigin != this.currBlockOrigin) {
+                this.localMergeForwards(array, currBlock, this.currBlockLen, this.currBlockOrigin,
+                                        blockLen, blockLen, cmp);
+            }
+            else {
+                buffer = currBlock - blockLen;
+                swapBlocksForwards(array, buffer, currBlock, this.currBlockLen);
+                this.currBlockLen = blockLen;
+            }
+        }
+
+        currBlock = nextBlock - this.currBlockLen;
+        buffer    = currBlock - blockLen;
+
+        if(lastLen != 0) {
+            if(this.currBlockOrigin == Subarray.RIGHT) {
+                swapBlocksForwards(array, buffer, currBlock, this.currBlockLen);
+
+                currBlock            = nextBlock;
+                this.currBlockLen    = blockLen * lastMergeBlocks;
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+            else {
+                this.currBlockLen += blockLen * lastMergeBlocks;
+            }
+
+            mergeForwards(array, currBlock, this.currBlockLen, lastLen, blockLen, cmp);
+        }
+        else {
+            swapBlocksForwards(array, buffer, currBlock, this.currBlockLen);
+        }
+    }
+
+    private void lazyMergeBlocks(int[] array, int firstKey, int medianKey, int start,
+                                            int blockCount, int blockLen, int lastMergeBlocks,
+                                            int lastLen, IndexComparator cmp) {
+        int currBlock;
+        int nextBlock = start + blockLen;
+
+        this.currBlockLen    = blockLen;
+        this.currBlockOrigin = getSubarray(array, firstKey, medianKey, cmp);
+
+        for(int keyIndex = 1; keyIndex < blockCount; keyIndex++, nextBlock += blockLen) {
+            Subarray nextBlockOrigin;
+
+            currBlock       = nextBlock - this.currBlockLen;
+            nextBlockOrigin = getSubarray(array, firstKey + keyIndex, medianKey, cmp);
+
+            if(nextBlockOrigin != this.currBlockOrigin) {
+                this.localLazyMerge(array, currBlock, this.currBlockLen, this.currBlockOrigin,
+                                    blockLen, cmp);
+            }
+            else {
+                this.currBlockLen = blockLen;
+            }
+        }
+
+        currBlock = nextBlock - this.currBlockLen;
+
+        if(lastLen != 0) {
+            if(this.currBlockOrigin == Subarray.RIGHT) {
+                currBlock            = nextBlock;
+                this.currBlockLen    = blockLen * lastMergeBlocks;
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+            else {
+                this.currBlockLen += blockLen * lastMergeBlocks;
+            }
+
+            // TODO: double-check direction
+            lazyMergeBackwards(array, currBlock, this.currBlockLen, lastLen, this.extBuffer, this.extBufferLen, cmp);
+        }
+    }
+
+    private void mergeBlocksBackwards(int[] array, int firstKey, int medianKey, int start,
+                                      int blockCount, int blockLen, int lastLen, IndexComparator cmp) {
+
+        int nextBlock = start + (blockCount * blockLen) - 1;
+        int buffer    = nextBlock + lastLen + blockLen;
+
+        // The last fragment (lastLen) came from the right subarray,
+        // although it may be empty (lastLen == 0)
+        this.currBlockLen    = lastLen;
+        this.currBlockOrigin = Subarray.RIGHT;
+
+        for(int keyIndex = blockCount - 1; keyIndex >= 0; keyIndex--, nextBlock -= blockLen) {
+            Subarray nextBlockOrigin = getSubarray(array, firstKey + keyIndex, medianKey, cmp);
+
+            if(nextBlockOrigin != this.currBlockOrigin) {
+                // TODO: buffer length *should* always be equivalent to:
+                // right block length -  forwards merge blocks
+                //  left block length - backwards merge blocks
+                // TODO: redo this jank solution with the `start` offset
+                this.localMergeBackwards(array, nextBlock - blockLen + 1, blockLen, this.currBlockLen, this.currBlockOrigin,
+                                         blockLen, cmp);
+            }
+            else {
+                buffer = nextBlock + blockLen + 1;
+                swapBlocksBackwards(array, nextBlock + 1, buffer, this.currBlockLen);
+                this.currBlockLen = blockLen;
+            }
+        }
+
+        swapBlocksBackwards(array, start, start + blockLen, this.currBlockLen);
+    }
+
+    private void mergeBlocksForwardsOutOfPlace(int[] array, int firstKey, int medianKey, int start,
+                                                          int blockCount, int blockLen, int lastMergeBlocks,
+                                                          int lastLen, IndexComparator cmp) {
+        int buffer;
+
+        int currBlock;
+        int nextBlock = start + blockLen;
+
+        this.currBlockLen    = blockLen;
+        this.currBlockOrigin = getSubarray(array, firstKey, medianKey, cmp);
+
+        for(int keyIndex = 1; keyIndex < blockCount; keyIndex++, nextBlock += blockLen) {
+            Subarray nextBlockOrigin;
+
+            currBlock       = nextBlock - this.currBlockLen;
+            nextBlockOrigin = getSubarray(array, firstKey + keyIndex, medianKey, cmp);
+
+            if(nextBlockOrigin != this.currBlockOrigin) {
+                this.localMergeForwardsOutOfPlace(array, currBlock, this.currBlockLen, this.currBlockOrigin,
+                                                  blockLen, blockLen, cmp);
+            }
+            else {
+                buffer = currBlock - blockLen;
+
+                System.arraycopy(array, currBlock, array, buffer, this.currBlockLen);
+                SortStats.countWrites(this.currBlockLen);
+                this.currBlockLen = blockLen;
+
+            }
+        }
+
+        currBlock = nextBlock - this.currBlockLen;
+        buffer    = currBlock - blockLen;
+
+        if(lastLen != 0) {
+            if(this.currBlockOrigin == Subarray.RIGHT) {
+                System.arraycopy(array, currBlock, array, buffer, this.currBlockLen);
+                SortStats.countWrites(this.currBlockLen);
+
+                currBlock            = nextBlock;
+                this.currBlockLen    = blockLen * lastMergeBlocks;
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+            else {
+                this.currBlockLen += blockLen * lastMergeBlocks;
+            }
+
+            mergeForwardsOutOfPlace(array, currBlock, this.currBlockLen, lastLen, blockLen, cmp);
+        }
+        else {
+            System.arraycopy(array, currBlock, array, buffer, this.currBlockLen);
+            SortStats.countWrites(this.currBlockLen);
+        }
+    }
+
+    // a novel, elegant, and incredibly efficient 1.5 sqrt n key sort, courtesy of Control
+    // only works if a) median key is known and b) keys were permutated by "sortBlocks"
+    // (keys < medianKey and >= medianKey are each in relative sorted order, resembling a final radix sort pass)
+    private static void sortKeys(int[] array, int firstKey, int medianKey, int keyCount, int buffer, IndexComparator cmp) {
+        int currKey     = firstKey;
+        int keysEnd     = firstKey + keyCount;
+        int bufferSwaps = 0;
+
+        while(currKey < keysEnd) {
+            if(cmp.compare(array[currKey], medianKey) < 0) {
+                if(bufferSwaps != 0) {
+                    swap(array, currKey, currKey - bufferSwaps);
+                }
+            }
+            else {
+                swap(array, currKey, buffer + bufferSwaps);
+                bufferSwaps++;
+            }
+            currKey++;
+        }
+
+        swapBlocksBackwards(array, currKey - bufferSwaps, buffer, bufferSwaps);
+    }
+
+    private static void groupKeys(int[] array, int left, int right, int medianKey, IndexComparator cmp) {
+        while(left < right && cmp.compare(array[left], medianKey) < 0) left++;
+
+        for(int i = left + 1; i < right; i++) {
+            if(cmp.compare(array[i], medianKey) < 0) {
+                insertBackwards(array, left, i - left);
+                left++;
+            }
+        }
+    }
+
+    private static void mergeGroups(int[] array, int left, int middle, int right, int medianKey,
+                                            int[] extBuffer, int extBufferLen, IndexComparator cmp) {
+        int leftLen = middle - left;
+        int rightLen = right - middle;
+
+        int mergeStart = left + binarySearchLeft(array, left, leftLen, medianKey, cmp);
+        int mergeLen = binarySearchLeft(array, middle, rightLen, medianKey, cmp);
+
+        rotate(array, mergeStart, middle - mergeStart, mergeLen, extBuffer, extBufferLen);
+    }
+
+    // another novel, elegant, and efficient key sort for Holy Grailsort, specifically for Strategy 2
+    // based on lazy stable sorting, this algorithm achieves less than 2n comparisons and O(n log n) moves
+    // works based off of the same assumptions as 'sortKeys'
+    // designed and implemented by aphitorite
+    private static void lazySortKeys(int[] array, int firstKey, int keyCount, int medianKey,
+                                             int[] extBuffer, int extBufferLen, IndexComparator cmp) {
+        int runLen = 8;
+        int keysEnd = firstKey + keyCount;
+
+        int i;
+        for(i = firstKey; i + runLen < keysEnd; i += runLen) {
+            groupKeys(array, i, i + runLen, medianKey, cmp);
+        }
+        groupKeys(array, i, keysEnd, medianKey, cmp);
+
+        while(runLen < keyCount) {
+            int fullMerge = 2 * runLen;
+
+            int mergeIndex;
+            int mergeEnd = keysEnd - fullMerge;
+
+            for(mergeIndex = firstKey; mergeIndex <= mergeEnd; mergeIndex += fullMerge) {
+                mergeGroups(array, mergeIndex, mergeIndex + runLen, mergeIndex + fullMerge, medianKey,
+                            extBuffer, extBufferLen, cmp);
+            }
+
+            int leftOver = keysEnd - mergeIndex;
+            if(leftOver > runLen) {
+                mergeGroups(array, mergeIndex, mergeIndex + runLen, keysEnd, medianKey, extBuffer, extBufferLen, cmp);
+            }
+
+            runLen *= 2;
+        }
+    }
+
+    // array[start, start + leftLen) + extBuffer[0, rightLen)
+    // --> array[start, start + leftLen + rightLen)
+    private static void mergeBackwardsFromBuffer(int[] array, int start, int leftLen, int[] extBuffer, int rightLen,
+                                                            IndexComparator cmp) {
+        int   left = start + leftLen - 1;
+        int  right = rightLen - 1;
+        int buffer = left  + rightLen;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(right >= 0) {
+            if(left >= start && cmp.compare(array[    left],
+                                            extBuffer[right]) > 0) {
+                array[buffer] = array[left];
+                SortStats.countWrites(1);
+                left--;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                array[buffer] = extBuffer[right];
+                SortStats.countWrites(1);
+                right--;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer--;
+
+            if(leftStreak >= minGallop) {
+                int count = gallopBackwards(array, start, left - start + 1, extBuffer[right], false, cmp);
+                System.arraycopy(array, left - count + 1, array, buffer - count + 1, count);
+                buffer -= count;
+                left   -= count;
+
+                // the buffered item is next, no need to compare it again
+                array[buffer] = extBuffer[right];
+                SortStats.countWrites(count + 1);
+                buffer--;
+                right--;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left >= start) {
+                int count = gallopBackwards(extBuffer, 0, right + 1, array[left], true, cmp);
+                System.arraycopy(extBuffer, right - count + 1, array, buffer - count + 1, count);
+                buffer -= count;
+                right  -= count;
+
+                if(right >= 0) {
+                    array[buffer] = array[left];
+                    SortStats.countWrites(1);
+                    buffer--;
+                    left--;
+                }
+                SortStats.countWrites(count);
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+    }
+
+    // extBuffer[0, leftLen) + array[start + leftLen, start + leftLen + rightLen)
+    // --> array[start, start + leftLen + rightLen)
+    private static void mergeForwardsFromBuffer(int[] array, int start, int[] extBuffer, int leftLen, int rightLen,
+                                                           IndexComparator cmp) {
+        int   left = 0;
+        int  right = start + leftLen;
+        int    end = right + rightLen;
+        int buffer = start;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left < leftLen) {
+            if(right < end && cmp.compare(extBuffer[left],
+                                          array[    right]) > 0) {
+                array[buffer] = array[right];
+                SortStats.countWrites(1);
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            else {
+                array[buffer] = extBuffer[left];
+                SortStats.countWrites(1);
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            buffer++;
+
+            if(rightStreak >= minGallop && left < leftLen) {
+                int count = gallopForwards(array, right, end - right, extBuffer[left], false, cmp);
+                System.arraycopy(array, right, array, buffer, count);
+                buffer += count;
+                right  += count;
+
+                // the buffered item is next, no need to compare it again
+                array[buffer] = extBuffer[left];
+                SortStats.countWrites(count + 1);
+                buffer++;
+                left++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+            else if(leftStreak >= minGallop && right < end) {
+                int count = gallopForwards(extBuffer, left, leftLen - left, array[right], true, cmp);
+                System.arraycopy(extBuffer, left, array, buffer, count);
+                buffer += count;
+                left   += count;
+
+                if(left < leftLen) {
+                    array[buffer] = array[right];
+                    SortStats.countWrites(1);
+                    buffer++;
+                    right++;
+                }
+                SortStats.countWrites(count);
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+        }
+    }
+
+    // Merges two subarrays without touching the shared scrolling buffer, so that every merge in a level can
+    // run at the same time. If either subarray fits in this sorter's own extBuffer, it's merged straight back
+    // in from there. Otherwise, the extBuffer holds the right subarray's last block while the rest shifts over
+    // to make room for an out-of-place block merge; the parked block is merged back in afterwards.
+    // Keys [firstKey, firstKey + (leftLen + rightLen) / blockLen) must belong to this merge alone.
+    private void mergeIndependently(int[] array, int firstKey, int start, int leftLen, int rightLen, int blockLen) {
+        IndexComparator cmp = this.cmp; // local variable for performance à la Timsort
+        int[] extBuffer = this.extBuffer;
+
+        // subarrays that are already in order don't need to be merged
+        if(cmp.compare(array[start + leftLen - 1], array[start + leftLen]) <= 0) {
+            return;
+        }
+
+        if(rightLen <= this.extBufferLen) {
+            System.arraycopy(array, start + leftLen, extBuffer, 0, rightLen);
+            SortStats.countWrites(rightLen);
+            mergeBackwardsFromBuffer(array, start, leftLen, extBuffer, rightLen, cmp);
+            return;
+        }
+        if(leftLen <= this.extBufferLen) {
+            System.arraycopy(array, start, extBuffer, 0, leftLen);
+            SortStats.countWrites(leftLen);
+            mergeForwardsFromBuffer(array, start, extBuffer, leftLen, rightLen, cmp);
+            return;
+        }
+
+        int headLen = leftLen + rightLen - blockLen;
+        int  offset = start   + blockLen;
+
+        System.arraycopy(array, start + headLen, extBuffer, 0, blockLen);
+        System.arraycopy(array, start, array, offset, headLen);
+        SortStats.countWrites(blockLen + headLen);
+
+        int blockCount = headLen  / blockLen;
+        int leftBlocks = leftLen  / blockLen;
+        int medianKey  = array[firstKey + leftBlocks];
+
+        this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
+
+        int lastFragment = headLen - (blockCount * blockLen);
+        int lastMergeBlocks = 0;
+        if(lastFragment != 0) {
+            lastMergeBlocks = countLastMergeBlocks(array, offset, blockCount, blockLen, cmp);
+        }
+
+        int smartMerges = blockCount - lastMergeBlocks;
+
+        if(smartMerges == 0) {
+            mergeForwardsOutOfPlace(array, offset, lastMergeBlocks * blockLen, lastFragment, blockLen, cmp);
+        }
+        else {
+            this.mergeBlocksForwardsOutOfPlace(array, firstKey, medianKey, offset, smartMerges, blockLen,
+                                               lastMergeBlocks, lastFragment, cmp);
+        }
+
+        // the parked block's old spot is free space now, just big enough for Control's key sort
+        sortKeys(array, firstKey, medianKey, blockCount, start + headLen, cmp);
+
+        mergeBackwardsFromBuffer(array, start, headLen, extBuffer, blockLen, cmp);
+    }
+
+    // Combines sorted runs of 'subarrayLen' with only the keys and this sorter's extBuffer, so there's no
+    // scrolling buffer to sort back in afterwards. Each level's blocks are as short as its keys allow; once
+    // they're too long to fit in the extBuffer, the level is combined with lazy block merges instead.
+    private void combineOutOfPlace(int[] array, int firstKey, int keyCount, int start, int length,
+                                              int subarrayLen, int blockLen) {
+        for(; subarrayLen < length; subarrayLen *= 2) {
+            int mergeLen = 2 * subarrayLen;
+
+            int levelBlockLen = blockLen;
+            while((Math.min(mergeLen, length) / levelBlockLen) >= keyCount) {
+                levelBlockLen *= 2;
+            }
+
+            if(levelBlockLen > this.extBufferLen) {
+                this.lazyCombine(array, firstKey, start, length, subarrayLen, levelBlockLen);
+                continue;
+            }
+
+            for(int mergeIndex = start; mergeIndex < start + length - subarrayLen; mergeIndex += mergeLen) {
+                int rightLen = Math.min(subarrayLen, start + length - mergeIndex - subarrayLen);
+
+                this.mergeIndependently(array, firstKey, mergeIndex, subarrayLen, rightLen, levelBlockLen);
+            }
+        }
+    }
+
+    private void combineForwards(int[] array, int firstKey, int start, int length, int subarrayLen, int blockLen) {
+        IndexComparator cmp = this.cmp; // local variable for performance à la Timsort
+
+        // TODO: Double-check names and change all other functions to match
+        int      mergeLen = 2 * subarrayLen;
+        int    fullMerges = length / mergeLen;
+        int    blockCount = mergeLen / blockLen;
+        int lastSubarrays = length - (mergeLen * fullMerges);
+
+        int fastForwardLen = 0;
+        if(lastSubarrays <= subarrayLen) {
+            if(fullMerges % 2 != 0) {
+                fastForwardLen = lastSubarrays;
+            }
+            length -= lastSubarrays;
+            lastSubarrays = 0;
+        }
+
+        int leftBlocks = subarrayLen / blockLen;
+        int medianKey  = array[firstKey + leftBlocks];
+
+        for(int mergeIndex = 0; mergeIndex < fullMerges; mergeIndex++) {
+            int offset = start + (mergeIndex * mergeLen);
+
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
+            this.mergeBlocksForwards(array, firstKey, medianKey, offset, blockCount, blockLen, 0, 0, cmp);
+
+            // TODO: Replace with Control's key sort
+            sortKeys(array, firstKey, medianKey, blockCount, offset + mergeLen - blockLen, cmp);
+            //insertSort(array, firstKey, blockCount, cmp);
+        }
+
+        int offset = start + (fullMerges * mergeLen);
+
+        if(lastSubarrays != 0) {
+            blockCount = lastSubarrays / blockLen;
+
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
+
+            int lastFragment = lastSubarrays - (blockCount * blockLen);
+            int lastMergeBlocks = 0;
+            if (lastFragment != 0) {
+                lastMergeBlocks = countLastMergeBlocks(array, offset, blockCount, blockLen, cmp);
+            }
+
+            int smartMerges = blockCount - lastMergeBlocks;
+
+            if(smartMerges == 0) {
+                int leftLen = lastMergeBlocks * blockLen;
+                mergeForwards(array, offset, leftLen, lastFragment, blockLen, cmp);
+            }
+            else {
+                this.mergeBlocksForwards(array, firstKey, medianKey, offset, smartMerges, blockLen,
+                                         lastMergeBlocks, lastFragment, cmp);
+            }
+
+            //TODO: Why is this 'blockCount + 1'???
+            sortKeys(array, firstKey, medianKey, blockCount, offset + lastSubarrays - blockLen, cmp);
+            //insertSort(array, firstKey, blockCount, cmp);
+
+            if(fullMerges % 2 == 0 && fullMerges != 0) {
+                swapBlocksBackwards(array, offset - blockLen, offset, lastSubarrays);
+
+                // lastSubarrays--;
+                // rewindBuffer(array, offset - blockLen, offset + lastSubarrays - blockLen, offset + lastSubarrays);
+            }
+        }
+        else {
+            if(fastForwardLen == 0) {
+                if(fullMerges % 2 != 0 && fullMerges != 1) {
+                    swapBlocksBackwards(array, offset - blockLen - mergeLen, offset - mergeLen, mergeLen);
+
+                    // TODO: check arguments
+                    // rewindBuffer(array, offset - mergeLen - blockLen, offset - blockLen - 1, offset - 1);
+                }
+            }
+            else {
+                swapBlocksForwards(array, offset - blockLen, offset, fastForwardLen);
+                // fastForwardBuffer(array, offset - blockLen, offset, offset + fastForwardLen - 1);
+            }
+        }
+
+        /*
+        // ceil division of length over subarrayLen mod 4
+        int mergeCount    = ((length - 1) / subarrayLen) + 1;
+        int bufferControl = mergeCount % 4;
+
+        if(bufferControl == 1) {
+
+        }
+        else if(bufferControl == 2) {
+
+        }
+        */
+    }
+
+    private void lazyCombine(int[] array, int firstKey, int start, int length, int subarrayLen, int blockLen) {
+        IndexComparator cmp = this.cmp; // local variable for performance à la Timsort
+
+        int      mergeLen = 2 * subarrayLen;
+        int    fullMerges = length / mergeLen;
+        int    blockCount = mergeLen / blockLen;
+        int lastSubarrays = length - (mergeLen * fullMerges);
+
+        if(lastSubarrays <= subarrayLen) {
+            length -= lastSubarrays;
+            lastSubarrays = 0;
+        }
+
+        int leftBlocks = subarrayLen / blockLen;
+        int medianKey  = array[firstKey + leftBlocks];
+
+        for(int mergeIndex = 0; mergeIndex < fullMerges; mergeIndex++) {
+            int offset = start + (mergeIndex * mergeLen);
+
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
+            this.lazyMergeBlocks(array, firstKey, medianKey, offset, blockCount, blockLen, 0, 0, cmp);
+
+            lazySortKeys(array, firstKey, blockCount, medianKey, this.extBuffer, this.extBufferLen, cmp);
+            //insertSort(array, firstKey, blockCount, cmp);
+        }
+
+        int offset = start + (fullMerges * mergeLen);
+
+        if(lastSubarrays != 0) {
+            blockCount = lastSubarrays / blockLen;
+
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false, cmp);
+
+            int lastFragment = lastSubarrays - (blockCount * blockLen);
+            int lastMergeBlocks = 0;
+            if (lastFragment != 0) {
+                lastMergeBlocks = countLastMergeBlocks(array, offset, blockCount, blockLen, cmp);
+            }
+
+            int smartMerges = blockCount - lastMergeBlocks;
+
+            if(smartMerges == 0) {
+                int leftLen = lastMergeBlocks * blockLen;
+                // TODO: double-check direction
+                lazyMergeBackwards(array, offset, leftLen, lastFragment, this.extBuffer, this.extBufferLen, cmp);
+            }
+            else {
+                this.lazyMergeBlocks(array, firstKey, medianKey, offset, smartMerges, blockLen,
+                                     lastMergeBlocks, lastFragment, cmp);
+            }
+
+            //TODO: Why is this 'blockCount + 1'???
+            lazySortKeys(array, firstKey, blockCount, medianKey, this.extBuffer, this.extBufferLen, cmp);
+        }
+    }
+
+    private void combineBackwards(int[] array, int firstKey, int start, int length, int subarrayLen, int blockLen) {
+        IndexComparator cmp = this.cmp; // local variable for performance à la Timsort
+
+        int      mergeLen = 2 * subarrayLen;
+        int    fullMerges = length / mergeLen;
+        int lastSubarrays = length - (mergeLen * fullMerges);
+
+        if(lastSubarrays <= subarrayLen) {
+            length -= lastSubarrays;
+            lastSubarrays = 0;
+        }
+
+        int blockCount = lastSubarrays / blockLen;
+        int leftBlocks = subarrayLen / blockLen;
+        int medianKey  = array[firstKey + leftBlocks];
+
+        if(lastSubarrays != 0) {
+            int offset = start + (fullMerges * mergeLen);
+
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, true, cmp);
+
+            int lastFragment = lastSubarrays - (blockCount * blockLen);
+
+            this.mergeBlocksBackwards(array, firstKey, medianKey, offset, blockCount, blockLen,
+                                      lastFragment, cmp);
+
+            //TODO: Why is this 'blockCount + 1'???
+            // We believe this '+ 1' is unnecessary and
+            // possibly has a *hilarious* origin story
+            sortKeys(array, firstKey, medianKey, blockCount, offset, cmp);
+            //insertSort(array, firstKey, blockCount, cmp);
+        }
+
+        blockCount = mergeLen / blockLen;
+
+        for(int mergeIndex = fullMerges - 1; mergeIndex >= 0; mergeIndex--) {
+            int offset = start + (mergeIndex * mergeLen);
+
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, true, cmp);
+            this.mergeBlocksBackwards(array, firstKey, medianKey, offset, blockCount, blockLen, 0, cmp);
+
+            sortKeys(array, firstKey, medianKey, blockCount, offset, cmp);
+            //insertSort(array, firstKey, blockCount, cmp);
+        }
+    }
+
+    // The longest region, of no more than DEPTH_FIRST_LEN or 'maxLen' items, that takes an odd number
+    // of levels to combine from runs of 'subarrayLen', so that its last level is a forwards one and
+    // leaves the scrolling buffer at its end; 0 if even one level is too long
+    private static int getRegionLen(int subarrayLen, int maxLen) {
+        int regionLen = subarrayLen;
+        int    levels = 0;
+
+        while(regionLen <= DEPTH_FIRST_LEN / 2 && regionLen <= maxLen / 2) {
+            regionLen *= 2;
+            levels++;
+        }
+
+        if(levels % 2 == 0) {
+            regionLen /= 2;
+            levels--;
+        }
+
+        return levels > 0 ? regionLen : 0;
+    }
+
+    // Combines the region of 'length' after the scrolling 'buffer' into one run, then moves the buffer to
+    // its end. That's where its last level has left it already, unless the region is the shorter last one.
+    private void combineRegion(int[] array, int firstKey, int buffer, int length, int subarrayLen, int blockLen) {
+        LocalMerge direction = LocalMerge.FORWARDS;
+
+        while(length > subarrayLen) {
+            if(direction == LocalMerge.FORWARDS) {
+                this.combineForwards(array, firstKey, buffer + blockLen, length, subarrayLen, blockLen);
+                direction = LocalMerge.BACKWARDS;
+            }
+            else {
+                this.combineBackwards(array, firstKey, buffer, length, subarrayLen, blockLen);
+                direction = LocalMerge.FORWARDS;
+            }
+            subarrayLen *= 2;
+        }
+
+        int frontLen = direction == LocalMerge.FORWARDS ? 0 : getBufferRewindLen(length, subarrayLen / 2);
+        swapBlocksForwards(array, buffer + frontLen, buffer + frontLen + blockLen, length - frontLen);
+    }
+
+    // Combines runs of 'subarrayLen' into runs of 'regionLen' one region at a time, instead of one level
+    // at a time over the whole array. Each region leaves the scrolling buffer right in front of the next
+    // one, and once they're all done, it's moved back to where the last of those levels would have left
+    // it going forwards, so combineBlocks can go on backwards from there.
+    private void combineDepthFirst(int[] array, int firstKey, int buffer, int length, int subarrayLen,
+                                              int regionLen, int blockLen) {
+        for(int offset = 0; offset < length; offset += regionLen) {
+            this.combineRegion(array, firstKey, buffer + offset, Math.min(regionLen, length - offset),
+                               subarrayLen, blockLen);
+        }
+
+        int rewindLen = getBufferRewindLen(length, regionLen / 2);
+        swapBlocksBackwards(array, buffer + rewindLen, buffer + rewindLen + blockLen, length - rewindLen);
+    }
+
+    // combineForwards only fast-forwards the scrolling buffer as far as the next (backwards) level
+    // needs it, so it isn't always at the end of the array; returns how many items are in front of it
+    private static int getBufferRewindLen(int length, int subarrayLen) {
+        int   mergeLen = 2 * subarrayLen;
+        int fullMerges = length / mergeLen;
+        int   leftOver = length - (mergeLen * fullMerges);
+
+        if(leftOver > subarrayLen) {
+            if(fullMerges % 2 == 0 && fullMerges != 0) {
+                return fullMerges * mergeLen;
+            }
+        }
+        else if(leftOver != 0) {
+            if(fullMerges % 2 == 0) {
+                return fullMerges * mergeLen;
+            }
+        }
+        else if(fullMerges % 2 != 0 && fullMerges != 1) {
+            return (fullMerges - 1) * mergeLen;
+        }
+
+        return length;
+    }
+
+    // 'keys' are on the left side of array. Blocks of length 'subarrayLen' combined. We'll combine them in pairs
+    // 'subarrayLen' is a power of 2. (2 * subarrayLen / blockLen) keys are guaranteed
+    private LocalMerge combineBlocks(int[] array, int start, int length, int bufferLen, int subarrayLen,
+                                                int blockLen, int keyLen, boolean idealBuffer) {
+        LocalMerge direction = LocalMerge.FORWARDS;
+        subarrayLen *= 2;
+
+        if(idealBuffer) {
+            int regionLen = getRegionLen(subarrayLen, length - bufferLen - 1);
+
+            if(regionLen != 0) {
+                this.combineDepthFirst(array, start, start + keyLen, length - bufferLen,
+                                       subarrayLen, regionLen, blockLen);
+                subarrayLen = regionLen;
+                direction = LocalMerge.BACKWARDS;
+            }
+
+            while((length - bufferLen) > subarrayLen) {
+                if(direction == LocalMerge.FORWARDS) {
+                    this.combineForwards(array, start, start + bufferLen, length - bufferLen,
+                                                subarrayLen, blockLen);
+                    direction = LocalMerge.BACKWARDS;
+                }
+                else {
+                    this.combineBackwards(array, start, start + keyLen, length - bufferLen,
+                                                 subarrayLen, blockLen);
+                    direction = LocalMerge.FORWARDS;
+                }
+                subarrayLen *= 2;
+            }
+        }
+        else {
+            int keyBuffer = keyLen / 2;
+            shellSort(array, start, keyBuffer, this.cmp);
+
+            // the keys only last until runs of 'keyBuffer * keyBuffer'
+            int regionLen = getRegionLen(subarrayLen, Math.min(length - keyLen - 1, keyBuffer * keyBuffer));
+
+            if(regionLen != 0) {
+                this.combineDepthFirst(array, start, start + keyBuffer, length - keyLen,
+                                       subarrayLen, regionLen, keyBuffer);
+                subarrayLen = regionLen;
+                direction = LocalMerge.BACKWARDS;
+            }
+
+            while(keyBuffer >= ((2 * subarrayLen) / keyBuffer)) {
+                if(direction == LocalMerge.FORWARDS) {
+                    this.combineForwards(array, start, start + keyLen, length - keyLen,
+                                                subarrayLen, keyBuffer);
+                    direction = LocalMerge.BACKWARDS;
+                }
+                else {
+                    this.combineBackwards(array, start, start + keyBuffer, length - keyLen,
+                                                 subarrayLen, keyBuffer);
+                    direction = LocalMerge.FORWARDS;
+                }
+                subarrayLen *= 2;
+            }
+
+            if(direction == LocalMerge.BACKWARDS) {
+                int bufferOffset = start + keyBuffer;
+                int    rewindLen = getBufferRewindLen(length - keyLen, subarrayLen / 2);
+                swapBlocksBackwards(array, bufferOffset, bufferOffset + keyBuffer, rewindLen);
+                direction = LocalMerge.FORWARDS;
+            }
+
+            shellSort(array, start, keyLen, this.cmp);
+
+            while((length - keyLen) > subarrayLen) {
+                this.lazyCombine(array, start, start + keyLen, length - keyLen,
+                                 subarrayLen, (2 * subarrayLen) / keyLen);
+                subarrayLen *= 2;
+            }
+        }
+
+        return direction;
+    }
+
+    // "Classic" in-place merge sort using binary searches and rotations
+    // Forwards rotates the leftLen into the rightLen
+    // cost: leftLen^2 + rightLen
+    private static void lazyMergeForwards(int[] array, int start, int leftLen, int rightLen,
+                                                  int[] extBuffer, int extBufferLen, IndexComparator cmp) {
+        int middle = start + leftLen;
+
+        while(leftLen != 0) {
+            int mergeLen = binarySearchLeft(array, middle, rightLen, array[start], cmp);
+
+            if(mergeLen != 0) {
+                rotate(array, start, leftLen, mergeLen, extBuffer, extBufferLen);
+
+                start    += mergeLen;
+                middle   += mergeLen;
+                rightLen -= mergeLen;
+            }
+
+            if(rightLen == 0) {
+                break;
+            }
+            else {
+                // the first item already stays before the right side; step past the next few that
+                // do too, then gallop past the rest of a longer stretch
+                int count = 1;
+                while(count < leftLen && count < MIN_GALLOP && cmp.compare(array[start + count], array[middle]) <= 0) {
+                    count++;
+                }
+                if(count == MIN_GALLOP) {
+                    count += gallopForwards(array, start + count, leftLen - count, array[middle], true, cmp);
+                }
+                start   += count;
+                leftLen -= count;
+            }
+        }
+    }
+
+    // "Classic" in-place merge sort using binary searches and rotations
+    // Backwards rotates the rigthLen into the leftLen
+    // cost: rightLen^2 + leftLen
+    private static void lazyMergeBackwards(int[] array, int start, int leftLen, int rightLen,
+                                                   int[] extBuffer, int extBufferLen, IndexComparator cmp) {
+        int end = start + leftLen + rightLen - 1;
+
+        while(rightLen != 0) {
+            int mergeLen = binarySearchRight(array, start, leftLen, array[end], cmp);
+
+            if(mergeLen != leftLen) {
+                rotate(array, start + mergeLen, leftLen - mergeLen, rightLen, extBuffer, extBufferLen);
+
+                end     -=  leftLen - mergeLen;
+                leftLen  = mergeLen;
+            }
+
+            if(leftLen == 0) {
+                break;
+            }
+            else {
+                int middle = start + leftLen;
+                // the last item already stays after the left side; step past the next few that
+                // do too, then gallop past the rest of a longer stretch
+                int count = 1;
+                while(count < rightLen && count < MIN_GALLOP && cmp.compare(array[middle - 1], array[end - count]) <= 0) {
+                    count++;
+                }
+                if(count == MIN_GALLOP) {
+                    count += gallopBackwards(array, middle, rightLen - count, array[middle - 1], true, cmp);
+                }
+                rightLen -= count;
+                end      -= count;
+            }
+        }
+    }
+
+    private static void lazyMergeBufferBackwards(int[] array, int start, int leftLen, int rightLen,
+                                                         int[] extBuffer, int extBufferLen, IndexComparator cmp) {
+        int end = start + leftLen + rightLen - 1;
+
+        while(rightLen != 0) {
+            int mergeLen = binarySearchLeft(array, start, leftLen, array[end], cmp);
+
+            if(mergeLen != leftLen) {
+                rotate(array, start + mergeLen, leftLen - mergeLen, rightLen, extBuffer, extBufferLen);
+
+                end     -=  leftLen - mergeLen;
+                leftLen  = mergeLen;
+            }
+
+            if(leftLen == 0) {
+                break;
+            }
+            else {
+                int middle = start + leftLen;
+                // the last item already stays after the left side; step past the next few that
+                // do too, then gallop past the rest of a longer stretch
+                int count = 1;
+                while(count < rightLen && count < MIN_GALLOP && cmp.compare(array[middle - 1], array[end - count]) < 0) {
+                    count++;
+                }
+                if(count == MIN_GALLOP) {
+                    count += gallopBackwards(array, middle, rightLen - count, array[middle - 1], false, cmp);
+                }
+                rightLen -= count;
+                end      -= count;
+            }
+        }
+    }
+
+    // array[start, start + length) --> items less than 'lower' + items less than 'upper' + the rest,
+    // in one pass with extBuffer holding the two upper groups (the last one back to front)
+    private static void partitionOutOfPlace(int[] array, int start, int length, int lower, int upper,
+                                                       int[] extBuffer, IndexComparator cmp) {
+        int  end = start  + length;
+        int left = start;
+        int  mid = 0;
+        int high = length;
+
+        for(int i = start; i < end; i++) {
+            int item = array[i];
+
+            if(cmp.compare(item, lower) < 0) {
+                array[left] = item;
+                SortStats.countWrites(1);
+                left++;
+            }
+            else if(cmp.compare(item, upper) < 0) {
+                extBuffer[mid] = item;
+                SortStats.countWrites(1);
+                mid++;
+            }
+            else {
+                high--;
+                extBuffer[high] = item;
+                SortStats.countWrites(1);
+            }
+        }
+
+        System.arraycopy(extBuffer, 0, array, left, mid);
+        SortStats.countWrites(mid);
+        left += mid;
+
+        for(int i = length - 1; i >= high; i--) {
+            array[left] = extBuffer[i];
+            SortStats.countWrites(1);
+            left++;
+        }
+    }
+
+    // Stable sort for arrays with at most three distinct values, using the middle and highest keys as
+    // pivots ('upper' can be the same as 'lower' when there are only two). Both halves are sorted
+    // into three groups, then two rotations interleave them: O(n) comparisons and O(n log n) writes,
+    // or O(n log (n / extBufferLen)) writes with an external buffer.
+    private static void sortFewValues(int[] array, int start, int length, int lower, int upper,
+                                                 int[] extBuffer, int extBufferLen, IndexComparator cmp) {
+        if(length <= extBufferLen) {
+            partitionOutOfPlace(array, start, length, lower, upper, extBuffer, cmp);
+            return;
+        }
+        if(length <= 16) {
+            insertSort(array, start, length, cmp);
+            return;
+        }
+
+        int  leftLen = length / 2;
+        int rightLen = length - leftLen;
+        int   middle = start  + leftLen;
+
+        sortFewValues(array, start,  leftLen,  lower, upper, extBuffer, extBufferLen, cmp);
+        sortFewValues(array, middle, rightLen, lower, upper, extBuffer, extBufferLen, cmp);
+
+        int  leftLow = binarySearchLeft(array, start,  leftLen,  lower, cmp);
+        int  leftMid = binarySearchLeft(array, start,  leftLen,  upper, cmp) - leftLow;
+        int leftHigh = leftLen - leftLow - leftMid;
+
+        int rightLow = binarySearchLeft(array, middle, rightLen, lower, cmp);
+        int rightMid = binarySearchLeft(array, middle, rightLen, upper, cmp) - rightLow;
+
+        // low(L) + mid(L) + high(L) + low(R) + mid(R) + high(R)
+        // --> low(L) + low(R) + mid(L) + high(L) + mid(R) + high(R)
+        // --> low(L) + low(R) + mid(L) + mid(R) + high(L) + high(R)
+        rotate(array, start + leftLow, leftMid + leftHigh, rightLow, extBuffer, extBufferLen);
+        rotate(array, start + leftLow + rightLow + leftMid, leftHigh, rightMid, extBuffer, extBufferLen);
+    }
+
+    void commonSort(int[] array, int start, int length, int[] extBuffer, int extBufferLen) {
+        if(length < 16) {
+            insertSort(array, start, length, this.cmp);
+            return;
+        }
+
+        if(extBuffer == null) {
+            extBufferLen = 0;
+        }
+        this.extBuffer    = extBuffer;
+        this.extBufferLen = extBufferLen;
+
+        // GRAILSORT + EXTRA SPACE
+        // with room for half the array, a plain merge sort beats collecting keys
+        if(extBufferLen >= length / 2) {
+            this.sortIndependently(array, start, length);
+            return;
+        }
+
+        // smallest possible O(sqrt n) block length that
+        // doesn't include arrays sorted by Insertion Sort
+        int blockLen = 4;
+
+        // find the smallest power of two greater than or
+        // equal to the square root of the input's length
+        while((blockLen * blockLen) < length) {
+            blockLen *= 2;
+        }
+
+        // '((a - 1) / b) + 1' is actually a clever and very efficient
+        // formula for the ceiling of (a / b)
+        //
+        // credit to Anonymous0726 for figuring this out!
+
+        // TODO: We don't need this ceiling???
+        int keyLen = ((length - 1) / blockLen) + 1;
+
+        // Holy Grail is hoping to find '~2 sqrt n' unique items
+        // throughout the array
+        int idealKeys = keyLen + blockLen;
+
+        // an external buffer with room for a block replaces the internal one
+        boolean outOfPlace = extBufferLen >= blockLen;
+        if(outOfPlace) {
+            idealKeys = Math.max(keyLen, 4);
+        }
+
+        int keysFound = collectKeys(array, start, length, idealKeys, extBuffer, extBufferLen, this.cmp);
+
+        // no merge has more blocks than there are keys, so one tree is enough for the whole sort
+        if(keysFound >= TOURNAMENT_BLOCK_COUNT) {
+            this.getTournamentTree(Integer.highestOneBit(keysFound - 1) << 1);
+        }
+
+        // HOLY GRAIL STRATEGY 3
+        // No block swaps or scrolling buffer; partition around the keys instead
+        if(keysFound < 4) {
+
+            // if all items in the array equal each other,
+            // then they're already sorted. done!
+            if(keysFound == 1) return;
+
+            // the keys get moved around, so hold onto them first
+            int lower = array[start + 1];
+            int upper = array[start + keysFound - 1];
+
+            sortFewValues(array, start, length, lower, upper, extBuffer, extBufferLen, this.cmp);
+            return;
+        }
+
+        if(outOfPlace) {
+            // GRAILSORT + EXTRA SPACE
+            // Runs as long as the external buffer can merge on its own, then block merges
+            // that only need the keys, even when there aren't enough of them for Strategy 1
+            int runLen = 1;
+            while(runLen <= extBufferLen) {
+                runLen *= 2;
+            }
+
+            int dataStart = start  + keysFound;
+            int dataLen   = length - keysFound;
+
+            for(int offset = 0; offset < dataLen; offset += runLen) {
+                this.sortIndependently(array, dataStart + offset, Math.min(runLen, dataLen - offset));
+            }
+
+            this.combineOutOfPlace(array, start, keysFound, dataStart, dataLen, runLen, blockLen);
+
+            lazyMergeForwards(array, start, keysFound, dataLen, extBuffer, extBufferLen, this.cmp);
+            return;
+        }
+
+        boolean idealBuffer;
+        if(keysFound < idealKeys) {
+            // HOLY GRAIL STRATEGY 2
+            // Block swaps with small scrolling buffer and/or lazy merges
+            keyLen = blockLen;
+            blockLen = 0;
+            idealBuffer = false;
+
+            while(keyLen > keysFound) {
+                keyLen /= 2;
+            }
+        }
+        else {
+            // HOLY GRAIL STRATEGY 1
+            // Block swaps with scrolling buffer
+            idealBuffer = true;
+        }
+
+        int bufferLen = blockLen + keyLen;
+        int subarrayLen;
+        if(idealBuffer) {
+            subarrayLen = blockLen;
+        }
+        else {
+            subarrayLen = keyLen;
+        }
+
+        // a small external buffer still speeds up building blocks
+        this.buildBlocks(array, start + bufferLen, length - bufferLen, subarrayLen, this.cmp);
+
+        LocalMerge direction = this.combineBlocks(array, start, length, bufferLen, subarrayLen,
+                                                  blockLen, keyLen, idealBuffer);
+
+        // This 'if' case will always run during Strategy 2
+        if(direction == LocalMerge.FORWARDS) {
+            shellSort(array, start + keyLen, blockLen, this.cmp);
+            lazyMergeForwards(array, start, bufferLen, length - bufferLen, extBuffer, extBufferLen, this.cmp);
+        }
+        else {
+            lazyMergeForwards(array, start, keyLen, length - bufferLen, extBuffer, extBufferLen, this.cmp);
+
+            shellSort(array, start + length - blockLen, blockLen, this.cmp);
+            lazyMergeBufferBackwards(array, start, length - blockLen, blockLen, extBuffer, extBufferLen, this.cmp);
+        }
+    }
+
+    // ARGSORT
+    // Each of these returns the indices [start, start + length) of a column in the order of its items,
+    // ties in index order, so that the item at index 'order[0]' is the smallest. Only 'order' is sorted;
+    // the column is just read.
+
+    // Fills order[0, length) with the indices [start, start + length), sorted by 'cmp'
+    public static void argsort(int[] order, int start, int length, IndexComparator cmp) {
+        for(int i = 0; i < length; i++) {
+            order[i] = start + i;
+        }
+        new IndexHolyGrailSort(cmp).commonSort(order, 0, length, null, 0);
+    }
+
+    public static <T> int[] argsort(T[] array, int start, int length, Comparator<? super T> cmp) {
+        int[] order = new int[length];
+        argsort(order, start, length, (left, right) -> cmp.compare(array[left], array[right]));
+        return order;
+    }
+
+    public static int[] argsort(int[] array, int start, int length) {
+        int[] order = new int[length];
+        argsort(order, start, length, (left, right) -> Integer.compare(array[left], array[right]));
+        return order;
+    }
+
+    public static int[] argsort(long[] array, int start, int length) {
+        int[] order = new int[length];
+        argsort(order, start, length, (left, right) -> Long.compare(array[left], array[right]));
+        return order;
+    }
+
+    public static int[] argsort(double[] array, int start, int length) {
+        int[] order = new int[length];
+        argsort(order, start, length, (left, right) -> Double.compare(array[left], array[right]));
+        return order;
+    }
+
+    // APPLYING AN ORDER
+    // Moves the item at index 'order[i]' of each column to 'start + i', for every i in [0, length), in
+    // place: every cycle of the permutation is followed once, with its first item set aside. The entries
+    // of 'order' that are done get flipped to ~index along the way, and are flipped back before the next
+    // column, so 'order' comes out as it went in. Columns can be int[], long[], double[] or any T[].
+
+    public static void applyOrder(int[] order, int start, int length, Object... columns) {
+        for(Object column : columns) {
+            if(column instanceof int[]) {
+                reorder(order, start, length, (int[]) column);
+            }
+            else if(column instanceof long[]) {
+                reorder(order, start, length, (long[]) column);
+            }
+            else if(column instanceof double[]) {
+                reorder(order, start, length, (double[]) column);
+            }
+            else if(column instanceof Object[]) {
+                reorder(order, start, length, (Object[]) column);
+            }
+            else {
+                throw new IllegalArgumentException("Can't apply an order to a " + column.getClass().getSimpleName());
+            }
+            restoreOrder(order, length);
+        }
+    }
+
+    private static void reorder(int[] order, int start, int length, int[] column) {
+        for(int i = 0; i < length; i++) {
+            if(order[i] < 0) continue;
+
+            int temp = column[start + i];
+            int curr = i;
+            int next = order[i] - start;
+            order[i] = ~order[i];
+
+            while(next != i) {
+                column[start + curr] = column[start + next];
+
+                curr = next;
+                next = order[curr] - start;
+                order[curr] = ~order[curr];
+            }
+            column[start + curr] = temp;
+        }
+    }
+
+    private static void reorder(int[] order, int start, int length, long[] column) {
+        for(int i = 0; i < length; i++) {
+            if(order[i] < 0) continue;
+
+            long temp = column[start + i];
+            int  curr = i;
+            int  next = order[i] - start;
+            order[i] = ~order[i];
+
+            while(next != i) {
+                column[start + curr] = column[start + next];
+
+                curr = next;
+                next = order[curr] - start;
+                order[curr] = ~order[curr];
+            }
+            column[start + curr] = temp;
+        }
+    }
+
+    private static void reorder(int[] order, int start, int length, double[] column) {
+        for(int i = 0; i < length; i++) {
+            if(order[i] < 0) continue;
+
+            double temp = column[start + i];
+            int    curr = i;
+            int    next = order[i] - start;
+            order[i] = ~order[i];
+
+            while(next != i) {
+                column[start + curr] = column[start + next];
+
+                curr = next;
+                next = order[curr] - start;
+                order[curr] = ~order[curr];
+            }
+            column[start + curr] = temp;
+        }
+    }
+
+    private static void reorder(int[] order, int start, int length, Object[] column) {
+        for(int i = 0; i < length; i++) {
+            if(order[i] < 0) continue;
+
+            Object temp = column[start + i];
+            int    curr = i;
+            int    next = order[i] - start;
+            order[i] = ~order[i];
+
+            while(next != i) {
+                column[start + curr] = column[start + next];
+
+                curr = next;
+                next = order[curr] - start;
+                order[curr] = ~order[curr];
+            }
+            column[start + curr] = temp;
+        }
+    }
+
+    private static void restoreOrder(int[] order, int length) {
+        for(int i = 0; i < length; i++) {
+            if(order[i] < 0) {
+                order[i] = ~order[i];
+            }
+        }
+    }
+}
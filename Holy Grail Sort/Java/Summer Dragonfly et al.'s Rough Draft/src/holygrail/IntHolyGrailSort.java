@@ -0,0 +1,2559 @@
+package holygrail;
+
+import java.util.Arrays;
+
+/*
+ * MIT License
+ *
+ * Copyright (c) 2013 Andrey Astrelin
+ * Copyright (c) 2020-2021 The Holy Grail Sort Project
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// HOLY GRAILSORT FOR JAVA - A faster implementation of in-place, stable,
+//                          worst-case O(n log n) sorting based on Andrey
+//                          Astrelin's Grailsort
+//
+// ** Written and maintained by The Holy Grail Sort Project
+//
+// Primary authors: Summer Dragonfly and Anonymous0726, with the incredible aid
+// from the rest of the team!
+
+/*
+ * The Holy Grail Sort Project
+ * Project Manager:      Summer Dragonfly
+ * Project Contributors: 666666t
+ *                       Anonymous0726
+ *                       aphitorite
+ *                       Control
+ *                       dani_dlg
+ *                       DeveloperSort
+ *                       EilrahcF
+ *                       Enver
+ *                       Gaming32
+ *                       lovebuny
+ *                       Morwenn
+ *                       MP
+ *                       phoenixbound
+ *                       Spex_guy
+ *                       Taihennami
+ *                       thatsOven
+ *                       _fluffyy
+ *
+ * Special thanks to "The Studio" Discord community!
+ */
+
+// Port of HolyGrailSort for int[], comparing items by their natural order instead of
+// going through a Comparator. Keep it in lockstep with HolyGrailSort.java!
+final public class IntHolyGrailSort {
+    enum LocalMerge {
+        FORWARDS,
+        BACKWARDS;
+    }
+
+    //Credit to phoenixbound for this clever idea
+    enum Subarray {
+        LEFT,
+        RIGHT;
+    }
+
+    final static int STATIC_EXT_BUFFER_LEN = 512;
+
+    // Building and combining blocks level by level would stream the whole array through the caches once
+    // for every doubling of the run length. Instead, both phases first take regions of up to this many
+    // items through every level that fits in them, one region after the other, and only then go on level
+    // by level (see buildInPlace and combineDepthFirst)
+    final static int DEPTH_FIRST_LEN = 1 << 16;
+
+    private int[] extBuffer;
+    private int extBufferLen;
+
+    // sortBlocksByTournament's tree, kept from one sort to the next
+    private int[] tournamentTree;
+
+    private BlockLenPolicy blockLenPolicy = BlockLenPolicy.SQRT;
+
+    private int currBlockLen;
+    private Subarray currBlockOrigin;
+
+    // See HolyGrailSort.setBlockLenPolicy
+    public void setBlockLenPolicy(BlockLenPolicy policy) {
+        this.blockLenPolicy = policy;
+    }
+
+    private static void swap(int[] array, int a, int b) {
+        int temp = array[a];
+        array[a] = array[b];
+        array[b] = temp;
+    }
+
+    private static void swapBlocksForwards(int[] array, int a, int b, int blockLen) {
+        for(int i = 0; i < blockLen; i++) {
+            swap(array, a + i, b + i);
+        }
+    }
+
+    private static void swapBlocksBackwards(int[] array, int a, int b, int blockLen) {
+        for(int i = blockLen - 1; i >= 0; i--) {
+            swap(array, a + i, b + i);
+        }
+    }
+
+    // Shift elements [start + 1, start + length + 1) to the left by 1
+    // and paste copied element at start + length - 1.
+    private static void insertForwards(int[] array, int start, int length) {
+        int item = array[start];
+        System.arraycopy(array, start + 1, array, start, length);
+        array[start + length] = item;
+    }
+
+    // Shift elements [start, start + length) to the right by 1
+    // and paste copied element at start.
+    private static void insertBackwards(int[] array, int start, int length) {
+        int item = array[start + length];
+        System.arraycopy(array, start, array, start + 1, length);
+        array[start] = item;
+    }
+
+    // ROTATIONS
+    // Which algorithm is fastest depends on the lengths involved (see RotateBenchmark in the jmh module).
+    // Gries-Mills wins when it only takes one pass: a single item moved with System.arraycopy, or two
+    // equal sides swapped with each other. Everything else is up to twice as fast with the trinity
+    // rotation, which sweeps through the array once. Plain triple reversal never wins (RotateBenchmark
+    // still has it, for comparison).
+    private static void rotate(int[] array, int start, int leftLen, int rightLen) {
+
+        if(leftLen <= 1 || rightLen <= 1 || leftLen == rightLen) {
+            rotateGriesMills(array, start, leftLen, rightLen);
+        }
+        else {
+            rotateTrinity(array, start, leftLen, rightLen);
+        }
+    }
+
+    // With room in 'extBuffer' for the shorter side, three array copies are faster than any
+    // in-place rotation. Only pass an extBuffer whose contents can be thrown away.
+    private static void rotate(int[] array, int start, int leftLen, int rightLen, int[] extBuffer, int extBufferLen) {
+        if(leftLen <= rightLen) {
+            if(leftLen > 1 && leftLen <= extBufferLen) {
+
+                System.arraycopy(array, start, extBuffer, 0, leftLen);
+                System.arraycopy(array, start + leftLen, array, start, rightLen);
+                System.arraycopy(extBuffer, 0, array, start + rightLen, leftLen);
+                return;
+            }
+        }
+        else if(rightLen > 1 && rightLen <= extBufferLen) {
+
+            System.arraycopy(array, start + leftLen, extBuffer, 0, rightLen);
+            System.arraycopy(array, start, array, start + rightLen, leftLen);
+            System.arraycopy(extBuffer, 0, array, start, rightLen);
+            return;
+        }
+
+        rotate(array, start, leftLen, rightLen);
+    }
+
+    // block swaps, a.k.a. Gries-Mills
+    private static void rotateGriesMills(int[] array, int start, int leftLen, int rightLen) {
+        int minLen = leftLen <= rightLen ? leftLen : rightLen;
+
+        while(minLen > 1) {
+            if(leftLen <= rightLen) {
+                do {
+                  swapBlocksForwards(array, start, start + leftLen, leftLen);
+                  start    += leftLen;
+                  rightLen -= leftLen;
+                } while(leftLen <= rightLen);
+
+                minLen = rightLen;
+            }
+            else {
+                do {
+                  swapBlocksBackwards(array, start + leftLen - rightLen, start + leftLen, rightLen);
+                  leftLen -= rightLen;
+                } while(leftLen > rightLen);
+
+                minLen = leftLen;
+            }
+        }
+
+        if(minLen == 1) {
+            if(leftLen == 1) {
+                insertForwards(array, start, rightLen);
+            }
+            else {
+                insertBackwards(array, start, leftLen);
+            }
+        }
+    }
+
+
+    // conjoined triple reversal, a.k.a. Scandum's trinity rotation: the three reversals of
+    // a triple reversal, but done together in one sweep from both ends of the array, so each item
+    // only moves once
+    private static void rotateTrinity(int[] array, int start, int leftLen, int rightLen) {
+        int a = start;
+        int b = start + leftLen;
+        int c = start + leftLen;
+        int d = start + leftLen + rightLen;
+
+        if(leftLen > rightLen) {
+            for(int loop = rightLen / 2; loop > 0; loop--) {
+                int temp     = array[--b];
+                array[b]   = array[a];
+                array[a++] = array[c];
+                array[c++] = array[--d];
+                array[d]   = temp;
+            }
+            for(int loop = (b - a) / 2; loop > 0; loop--) {
+                int temp     = array[--b];
+                array[b]   = array[a];
+                array[a++] = array[--d];
+                array[d]   = temp;
+            }
+        }
+        else {
+            for(int loop = leftLen / 2; loop > 0; loop--) {
+                int temp     = array[--b];
+                array[b]   = array[a];
+                array[a++] = array[c];
+                array[c++] = array[--d];
+                array[d]   = temp;
+            }
+            for(int loop = (d - c) / 2; loop > 0; loop--) {
+                int temp     = array[c];
+                array[c++] = array[--d];
+                array[d]   = array[a];
+                array[a++] = temp;
+            }
+        }
+        for(int loop = (d - a) / 2; loop > 0; loop--) {
+            int temp     = array[a];
+            array[a++] = array[--d];
+            array[d]   = temp;
+        }
+    }
+
+    // unguarded insertion sort
+    // implementation thanks to Control and Scandum!
+    private static void insertSort(int[] array, int start, int length) {
+        for(int item = 1; item < length; item++) {
+            int temp = array[start + item];
+            int index = start + item;
+
+            if(array[index - 1] <= temp) {
+                continue;
+            }
+
+            if(array[start] > temp) {
+                insertBackwards(array, start, item);
+                continue;
+            }
+
+            do {
+                array[index] = array[index - 1];
+                index--;
+            } while(array[index - 1] > temp);
+
+            array[index] = temp;
+        }
+    }
+
+    private static void shellPass(int[] array, int start, int length, int gap) {
+        for(int item = gap; item < length; item++) {
+            int temp = array[start + item];
+            int index = start + item;
+
+            if(array[index - gap] < temp) {
+                continue;
+            }
+
+            do {
+                array[index] = array[index - gap];
+                index -= gap;
+            } while(index - gap > start && array[index - gap] > temp);
+
+            array[index] = temp;
+        }
+    }
+
+    // implementation of Shellsort using a modified version of
+    // Sedgewick's '82 gap sequence: 1, *3*, 8, 23, 77, 281, ...
+    // [4^k + 3*2^(k-1) + 1] with an added penultimate gap of 3
+    // written by Taihennami
+    private static void shellSort(int[] array, int start, int length) {
+        int k = 0;
+        while((4 << (2*k)) + (3 << k) + 1 < length) {
+            k++;
+        }
+
+        while(k-- > 0) {
+            int gap = (4 << (2*k)) + (3 << k) + 1;
+            shellPass(array, start, length, gap);
+        }
+
+        shellPass(array, start, length, 3);
+        insertSort(array, start, length);
+    }
+
+    // Technically a "lower bound" search; vectorized when the JVM allows (see PrimitiveKernels)
+    private static int binarySearchLeft(int[] array, int start, int length, int target) {
+        return PrimitiveKernels.INSTANCE.binarySearchLeft(array, start, length, target);
+    }
+
+    // Technically a "upper bound" search; vectorized when the JVM allows (see PrimitiveKernels)
+    private static int binarySearchRight(int[] array, int start, int length, int target) {
+        return PrimitiveKernels.INSTANCE.binarySearchRight(array, start, length, target);
+    }
+
+    // Returns -1 if an equal key is found, cutting off the search early
+    // FUTURE TODO: first & last key best-cases
+    private static int binarySearchExclusive(int[] array, int start, int length, int target) {
+        int  left = 0;
+        int right = length;
+
+        while(left < right) {
+            // equivalent to (left + right) / 2 with added overflow protection
+            int middle = (left + right) >>> 1;
+
+            int item = array[start + middle];
+            if(item == target) {
+                return -1;
+            }
+            else if(item < target) {
+                left = middle + 1;
+            }
+            else {
+                right = middle;
+            }
+        }
+        return left;
+    }
+
+    // GALLOPING
+    // Like Timsort, the merges count how many times in a row each side has won. Once one side wins
+    // 'minGallop' times, the rest of its winning streak is found with an exponential search and moved
+    // all at once, so merging a short run into a long one takes O(log n) comparisons per stretch
+    // instead of one per item. 'minGallop' rises every time galloping doesn't pay off, which keeps
+    // merges of random data from doing extra comparisons, and falls every time it does.
+    final static int MIN_GALLOP = 7;
+
+    private static int adjustMinGallop(int minGallop, int count) {
+        if(count >= MIN_GALLOP) {
+            return minGallop > 1 ? minGallop - 1 : 1;
+        }
+        return minGallop + 1;
+    }
+
+    // Counts the items at the start of array[start, start + length) that are less than 'target',
+    // or less than or equal to it if 'inclusive'
+    private static int gallopForwards(int[] array, int start, int length, int target, boolean inclusive) {
+        int  low = 0;
+        int high = 1;
+
+        // the count is at least 'low' and less than 'high'
+        while(high <= length) {
+            int item = array[start + high - 1];
+            if(item > target || (item == target && !inclusive)) break;
+
+            low  = high;
+            high = 2 * high + 1;
+
+            if(high <= 0) high = length + 1; // overflow
+        }
+        high = Math.min(high - 1, length);
+
+        if(inclusive) {
+            return low + binarySearchRight(array, start + low, high - low, target);
+        }
+        return low + binarySearchLeft(array, start + low, high - low, target);
+    }
+
+    // Counts the items at the end of array[start, start + length) that are greater than 'target',
+    // or greater than or equal to it if 'inclusive'
+    private static int gallopBackwards(int[] array, int start, int length, int target, boolean inclusive) {
+        int  end = start + length;
+        int  low = 0;
+        int high = 1;
+
+        while(high <= length) {
+            int item = array[end - high];
+            if(item < target || (item == target && !inclusive)) break;
+
+            low  = high;
+            high = 2 * high + 1;
+
+            if(high <= 0) high = length + 1; // overflow
+        }
+        high = Math.min(high - 1, length);
+
+        if(inclusive) {
+            return high - binarySearchLeft(array, end - high, high - low, target);
+        }
+        return high - binarySearchRight(array, end - high, high - low, target);
+    }
+
+    // cost: 2 * length + idealKeys^2 / 2
+    private static int collectKeys(int[] array, int start, int length, int idealKeys,
+                                   int[] extBuffer, int extBufferLen) {
+        int keysFound = 1; // by itself, the first item in the array is our first unique key
+        int  firstKey = 0; // the first item in the array is at the first position in the array
+        int   currKey = 1; // the index used for finding potentially unique items ("keys") in the array
+
+        while(currKey < length && keysFound < idealKeys) {
+
+            // Find the location in the key-buffer where our current key can be inserted in sorted order.
+            // If the key at insertPos is equal to currKey, then currKey isn't unique and we move on.
+            int insertPos = binarySearchExclusive(array, start + firstKey, keysFound, array[start + currKey]);
+
+            // As long as our exclusive binary search didn't return -1 (a.k.a. found an equal key),
+            // we're good to go!
+            if(insertPos != -1) {
+                // First, rotate the key-buffer over to currKey's immediate left...
+                // (this helps save a TON of swaps/writes!!!)
+                rotate(array, start + firstKey, keysFound, currKey - (firstKey + keysFound), extBuffer, extBufferLen);
+
+                // Update the new position of firstKey...
+                firstKey = currKey - keysFound;
+
+                // Then, "insertion sort" currKey to its spot in the key-buffer
+                // as long as it needs to be moved!
+                if(keysFound != insertPos) {
+                    insertBackwards(array, start + firstKey + insertPos, keysFound - insertPos);
+                }
+
+                // One step closer to idealKeys.
+                keysFound++;
+            }
+            // Move on and test the next key...
+            currKey++;
+        }
+
+        // Bring however many keys we found back to the beginning of our array,
+        // and return the number of keys collected.
+        rotate(array, start, firstKey, keysFound, extBuffer, extBufferLen);
+        return keysFound;
+    }
+
+    // Much thanks to Spex_guy for this beautiful optimization!!
+    private static void sortPairsWithKeys(int[] array, int start, int length) {
+        // first, save the keys to stack memory
+        int  firstKey = array[start - 1];
+        int secondKey = array[start - 2];
+
+        // move all the items down two indices, sorting them simultaneously
+        sortPairs(array, start, length);
+
+        // finally, stamp the saved keys (remember: order doesn't matter!)
+        // to the end of the array
+        array[start + length - 2] =  firstKey;
+        array[start + length - 1] = secondKey;
+    }
+
+    // branch-free, and vectorized when the JVM allows (see PrimitiveKernels)
+    private static void sortPairs(int[] array, int start, int length) {
+        PrimitiveKernels.INSTANCE.sortPairs(array, start, length);
+    }
+
+    // array[buffer .. start - 1] <=> "scrolling buffer"
+    //
+    // "scrolling buffer" + array[start, middle - 1] + array[middle, end - 1]
+    // --> array[buffer, buffer + end - 1] + "scrolling buffer"
+    private static void mergeForwards(int[] array, int start, int leftLen, int rightLen,
+                                                 int bufferOffset) {
+        int buffer = start  - bufferOffset;
+        int   left = start;
+        int middle = start  +  leftLen;
+        int  right = middle;
+        int    end = middle + rightLen;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(right < end) {
+            if(left == middle || array[ left] > array[right]) {
+                swap(array, buffer, right);
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            else {
+                swap(array, buffer,  left);
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            buffer++;
+
+            if(leftStreak >= minGallop) {
+                int count = gallopForwards(array, left, middle - left, array[right], true);
+                swapBlocksForwards(array, buffer, left, count);
+                buffer += count;
+                left   += count;
+
+                // the right item is next, no need to compare it again
+                swap(array, buffer, right);
+                buffer++;
+                right++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left < middle) {
+                int count = gallopForwards(array, right, end - right, array[left], false);
+                swapBlocksForwards(array, buffer, right, count);
+                buffer += count;
+                right  += count;
+
+                if(right < end) {
+                    swap(array, buffer, left);
+                    buffer++;
+                    left++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+
+        if(buffer != left) {
+            swapBlocksForwards(array, buffer, left, middle - left);
+        }
+    }
+
+    // credit to 666666t for thorough bug-checking/fixing
+    private static void mergeBackwards(int[] array, int start, int leftLen, int rightLen,
+                                                  int bufferOffset) {
+        int    end = start  -  1;
+        int   left = end    +  leftLen;
+        int middle = left;
+        int  right = middle + rightLen;
+        int buffer = right  + bufferOffset;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left > end) {
+            if(right == middle || array[ left] > array[right]) {
+                swap(array, buffer,  left);
+                left--;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                swap(array, buffer, right);
+                right--;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer--;
+
+            if(rightStreak >= minGallop) {
+                int count = gallopBackwards(array, middle + 1, right - middle, array[left], true);
+                swapBlocksBackwards(array, buffer - count + 1, right - count + 1, count);
+                buffer -= count;
+                right  -= count;
+
+                // the left item is next, no need to compare it again
+                swap(array, buffer, left);
+                buffer--;
+                left--;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+            else if(leftStreak >= minGallop && right > middle) {
+                int count = gallopBackwards(array, end + 1, left - end, array[right], false);
+                swapBlocksBackwards(array, buffer - count + 1, left - count + 1, count);
+                buffer -= count;
+                left   -= count;
+
+                if(left > end) {
+                    swap(array, buffer, right);
+                    buffer--;
+                    right--;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+        }
+
+        if(right != buffer) {
+            swapBlocksBackwards(array, middle + 1, buffer - (right - middle) + 1, right - middle);
+        }
+    }
+
+    // array[buffer .. start - 1] <=> "free space"
+    //
+    // "free space" + array[start, middle - 1] + array[middle, end - 1]
+    // --> array[buffer, buffer + end - 1] + "free space"
+    //
+    // FUNCTION RENAMED: More consistent with "out-of-place" being at the end
+    private static void mergeForwardsOutOfPlace(int[] array, int start, int leftLen, int rightLen,
+                                                           int bufferOffset) {
+        int buffer = start  - bufferOffset;
+        int   left = start;
+        int middle = start  +  leftLen;
+        int  right = middle;
+        int    end = middle + rightLen;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(right < end) {
+            if(left == middle || array[ left] > array[right]) {
+                array[buffer] = array[right];
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            else {
+                array[buffer] = array[ left];
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            buffer++;
+
+            if(leftStreak >= minGallop) {
+                int count = gallopForwards(array, left, middle - left, array[right], true);
+                System.arraycopy(array, left, array, buffer, count);
+                buffer += count;
+                left   += count;
+
+                // the right item is next, no need to compare it again
+                array[buffer] = array[right];
+                buffer++;
+                right++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left < middle) {
+                int count = gallopForwards(array, right, end - right, array[left], false);
+                System.arraycopy(array, right, array, buffer, count);
+                buffer += count;
+                right  += count;
+
+                if(right < end) {
+                    array[buffer] = array[left];
+                    buffer++;
+                    left++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+
+        if(buffer != left) {
+            System.arraycopy(array, left, array, buffer, middle - left);
+
+            // swapBlocksForwards(array, buffer, left, middle - left);
+
+            /*
+            while(left < middle) {
+                array[buffer] = array[left];
+                buffer++;
+                left++;
+            }
+            */
+        }
+    }
+
+    // Merges runs of 'currentLen' into runs of 'targetLen', one level at a time, each level moving the array
+    // down by its run length into the buffer in front of it; returns where the array starts afterwards
+    private static int buildLevels(int[] array, int start, int length, int currentLen, int targetLen,
+                                   int[] extBuffer, int extBufferLen) {
+        for(int mergeLen = currentLen; mergeLen < targetLen; mergeLen *= 2) {
+            int fullMerge = 2 * mergeLen;
+
+            int mergeIndex;
+            int mergeEnd = start + length - fullMerge;
+            int bufferOffset = mergeLen;
+
+            for(mergeIndex = start; mergeIndex <= mergeEnd; mergeIndex += fullMerge) {
+                mergeForwards(array, mergeIndex, mergeLen, mergeLen, bufferOffset);
+            }
+
+            int leftOver = length - (mergeIndex - start);
+
+            if(leftOver > mergeLen) {
+                mergeForwards(array, mergeIndex, mergeLen, leftOver - mergeLen, bufferOffset);
+            }
+            else if(leftOver != 0) {
+                rotate(array, mergeIndex - mergeLen, mergeLen, leftOver, extBuffer, extBufferLen);
+            }
+
+            start -= mergeLen;
+        }
+        return start;
+    }
+
+    private static void buildInPlace(int[] array, int start, int length, int currentLen, int bufferLen,
+                                     int[] extBuffer, int extBufferLen) {
+        // Depth-first: every region of 'regionLen' goes through all of its levels before the next one is
+        // touched. A region only reaches into as much of the buffer in front as its own levels need, and
+        // leaves just as much behind it, right in front of the next region.
+        int regionLen = currentLen;
+        while(regionLen < bufferLen && regionLen <= DEPTH_FIRST_LEN / 2) {
+            regionLen *= 2;
+        }
+
+        if(regionLen > currentLen && regionLen < length) {
+            for(int offset = 0; offset < length; offset += regionLen) {
+                buildLevels(array, start + offset, Math.min(regionLen, length - offset), currentLen, regionLen,
+                            extBuffer, extBufferLen);
+            }
+            start -= regionLen - currentLen;
+            currentLen = regionLen;
+        }
+
+        start = buildLevels(array, start, length, currentLen, bufferLen, extBuffer, extBufferLen);
+
+        int fullMerge  = 2 * bufferLen;
+        int lastBlock  = length % fullMerge;
+        int lastOffset = start + length - lastBlock;
+
+        if(lastBlock <= bufferLen) {
+            rotate(array, lastOffset, lastBlock, bufferLen, extBuffer, extBufferLen);
+        }
+        else {
+            mergeBackwards(array, lastOffset, bufferLen, lastBlock - bufferLen, bufferLen);
+        }
+
+        for(int mergeIndex = lastOffset - fullMerge; mergeIndex >= start; mergeIndex -= fullMerge) {
+            mergeBackwards(array, mergeIndex, bufferLen, bufferLen, bufferLen);
+        }
+    }
+
+    // build blocks of length 'bufferLen'
+    // input: [start - mergeLen, start - 1] elements are buffer
+    // output: first 'bufferLen' elements are buffer, blocks (2 * bufferLen) and last subblock sorted
+    private void buildBlocks(int[] array, int start, int length, int bufferLen) {
+        // the longest runs the external buffer can merge on its own
+        int runLen = 1;
+        while((runLen * 2) <= this.extBufferLen && runLen < bufferLen) {
+            runLen *= 2;
+        }
+        runLen *= 2;
+
+        if(runLen > 2) {
+            for(int offset = 0; offset < length; offset += runLen) {
+                this.sortIndependently(array, start + offset, Math.min(runLen, length - offset));
+            }
+
+            if(runLen < 2 * bufferLen) {
+                // scroll 'runLen' items of the buffer past the runs, just like sorting pairs would
+                swapBlocksForwards(array, start - runLen, start, length);
+                buildInPlace(array, start - runLen, length, runLen, bufferLen, this.extBuffer, this.extBufferLen);
+            }
+        }
+        else {
+            sortPairsWithKeys(array, start, length);
+            buildInPlace(array, start - 2, length, 2, bufferLen, this.extBuffer, this.extBufferLen);
+        }
+    }
+
+    // Sorts array[start, start + length) on its own, using at most 'length / 2' items of this sorter's
+    // extBuffer: runs of 16 are sorted by a network, then merged bottom-up by parking each right run
+    // in the buffer and merging it back in from the end
+    private void sortIndependently(int[] array, int start, int length) {
+        int[] extBuffer = this.extBuffer;
+
+        int i;
+        for(i = 0; i <= length - 16; i += 16) {
+            SortingNetworks.sort(array, start + i, 16);
+        }
+        SortingNetworks.sort(array, start + i, length - i);
+
+        for(int mergeLen = 16; mergeLen < length; mergeLen *= 2) {
+            int fullMerge = 2 * mergeLen;
+
+            for(int mergeIndex = start; mergeIndex < start + length - mergeLen; mergeIndex += fullMerge) {
+                int   middle = mergeIndex + mergeLen;
+                int rightLen = Math.min(mergeLen, start + length - middle);
+
+                // runs that are already in order don't need to be merged
+                if(array[middle - 1] > array[middle]) {
+                    System.arraycopy(array, middle, extBuffer, 0, rightLen);
+                    mergeBackwardsFromBuffer(array, mergeIndex, mergeLen, extBuffer, rightLen);
+                }
+            }
+        }
+    }
+
+    // From this many blocks on, sortBlocks finds each next block with a tournament tree instead of a
+    // linear scan over the scrambled area. The tournament always does fewer comparisons past 64 or
+    // so blocks (about 1/40 as many at 4096), but block swaps take most of the time with cheap
+    // comparisons, and there it only pulls ahead at 128.
+    final static int TOURNAMENT_BLOCK_COUNT = 128;
+
+    // Puts the blocks of two sorted subarrays in order by their first items (or last items, if
+    // 'sortByTail'), swapping the keys in front of them along the way
+    private void sortBlocks(int[] array, int firstKey, int start, int blockCount,
+                                       int leftBlocks, int blockLen,
+                                       boolean sortByTail) {
+        if(blockCount >= TOURNAMENT_BLOCK_COUNT) {
+            this.sortBlocksByTournament(array, firstKey, start, blockCount, leftBlocks, blockLen, sortByTail);
+        }
+        else {
+            sortBlocksByScan(array, firstKey, start, blockCount, leftBlocks, blockLen, sortByTail);
+        }
+    }
+
+    // implementation of "smart block selection" sort
+    // code inspired by Anonymous0726
+    private static void sortBlocksByScan(int[] array, int firstKey, int start, int blockCount,
+                                                    int leftBlocks, int blockLen,
+                                                    boolean sortByTail) {
+        // this check might be unnecessary with the new "combine blocks" control flow
+		if(blockCount == leftBlocks) return;
+
+        int cmpIndex   = sortByTail ? blockLen - 1 : 0;
+
+        int blockIndex = start;
+        int keyIndex   = firstKey;
+
+        int rightBlock = start    + (leftBlocks * blockLen);
+        int rightKey   = firstKey +  leftBlocks;
+
+        boolean sorted = true;
+
+        // phase one: find first index in left subarray where a smaller right block can be swapped;
+        //            if no swaps occur, the subarrays are already in order
+        do {
+            if(array[rightBlock + cmpIndex] < array[blockIndex + cmpIndex]) {
+                swapBlocksForwards(array, blockIndex, rightBlock, blockLen);
+                swap(array, keyIndex, rightKey);
+                sorted = false;
+            }
+            blockIndex += blockLen;
+            keyIndex++;
+        } while(sorted && keyIndex < rightKey);
+
+        if(sorted) return;
+
+		// consider anonymous' suggestion
+
+        int lastKey = firstKey + blockCount - 1;
+        int scrambledEnd = rightKey < lastKey ? rightKey + 1 : rightKey;
+
+        // phase two: replace the entire left subarray with blocks in sorted order from the
+        //            scrambled area, keeping track of the rightmost block swapped
+        while(keyIndex < rightKey) {
+            int selectBlock = rightBlock;
+            int selectKey   = rightKey;
+
+            int currBlock   = rightBlock + blockLen;
+
+            for(int currKey = rightKey + 1; currKey <= scrambledEnd; currKey++, currBlock += blockLen) {
+                int   currItem = array[  currBlock + cmpIndex];
+                int selectItem = array[selectBlock + cmpIndex];
+                if(currItem < selectItem || (currItem == selectItem && array[  currKey] <
+                                                                       array[selectKey])) {
+                    selectBlock = currBlock;
+                    selectKey   = currKey;
+                }
+            }
+
+            swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+            swap(array, keyIndex, selectKey);
+
+            if(selectKey == scrambledEnd && scrambledEnd < lastKey) scrambledEnd++;
+
+            blockIndex += blockLen;
+            keyIndex++;
+        }
+
+        // phase three: after the left subarray has been sorted, keep finding the next block in order
+        //              from the scrambled area until either (a) the scrambled area runs out of blocks,
+        //              meaning the rest are sorted, or (b) the scrambled area hits the end of the right
+        //              subarray
+        while(scrambledEnd < lastKey) {
+            int selectBlock = blockIndex;
+            int selectKey   = keyIndex;
+
+            int currBlock   = blockIndex + blockLen;
+
+            for(int currKey = keyIndex + 1; currKey <= scrambledEnd; currKey++, currBlock += blockLen) {
+                int   currItem = array[  currBlock + cmpIndex];
+                int selectItem = array[selectBlock + cmpIndex];
+                if(currItem < selectItem || (currItem == selectItem && array[  currKey] <
+                                                                       array[selectKey])) {
+                    selectBlock = currBlock;
+                    selectKey   = currKey;
+                }
+            }
+
+            if(selectKey != keyIndex) {
+                swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+                swap(array, keyIndex, selectKey);
+
+                if(selectKey == scrambledEnd) scrambledEnd++;
+            }
+
+            blockIndex += blockLen;
+            keyIndex++;
+
+            if(keyIndex == scrambledEnd) return;
+        }
+
+        // phase four: sort the remainder blocks from the scrambled area
+        do {
+            int selectBlock = blockIndex;
+            int selectKey   = keyIndex;
+
+            int currBlock   = blockIndex + blockLen;
+
+            for(int currKey = keyIndex + 1; currKey <= lastKey; currKey++, currBlock += blockLen) {
+                int   currItem = array[  currBlock + cmpIndex];
+                int selectItem = array[selectBlock + cmpIndex];
+                if(currItem < selectItem || (currItem == selectItem && array[  currKey] <
+                                                                       array[selectKey])) {
+                    selectBlock = currBlock;
+                    selectKey   = currKey;
+                }
+            }
+
+            if(selectKey != keyIndex) {
+                swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+                swap(array, keyIndex, selectKey);
+            }
+
+            blockIndex += blockLen;
+            keyIndex++;
+        } while(keyIndex < lastKey);
+    }
+
+    // Of two blocks given by their keys, returns the one that comes first, comparing keys on ties
+    // so that equal blocks keep their order; -1 stands for no block
+    private static int tournamentWinner(int[] array, int firstKey, int start, int blockLen, int cmpIndex,
+                                                   int leftKey, int rightKey) {
+        if(leftKey  == -1) return rightKey;
+        if(rightKey == -1) return  leftKey;
+
+        int  leftItem = array[start + ((leftKey  - firstKey) * blockLen) + cmpIndex];
+        int rightItem = array[start + ((rightKey - firstKey) * blockLen) + cmpIndex];
+        if(leftItem < rightItem || (leftItem == rightItem && array[leftKey] < array[rightKey])) {
+            return leftKey;
+        }
+        return rightKey;
+    }
+
+    // Sets the tree's leaf for 'key' to 'leaf' (either the same key, or -1 to take it out of the
+    // running) and replays the matches on its way up to the root
+    private static void updateTournament(int[] array, int firstKey, int start, int blockLen, int cmpIndex,
+                                                   int[] tree, int leaves, int firstLeafKey, int key, int leaf) {
+        int node = leaves + (key - firstLeafKey);
+        tree[node] = leaf;
+
+        for(node /= 2; node > 0; node /= 2) {
+            tree[node] = tournamentWinner(array, firstKey, start, blockLen, cmpIndex,
+                                          tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    // A tournament tree with room for 'leaves' leaves; it's only allocated when the one kept from
+    // earlier sorts is too small
+    private int[] getTournamentTree(int leaves) {
+        if(this.tournamentTree == null || this.tournamentTree.length < 2 * leaves) {
+            this.tournamentTree = new int[2 * leaves];
+        }
+        return this.tournamentTree;
+    }
+
+    // Same result as sortBlocksByScan, but the scrambled area is kept in a tournament tree -- an
+    // int[] of twice as many nodes as there are right blocks -- so each block is found in
+    // O(log blockCount) comparisons instead of one per block in the scrambled area. The tree holds
+    // the keys of the blocks that are in the running, which are also where those blocks are.
+    private void sortBlocksByTournament(int[] array, int firstKey, int start, int blockCount,
+                                                   int leftBlocks, int blockLen,
+                                                   boolean sortByTail) {
+        if(blockCount == leftBlocks) return;
+
+        int cmpIndex   = sortByTail ? blockLen - 1 : 0;
+
+        int blockIndex = start;
+        int keyIndex   = firstKey;
+
+        int rightBlock = start    + (leftBlocks * blockLen);
+        int rightKey   = firstKey +  leftBlocks;
+
+        boolean sorted = true;
+
+        // phase one: same as sortBlocksByScan
+        do {
+            if(array[rightBlock + cmpIndex] < array[blockIndex + cmpIndex]) {
+                swapBlocksForwards(array, blockIndex, rightBlock, blockLen);
+                swap(array, keyIndex, rightKey);
+                sorted = false;
+            }
+            blockIndex += blockLen;
+            keyIndex++;
+        } while(sorted && keyIndex < rightKey);
+
+        if(sorted) return;
+
+        int lastKey = firstKey + blockCount - 1;
+        int scrambledEnd = rightKey < lastKey ? rightKey + 1 : rightKey;
+
+        // one leaf for every right block; the tree starts with the scrambled area in the running
+        int leaves = 1;
+        while(leaves < blockCount - leftBlocks) {
+            leaves *= 2;
+        }
+        int[] tree = this.getTournamentTree(leaves);
+        Arrays.fill(tree, 0, 2 * leaves, -1);
+
+        for(int key = rightKey; key <= scrambledEnd; key++) {
+            tree[leaves + (key - rightKey)] = key;
+        }
+        for(int node = leaves - 1; node > 0; node--) {
+            tree[node] = tournamentWinner(array, firstKey, start, blockLen, cmpIndex,
+                                          tree[2 * node], tree[2 * node + 1]);
+        }
+
+        // phase two: the winner replaces the next left block, which takes the winner's place in
+        //            the scrambled area
+        while(keyIndex < rightKey) {
+            int selectKey   = tree[1];
+            int selectBlock = start + ((selectKey - firstKey) * blockLen);
+
+            swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+            swap(array, keyIndex, selectKey);
+
+            updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                             selectKey, selectKey);
+
+            if(selectKey == scrambledEnd && scrambledEnd < lastKey) {
+                scrambledEnd++;
+                updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                                 scrambledEnd, scrambledEnd);
+            }
+
+            blockIndex += blockLen;
+            keyIndex++;
+        }
+
+        // phases three and four: the winner trades places with the next block, which then leaves
+        //                        the running, until the rest of the blocks are in order
+        while(keyIndex < lastKey) {
+            int selectKey = tree[1];
+
+            if(selectKey != keyIndex) {
+                int selectBlock = start + ((selectKey - firstKey) * blockLen);
+
+                swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+                swap(array, keyIndex, selectKey);
+
+                updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                                 selectKey, selectKey);
+
+                if(selectKey == scrambledEnd && scrambledEnd < lastKey) {
+                    scrambledEnd++;
+                    updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                                     scrambledEnd, scrambledEnd);
+                }
+            }
+            updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+                             keyIndex, -1);
+
+            blockIndex += blockLen;
+            keyIndex++;
+
+            if(keyIndex == scrambledEnd && scrambledEnd < lastKey) return;
+        }
+    }
+
+    private static Subarray getSubarray(int[] array, int currentKey, int medianKey) {
+        if(array[currentKey] < medianKey) {
+            return Subarray.LEFT;
+        }
+        else {
+            return Subarray.RIGHT;
+        }
+    }
+
+    // FUNCTION RE-RENAMED: last/final left blocks are used to calculate the length of the final merge
+    private static int countLastMergeBlocks(int[] array, int offset, int blockCount, int blockLen) {
+        int blocksToMerge = 0;
+
+        int lastRightFrag = offset + (blockCount * blockLen);
+        int prevLeftBlock = lastRightFrag - blockLen;
+
+        while(blocksToMerge < blockCount && array[lastRightFrag] < array[prevLeftBlock]) {
+            blocksToMerge++;
+            prevLeftBlock -= blockLen;
+        }
+
+        return blocksToMerge;
+    }
+
+    private void localMergeForwards(int[] array, int start, int leftLen, Subarray leftOrigin, int rightLen,
+                                                          int bufferOffset) {
+        int buffer = start  - bufferOffset;
+        int   left = start;
+        int middle = start  +  leftLen;
+        int  right = middle;
+        int    end = middle + rightLen;
+
+        // equal items are taken from whichever subarray came from the left
+        boolean leftFirst = leftOrigin == Subarray.LEFT;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left < middle && right < end) {
+            if(leftFirst ? array[left] <= array[right]
+                         : array[left] < array[right]) {
+                swap(array, buffer, left);
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                swap(array, buffer, right);
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer++;
+
+            if(leftStreak >= minGallop && right < end) {
+                int count = gallopForwards(array, left, middle - left, array[right], leftFirst);
+                swapBlocksForwards(array, buffer, left, count);
+                buffer += count;
+                left   += count;
+
+                if(left < middle) {
+                    // the right item is next, no need to compare it again
+                    swap(array, buffer, right);
+                    buffer++;
+                    right++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left < middle) {
+                int count = gallopForwards(array, right, end - right, array[left], !leftFirst);
+                swapBlocksForwards(array, buffer, right, count);
+                buffer += count;
+                right  += count;
+
+                if(right < end) {
+                    swap(array, buffer, left);
+                    buffer++;
+                    left++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+
+        if(left < middle) {
+            int leftFrag = middle - left;
+            swapBlocksBackwards(array, left, end - leftFrag, leftFrag);
+            this.currBlockLen = leftFrag;
+
+            //this.currBlockLen = leftFrag;
+            //rewindBuffer(array, left, middle - 1, end - 1);
+        }
+        else {
+            this.currBlockLen = end - right;
+            if(leftOrigin == Subarray.LEFT) {
+                this.currBlockOrigin = Subarray.RIGHT;
+            }
+            else {
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+        }
+    }
+
+    private void localMergeBackwards(int[] array, int start, int leftLen, int rightLen, Subarray rightOrigin,
+                                                           int bufferOffset) {
+        int    end = start  -  1;
+        int   left = end    +  leftLen;
+        int middle = left;
+        int  right = middle + rightLen;
+        int buffer = right  + bufferOffset;
+
+        // equal items are taken from whichever subarray came from the right
+        boolean rightFirst = rightOrigin == Subarray.RIGHT;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left > end && right > middle) {
+            if(rightFirst ? array[left] > array[right]
+                          : array[left] >= array[right]) {
+                swap(array, buffer, left);
+                left--;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                swap(array, buffer, right);
+                right--;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer--;
+
+            if(leftStreak >= minGallop && right > middle) {
+                int count = gallopBackwards(array, end + 1, left - end, array[right], !rightFirst);
+                swapBlocksBackwards(array, buffer - count + 1, left - count + 1, count);
+                buffer -= count;
+                left   -= count;
+
+                if(left > end) {
+                    // the right item is next, no need to compare it again
+                    swap(array, buffer, right);
+                    buffer--;
+                    right--;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left > end) {
+                int count = gallopBackwards(array, middle + 1, right - middle, array[left], rightFirst);
+                swapBlocksBackwards(array, buffer - count + 1, right - count + 1, count);
+                buffer -= count;
+                right  -= count;
+
+                if(right > middle) {
+                    swap(array, buffer, left);
+                    buffer--;
+                    left--;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+
+        if(right > middle) {
+            int rightFrag = right - middle;
+            swapBlocksForwards(array, end + 1, middle + 1, rightFrag);
+            this.currBlockLen = rightFrag;
+
+            //this.currBlockLen = right - middle;
+            //fastForwardBuffer(array, end + 1, middle + 1, right);
+        }
+        else {
+            this.currBlockLen = left - end;
+            if(rightOrigin == Subarray.RIGHT) {
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+            else {
+                this.currBlockOrigin = Subarray.RIGHT;
+            }
+        }
+    }
+
+    private void localLazyMerge(int[] array, int start, int leftLen, Subarray leftOrigin, int rightLen) {
+        int middle = start + leftLen;
+
+        if(leftOrigin == Subarray.LEFT) {
+            if(array[middle - 1] > array[middle]) {
+                while(leftLen != 0) {
+                    int mergeLen = binarySearchLeft(array, middle, rightLen, array[start]);
+
+                    if(mergeLen != 0) {
+                        rotate(array, start, leftLen, mergeLen, this.extBuffer, this.extBufferLen);
+
+                        start    += mergeLen;
+                        middle   += mergeLen;
+                        rightLen -= mergeLen;
+                    }
+
+                    if(rightLen == 0) {
+                        this.currBlockLen = leftLen;
+                        return;
+                    }
+                    else {
+                        do {
+                            start++;
+                            leftLen--;
+                        } while(leftLen != 0 && array[start ] <= array[middle]);
+                    }
+                }
+            }
+        }
+        else {
+            if(array[middle - 1] >= array[middle]) {
+                while(leftLen != 0) {
+                    int mergeLen = binarySearchRight(array, middle, rightLen, array[start]);
+
+                    if(mergeLen != 0) {
+                        rotate(array, start, leftLen, mergeLen, this.extBuffer, this.extBufferLen);
+
+                        start    += mergeLen;
+                        middle   += mergeLen;
+                        rightLen -= mergeLen;
+                    }
+
+                    if(rightLen == 0) {
+                        this.currBlockLen = leftLen;
+                        return;
+                    }
+                    else {
+                        do {
+                            start++;
+                            leftLen--;
+                        } while(leftLen != 0 && array[start ] < array[middle]);
+                    }
+                }
+            }
+        }
+
+        this.currBlockLen = rightLen;
+        if(leftOrigin == Subarray.LEFT) {
+            this.currBlockOrigin = Subarray.RIGHT;
+        }
+        else {
+            this.currBlockOrigin = Subarray.LEFT;
+        }
+    }
+
+    // FUNCTION RENAMED: more consistent with other "out-of-place" merges
+    private void localMergeForwardsOutOfPlace(int[] array, int start, int leftLen, Subarray leftOrigin,
+                                                                    int rightLen, int bufferOffset) {
+        int buffer = start  - bufferOffset;
+        int   left = start;
+        int middle = start  +  leftLen;
+        int  right = middle;
+        int    end = middle + rightLen;
+
+        // equal items are taken from whichever subarray came from the left
+        boolean leftFirst = leftOrigin == Subarray.LEFT;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left < middle && right < end) {
+            if(leftFirst ? array[left] <= array[right]
+                         : array[left] < array[right]) {
+                array[buffer] = array[left];
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                array[buffer] = array[right];
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer++;
+
+            if(leftStreak >= minGallop && right < end) {
+                int count = gallopForwards(array, left, middle - left, array[right], leftFirst);
+                System.arraycopy(array, left, array, buffer, count);
+                buffer += count;
+                left   += count;
+
+                if(left < middle) {
+                    // the right item is next, no need to compare it again
+                    array[buffer] = array[right];
+                    buffer++;
+                    right++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left < middle) {
+                int count = gallopForwards(array, right, end - right, array[left], !leftFirst);
+                System.arraycopy(array, right, array, buffer, count);
+                buffer += count;
+                right  += count;
+
+                if(right < end) {
+                    array[buffer] = array[left];
+                    buffer++;
+                    left++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+
+        if(left < middle) {
+            int leftFrag = middle - left;
+            System.arraycopy(array, left, array, end - leftFrag, leftFrag);
+            this.currBlockLen = leftFrag;
+
+            //int leftFrag = middle - left;
+            //swapBlocksBackwards(array, left, end - leftFrag, leftFrag);
+            //this.currBlockLen = leftFrag;
+
+            //this.currBlockLen = middle - left;
+            //rewindOutOfPlace(array, left, middle - 1, end - 1);
+        }
+        else {
+            this.currBlockLen = end - right;
+            if(leftOrigin == Subarray.LEFT) {
+                this.currBlockOrigin = Subarray.RIGHT;
+            }
+            else {
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+        }
+    }
+
+    private void mergeBlocksForwards(int[] array, int firstKey, int medianKey, int start,
+                                                int blockCount, int blockLen, int lastMergeBlocks,
+                                                int lastLen) {
+        int buffer;
+
+        int currBlock;
+        int nextBlock = start + blockLen;
+
+        this.currBlockLen    = blockLen;
+        this.currBlockOrigin = getSubarray(array, firstKey, medianKey);
+
+        for(int keyIndex = 1; keyIndex < blockCount; keyIndex++, nextBlock += blockLen) {
+            Subarray nextBlockOrigin;
+
+            currBlock       = nextBlock - this.currBlockLen;
+            nextBlockOrigin = getSubarray(array, firstKey + keyIndex, medianKey);
+
+            if(nextBlockOrigin != this.currBlockOrigin) {
+                this.localMergeForwards(array, currBlock, this.currBlockLen, this.currBlockOrigin,
+                                        blockLen, blockLen);
+            }
+            else {
+                buffer = currBlock - blockLen;
+                swapBlocksForwards(array, buffer, currBlock, this.currBlockLen);
+                this.currBlockLen = blockLen;
+            }
+        }
+
+        currBlock = nextBlock - this.currBlockLen;
+        buffer    = currBlock - blockLen;
+
+        if(lastLen != 0) {
+            if(this.currBlockOrigin == Subarray.RIGHT) {
+                swapBlocksForwards(array, buffer, currBlock, this.currBlockLen);
+
+                currBlock            = nextBlock;
+                this.currBlockLen    = blockLen * lastMergeBlocks;
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+            else {
+                this.currBlockLen += blockLen * lastMergeBlocks;
+            }
+
+            mergeForwards(array, currBlock, this.currBlockLen, lastLen, blockLen);
+        }
+        else {
+            swapBlocksForwards(array, buffer, currBlock, this.currBlockLen);
+        }
+    }
+
+    private void lazyMergeBlocks(int[] array, int firstKey, int medianKey, int start,
+                                            int blockCount, int blockLen, int lastMergeBlocks,
+                                            int lastLen) {
+        int currBlock;
+        int nextBlock = start + blockLen;
+
+        this.currBlockLen    = blockLen;
+        this.currBlockOrigin = getSubarray(array, firstKey, medianKey);
+
+        for(int keyIndex = 1; keyIndex < blockCount; keyIndex++, nextBlock += blockLen) {
+            Subarray nextBlockOrigin;
+
+            currBlock       = nextBlock - this.currBlockLen;
+            nextBlockOrigin = getSubarray(array, firstKey + keyIndex, medianKey);
+
+            if(nextBlockOrigin != this.currBlockOrigin) {
+                this.localLazyMerge(array, currBlock, this.currBlockLen, this.currBlockOrigin,
+                                    blockLen);
+            }
+            else {
+                this.currBlockLen = blockLen;
+            }
+        }
+
+        currBlock = nextBlock - this.currBlockLen;
+
+        if(lastLen != 0) {
+            if(this.currBlockOrigin == Subarray.RIGHT) {
+                currBlock            = nextBlock;
+                this.currBlockLen    = blockLen * lastMergeBlocks;
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+            else {
+                this.currBlockLen += blockLen * lastMergeBlocks;
+            }
+
+            // TODO: double-check direction
+            lazyMergeBackwards(array, currBlock, this.currBlockLen, lastLen, this.extBuffer, this.extBufferLen);
+        }
+    }
+
+    private void mergeBlocksBackwards(int[] array, int firstKey, int medianKey, int start,
+                                      int blockCount, int blockLen, int lastLen) {
+
+        int nextBlock = start + (blockCount * blockLen) - 1;
+        int buffer    = nextBlock + lastLen + blockLen;
+
+        // The last fragment (lastLen) came from the right subarray,
+        // although it may be empty (lastLen == 0)
+        this.currBlockLen    = lastLen;
+        this.currBlockOrigin = Subarray.RIGHT;
+
+        for(int keyIndex = blockCount - 1; keyIndex >= 0; keyIndex--, nextBlock -= blockLen) {
+            Subarray nextBlockOrigin = getSubarray(array, firstKey + keyIndex, medianKey);
+
+            if(nextBlockOrigin != this.currBlockOrigin) {
+                // TODO: buffer length *should* always be equivalent to:
+                // right block length -  forwards merge blocks
+                //  left block length - backwards merge blocks
+                // TODO: redo this jank solution with the `start` offset
+                this.localMergeBackwards(array, nextBlock - blockLen + 1, blockLen, this.currBlockLen, this.currBlockOrigin,
+                                         blockLen);
+            }
+            else {
+                buffer = nextBlock + blockLen + 1;
+                swapBlocksBackwards(array, nextBlock + 1, buffer, this.currBlockLen);
+                this.currBlockLen = blockLen;
+            }
+        }
+
+        swapBlocksBackwards(array, start, start + blockLen, this.currBlockLen);
+    }
+
+    private void mergeBlocksForwardsOutOfPlace(int[] array, int firstKey, int medianKey, int start,
+                                                          int blockCount, int blockLen, int lastMergeBlocks,
+                                                          int lastLen) {
+        int buffer;
+
+        int currBlock;
+        int nextBlock = start + blockLen;
+
+        this.currBlockLen    = blockLen;
+        this.currBlockOrigin = getSubarray(array, firstKey, medianKey);
+
+        for(int keyIndex = 1; keyIndex < blockCount; keyIndex++, nextBlock += blockLen) {
+            Subarray nextBlockOrigin;
+
+            currBlock       = nextBlock - this.currBlockLen;
+            nextBlockOrigin = getSubarray(array, firstKey + keyIndex, medianKey);
+
+            if(nextBlockOrigin != this.currBlockOrigin) {
+                this.localMergeForwardsOutOfPlace(array, currBlock, this.currBlockLen, this.currBlockOrigin,
+                                                  blockLen, blockLen);
+            }
+            else {
+                buffer = currBlock - blockLen;
+
+                System.arraycopy(array, currBlock, array, buffer, this.currBlockLen);
+                this.currBlockLen = blockLen;
+
+            }
+        }
+
+        currBlock = nextBlock - this.currBlockLen;
+        buffer    = currBlock - blockLen;
+
+        if(lastLen != 0) {
+            if(this.currBlockOrigin == Subarray.RIGHT) {
+                System.arraycopy(array, currBlock, array, buffer, this.currBlockLen);
+
+                currBlock            = nextBlock;
+                this.currBlockLen    = blockLen * lastMergeBlocks;
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+            else {
+                this.currBlockLen += blockLen * lastMergeBlocks;
+            }
+
+            mergeForwardsOutOfPlace(array, currBlock, this.currBlockLen, lastLen, blockLen);
+        }
+        else {
+            System.arraycopy(array, currBlock, array, buffer, this.currBlockLen);
+        }
+    }
+
+    // a novel, elegant, and incredibly efficient 1.5 sqrt n key sort, courtesy of Control
+    // only works if a) median key is known and b) keys were permutated by "sortBlocks"
+    // (keys < medianKey and >= medianKey are each in relative sorted order, resembling a final radix sort pass)
+    private static void sortKeys(int[] array, int firstKey, int medianKey, int keyCount, int buffer, int bufferLen) {
+        int currKey     = firstKey;
+        int keysEnd     = firstKey + keyCount;
+        int bufferSwaps = 0;
+
+        // Blocks shorter than SQRT's (see BlockLenPolicy) can leave more keys >= medianKey than a block
+        // of buffer holds. Whenever it's full, its keys go back in behind the smaller keys found since,
+        // and are rotated past them to join the ones it held before, at [lessEnd, lessEnd + spilled).
+        // With SQRT's blocks, the buffer never fills up.
+        int lessEnd = firstKey;
+        int spilled = 0;
+
+        while(currKey < keysEnd) {
+            if(array[currKey] < medianKey) {
+                if(bufferSwaps != 0) {
+                    swap(array, currKey, currKey - bufferSwaps);
+                }
+            }
+            else {
+                if(bufferSwaps == bufferLen) {
+                    spillKeys(array, lessEnd, spilled, currKey, buffer, bufferSwaps);
+                    lessEnd  = currKey - bufferSwaps - spilled;
+                    spilled += bufferSwaps;
+                    bufferSwaps = 0;
+                }
+                swap(array, currKey, buffer + bufferSwaps);
+                bufferSwaps++;
+            }
+            currKey++;
+        }
+
+        if(spilled != 0) {
+            spillKeys(array, lessEnd, spilled, currKey, buffer, bufferSwaps);
+        }
+        else {
+            swapBlocksBackwards(array, currKey - bufferSwaps, buffer, bufferSwaps);
+        }
+    }
+
+    // [lessEnd, lessEnd + spilled) + smaller keys + 'bufferSwaps' buffer items up to 'currKey', with
+    // the keys they stand in for at 'buffer' --> smaller keys + every key >= medianKey so far
+    private static void spillKeys(int[] array, int lessEnd, int spilled, int currKey, int buffer, int bufferSwaps) {
+        swapBlocksBackwards(array, currKey - bufferSwaps, buffer, bufferSwaps);
+        rotate(array, lessEnd, spilled, currKey - bufferSwaps - lessEnd - spilled);
+    }
+
+    private static void groupKeys(int[] array, int left, int right, int medianKey) {
+        while(left < right && array[left] < medianKey) left++;
+
+        for(int i = left + 1; i < right; i++) {
+            if(array[i] < medianKey) {
+                insertBackwards(array, left, i - left);
+                left++;
+            }
+        }
+    }
+
+    private static void mergeGroups(int[] array, int left, int middle, int right, int medianKey,
+                                    int[] extBuffer, int extBufferLen) {
+        int leftLen = middle - left;
+        int rightLen = right - middle;
+
+        int mergeStart = left + binarySearchLeft(array, left, leftLen, medianKey);
+        int mergeLen = binarySearchLeft(array, middle, rightLen, medianKey);
+
+        rotate(array, mergeStart, middle - mergeStart, mergeLen, extBuffer, extBufferLen);
+    }
+
+    // another novel, elegant, and efficient key sort for Holy Grailsort, specifically for Strategy 2
+    // based on lazy stable sorting, this algorithm achieves less than 2n comparisons and O(n log n) moves
+    // works based off of the same assumptions as 'sortKeys'
+    // designed and implemented by aphitorite
+    private static void lazySortKeys(int[] array, int firstKey, int keyCount, int medianKey,
+                                     int[] extBuffer, int extBufferLen) {
+        int runLen = 8;
+        int keysEnd = firstKey + keyCount;
+
+        int i;
+        for(i = firstKey; i + runLen < keysEnd; i += runLen) {
+            groupKeys(array, i, i + runLen, medianKey);
+        }
+        groupKeys(array, i, keysEnd, medianKey);
+
+        while(runLen < keyCount) {
+            int fullMerge = 2 * runLen;
+
+            int mergeIndex;
+            int mergeEnd = keysEnd - fullMerge;
+
+            for(mergeIndex = firstKey; mergeIndex <= mergeEnd; mergeIndex += fullMerge) {
+                mergeGroups(array, mergeIndex, mergeIndex + runLen, mergeIndex + fullMerge, medianKey,
+                            extBuffer, extBufferLen);
+            }
+
+            int leftOver = keysEnd - mergeIndex;
+            if(leftOver > runLen) {
+                mergeGroups(array, mergeIndex, mergeIndex + runLen, keysEnd, medianKey, extBuffer, extBufferLen);
+            }
+
+            runLen *= 2;
+        }
+    }
+
+    // array[start, start + leftLen) + extBuffer[0, rightLen)
+    // --> array[start, start + leftLen + rightLen)
+    private static void mergeBackwardsFromBuffer(int[] array, int start, int leftLen, int[] extBuffer, int rightLen) {
+        int   left = start + leftLen - 1;
+        int  right = rightLen - 1;
+        int buffer = left  + rightLen;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(right >= 0) {
+            if(left >= start && array[    left] > extBuffer[right]) {
+                array[buffer] = array[left];
+                left--;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            else {
+                array[buffer] = extBuffer[right];
+                right--;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            buffer--;
+
+            if(leftStreak >= minGallop) {
+                int count = gallopBackwards(array, start, left - start + 1, extBuffer[right], false);
+                System.arraycopy(array, left - count + 1, array, buffer - count + 1, count);
+                buffer -= count;
+                left   -= count;
+
+                // the buffered item is next, no need to compare it again
+                array[buffer] = extBuffer[right];
+                buffer--;
+                right--;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+            else if(rightStreak >= minGallop && left >= start) {
+                int count = gallopBackwards(extBuffer, 0, right + 1, array[left], true);
+                System.arraycopy(extBuffer, right - count + 1, array, buffer - count + 1, count);
+                buffer -= count;
+                right  -= count;
+
+                if(right >= 0) {
+                    array[buffer] = array[left];
+                    buffer--;
+                    left--;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+        }
+    }
+
+    // extBuffer[0, leftLen) + array[start + leftLen, start + leftLen + rightLen)
+    // --> array[start, start + leftLen + rightLen)
+    private static void mergeForwardsFromBuffer(int[] array, int start, int[] extBuffer, int leftLen, int rightLen) {
+        int   left = 0;
+        int  right = start + leftLen;
+        int    end = right + rightLen;
+        int buffer = start;
+
+        int   minGallop = MIN_GALLOP;
+        int  leftStreak = 0;
+        int rightStreak = 0;
+
+        while(left < leftLen) {
+            if(right < end && extBuffer[left] > array[    right]) {
+                array[buffer] = array[right];
+                right++;
+                rightStreak++;
+                leftStreak = 0;
+            }
+            else {
+                array[buffer] = extBuffer[left];
+                left++;
+                leftStreak++;
+                rightStreak = 0;
+            }
+            buffer++;
+
+            if(rightStreak >= minGallop && left < leftLen) {
+                int count = gallopForwards(array, right, end - right, extBuffer[left], false);
+                System.arraycopy(array, right, array, buffer, count);
+                buffer += count;
+                right  += count;
+
+                // the buffered item is next, no need to compare it again
+                array[buffer] = extBuffer[left];
+                buffer++;
+                left++;
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 1;
+                rightStreak = 0;
+            }
+            else if(leftStreak >= minGallop && right < end) {
+                int count = gallopForwards(extBuffer, left, leftLen - left, array[right], true);
+                System.arraycopy(extBuffer, left, array, buffer, count);
+                buffer += count;
+                left   += count;
+
+                if(left < leftLen) {
+                    array[buffer] = array[right];
+                    buffer++;
+                    right++;
+                }
+
+                minGallop   = adjustMinGallop(minGallop, count);
+                leftStreak  = 0;
+                rightStreak = 1;
+            }
+        }
+    }
+
+    // Merges two subarrays without a scrolling buffer. If either subarray fits in the extBuffer, it's merged
+    // straight back in from there. Otherwise, the extBuffer holds the right subarray's last block while the rest
+    // shifts over to make room for an out-of-place block merge; the parked block is merged back in afterwards.
+    // Keys [firstKey, firstKey + (leftLen + rightLen) / blockLen) must belong to this merge alone.
+    private void mergeIndependently(int[] array, int firstKey, int start, int leftLen, int rightLen, int blockLen) {
+        int[] extBuffer = this.extBuffer;
+
+        // subarrays that are already in order don't need to be merged
+        if(array[start + leftLen - 1] <= array[start + leftLen]) {
+            return;
+        }
+
+        if(rightLen <= this.extBufferLen) {
+            System.arraycopy(array, start + leftLen, extBuffer, 0, rightLen);
+            mergeBackwardsFromBuffer(array, start, leftLen, extBuffer, rightLen);
+            return;
+        }
+        if(leftLen <= this.extBufferLen) {
+            System.arraycopy(array, start, extBuffer, 0, leftLen);
+            mergeForwardsFromBuffer(array, start, extBuffer, leftLen, rightLen);
+            return;
+        }
+
+        int headLen = leftLen + rightLen - blockLen;
+        int  offset = start   + blockLen;
+
+        System.arraycopy(array, start + headLen, extBuffer, 0, blockLen);
+        System.arraycopy(array, start, array, offset, headLen);
+
+        int blockCount = headLen  / blockLen;
+        int leftBlocks = leftLen  / blockLen;
+        int medianKey  = array[firstKey + leftBlocks];
+
+        this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false);
+
+        int lastFragment = headLen - (blockCount * blockLen);
+        int lastMergeBlocks = 0;
+        if(lastFragment != 0) {
+            lastMergeBlocks = countLastMergeBlocks(array, offset, blockCount, blockLen);
+        }
+
+        int smartMerges = blockCount - lastMergeBlocks;
+
+        if(smartMerges == 0) {
+            mergeForwardsOutOfPlace(array, offset, lastMergeBlocks * blockLen, lastFragment, blockLen);
+        }
+        else {
+            this.mergeBlocksForwardsOutOfPlace(array, firstKey, medianKey, offset, smartMerges, blockLen,
+                                               lastMergeBlocks, lastFragment);
+        }
+
+        // the parked block's old spot is free space now, just big enough for Control's key sort
+        sortKeys(array, firstKey, medianKey, blockCount, start + headLen, blockLen);
+
+        mergeBackwardsFromBuffer(array, start, headLen, extBuffer, blockLen);
+    }
+
+    // Combines sorted runs of 'subarrayLen' with only the keys and this sorter's extBuffer, so there's no
+    // scrolling buffer to sort back in afterwards. Each level's blocks are as short as its keys allow; once
+    // they're too long to fit in the extBuffer, the level is combined with lazy block merges instead.
+    private void combineOutOfPlace(int[] array, int firstKey, int keyCount, int start, int length,
+                                              int subarrayLen, int blockLen) {
+        for(; subarrayLen < length; subarrayLen *= 2) {
+            int mergeLen = 2 * subarrayLen;
+
+            int levelBlockLen = blockLen;
+            while((Math.min(mergeLen, length) / levelBlockLen) >= keyCount) {
+                levelBlockLen *= 2;
+            }
+
+            if(levelBlockLen > this.extBufferLen) {
+                this.lazyCombine(array, firstKey, start, length, subarrayLen, levelBlockLen);
+                continue;
+            }
+
+            for(int mergeIndex = start; mergeIndex < start + length - subarrayLen; mergeIndex += mergeLen) {
+                int rightLen = Math.min(subarrayLen, start + length - mergeIndex - subarrayLen);
+
+                this.mergeIndependently(array, firstKey, mergeIndex, subarrayLen, rightLen, levelBlockLen);
+            }
+        }
+    }
+
+    private void combineForwards(int[] array, int firstKey, int start, int length, int subarrayLen, int blockLen) {
+        // TODO: Double-check names and change all other functions to match
+        int      mergeLen = 2 * subarrayLen;
+        int    fullMerges = length / mergeLen;
+        int    blockCount = mergeLen / blockLen;
+        int lastSubarrays = length - (mergeLen * fullMerges);
+
+        int fastForwardLen = 0;
+        if(lastSubarrays <= subarrayLen) {
+            if(fullMerges % 2 != 0) {
+                fastForwardLen = lastSubarrays;
+            }
+            length -= lastSubarrays;
+            lastSubarrays = 0;
+        }
+
+        int leftBlocks = subarrayLen / blockLen;
+        int medianKey  = array[firstKey + leftBlocks];
+
+        for(int mergeIndex = 0; mergeIndex < fullMerges; mergeIndex++) {
+            int offset = start + (mergeIndex * mergeLen);
+
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false);
+            this.mergeBlocksForwards(array, firstKey, medianKey, offset, blockCount, blockLen, 0, 0);
+
+            // TODO: Replace with Control's key sort
+            sortKeys(array, firstKey, medianKey, blockCount, offset + mergeLen - blockLen, blockLen);
+            //insertSort(array, firstKey, blockCount);
+        }
+
+        int offset = start + (fullMerges * mergeLen);
+
+        if(lastSubarrays != 0) {
+            blockCount = lastSubarrays / blockLen;
+
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false);
+
+            int lastFragment = lastSubarrays - (blockCount * blockLen);
+            int lastMergeBlocks = 0;
+            if (lastFragment != 0) {
+                lastMergeBlocks = countLastMergeBlocks(array, offset, blockCount, blockLen);
+            }
+
+            int smartMerges = blockCount - lastMergeBlocks;
+
+            if(smartMerges == 0) {
+                int leftLen = lastMergeBlocks * blockLen;
+                mergeForwards(array, offset, leftLen, lastFragment, blockLen);
+            }
+            else {
+                this.mergeBlocksForwards(array, firstKey, medianKey, offset, smartMerges, blockLen,
+                                         lastMergeBlocks, lastFragment);
+            }
+
+            //TODO: Why is this 'blockCount + 1'???
+            sortKeys(array, firstKey, medianKey, blockCount, offset + lastSubarrays - blockLen, blockLen);
+            //insertSort(array, firstKey, blockCount);
+
+            if(fullMerges % 2 == 0 && fullMerges != 0) {
+                swapBlocksBackwards(array, offset - blockLen, offset, lastSubarrays);
+
+                // lastSubarrays--;
+                // rewindBuffer(array, offset - blockLen, offset + lastSubarrays - blockLen, offset + lastSubarrays);
+            }
+        }
+        else {
+            if(fastForwardLen == 0) {
+                if(fullMerges % 2 != 0 && fullMerges != 1) {
+                    swapBlocksBackwards(array, offset - blockLen - mergeLen, offset - mergeLen, mergeLen);
+
+                    // TODO: check arguments
+                    // rewindBuffer(array, offset - mergeLen - blockLen, offset - blockLen - 1, offset - 1);
+                }
+            }
+            else {
+                swapBlocksForwards(array, offset - blockLen, offset, fastForwardLen);
+                // fastForwardBuffer(array, offset - blockLen, offset, offset + fastForwardLen - 1);
+            }
+        }
+    }
+
+    private void lazyCombine(int[] array, int firstKey, int start, int length, int subarrayLen, int blockLen) {
+        int      mergeLen = 2 * subarrayLen;
+        int    fullMerges = length / mergeLen;
+        int    blockCount = mergeLen / blockLen;
+        int lastSubarrays = length - (mergeLen * fullMerges);
+
+        if(lastSubarrays <= subarrayLen) {
+            length -= lastSubarrays;
+            lastSubarrays = 0;
+        }
+
+        int leftBlocks = subarrayLen / blockLen;
+        int medianKey  = array[firstKey + leftBlocks];
+
+        for(int mergeIndex = 0; mergeIndex < fullMerges; mergeIndex++) {
+            int offset = start + (mergeIndex * mergeLen);
+
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false);
+            this.lazyMergeBlocks(array, firstKey, medianKey, offset, blockCount, blockLen, 0, 0);
+
+            lazySortKeys(array, firstKey, blockCount, medianKey, this.extBuffer, this.extBufferLen);
+            //insertSort(array, firstKey, blockCount);
+        }
+
+        int offset = start + (fullMerges * mergeLen);
+
+        if(lastSubarrays != 0) {
+            blockCount = lastSubarrays / blockLen;
+
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, false);
+
+            int lastFragment = lastSubarrays - (blockCount * blockLen);
+            int lastMergeBlocks = 0;
+            if (lastFragment != 0) {
+                lastMergeBlocks = countLastMergeBlocks(array, offset, blockCount, blockLen);
+            }
+
+            int smartMerges = blockCount - lastMergeBlocks;
+
+            if(smartMerges == 0) {
+                int leftLen = lastMergeBlocks * blockLen;
+                // TODO: double-check direction
+                lazyMergeBackwards(array, offset, leftLen, lastFragment, this.extBuffer, this.extBufferLen);
+            }
+            else {
+                this.lazyMergeBlocks(array, firstKey, medianKey, offset, smartMerges, blockLen,
+                                     lastMergeBlocks, lastFragment);
+            }
+
+            //TODO: Why is this 'blockCount + 1'???
+            lazySortKeys(array, firstKey, blockCount, medianKey, this.extBuffer, this.extBufferLen);
+        }
+    }
+
+    private void combineBackwards(int[] array, int firstKey, int start, int length, int subarrayLen, int blockLen) {
+        int      mergeLen = 2 * subarrayLen;
+        int    fullMerges = length / mergeLen;
+        int lastSubarrays = length - (mergeLen * fullMerges);
+
+        if(lastSubarrays <= subarrayLen) {
+            length -= lastSubarrays;
+            lastSubarrays = 0;
+        }
+
+        int blockCount = lastSubarrays / blockLen;
+        int leftBlocks = subarrayLen / blockLen;
+        int medianKey  = array[firstKey + leftBlocks];
+
+        if(lastSubarrays != 0) {
+            int offset = start + (fullMerges * mergeLen);
+
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, true);
+
+            int lastFragment = lastSubarrays - (blockCount * blockLen);
+
+            this.mergeBlocksBackwards(array, firstKey, medianKey, offset, blockCount, blockLen,
+                                      lastFragment);
+
+            //TODO: Why is this 'blockCount + 1'???
+            // We believe this '+ 1' is unnecessary and
+            // possibly has a *hilarious* origin story
+            sortKeys(array, firstKey, medianKey, blockCount, offset, blockLen);
+            //insertSort(array, firstKey, blockCount);
+        }
+
+        blockCount = mergeLen / blockLen;
+
+        for(int mergeIndex = fullMerges - 1; mergeIndex >= 0; mergeIndex--) {
+            int offset = start + (mergeIndex * mergeLen);
+
+            this.sortBlocks(array, firstKey, offset, blockCount, leftBlocks, blockLen, true);
+            this.mergeBlocksBackwards(array, firstKey, medianKey, offset, blockCount, blockLen, 0);
+
+            sortKeys(array, firstKey, medianKey, blockCount, offset, blockLen);
+            //insertSort(array, firstKey, blockCount);
+        }
+    }
+
+    // The longest region, of no more than DEPTH_FIRST_LEN or 'maxLen' items, that takes an odd number
+    // of levels to combine from runs of 'subarrayLen', so that its last level is a forwards one and
+    // leaves the scrolling buffer at its end; 0 if even one level is too long
+    private static int getRegionLen(int subarrayLen, int maxLen) {
+        int regionLen = subarrayLen;
+        int    levels = 0;
+
+        while(regionLen <= DEPTH_FIRST_LEN / 2 && regionLen <= maxLen / 2) {
+            regionLen *= 2;
+            levels++;
+        }
+
+        if(levels % 2 == 0) {
+            regionLen /= 2;
+            levels--;
+        }
+
+        return levels > 0 ? regionLen : 0;
+    }
+
+    // Combines the region of 'length' after the scrolling 'buffer' into one run, then moves the buffer to
+    // its end. That's where its last level has left it already, unless the region is the shorter last one.
+    private void combineRegion(int[] array, int firstKey, int buffer, int length, int subarrayLen, int blockLen) {
+        LocalMerge direction = LocalMerge.FORWARDS;
+
+        while(length > subarrayLen) {
+            if(direction == LocalMerge.FORWARDS) {
+                this.combineForwards(array, firstKey, buffer + blockLen, length, subarrayLen, blockLen);
+                direction = LocalMerge.BACKWARDS;
+            }
+            else {
+                this.combineBackwards(array, firstKey, buffer, length, subarrayLen, blockLen);
+                direction = LocalMerge.FORWARDS;
+            }
+            subarrayLen *= 2;
+        }
+
+        int frontLen = direction == LocalMerge.FORWARDS ? 0 : getBufferRewindLen(length, subarrayLen / 2);
+        swapBlocksForwards(array, buffer + frontLen, buffer + frontLen + blockLen, length - frontLen);
+    }
+
+    // Combines runs of 'subarrayLen' into runs of 'regionLen' one region at a time, instead of one level
+    // at a time over the whole array. Each region leaves the scrolling buffer right in front of the next
+    // one, and once they're all done, it's moved back to where the last of those levels would have left
+    // it going forwards, so combineBlocks can go on backwards from there.
+    private void combineDepthFirst(int[] array, int firstKey, int buffer, int length, int subarrayLen,
+                                              int regionLen, int blockLen) {
+        for(int offset = 0; offset < length; offset += regionLen) {
+            this.combineRegion(array, firstKey, buffer + offset, Math.min(regionLen, length - offset),
+                               subarrayLen, blockLen);
+        }
+
+        int rewindLen = getBufferRewindLen(length, regionLen / 2);
+        swapBlocksBackwards(array, buffer + rewindLen, buffer + rewindLen + blockLen, length - rewindLen);
+    }
+
+    // combineForwards only fast-forwards the scrolling buffer as far as the next (backwards) level
+    // needs it, so it isn't always at the end of the array; returns how many items are in front of it
+    private static int getBufferRewindLen(int length, int subarrayLen) {
+        int   mergeLen = 2 * subarrayLen;
+        int fullMerges = length / mergeLen;
+        int   leftOver = length - (mergeLen * fullMerges);
+
+        if(leftOver > subarrayLen) {
+            if(fullMerges % 2 == 0 && fullMerges != 0) {
+                return fullMerges * mergeLen;
+            }
+        }
+        else if(leftOver != 0) {
+            if(fullMerges % 2 == 0) {
+                return fullMerges * mergeLen;
+            }
+        }
+        else if(fullMerges % 2 != 0 && fullMerges != 1) {
+            return (fullMerges - 1) * mergeLen;
+        }
+
+        return length;
+    }
+
+    // 'keys' are on the left side of array. Blocks of length 'subarrayLen' combined. We'll combine them in pairs
+    // 'subarrayLen' is a power of 2. (2 * subarrayLen / blockLen) keys are guaranteed
+    private LocalMerge combineBlocks(int[] array, int start, int length, int bufferLen, int subarrayLen,
+                                                int blockLen, int keyLen, boolean idealBuffer) {
+        LocalMerge direction = LocalMerge.FORWARDS;
+        subarrayLen *= 2;
+
+        if(idealBuffer) {
+            int regionLen = getRegionLen(subarrayLen, length - bufferLen - 1);
+
+            if(regionLen != 0) {
+                this.combineDepthFirst(array, start, start + keyLen, length - bufferLen,
+                                       subarrayLen, regionLen, blockLen);
+                subarrayLen = regionLen;
+                direction = LocalMerge.BACKWARDS;
+            }
+
+            while((length - bufferLen) > subarrayLen) {
+                if(direction == LocalMerge.FORWARDS) {
+                    this.combineForwards(array, start, start + bufferLen, length - bufferLen,
+                                                subarrayLen, blockLen);
+                    direction = LocalMerge.BACKWARDS;
+                }
+                else {
+                    this.combineBackwards(array, start, start + keyLen, length - bufferLen,
+                                                 subarrayLen, blockLen);
+                    direction = LocalMerge.FORWARDS;
+                }
+                subarrayLen *= 2;
+            }
+        }
+        else {
+            int keyBuffer = keyLen / 2;
+            shellSort(array, start, keyBuffer);
+
+            // the keys only last until runs of 'keyBuffer * keyBuffer'
+            int regionLen = getRegionLen(subarrayLen, Math.min(length - keyLen - 1, keyBuffer * keyBuffer));
+
+            if(regionLen != 0) {
+                this.combineDepthFirst(array, start, start + keyBuffer, length - keyLen,
+                                       subarrayLen, regionLen, keyBuffer);
+                subarrayLen = regionLen;
+                direction = LocalMerge.BACKWARDS;
+            }
+
+            while(keyBuffer >= ((2 * subarrayLen) / keyBuffer)) {
+                if(direction == LocalMerge.FORWARDS) {
+                    this.combineForwards(array, start, start + keyLen, length - keyLen,
+                                                subarrayLen, keyBuffer);
+                    direction = LocalMerge.BACKWARDS;
+                }
+                else {
+                    this.combineBackwards(array, start, start + keyBuffer, length - keyLen,
+                                                 subarrayLen, keyBuffer);
+                    direction = LocalMerge.FORWARDS;
+                }
+                subarrayLen *= 2;
+            }
+
+            if(direction == LocalMerge.BACKWARDS) {
+                int bufferOffset = start + keyBuffer;
+                int    rewindLen = getBufferRewindLen(length - keyLen, subarrayLen / 2);
+                swapBlocksBackwards(array, bufferOffset, bufferOffset + keyBuffer, rewindLen);
+                direction = LocalMerge.FORWARDS;
+            }
+
+            shellSort(array, start, keyLen);
+
+            while((length - keyLen) > subarrayLen) {
+                this.lazyCombine(array, start, start + keyLen, length - keyLen,
+                                 subarrayLen, (2 * subarrayLen) / keyLen);
+                subarrayLen *= 2;
+            }
+        }
+
+        return direction;
+    }
+
+    // Lazily merges the keys at [start, start + keyLen) into the 'rightLen' items after them, 'chunkLen'
+    // keys at a time, the last ones first. All at once, that would cost keyLen^2, which only takes
+    // over with the many keys of a BlockLenPolicy's shorter blocks; each chunk only costs chunkLen^2,
+    // plus however far it goes. SQRT's keys and buffer always fit in one chunk of twice its blocks.
+    private static void lazyMergeKeys(int[] array, int start, int keyLen, int rightLen, int chunkLen, int[] extBuffer, int extBufferLen) {
+        for(int offset = ((keyLen - 1) / chunkLen) * chunkLen; offset >= 0; offset -= chunkLen) {
+            int length = Math.min(chunkLen, keyLen - offset);
+            lazyMergeForwards(array, start + offset, length, keyLen - offset - length + rightLen, extBuffer, extBufferLen);
+        }
+    }
+
+    // "Classic" in-place merge sort using binary searches and rotations
+    // Forwards rotates the leftLen into the rightLen
+    // cost: leftLen^2 + rightLen
+    private static void lazyMergeForwards(int[] array, int start, int leftLen, int rightLen,
+                                          int[] extBuffer, int extBufferLen) {
+        int middle = start + leftLen;
+
+        while(leftLen != 0) {
+            int mergeLen = binarySearchLeft(array, middle, rightLen, array[start]);
+
+            if(mergeLen != 0) {
+                rotate(array, start, leftLen, mergeLen, extBuffer, extBufferLen);
+
+                start    += mergeLen;
+                middle   += mergeLen;
+                rightLen -= mergeLen;
+            }
+
+            if(rightLen == 0) {
+                break;
+            }
+            else {
+                // the first item already stays before the right side; step past the next few that
+                // do too, then gallop past the rest of a longer stretch
+                int count = 1;
+                while(count < leftLen && count < MIN_GALLOP && array[start + count] <= array[middle]) {
+                    count++;
+                }
+                if(count == MIN_GALLOP) {
+                    count += gallopForwards(array, start + count, leftLen - count, array[middle], true);
+                }
+                start   += count;
+                leftLen -= count;
+            }
+        }
+    }
+
+    // "Classic" in-place merge sort using binary searches and rotations
+    // Backwards rotates the rigthLen into the leftLen
+    // cost: rightLen^2 + leftLen
+    private static void lazyMergeBackwards(int[] array, int start, int leftLen, int rightLen,
+                                           int[] extBuffer, int extBufferLen) {
+        int end = start + leftLen + rightLen - 1;
+
+        while(rightLen != 0) {
+            int mergeLen = binarySearchRight(array, start, leftLen, array[end]);
+
+            if(mergeLen != leftLen) {
+                rotate(array, start + mergeLen, leftLen - mergeLen, rightLen, extBuffer, extBufferLen);
+
+                end     -=  leftLen - mergeLen;
+                leftLen  = mergeLen;
+            }
+
+            if(leftLen == 0) {
+                break;
+            }
+            else {
+                int middle = start + leftLen;
+                // the last item already stays after the left side; step past the next few that
+                // do too, then gallop past the rest of a longer stretch
+                int count = 1;
+                while(count < rightLen && count < MIN_GALLOP && array[middle - 1] <= array[end - count]) {
+                    count++;
+                }
+                if(count == MIN_GALLOP) {
+                    count += gallopBackwards(array, middle, rightLen - count, array[middle - 1], true);
+                }
+                rightLen -= count;
+                end      -= count;
+            }
+        }
+    }
+
+    private static void lazyMergeBufferBackwards(int[] array, int start, int leftLen, int rightLen,
+                                                 int[] extBuffer, int extBufferLen) {
+        int end = start + leftLen + rightLen - 1;
+
+        while(rightLen != 0) {
+            int mergeLen = binarySearchLeft(array, start, leftLen, array[end]);
+
+            if(mergeLen != leftLen) {
+                rotate(array, start + mergeLen, leftLen - mergeLen, rightLen, extBuffer, extBufferLen);
+
+                end     -=  leftLen - mergeLen;
+                leftLen  = mergeLen;
+            }
+
+            if(leftLen == 0) {
+                break;
+            }
+            else {
+                int middle = start + leftLen;
+                // the last item already stays after the left side; step past the next few that
+                // do too, then gallop past the rest of a longer stretch
+                int count = 1;
+                while(count < rightLen && count < MIN_GALLOP && array[middle - 1] < array[end - count]) {
+                    count++;
+                }
+                if(count == MIN_GALLOP) {
+                    count += gallopBackwards(array, middle, rightLen - count, array[middle - 1], false);
+                }
+                rightLen -= count;
+                end      -= count;
+            }
+        }
+    }
+
+    // Equal ints can't be told apart, so with at most three distinct values (the keys at
+    // array[start, start + keysFound)) counting them and filling them back in is enough
+    private static void sortFewValues(int[] array, int start, int length, int keysFound) {
+        int  lowest = array[start];
+        int  middle = array[start + 1];
+        int highest = array[start + keysFound - 1];
+
+        int lowCount = 0;
+        int midCount = 0;
+
+        for(int i = start; i < start + length; i++) {
+            if(array[i] < middle) {
+                lowCount++;
+            }
+            else if(array[i] < highest) {
+                midCount++;
+            }
+        }
+
+        Arrays.fill(array, start, start + lowCount, lowest);
+        Arrays.fill(array, start + lowCount, start + lowCount + midCount, middle);
+        Arrays.fill(array, start + lowCount + midCount, start + length, highest);
+    }
+
+    void commonSort(int[] array, int start, int length, int[] extBuffer, int extBufferLen) {
+        if(length < 16) {
+            SortingNetworks.sort(array, start, length);
+            return;
+        }
+
+        if(extBuffer == null) {
+            extBufferLen = 0;
+        }
+        this.extBuffer    = extBuffer;
+        this.extBufferLen = extBufferLen;
+
+        // GRAILSORT + EXTRA SPACE
+        // with room for half the array, a plain merge sort beats collecting keys
+        if(extBufferLen >= length / 2) {
+            this.sortIndependently(array, start, length);
+            return;
+        }
+
+        // smallest possible O(sqrt n) block length that
+        // doesn't include arrays sorted by Insertion Sort
+        int blockLen = 4;
+
+        // find the smallest power of two greater than or
+        // equal to the square root of the input's length
+        while((blockLen * blockLen) < length) {
+            blockLen *= 2;
+        }
+
+        // '((a - 1) / b) + 1' is actually a clever and very efficient
+        // formula for the ceiling of (a / b)
+        //
+        // credit to Anonymous0726 for figuring this out!
+
+        // TODO: We don't need this ceiling???
+        int keyLen = ((length - 1) / blockLen) + 1;
+
+        // Holy Grail is hoping to find '~2 sqrt n' unique items
+        // throughout the array
+        int idealKeys = keyLen + blockLen;
+
+        // an external buffer with room for a block replaces the internal one
+        boolean outOfPlace = extBufferLen >= blockLen;
+        if(outOfPlace) {
+            idealKeys = Math.max(keyLen, 4);
+        }
+
+        // shorter blocks, if the policy wants them for the caches
+        int sqrtLen = blockLen;
+        if(!outOfPlace) {
+            blockLen  = this.blockLenPolicy.getBlockLen(blockLen, Integer.BYTES);
+            keyLen    = ((length - 1) / blockLen) + 1;
+            idealKeys = keyLen + blockLen;
+        }
+
+        int keysFound = collectKeys(array, start, length, idealKeys, extBuffer, extBufferLen);
+
+        // no merge has more blocks than there are keys, so one tree is enough for the whole sort
+        if(keysFound >= TOURNAMENT_BLOCK_COUNT) {
+            this.getTournamentTree(Integer.highestOneBit(keysFound - 1) << 1);
+        }
+
+        // HOLY GRAIL STRATEGY 3
+        // No block swaps or scrolling buffer; count the keys instead
+        if(keysFound < 4) {
+
+            // if all items in the array equal each other,
+            // then they're already sorted. done!
+            if(keysFound == 1) return;
+
+            sortFewValues(array, start, length, keysFound);
+            return;
+        }
+
+        if(outOfPlace) {
+            // GRAILSORT + EXTRA SPACE
+            // Runs as long as the external buffer can merge on its own, then block merges
+            // that only need the keys, even when there aren't enough of them for Strategy 1
+            int runLen = 1;
+            while(runLen <= extBufferLen) {
+                runLen *= 2;
+            }
+
+            int dataStart = start  + keysFound;
+            int dataLen   = length - keysFound;
+
+            for(int offset = 0; offset < dataLen; offset += runLen) {
+                this.sortIndependently(array, dataStart + offset, Math.min(runLen, dataLen - offset));
+            }
+
+            this.combineOutOfPlace(array, start, keysFound, dataStart, dataLen, runLen, blockLen);
+
+            lazyMergeForwards(array, start, keysFound, dataLen, extBuffer, extBufferLen);
+            return;
+        }
+
+        // too few keys for the policy's shorter blocks; go on with SQRT's, just like without a policy
+        if(keysFound < idealKeys && blockLen != sqrtLen) {
+            blockLen  = sqrtLen;
+            keyLen    = ((length - 1) / blockLen) + 1;
+            idealKeys = keyLen + blockLen;
+        }
+
+        boolean idealBuffer;
+        if(keysFound < idealKeys) {
+            // HOLY GRAIL STRATEGY 2
+            // Block swaps with small scrolling buffer and/or lazy merges
+            keyLen = blockLen;
+            blockLen = 0;
+            idealBuffer = false;
+
+            while(keyLen > keysFound) {
+                keyLen /= 2;
+            }
+        }
+        else {
+            // HOLY GRAIL STRATEGY 1
+            // Block swaps with scrolling buffer
+            idealBuffer = true;
+        }
+
+        int bufferLen = blockLen + keyLen;
+        int subarrayLen;
+        if(idealBuffer) {
+            subarrayLen = blockLen;
+        }
+        else {
+            subarrayLen = keyLen;
+        }
+
+        // a small external buffer still speeds up building blocks
+        this.buildBlocks(array, start + bufferLen, length - bufferLen, subarrayLen);
+
+        LocalMerge direction = this.combineBlocks(array, start, length, bufferLen, subarrayLen,
+                                                  blockLen, keyLen, idealBuffer);
+
+        // This 'if' case will always run during Strategy 2
+        if(direction == LocalMerge.FORWARDS) {
+            shellSort(array, start + keyLen, blockLen);
+            lazyMergeKeys(array, start, bufferLen, length - bufferLen, 2 * sqrtLen, extBuffer, extBufferLen);
+        }
+        else {
+            lazyMergeKeys(array, start, keyLen, length - bufferLen, 2 * sqrtLen, extBuffer, extBufferLen);
+
+            shellSort(array, start + length - blockLen, blockLen);
+            lazyMergeBufferBackwards(array, start, length - blockLen, blockLen, extBuffer, extBufferLen);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+package holygrail;
+
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2021 The Holy Grail Sort Project
+ *
+ * See LICENSE at the root of the repository for the full license text.
+ */
+
+// The loops of IntHolyGrailSort and LongHolyGrailSort that SIMD instructions can speed up: sorting
+// pairs while building blocks, and the searches of the lazy merges. These are the plain Java
+// versions, which run anywhere. When the JVM has the Vector API (jdk.incubator.vector, in Java 16
+// and up), INSTANCE is a VectorKernels instead, which comes from the separate vector/src directory
+// (see the "vector" profile in jmh/pom.xml) and needs "--add-modules jdk.incubator.vector" both to
+// compile and to run. -Dholygrail.vector=false turns it off. "Tester -kernels VectorKernels" checks
+// the primitive sorts with it, and fails if the JVM loaded these ones instead.
+//
+// Either way, INSTANCE never changes, so the JIT knows exactly which class it is and inlines the
+// kernels into the sorts.
+class PrimitiveKernels {
+    final static PrimitiveKernels INSTANCE = load();
+
+    private static PrimitiveKernels load() {
+        if(Boolean.parseBoolean(System.getProperty("holygrail.vector", "true"))) {
+            try {
+                return (PrimitiveKernels) Class.forName("holygrail.VectorKernels")
+                                               .getDeclaredConstructor().newInstance();
+            }
+            catch(ReflectiveOperationException | LinkageError e) {
+                // no Vector API, or VectorKernels wasn't compiled; the scalar kernels will do
+            }
+        }
+        return new PrimitiveKernels();
+    }
+
+    // Sorts every pair of items in array[start, start + length) and moves them all down two indices.
+    // Both items of a pair are written as a branch-free min and max, since which of them is smaller
+    // is a coin toss on random data and a branch on it would be mispredicted half the time.
+    void sortPairs(int[] array, int start, int length) {
+        int index;
+        for(index = 1; index < length; index += 2) {
+            int  left = start + index - 1;
+            int right = start + index;
+
+            int a = array[left];
+            int b = array[right];
+            array[ left - 2] = Math.min(a, b);
+            array[right - 2] = Math.max(a, b);
+        }
+
+        int left = start + index - 1;
+        if(left < start + length) {
+            array[left - 2] = array[left];
+        }
+    }
+
+    // Math.min(long, long) gets compiled to a branch, so like SortingNetworks, this builds a mask
+    // from an overflow-safe "a < b" to pick the smaller item
+    void sortPairs(long[] array, int start, int length) {
+        int index;
+        for(index = 1; index < length; index += 2) {
+            int  left = start + index - 1;
+            int right = start + index;
+
+            long a = array[left];
+            long b = array[right];
+            long difference = a - b;
+            long   lessThan = (difference ^ ((a ^ b) & (difference ^ a))) >> 63;
+            long    smaller = b ^ ((a ^ b) & lessThan);
+
+            array[ left - 2] = smaller;
+            array[right - 2] = a ^ b ^ smaller;
+        }
+
+        int left = start + index - 1;
+        if(left < start + length) {
+            array[left - 2] = array[left];
+        }
+    }
+
+    // Technically a "lower bound" search
+    int binarySearchLeft(int[] array, int start, int length, int target) {
+        int  left = 0;
+        int right = length;
+
+        while(left < right) {
+            // equivalent to (left + right) / 2 with added overflow protection
+            int middle = (left + right) >>> 1;
+
+            if(array[start + middle] < target) {
+                left = middle + 1;
+            }
+            else {
+                right = middle;
+            }
+        }
+        return left;
+    }
+
+    int binarySearchLeft(long[] array, int start, int length, long target) {
+        int  left = 0;
+        int right = length;
+
+        while(left < right) {
+            int middle = (left + right) >>> 1;
+
+            if(array[start + middle] < target) {
+                left = middle + 1;
+            }
+            else {
+                right = middle;
+            }
+        }
+        return left;
+    }
+
+    // Technically a "upper bound" search
+    int binarySearchRight(int[] array, int start, int length, int target) {
+        int  left = 0;
+        int right = length;
+
+        while(left < right) {
+            // equivalent to (left + right) / 2 with added overflow protection
+            int middle = (left + right) >>> 1;
+
+            if(array[start + middle] > target) {
+                right = middle;
+            }
+            else {
+                left = middle + 1;
+            }
+        }
+        return right;
+    }
+
+    int binarySearchRight(long[] array, int start, int length, long target) {
+        int  left = 0;
+        int right = length;
+
+        while(left < right) {
+            int middle = (left + right) >>> 1;
+
+            if(array[start + middle] > target) {
+                right = middle;
+            }
+            else {
+                left = middle + 1;
+            }
+        }
+        return right;
+    }
+}
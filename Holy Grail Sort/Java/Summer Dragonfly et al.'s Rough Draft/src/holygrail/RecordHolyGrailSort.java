@@ -0,0 +1,1616 @@
+package holygrail;
+
+import java.nio.ByteBuffer;
+
+/*
+ * MIT License
+ *
+ * Copyright (c) 2013 Andrey Astrelin
+ * Copyright (c) 2020-2021 The Holy Grail Sort Project
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// HOLY GRAILSORT FOR JAVA - A faster implementation of in-place, stable,
+//                          worst-case O(n log n) sorting based on Andrey
+//                          Astrelin's Grailsort
+//
+// ** Written and maintained by The Holy Grail Sort Project
+//
+// Primary authors: Summer Dragonfly and Anonymous0726, with the incredible aid
+// from the rest of the team!
+
+/*
+ * The Holy Grail Sort Project
+ * Project Manager:      Summer Dragonfly
+ * Project Contributors: 666666t
+ *                       Anonymous0726
+ *                       aphitorite
+ *                       Control
+ *                       dani_dlg
+ *                       DeveloperSort
+ *                       EilrahcF
+ *                       Enver
+ *                       Gaming32
+ *                       lovebuny
+ *                       Morwenn
+ *                       MP
+ *                       phoenixbound
+ *                       Spex_guy
+ *                       Taihennami
+ *                       thatsOven
+ *                       _fluffyy
+ *
+ * Special thanks to "The Studio" Discord community!
+ */
+
+// Port of HolyGrailSort for fixed-width records laid out back to back in a ByteBuffer, such as a
+// direct buffer or a memory-mapped file. Records are moved around in place, a few bytes at a time,
+// so sorting never needs any objects or more than a handful of records' worth of extra memory.
+// Keep it in lockstep with HolyGrailSort.java!
+final public class RecordHolyGrailSort {
+    enum LocalMerge {
+        FORWARDS,
+        BACKWARDS;
+    }
+
+    //Credit to phoenixbound for this clever idea
+    enum Subarray {
+        LEFT,
+        RIGHT;
+    }
+
+    // Compares the record starting at byte 'leftOffset' of 'left' with the one at 'rightOffset' of 'right'.
+    // Either buffer may be the sorter's scratch space instead of the one being sorted; it holds copies of
+    // a few records in the same byte order.
+    public interface RecordComparator {
+        int compare(ByteBuffer left, int leftOffset, ByteBuffer right, int rightOffset);
+    }
+
+    // the sorter's own copies of records live in scratch "slots", which are numbered
+    // below zero so they can be passed around like any other record index
+    final static int TEMP            = -1;
+    final static int INSERT_ITEM     = -2;
+    final static int MEDIAN_KEY      = -3;
+    final static int SAVED_KEY       = -4;
+    final static int OTHER_SAVED_KEY = -5;
+    final static int SCRATCH_SLOTS   =  5;
+
+    private final int recordLen;
+    private final RecordComparator cmp;
+
+    private ByteBuffer records;
+    private ByteBuffer scratch;
+
+    private int currBlockLen;
+    private Subarray currBlockOrigin;
+
+    public RecordHolyGrailSort(int recordLen, RecordComparator cmp) {
+        if(recordLen <= 0) {
+            throw new IllegalArgumentException("recordLen must be positive: " + recordLen);
+        }
+        this.recordLen = recordLen;
+        this.cmp       = cmp;
+    }
+
+    private ByteBuffer bufferOf(int record) {
+        return record >= 0 ? this.records : this.scratch;
+    }
+
+    private int offsetOf(int record) {
+        return (record >= 0 ? record : -record - 1) * this.recordLen;
+    }
+
+    private int compare(int a, int b) {
+        return this.cmp.compare(this.bufferOf(a), this.offsetOf(a), this.bufferOf(b), this.offsetOf(b));
+    }
+
+    private void copy(int from, int to) {
+        ByteBuffer source = this.bufferOf(from);
+        ByteBuffer target = this.bufferOf(to);
+        int  sourceOffset = this.offsetOf(from);
+        int  targetOffset = this.offsetOf(to);
+
+        int i = 0;
+        for(; i <= this.recordLen - 8; i += 8) {
+            target.putLong(targetOffset + i, source.getLong(sourceOffset + i));
+        }
+        for(; i < this.recordLen; i++) {
+            target.put(targetOffset + i, source.get(sourceOffset + i));
+        }
+    }
+
+    // Copies 'record' into the scratch 'slot' and returns the slot, which then stands in for the
+    // record's value even after the record itself has moved
+    private int keepCopy(int record, int slot) {
+        this.copy(record, slot);
+        return slot;
+    }
+
+    // System.arraycopy for records, overlaps included
+    private void copyRecords(int from, int to, int length) {
+        if(from > to) {
+            for(int i = 0; i < length; i++) {
+                this.copy(from + i, to + i);
+            }
+        }
+        else {
+            for(int i = length - 1; i >= 0; i--) {
+                this.copy(from + i, to + i);
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        this.swapBlocksForwards(a, b, 1);
+    }
+
+    // Swaps eight bytes at a time when the blocks are at least that far apart, and a byte at a time
+    // otherwise; either way, overlapping blocks end up just like swapping record by record would leave them
+    private void swapBlocksForwards(int a, int b, int blockLen) {
+        ByteBuffer records = this.records;
+
+        int left  = a * this.recordLen;
+        int right = b * this.recordLen;
+        int end   = left + (blockLen * this.recordLen);
+
+        if(Math.abs(right - left) >= 8) {
+            for(; left <= end - 8; left += 8, right += 8) {
+                long temp = records.getLong(left);
+                records.putLong(left, records.getLong(right));
+                records.putLong(right, temp);
+            }
+        }
+        for(; left < end; left++, right++) {
+            byte temp = records.get(left);
+            records.put(left, records.get(right));
+            records.put(right, temp);
+        }
+    }
+
+    private void swapBlocksBackwards(int a, int b, int blockLen) {
+        ByteBuffer records = this.records;
+
+        int left  = (a + blockLen) * this.recordLen;
+        int right = (b + blockLen) * this.recordLen;
+        int end   = a * this.recordLen;
+
+        if(Math.abs(right - left) >= 8) {
+            for(; left >= end + 8; left -= 8, right -= 8) {
+                long temp = records.getLong(left - 8);
+                records.putLong(left - 8, records.getLong(right - 8));
+                records.putLong(right - 8, temp);
+            }
+        }
+        for(; left > end; left--, right--) {
+            byte temp = records.get(left - 1);
+            records.put(left - 1, records.get(right - 1));
+            records.put(right - 1, temp);
+        }
+    }
+
+    // Shift elements [start + 1, start + length + 1) to the left by 1
+    // and paste copied element at start + length - 1.
+    private void insertForwards(int start, int length) {
+        this.copy(start, TEMP);
+        this.copyRecords(start + 1, start, length);
+        this.copy(TEMP, start + length);
+    }
+
+    // Shift elements [start, start + length) to the right by 1
+    // and paste copied element at start.
+    private void insertBackwards(int start, int length) {
+        this.copy(start + length, TEMP);
+        this.copyRecords(start, start + 1, length);
+        this.copy(TEMP, start);
+    }
+
+    private void rotate(int start, int leftLen, int rightLen) {
+        int minLen = leftLen <= rightLen ? leftLen : rightLen;
+
+        while(minLen > 1) {
+            if(leftLen <= rightLen) {
+                do {
+                  this.swapBlocksForwards(start, start + leftLen, leftLen);
+                  start    += leftLen;
+                  rightLen -= leftLen;
+                } while(leftLen <= rightLen);
+
+                minLen = rightLen;
+            }
+            else {
+                do {
+                  this.swapBlocksBackwards(start + leftLen - rightLen, start + leftLen, rightLen);
+                  leftLen -= rightLen;
+                } while(leftLen > rightLen);
+
+                minLen = leftLen;
+            }
+        }
+
+        if(minLen == 1) {
+            if(leftLen == 1) {
+                this.insertForwards(start, rightLen);
+            }
+            else {
+                this.insertBackwards(start, leftLen);
+            }
+        }
+    }
+
+    // unguarded insertion sort
+    // implementation thanks to Control and Scandum!
+    private void insertSort(int start, int length) {
+        for(int item = 1; item < length; item++) {
+            int temp = this.keepCopy(start + item, INSERT_ITEM);
+            int index = start + item;
+
+            if(this.compare(index - 1, temp) <= 0) {
+                continue;
+            }
+
+            if(this.compare(start, temp) > 0) {
+                this.insertBackwards(start, item);
+                continue;
+            }
+
+            do {
+                this.copy(index - 1, index);
+                index--;
+            } while(this.compare(index - 1, temp) > 0);
+
+            this.copy(temp, index);
+        }
+    }
+
+    private void shellPass(int start, int length, int gap) {
+        for(int item = gap; item < length; item++) {
+            int temp = this.keepCopy(start + item, INSERT_ITEM);
+            int index = start + item;
+
+            if(this.compare(index - gap, temp) < 0) {
+                continue;
+            }
+
+            do {
+                this.copy(index - gap, index);
+                index -= gap;
+            } while(index - gap > start && this.compare(index - gap, temp) > 0);
+
+            this.copy(temp, index);
+        }
+    }
+
+    // implementation of Shellsort using a modified version of
+    // Sedgewick's '82 gap sequence: 1, *3*, 8, 23, 77, 281, ...
+    // [4^k + 3*2^(k-1) + 1] with an added penultimate gap of 3
+    // written by Taihennami
+    private void shellSort(int start, int length) {
+        int k = 0;
+        while((4 << (2*k)) + (3 << k) + 1 < length) {
+            k++;
+        }
+
+        while(k-- > 0) {
+            int gap = (4 << (2*k)) + (3 << k) + 1;
+            this.shellPass(start, length, gap);
+        }
+
+        this.shellPass(start, length, 3);
+        this.insertSort(start, length);
+    }
+
+    // Technically a "lower bound" search
+    private int binarySearchLeft(int start, int length, int target) {
+        int  left = 0;
+        int right = length;
+
+        while(left < right) {
+            // equivalent to (left + right) / 2 with added overflow protection
+            int middle = (left + right) >>> 1;
+
+            if(this.compare(start + middle, target) < 0) {
+                left = middle + 1;
+            }
+            else {
+                right = middle;
+            }
+        }
+        return left;
+    }
+
+    // Technically a "upper bound" search
+    private int binarySearchRight(int start, int length, int target) {
+        int  left = 0;
+        int right = length;
+
+        while(left < right) {
+            // equivalent to (left + right) / 2 with added overflow protection
+            int middle = (left + right) >>> 1;
+
+            if(this.compare(start + middle, target) > 0) {
+                right = middle;
+            }
+            else {
+                left = middle + 1;
+            }
+        }
+        return right;
+    }
+
+    // Returns -1 if an equal key is found, cutting off the search early
+    // FUTURE TODO: first & last key best-cases
+    private int binarySearchExclusive(int start, int length, int target) {
+        int  left = 0;
+        int right = length;
+
+        while(left < right) {
+            // equivalent to (left + right) / 2 with added overflow protection
+            int middle = (left + right) >>> 1;
+
+            int comp = this.compare(start + middle, target);
+            if(comp == 0) {
+                return -1;
+            }
+            else if(comp < 0) {
+                left = middle + 1;
+            }
+            else {
+                right = middle;
+            }
+        }
+        return left;
+    }
+
+    // GALLOPING
+    // Only the lazy merges gallop here: they step past MIN_GALLOP records one at a time before
+    // searching for the end of a longer stretch; see HolyGrailSort for the merges that adapt it
+    final static int MIN_GALLOP = 7;
+
+    // Counts the records at the start of [start, start + length) that are less than record 'target',
+    // or less than or equal to it if 'inclusive'
+    private int gallopForwards(int start, int length, int target, boolean inclusive) {
+        int  low = 0;
+        int high = 1;
+
+        // the count is at least 'low' and less than 'high'
+        while(high <= length) {
+            int order = this.compare(start + high - 1, target);
+            if(order > 0 || (order == 0 && !inclusive)) break;
+
+            low  = high;
+            high = 2 * high + 1;
+
+            if(high <= 0) high = length + 1; // overflow
+        }
+        high = Math.min(high - 1, length);
+
+        if(inclusive) {
+            return low + this.binarySearchRight(start + low, high - low, target);
+        }
+        return low + this.binarySearchLeft(start + low, high - low, target);
+    }
+
+    // Counts the records at the end of [start, start + length) that are greater than record 'target',
+    // or greater than or equal to it if 'inclusive'
+    private int gallopBackwards(int start, int length, int target, boolean inclusive) {
+        int  end = start + length;
+        int  low = 0;
+        int high = 1;
+
+        while(high <= length) {
+            int order = this.compare(end - high, target);
+            if(order < 0 || (order == 0 && !inclusive)) break;
+
+            low  = high;
+            high = 2 * high + 1;
+
+            if(high <= 0) high = length + 1; // overflow
+        }
+        high = Math.min(high - 1, length);
+
+        if(inclusive) {
+            return high - this.binarySearchLeft(end - high, high - low, target);
+        }
+        return high - this.binarySearchRight(end - high, high - low, target);
+    }
+
+    // cost: 2 * length + idealKeys^2 / 2
+    private int collectKeys(int start, int length, int idealKeys) {
+        int keysFound = 1; // by itself, the first item in the array is our first unique key
+        int  firstKey = 0; // the first item in the array is at the first position in the array
+        int   currKey = 1; // the index used for finding potentially unique items ("keys") in the array
+
+        while(currKey < length && keysFound < idealKeys) {
+
+            // Find the location in the key-buffer where our current key can be inserted in sorted order.
+            // If the key at insertPos is equal to currKey, then currKey isn't unique and we move on.
+            int insertPos = this.binarySearchExclusive(start + firstKey, keysFound, start + currKey);
+
+            // As long as our exclusive binary search didn't return -1 (a.k.a. found an equal key),
+            // we're good to go!
+            if(insertPos != -1) {
+                // First, rotate the key-buffer over to currKey's immediate left...
+                // (this helps save a TON of swaps/writes!!!)
+                this.rotate(start + firstKey, keysFound, currKey - (firstKey + keysFound));
+
+                // Update the new position of firstKey...
+                firstKey = currKey - keysFound;
+
+                // Then, "insertion sort" currKey to its spot in the key-buffer
+                // as long as it needs to be moved!
+                if(keysFound != insertPos) {
+                    this.insertBackwards(start + firstKey + insertPos, keysFound - insertPos);
+                }
+
+                // One step closer to idealKeys.
+                keysFound++;
+            }
+            // Move on and test the next key...
+            currKey++;
+        }
+
+        // Bring however many keys we found back to the beginning of our array,
+        // and return the number of keys collected.
+        this.rotate(start, firstKey, keysFound);
+        return keysFound;
+    }
+
+    // Much thanks to Spex_guy for this beautiful optimization!!
+    private void sortPairsWithKeys(int start, int length) {
+        // first, save the keys to scratch memory
+        this.copy(start - 1, SAVED_KEY);
+        this.copy(start - 2, OTHER_SAVED_KEY);
+
+        // move all the items down two indices, sorting them simultaneously
+        this.sortPairs(start, length);
+
+        // finally, stamp the saved keys (remember: order doesn't matter!)
+        // to the end of the array
+        this.copy(SAVED_KEY,       start + length - 2);
+        this.copy(OTHER_SAVED_KEY, start + length - 1);
+    }
+
+    private void sortPairs(int start, int length) {
+        int index;
+        for(index = 1; index < length; index += 2) {
+            int  left = start + index - 1;
+            int right = start + index;
+
+            if(this.compare(left, right) > 0) {
+                this.copy(right, left - 2);
+                this.copy(left, right - 2);
+            }
+            else {
+                this.copy(left, left - 2);
+                this.copy(right, right - 2);
+            }
+        }
+
+        int left = start + index - 1;
+        if(left < start + length) {
+            this.copy(left, left - 2);
+        }
+    }
+
+    // array[buffer .. start - 1] <=> "scrolling buffer"
+    //
+    // "scrolling buffer" + array[start, middle - 1] + array[middle, end - 1]
+    // --> array[buffer, buffer + end - 1] + "scrolling buffer"
+    private void mergeForwards(int start, int leftLen, int rightLen, int bufferOffset) {
+        int buffer = start  - bufferOffset;
+        int   left = start;
+        int middle = start  +  leftLen;
+        int  right = middle;
+        int    end = middle + rightLen;
+
+        while(right < end) {
+            if(left == middle || this.compare(left, right) > 0) {
+                this.swap(buffer, right);
+                right++;
+            }
+            else {
+                this.swap(buffer,  left);
+                left++;
+            }
+            buffer++;
+        }
+
+        if(buffer != left) {
+            this.swapBlocksForwards(buffer, left, middle - left);
+        }
+    }
+
+    // credit to 666666t for thorough bug-checking/fixing
+    private void mergeBackwards(int start, int leftLen, int rightLen, int bufferOffset) {
+        int    end = start  -  1;
+        int   left = end    +  leftLen;
+        int middle = left;
+        int  right = middle + rightLen;
+        int buffer = right  + bufferOffset;
+
+        while(left > end) {
+            if(right == middle || this.compare(left, right) > 0) {
+                this.swap(buffer,  left);
+                left--;
+            }
+            else {
+                this.swap(buffer, right);
+                right--;
+            }
+            buffer--;
+        }
+
+        if(right != buffer) {
+            this.swapBlocksBackwards(middle + 1, buffer - (right - middle) + 1, right - middle);
+        }
+    }
+
+    private void buildInPlace(int start, int length, int currentLen, int bufferLen) {
+        for(int mergeLen = currentLen; mergeLen < bufferLen; mergeLen *= 2) {
+            int fullMerge = 2 * mergeLen;
+
+            int mergeIndex;
+            int mergeEnd = start + length - fullMerge;
+            int bufferOffset = mergeLen;
+
+            for(mergeIndex = start; mergeIndex <= mergeEnd; mergeIndex += fullMerge) {
+                this.mergeForwards(mergeIndex, mergeLen, mergeLen, bufferOffset);
+            }
+
+            int leftOver = length - (mergeIndex - start);
+
+            if(leftOver > mergeLen) {
+                this.mergeForwards(mergeIndex, mergeLen, leftOver - mergeLen, bufferOffset);
+            }
+            else {
+                this.rotate(mergeIndex - mergeLen, mergeLen, leftOver);
+            }
+
+            start -= mergeLen;
+        }
+
+        int fullMerge  = 2 * bufferLen;
+        int lastBlock  = length % fullMerge;
+        int lastOffset = start + length - lastBlock;
+
+        if(lastBlock <= bufferLen) {
+            this.rotate(lastOffset, lastBlock, bufferLen);
+        }
+        else {
+            this.mergeBackwards(lastOffset, bufferLen, lastBlock - bufferLen, bufferLen);
+        }
+
+        for(int mergeIndex = lastOffset - fullMerge; mergeIndex >= start; mergeIndex -= fullMerge) {
+            this.mergeBackwards(mergeIndex, bufferLen, bufferLen, bufferLen);
+        }
+    }
+
+    // build blocks of length 'bufferLen'
+    // input: [start - mergeLen, start - 1] elements are buffer
+    // output: first 'bufferLen' elements are buffer, blocks (2 * bufferLen) and last subblock sorted
+    private void buildBlocks(int start, int length, int bufferLen) {
+        this.sortPairsWithKeys(start, length);
+        this.buildInPlace(start - 2, length, 2, bufferLen);
+    }
+
+    // implementation of "smart block selection" sort
+    // code inspired by Anonymous0726
+    private void sortBlocks(int firstKey, int start, int blockCount, int leftBlocks, int blockLen, boolean sortByTail) {
+        // this check might be unnecessary with the new "combine blocks" control flow
+		if(blockCount == leftBlocks) return;
+
+        int cmpIndex   = sortByTail ? blockLen - 1 : 0;
+
+        int blockIndex = start;
+        int keyIndex   = firstKey;
+
+        int rightBlock = start    + (leftBlocks * blockLen);
+        int rightKey   = firstKey +  leftBlocks;
+
+        boolean sorted = true;
+
+        // phase one: find first index in left subarray where a smaller right block can be swapped;
+        //            if no swaps occur, the subarrays are already in order
+        do {
+            if(this.compare(rightBlock + cmpIndex, blockIndex + cmpIndex) < 0) {
+                this.swapBlocksForwards(blockIndex, rightBlock, blockLen);
+                this.swap(keyIndex, rightKey);
+                sorted = false;
+            }
+            blockIndex += blockLen;
+            keyIndex++;
+        } while(sorted && keyIndex < rightKey);
+
+        if(sorted) return;
+
+		// consider anonymous' suggestion
+
+        int lastKey = firstKey + blockCount - 1;
+        int scrambledEnd = rightKey < lastKey ? rightKey + 1 : rightKey;
+
+        // phase two: replace the entire left subarray with blocks in sorted order from the
+        //            scrambled area, keeping track of the rightmost block swapped
+        while(keyIndex < rightKey) {
+            int selectBlock = rightBlock;
+            int selectKey   = rightKey;
+
+            int currBlock   = rightBlock + blockLen;
+
+            for(int currKey = rightKey + 1; currKey <= scrambledEnd; currKey++, currBlock += blockLen) {
+                int compare = this.compare(currBlock + cmpIndex, selectBlock + cmpIndex);
+                if (compare < 0 || (compare == 0 && this.compare(currKey, selectKey) < 0)) {
+                    selectBlock = currBlock;
+                    selectKey   = currKey;
+                }
+            }
+
+            this.swapBlocksForwards(blockIndex, selectBlock, blockLen);
+            this.swap(keyIndex, selectKey);
+
+            if(selectKey == scrambledEnd && scrambledEnd < lastKey) scrambledEnd++;
+
+            blockIndex += blockLen;
+            keyIndex++;
+        }
+
+        // phase three: after the left subarray has been sorted, keep finding the next block in order
+        //              from the scrambled area until either (a) the scrambled area runs out of blocks,
+        //              meaning the rest are sorted, or (b) the scrambled area hits the end of the right
+        //              subarray
+        while(scrambledEnd < lastKey) {
+            int selectBlock = blockIndex;
+            int selectKey   = keyIndex;
+
+            int currBlock   = blockIndex + blockLen;
+
+            for(int currKey = keyIndex + 1; currKey <= scrambledEnd; currKey++, currBlock += blockLen) {
+                int compare = this.compare(currBlock + cmpIndex, selectBlock + cmpIndex);
+                if (compare < 0 || (compare == 0 && this.compare(currKey, selectKey) < 0)) {
+                    selectBlock = currBlock;
+                    selectKey   = currKey;
+                }
+            }
+
+            if(selectKey != keyIndex) {
+                this.swapBlocksForwards(blockIndex, selectBlock, blockLen);
+                this.swap(keyIndex, selectKey);
+
+                if(selectKey == scrambledEnd) scrambledEnd++;
+            }
+
+            blockIndex += blockLen;
+            keyIndex++;
+
+            if(keyIndex == scrambledEnd) return;
+        }
+
+        // phase four: sort the remainder blocks from the scrambled area
+        do {
+            int selectBlock = blockIndex;
+            int selectKey   = keyIndex;
+
+            int currBlock   = blockIndex + blockLen;
+
+            for(int currKey = keyIndex + 1; currKey <= lastKey; currKey++, currBlock += blockLen) {
+                int compare = this.compare(currBlock + cmpIndex, selectBlock + cmpIndex);
+                if (compare < 0 || (compare == 0 && this.compare(currKey, selectKey) < 0)) {
+                    selectBlock = currBlock;
+                    selectKey   = currKey;
+                }
+            }
+
+            if(selectKey != keyIndex) {
+                this.swapBlocksForwards(blockIndex, selectBlock, blockLen);
+                this.swap(keyIndex, selectKey);
+            }
+
+            blockIndex += blockLen;
+            keyIndex++;
+        } while(keyIndex < lastKey);
+    }
+
+    private Subarray getSubarray(int currentKey, int medianKey) {
+        if(this.compare(currentKey, medianKey) < 0) {
+            return Subarray.LEFT;
+        }
+        else {
+            return Subarray.RIGHT;
+        }
+    }
+
+    // FUNCTION RE-RENAMED: last/final left blocks are used to calculate the length of the final merge
+    private int countLastMergeBlocks(int offset, int blockCount, int blockLen) {
+        int blocksToMerge = 0;
+
+        int lastRightFrag = offset + (blockCount * blockLen);
+        int prevLeftBlock = lastRightFrag - blockLen;
+
+        while(blocksToMerge < blockCount && this.compare(lastRightFrag, prevLeftBlock) < 0) {
+            blocksToMerge++;
+            prevLeftBlock -= blockLen;
+        }
+
+        return blocksToMerge;
+    }
+
+    private void localMergeForwards(int start, int leftLen, Subarray leftOrigin, int rightLen, int bufferOffset) {
+        int buffer = start  - bufferOffset;
+        int   left = start;
+        int middle = start  +  leftLen;
+        int  right = middle;
+        int    end = middle + rightLen;
+
+        if(leftOrigin == Subarray.LEFT) {
+            while(left < middle && right < end) {
+                if(this.compare(left, right) <= 0) {
+                    this.swap(buffer, left);
+                    left++;
+                }
+                else {
+                    this.swap(buffer, right);
+                    right++;
+                }
+                buffer++;
+            }
+        }
+        else {
+            while(left < middle && right < end) {
+                if(this.compare(left, right) <  0) {
+                    this.swap(buffer, left);
+                    left++;
+                }
+                else {
+                    this.swap(buffer, right);
+                    right++;
+                }
+                buffer++;
+            }
+        }
+
+        if(left < middle) {
+            int leftFrag = middle - left;
+            this.swapBlocksBackwards(left, end - leftFrag, leftFrag);
+            this.currBlockLen = leftFrag;
+
+            //this.currBlockLen = leftFrag;
+            //this.rewindBuffer(left, middle - 1, end - 1);
+        }
+        else {
+            this.currBlockLen = end - right;
+            if(leftOrigin == Subarray.LEFT) {
+                this.currBlockOrigin = Subarray.RIGHT;
+            }
+            else {
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+        }
+    }
+
+    private void localMergeBackwards(int start, int leftLen, int rightLen, Subarray rightOrigin, int bufferOffset) {
+        int    end = start  -  1;
+        int   left = end    +  leftLen;
+        int middle = left;
+        int  right = middle + rightLen;
+        int buffer = right  + bufferOffset;
+
+        if(rightOrigin == Subarray.RIGHT) {
+            while(left > end && right > middle) {
+                if(this.compare(left, right) >  0) {
+                    this.swap(buffer, left);
+                    left--;
+                }
+                else {
+                    this.swap(buffer, right);
+                    right--;
+                }
+                buffer--;
+            }
+        }
+        else {
+            while(left > end && right > middle) {
+                if(this.compare(left, right) >= 0) {
+                    this.swap(buffer, left);
+                    left--;
+                }
+                else {
+                    this.swap(buffer, right);
+                    right--;
+                }
+                buffer--;
+            }
+        }
+
+        if(right > middle) {
+            int rightFrag = right - middle;
+            this.swapBlocksForwards(end + 1, middle + 1, rightFrag);
+            this.currBlockLen = rightFrag;
+
+            //this.currBlockLen = right - middle;
+            //this.fastForwardBuffer(end + 1, middle + 1, right);
+        }
+        else {
+            this.currBlockLen = left - end;
+            if(rightOrigin == Subarray.RIGHT) {
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+            else {
+                this.currBlockOrigin = Subarray.RIGHT;
+            }
+        }
+    }
+
+    private void localLazyMerge(int start, int leftLen, Subarray leftOrigin, int rightLen) {
+        int middle = start + leftLen;
+
+        if(leftOrigin == Subarray.LEFT) {
+            if(this.compare(middle - 1, middle) >  0) {
+                while(leftLen != 0) {
+                    int mergeLen = this.binarySearchLeft(middle, rightLen, start);
+
+                    if(mergeLen != 0) {
+                        this.rotate(start, leftLen, mergeLen);
+
+                        start    += mergeLen;
+                        middle   += mergeLen;
+                        rightLen -= mergeLen;
+                    }
+
+                    if(rightLen == 0) {
+                        this.currBlockLen = leftLen;
+                        return;
+                    }
+                    else {
+                        do {
+                            start++;
+                            leftLen--;
+                        } while(leftLen != 0 && this.compare(start, middle) <= 0);
+                    }
+                }
+            }
+        }
+        else {
+            if(this.compare(middle - 1, middle) >= 0) {
+                while(leftLen != 0) {
+                    int mergeLen = this.binarySearchRight(middle, rightLen, start);
+
+                    if(mergeLen != 0) {
+                        this.rotate(start, leftLen, mergeLen);
+
+                        start    += mergeLen;
+                        middle   += mergeLen;
+                        rightLen -= mergeLen;
+                    }
+
+                    if(rightLen == 0) {
+                        this.currBlockLen = leftLen;
+                        return;
+                    }
+                    else {
+                        do {
+                            start++;
+                            leftLen--;
+                        } while(leftLen != 0 && this.compare(start, middle) < 0);
+                    }
+                }
+            }
+        }
+
+        this.currBlockLen = rightLen;
+        if(leftOrigin == Subarray.LEFT) {
+            this.currBlockOrigin = Subarray.RIGHT;
+        }
+        else {
+            this.currBlockOrigin = Subarray.LEFT;
+        }
+    }
+
+    private void mergeBlocksForwards(int firstKey, int medianKey, int start,
+                                     int blockCount, int blockLen, int lastMergeBlocks,
+                                     int lastLen) {
+        int buffer;
+
+        int currBlock;
+        int nextBlock = start + blockLen;
+
+        this.currBlockLen    = blockLen;
+        this.currBlockOrigin = this.getSubarray(firstKey, medianKey);
+
+        for(int keyIndex = 1; keyIndex < blockCount; keyIndex++, nextBlock += blockLen) {
+            Subarray nextBlockOrigin;
+
+            currBlock       = nextBlock - this.currBlockLen;
+            nextBlockOrigin = this.getSubarray(firstKey + keyIndex, medianKey);
+
+            if(nextBlockOrigin != this.currBlockOrigin) {
+                this.localMergeForwards(currBlock, this.currBlockLen, this.currBlockOrigin,
+                                        blockLen, blockLen);
+            }
+            else {
+                buffer = currBlock - blockLen;
+                this.swapBlocksForwards(buffer, currBlock, this.currBlockLen);
+                this.currBlockLen = blockLen;
+            }
+        }
+
+        currBlock = nextBlock - this.currBlockLen;
+        buffer    = currBlock - blockLen;
+
+        if(lastLen != 0) {
+            if(this.currBlockOrigin == Subarray.RIGHT) {
+                this.swapBlocksForwards(buffer, currBlock, this.currBlockLen);
+
+                currBlock            = nextBlock;
+                this.currBlockLen    = blockLen * lastMergeBlocks;
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+            else {
+                this.currBlockLen += blockLen * lastMergeBlocks;
+            }
+
+            this.mergeForwards(currBlock, this.currBlockLen, lastLen, blockLen);
+        }
+        else {
+            this.swapBlocksForwards(buffer, currBlock, this.currBlockLen);
+        }
+    }
+
+    private void lazyMergeBlocks(int firstKey, int medianKey, int start,
+                                 int blockCount, int blockLen, int lastMergeBlocks,
+                                 int lastLen) {
+        int currBlock;
+        int nextBlock = start + blockLen;
+
+        this.currBlockLen    = blockLen;
+        this.currBlockOrigin = this.getSubarray(firstKey, medianKey);
+
+        for(int keyIndex = 1; keyIndex < blockCount; keyIndex++, nextBlock += blockLen) {
+            Subarray nextBlockOrigin;
+
+            currBlock       = nextBlock - this.currBlockLen;
+            nextBlockOrigin = this.getSubarray(firstKey + keyIndex, medianKey);
+
+            if(nextBlockOrigin != this.currBlockOrigin) {
+                this.localLazyMerge(currBlock, this.currBlockLen, this.currBlockOrigin,
+                                    blockLen);
+            }
+            else {
+                this.currBlockLen = blockLen;
+            }
+        }
+
+        currBlock = nextBlock - this.currBlockLen;
+
+        if(lastLen != 0) {
+            if(this.currBlockOrigin == Subarray.RIGHT) {
+                currBlock            = nextBlock;
+                this.currBlockLen    = blockLen * lastMergeBlocks;
+                this.currBlockOrigin = Subarray.LEFT;
+            }
+            else {
+                this.currBlockLen += blockLen * lastMergeBlocks;
+            }
+
+            // TODO: double-check direction
+            this.lazyMergeBackwards(currBlock, this.currBlockLen, lastLen);
+        }
+    }
+
+    private void mergeBlocksBackwards(int firstKey, int medianKey, int start,
+                                      int blockCount, int blockLen, int lastLen) {
+
+        int nextBlock = start + (blockCount * blockLen) - 1;
+        int buffer    = nextBlock + lastLen + blockLen;
+
+        // The last fragment (lastLen) came from the right subarray,
+        // although it may be empty (lastLen == 0)
+        this.currBlockLen    = lastLen;
+        this.currBlockOrigin = Subarray.RIGHT;
+
+        for(int keyIndex = blockCount - 1; keyIndex >= 0; keyIndex--, nextBlock -= blockLen) {
+            Subarray nextBlockOrigin = this.getSubarray(firstKey + keyIndex, medianKey);
+
+            if(nextBlockOrigin != this.currBlockOrigin) {
+                // TODO: buffer length *should* always be equivalent to:
+                // right block length -  forwards merge blocks
+                //  left block length - backwards merge blocks
+                // TODO: redo this jank solution with the `start` offset
+                this.localMergeBackwards(nextBlock - blockLen + 1, blockLen, this.currBlockLen, this.currBlockOrigin,
+                                         blockLen);
+            }
+            else {
+                buffer = nextBlock + blockLen + 1;
+                this.swapBlocksBackwards(nextBlock + 1, buffer, this.currBlockLen);
+                this.currBlockLen = blockLen;
+            }
+        }
+
+        this.swapBlocksBackwards(start, start + blockLen, this.currBlockLen);
+    }
+
+    // a novel, elegant, and incredibly efficient 1.5 sqrt n key sort, courtesy of Control
+    // only works if a) median key is known and b) keys were permutated by "sortBlocks"
+    // (keys < medianKey and >= medianKey are each in relative sorted order, resembling a final radix sort pass)
+    private void sortKeys(int firstKey, int medianKey, int keyCount, int buffer) {
+        int currKey     = firstKey;
+        int keysEnd     = firstKey + keyCount;
+        int bufferSwaps = 0;
+
+        while(currKey < keysEnd) {
+            if(this.compare(currKey, medianKey) < 0) {
+                if(bufferSwaps != 0) {
+                    this.swap(currKey, currKey - bufferSwaps);
+                }
+            }
+            else {
+                this.swap(currKey, buffer + bufferSwaps);
+                bufferSwaps++;
+            }
+            currKey++;
+        }
+
+        this.swapBlocksBackwards(currKey - bufferSwaps, buffer, bufferSwaps);
+    }
+
+    private void groupKeys(int left, int right, int medianKey) {
+        while(left < right && this.compare(left, medianKey) < 0) left++;
+
+        for(int i = left + 1; i < right; i++) {
+            if(this.compare(i, medianKey) < 0) {
+                this.insertBackwards(left, i - left);
+                left++;
+            }
+        }
+    }
+
+    private void mergeGroups(int left, int middle, int right, int medianKey) {
+        int leftLen = middle - left;
+        int rightLen = right - middle;
+
+        int mergeStart = left + this.binarySearchLeft(left, leftLen, medianKey);
+        int mergeLen = this.binarySearchLeft(middle, rightLen, medianKey);
+
+        this.rotate(mergeStart, middle - mergeStart, mergeLen);
+    }
+
+    // another novel, elegant, and efficient key sort for Holy Grailsort, specifically for Strategy 2
+    // based on lazy stable sorting, this algorithm achieves less than 2n comparisons and O(n log n) moves
+    // works based off of the same assumptions as 'sortKeys'
+    // designed and implemented by aphitorite
+    private void lazySortKeys(int firstKey, int keyCount, int medianKey) {
+        int runLen = 8;
+        int keysEnd = firstKey + keyCount;
+
+        int i;
+        for(i = firstKey; i + runLen < keysEnd; i += runLen) {
+            this.groupKeys(i, i + runLen, medianKey);
+        }
+        this.groupKeys(i, keysEnd, medianKey);
+
+        while(runLen < keyCount) {
+            int fullMerge = 2 * runLen;
+
+            int mergeIndex;
+            int mergeEnd = keysEnd - fullMerge;
+
+            for(mergeIndex = firstKey; mergeIndex <= mergeEnd; mergeIndex += fullMerge) {
+                this.mergeGroups(mergeIndex, mergeIndex + runLen, mergeIndex + fullMerge, medianKey);
+            }
+
+            int leftOver = keysEnd - mergeIndex;
+            if(leftOver > runLen) {
+                this.mergeGroups(mergeIndex, mergeIndex + runLen, keysEnd, medianKey);
+            }
+
+            runLen *= 2;
+        }
+    }
+
+    private void combineForwards(int firstKey, int start, int length, int subarrayLen, int blockLen) {
+        // TODO: Double-check names and change all other functions to match
+        int      mergeLen = 2 * subarrayLen;
+        int    fullMerges = length / mergeLen;
+        int    blockCount = mergeLen / blockLen;
+        int lastSubarrays = length - (mergeLen * fullMerges);
+
+        int fastForwardLen = 0;
+        if(lastSubarrays <= subarrayLen) {
+            if(fullMerges % 2 != 0) {
+                fastForwardLen = lastSubarrays;
+            }
+            length -= lastSubarrays;
+            lastSubarrays = 0;
+        }
+
+        int leftBlocks = subarrayLen / blockLen;
+        int medianKey  = this.keepCopy(firstKey + leftBlocks, MEDIAN_KEY);
+
+        for(int mergeIndex = 0; mergeIndex < fullMerges; mergeIndex++) {
+            int offset = start + (mergeIndex * mergeLen);
+
+            this.sortBlocks(firstKey, offset, blockCount, leftBlocks, blockLen, false);
+            this.mergeBlocksForwards(firstKey, medianKey, offset, blockCount, blockLen, 0, 0);
+
+            // TODO: Replace with Control's key sort
+            this.sortKeys(firstKey, medianKey, blockCount, offset + mergeLen - blockLen);
+            //this.insertSort(firstKey, blockCount);
+        }
+
+        int offset = start + (fullMerges * mergeLen);
+
+        if(lastSubarrays != 0) {
+            blockCount = lastSubarrays / blockLen;
+
+            this.sortBlocks(firstKey, offset, blockCount, leftBlocks, blockLen, false);
+
+            int lastFragment = lastSubarrays - (blockCount * blockLen);
+            int lastMergeBlocks = 0;
+            if (lastFragment != 0) {
+                lastMergeBlocks = this.countLastMergeBlocks(offset, blockCount, blockLen);
+            }
+
+            int smartMerges = blockCount - lastMergeBlocks;
+
+            if(smartMerges == 0) {
+                int leftLen = lastMergeBlocks * blockLen;
+                this.mergeForwards(offset, leftLen, lastFragment, blockLen);
+            }
+            else {
+                this.mergeBlocksForwards(firstKey, medianKey, offset, smartMerges, blockLen,
+                                         lastMergeBlocks, lastFragment);
+            }
+
+            //TODO: Why is this 'blockCount + 1'???
+            this.sortKeys(firstKey, medianKey, blockCount, offset + lastSubarrays - blockLen);
+            //this.insertSort(firstKey, blockCount);
+
+            if(fullMerges % 2 == 0 && fullMerges != 0) {
+                this.swapBlocksBackwards(offset - blockLen, offset, lastSubarrays);
+
+                // lastSubarrays--;
+                // this.rewindBuffer(offset - blockLen, offset + lastSubarrays - blockLen, offset + lastSubarrays);
+            }
+        }
+        else {
+            if(fastForwardLen == 0) {
+                if(fullMerges % 2 != 0 && fullMerges != 1) {
+                    this.swapBlocksBackwards(offset - blockLen - mergeLen, offset - mergeLen, mergeLen);
+
+                    // TODO: check arguments
+                    // this.rewindBuffer(offset - mergeLen - blockLen, offset - blockLen - 1, offset - 1);
+                }
+            }
+            else {
+                this.swapBlocksForwards(offset - blockLen, offset, fastForwardLen);
+                // this.fastForwardBuffer(offset - blockLen, offset, offset + fastForwardLen - 1);
+            }
+        }
+    }
+
+    private void lazyCombine(int firstKey, int start, int length, int subarrayLen, int blockLen) {
+        int      mergeLen = 2 * subarrayLen;
+        int    fullMerges = length / mergeLen;
+        int    blockCount = mergeLen / blockLen;
+        int lastSubarrays = length - (mergeLen * fullMerges);
+
+        if(lastSubarrays <= subarrayLen) {
+            length -= lastSubarrays;
+            lastSubarrays = 0;
+        }
+
+        int leftBlocks = subarrayLen / blockLen;
+        int medianKey  = this.keepCopy(firstKey + leftBlocks, MEDIAN_KEY);
+
+        for(int mergeIndex = 0; mergeIndex < fullMerges; mergeIndex++) {
+            int offset = start + (mergeIndex * mergeLen);
+
+            this.sortBlocks(firstKey, offset, blockCount, leftBlocks, blockLen, false);
+            this.lazyMergeBlocks(firstKey, medianKey, offset, blockCount, blockLen, 0, 0);
+
+            this.lazySortKeys(firstKey, blockCount, medianKey);
+            //this.insertSort(firstKey, blockCount);
+        }
+
+        int offset = start + (fullMerges * mergeLen);
+
+        if(lastSubarrays != 0) {
+            blockCount = lastSubarrays / blockLen;
+
+            this.sortBlocks(firstKey, offset, blockCount, leftBlocks, blockLen, false);
+
+            int lastFragment = lastSubarrays - (blockCount * blockLen);
+            int lastMergeBlocks = 0;
+            if (lastFragment != 0) {
+                lastMergeBlocks = this.countLastMergeBlocks(offset, blockCount, blockLen);
+            }
+
+            int smartMerges = blockCount - lastMergeBlocks;
+
+            if(smartMerges == 0) {
+                int leftLen = lastMergeBlocks * blockLen;
+                // TODO: double-check direction
+                this.lazyMergeBackwards(offset, leftLen, lastFragment);
+            }
+            else {
+                this.lazyMergeBlocks(firstKey, medianKey, offset, smartMerges, blockLen,
+                                     lastMergeBlocks, lastFragment);
+            }
+
+            //TODO: Why is this 'blockCount + 1'???
+            this.lazySortKeys(firstKey, blockCount, medianKey);
+        }
+    }
+
+    private void combineBackwards(int firstKey, int start, int length, int subarrayLen, int blockLen) {
+        int      mergeLen = 2 * subarrayLen;
+        int    fullMerges = length / mergeLen;
+        int lastSubarrays = length - (mergeLen * fullMerges);
+
+        if(lastSubarrays <= subarrayLen) {
+            length -= lastSubarrays;
+            lastSubarrays = 0;
+        }
+
+        int blockCount = lastSubarrays / blockLen;
+        int leftBlocks = subarrayLen / blockLen;
+        int medianKey  = this.keepCopy(firstKey + leftBlocks, MEDIAN_KEY);
+
+        if(lastSubarrays != 0) {
+            int offset = start + (fullMerges * mergeLen);
+
+            this.sortBlocks(firstKey, offset, blockCount, leftBlocks, blockLen, true);
+
+            int lastFragment = lastSubarrays - (blockCount * blockLen);
+
+            this.mergeBlocksBackwards(firstKey, medianKey, offset, blockCount, blockLen,
+                                      lastFragment);
+
+            //TODO: Why is this 'blockCount + 1'???
+            // We believe this '+ 1' is unnecessary and
+            // possibly has a *hilarious* origin story
+            this.sortKeys(firstKey, medianKey, blockCount, offset);
+            //this.insertSort(firstKey, blockCount);
+        }
+
+        blockCount = mergeLen / blockLen;
+
+        for(int mergeIndex = fullMerges - 1; mergeIndex >= 0; mergeIndex--) {
+            int offset = start + (mergeIndex * mergeLen);
+
+            this.sortBlocks(firstKey, offset, blockCount, leftBlocks, blockLen, true);
+            this.mergeBlocksBackwards(firstKey, medianKey, offset, blockCount, blockLen, 0);
+
+            this.sortKeys(firstKey, medianKey, blockCount, offset);
+            //this.insertSort(firstKey, blockCount);
+        }
+    }
+
+    // combineForwards only fast-forwards the scrolling buffer as far as the next (backwards) level
+    // needs it, so it isn't always at the end of the array; returns how many items are in front of it
+    private static int getBufferRewindLen(int length, int subarrayLen) {
+        int   mergeLen = 2 * subarrayLen;
+        int fullMerges = length / mergeLen;
+        int   leftOver = length - (mergeLen * fullMerges);
+
+        if(leftOver > subarrayLen) {
+            if(fullMerges % 2 == 0 && fullMerges != 0) {
+                return fullMerges * mergeLen;
+            }
+        }
+        else if(leftOver != 0) {
+            if(fullMerges % 2 == 0) {
+                return fullMerges * mergeLen;
+            }
+        }
+        else if(fullMerges % 2 != 0 && fullMerges != 1) {
+            return (fullMerges - 1) * mergeLen;
+        }
+
+        return length;
+    }
+
+    // 'keys' are on the left side of array. Blocks of length 'subarrayLen' combined. We'll combine them in pairs
+    // 'subarrayLen' is a power of 2. (2 * subarrayLen / blockLen) keys are guaranteed
+    private LocalMerge combineBlocks(int start, int length, int bufferLen, int subarrayLen,
+                                     int blockLen, int keyLen, boolean idealBuffer) {
+        LocalMerge direction = LocalMerge.FORWARDS;
+        subarrayLen *= 2;
+
+        if(idealBuffer) {
+            while((length - bufferLen) > subarrayLen) {
+                if(direction == LocalMerge.FORWARDS) {
+                    this.combineForwards(start, start + bufferLen, length - bufferLen,
+                                                subarrayLen, blockLen);
+                    direction = LocalMerge.BACKWARDS;
+                }
+                else {
+                    this.combineBackwards(start, start + keyLen, length - bufferLen,
+                                                 subarrayLen, blockLen);
+                    direction = LocalMerge.FORWARDS;
+                }
+                subarrayLen *= 2;
+            }
+        }
+        else {
+            int keyBuffer = keyLen / 2;
+            this.shellSort(start, keyBuffer);
+
+            while(keyBuffer >= ((2 * subarrayLen) / keyBuffer)) {
+                if(direction == LocalMerge.FORWARDS) {
+                    this.combineForwards(start, start + keyLen, length - keyLen,
+                                                subarrayLen, keyBuffer);
+                    direction = LocalMerge.BACKWARDS;
+                }
+                else {
+                    this.combineBackwards(start, start + keyBuffer, length - keyLen,
+                                                 subarrayLen, keyBuffer);
+                    direction = LocalMerge.FORWARDS;
+                }
+                subarrayLen *= 2;
+            }
+
+            if(direction == LocalMerge.BACKWARDS) {
+                int bufferOffset = start + keyBuffer;
+                int    rewindLen = getBufferRewindLen(length - keyLen, subarrayLen / 2);
+                this.swapBlocksBackwards(bufferOffset, bufferOffset + keyBuffer, rewindLen);
+                direction = LocalMerge.FORWARDS;
+            }
+
+            this.shellSort(start, keyLen);
+
+            while((length - keyLen) > subarrayLen) {
+                this.lazyCombine(start, start + keyLen, length - keyLen,
+                                 subarrayLen, (2 * subarrayLen) / keyLen);
+                subarrayLen *= 2;
+            }
+        }
+
+        return direction;
+    }
+
+    // "Classic" in-place merge sort using binary searches and rotations
+    // Forwards rotates the leftLen into the rightLen
+    // cost: leftLen^2 + rightLen
+    private void lazyMergeForwards(int start, int leftLen, int rightLen) {
+        int middle = start + leftLen;
+
+        while(leftLen != 0) {
+            int mergeLen = this.binarySearchLeft(middle, rightLen, start);
+
+            if(mergeLen != 0) {
+                this.rotate(start, leftLen, mergeLen);
+
+                start    += mergeLen;
+                middle   += mergeLen;
+                rightLen -= mergeLen;
+            }
+
+            if(rightLen == 0) {
+                break;
+            }
+            else {
+                // the first item already stays before the right side; step past the next few that
+                // do too, then gallop past the rest of a longer stretch
+                int count = 1;
+                while(count < leftLen && count < MIN_GALLOP && this.compare(start + count, middle) <= 0) {
+                    count++;
+                }
+                if(count == MIN_GALLOP) {
+                    count += this.gallopForwards(start + count, leftLen - count, middle, true);
+                }
+                start   += count;
+                leftLen -= count;
+            }
+        }
+    }
+
+    // "Classic" in-place merge sort using binary searches and rotations
+    // Backwards rotates the rigthLen into the leftLen
+    // cost: rightLen^2 + leftLen
+    private void lazyMergeBackwards(int start, int leftLen, int rightLen) {
+        int end = start + leftLen + rightLen - 1;
+
+        while(rightLen != 0) {
+            int mergeLen = this.binarySearchRight(start, leftLen, end);
+
+            if(mergeLen != leftLen) {
+                this.rotate(start + mergeLen, leftLen - mergeLen, rightLen);
+
+                end     -=  leftLen - mergeLen;
+                leftLen  = mergeLen;
+            }
+
+            if(leftLen == 0) {
+                break;
+            }
+            else {
+                int middle = start + leftLen;
+                // the last item already stays after the left side; step past the next few that
+                // do too, then gallop past the rest of a longer stretch
+                int count = 1;
+                while(count < rightLen && count < MIN_GALLOP && this.compare(middle - 1, end - count) <= 0) {
+                    count++;
+                }
+                if(count == MIN_GALLOP) {
+                    count += this.gallopBackwards(middle, rightLen - count, middle - 1, true);
+                }
+                rightLen -= count;
+                end      -= count;
+            }
+        }
+    }
+
+    private void lazyMergeBufferBackwards(int start, int leftLen, int rightLen) {
+        int end = start + leftLen + rightLen - 1;
+
+        while(rightLen != 0) {
+            int mergeLen = this.binarySearchLeft(start, leftLen, end);
+
+            if(mergeLen != leftLen) {
+                this.rotate(start + mergeLen, leftLen - mergeLen, rightLen);
+
+                end     -=  leftLen - mergeLen;
+                leftLen  = mergeLen;
+            }
+
+            if(leftLen == 0) {
+                break;
+            }
+            else {
+                int middle = start + leftLen;
+                // the last item already stays after the left side; step past the next few that
+                // do too, then gallop past the rest of a longer stretch
+                int count = 1;
+                while(count < rightLen && count < MIN_GALLOP && this.compare(middle - 1, end - count) < 0) {
+                    count++;
+                }
+                if(count == MIN_GALLOP) {
+                    count += this.gallopBackwards(middle, rightLen - count, middle - 1, false);
+                }
+                rightLen -= count;
+                end      -= count;
+            }
+        }
+    }
+
+    // Stable sort for arrays with at most three distinct values, using the middle and highest keys as
+    // pivots ('upper' can be the same as 'lower' when there are only two). Both halves are sorted
+    // into three groups, then two rotations interleave them: O(n) comparisons and O(n log n) writes.
+    private void sortFewValues(int start, int length, int lower, int upper) {
+        if(length <= 16) {
+            this.insertSort(start, length);
+            return;
+        }
+
+        int  leftLen = length / 2;
+        int rightLen = length - leftLen;
+        int   middle = start  + leftLen;
+
+        this.sortFewValues(start,  leftLen,  lower, upper);
+        this.sortFewValues(middle, rightLen, lower, upper);
+
+        int  leftLow = this.binarySearchLeft(start,  leftLen,  lower);
+        int  leftMid = this.binarySearchLeft(start,  leftLen,  upper) - leftLow;
+        int leftHigh = leftLen - leftLow - leftMid;
+
+        int rightLow = this.binarySearchLeft(middle, rightLen, lower);
+        int rightMid = this.binarySearchLeft(middle, rightLen, upper) - rightLow;
+
+        // low(L) + mid(L) + high(L) + low(R) + mid(R) + high(R)
+        // --> low(L) + low(R) + mid(L) + high(L) + mid(R) + high(R)
+        // --> low(L) + low(R) + mid(L) + mid(R) + high(L) + high(R)
+        this.rotate(start + leftLow, leftMid + leftHigh, rightLow);
+        this.rotate(start + leftLow + rightLow + leftMid, leftHigh, rightMid);
+    }
+
+    // Sorts records [start, start + length) of 'records', counting from its first byte
+    void commonSort(ByteBuffer records, int start, int length) {
+        this.records = records;
+        this.scratch = ByteBuffer.allocate(SCRATCH_SLOTS * this.recordLen).order(records.order());
+
+        if(length < 16) {
+            this.insertSort(start, length);
+            return;
+        }
+
+        // smallest possible O(sqrt n) block length that
+        // doesn't include arrays sorted by Insertion Sort
+        int blockLen = 4;
+
+        // find the smallest power of two greater than or
+        // equal to the square root of the input's length
+        while((blockLen * blockLen) < length) {
+            blockLen *= 2;
+        }
+
+        // '((a - 1) / b) + 1' is actually a clever and very efficient
+        // formula for the ceiling of (a / b)
+        //
+        // credit to Anonymous0726 for figuring this out!
+
+        // TODO: We don't need this ceiling???
+        int keyLen = ((length - 1) / blockLen) + 1;
+
+        // Holy Grail is hoping to find '~2 sqrt n' unique items
+        // throughout the array
+        int idealKeys = keyLen + blockLen;
+
+        int keysFound = this.collectKeys(start, length, idealKeys);
+
+        // HOLY GRAIL STRATEGY 3
+        // No block swaps or scrolling buffer; partition around the keys instead
+        if(keysFound < 4) {
+
+            // if all items in the array equal each other,
+            // then they're already sorted. done!
+            if(keysFound == 1) return;
+
+            // the keys get moved around, so hold onto them first
+            int lower = this.keepCopy(start + 1,             SAVED_KEY);
+            int upper = this.keepCopy(start + keysFound - 1, OTHER_SAVED_KEY);
+
+            this.sortFewValues(start, length, lower, upper);
+            return;
+        }
+
+        boolean idealBuffer;
+        if(keysFound < idealKeys) {
+            // HOLY GRAIL STRATEGY 2
+            // Block swaps with small scrolling buffer and/or lazy merges
+            keyLen = blockLen;
+            blockLen = 0;
+            idealBuffer = false;
+
+            while(keyLen > keysFound) {
+                keyLen /= 2;
+            }
+        }
+        else {
+            // HOLY GRAIL STRATEGY 1
+            // Block swaps with scrolling buffer
+            idealBuffer = true;
+        }
+
+        int bufferLen = blockLen + keyLen;
+        int subarrayLen;
+        if(idealBuffer) {
+            subarrayLen = blockLen;
+        }
+        else {
+            subarrayLen = keyLen;
+        }
+
+        this.buildBlocks(start + bufferLen, length - bufferLen, subarrayLen);
+
+        LocalMerge direction = this.combineBlocks(start, length, bufferLen, subarrayLen,
+                                                  blockLen, keyLen, idealBuffer);
+
+        // This 'if' case will always run during Strategy 2
+        if(direction == LocalMerge.FORWARDS) {
+            this.shellSort(start + keyLen, blockLen);
+            this.lazyMergeForwards(start, bufferLen, length - bufferLen);
+        }
+        else {
+            this.lazyMergeForwards(start, keyLen, length - bufferLen);
+
+            this.shellSort(start + length - blockLen, blockLen);
+            this.lazyMergeBufferBackwards(start, length - blockLen, blockLen);
+        }
+    }
+}
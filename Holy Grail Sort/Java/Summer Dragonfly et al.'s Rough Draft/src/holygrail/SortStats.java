@@ -0,0 +1,143 @@
+package holygrail;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2021 The Holy Grail Sort Project
+ *
+ * See LICENSE at the root of the repository for the full license text.
+ */
+
+// What one call to HolyGrailSort did, handed to its SortListener after the sort. Comparisons and
+// phase timings are always counted while a listener is set. Element writes and rotations are
+// counted in the sort's innermost loops, so they're compiled out unless the JVM is started with
+// -Dholygrail.countMoves=true; they're -1 otherwise, and they include any other sorts running at
+// the same time.
+final public class SortStats {
+    // how the items were sorted, in the order commonSort tries them
+    public enum Strategy {
+        INSERTION_SORT,    // fewer than 16 items
+        ALREADY_SORTED,    // adaptive mode found one ascending or descending run
+        MERGE_SORT,        // the external buffer holds half the array
+        STRATEGY_3,        // fewer than 4 distinct items, partitioned around them
+        STRATEGY_2,        // not enough keys for a full buffer; small buffer and/or lazy merges
+        STRATEGY_1;        // block merges with a full scrolling buffer
+    }
+
+    public enum BufferMode {
+        NONE,              // no external buffer, or not needed
+        BUILD_ONLY,        // shorter than a block; only speeds up building blocks
+        OUT_OF_PLACE,      // replaces the internal buffer
+        MERGE_SORT;        // long enough for a plain merge sort
+    }
+
+    public enum Phase {
+        COLLECT_KEYS,
+        BUILD_BLOCKS,      // including merge sorted runs with an external buffer
+        COMBINE_BLOCKS,    // including natural run merges in adaptive mode, or Strategy 3's partitions
+        FINAL_MERGE;       // sorting the buffer and merging it and the keys back in
+    }
+
+    final static boolean COUNT_MOVES = Boolean.getBoolean("holygrail.countMoves");
+
+    final static LongAdder WRITES    = new LongAdder();
+    final static LongAdder ROTATIONS = new LongAdder();
+
+    // no-ops the JIT removes entirely when COUNT_MOVES is false
+    static void countWrites(int writes) {
+        if(COUNT_MOVES) WRITES.add(writes);
+    }
+
+    static void countRotation() {
+        if(COUNT_MOVES) ROTATIONS.increment();
+    }
+
+    final int length;
+    final int extBufferLen;
+
+    final LongAdder comparisons = new LongAdder();
+    long writes    = -1;
+    long rotations = -1;
+
+    final long[] phaseNanos = new long[Phase.values().length];
+    long totalNanos;
+
+    Strategy   strategy;
+    BufferMode bufferMode = BufferMode.NONE;
+    boolean    naturalRuns;
+    int        keysFound;
+    int        blockLen;
+
+    SortStats(int length, int extBufferLen) {
+        this.length       = length;
+        this.extBufferLen = extBufferLen;
+    }
+
+    public int getLength() {
+        return this.length;
+    }
+
+    public int getExtBufferLen() {
+        return this.extBufferLen;
+    }
+
+    public long getComparisons() {
+        return this.comparisons.sum();
+    }
+
+    public long getWrites() {
+        return this.writes;
+    }
+
+    public long getRotations() {
+        return this.rotations;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return this.phaseNanos[phase.ordinal()];
+    }
+
+    public long getTotalNanos() {
+        return this.totalNanos;
+    }
+
+    public Strategy getStrategy() {
+        return this.strategy;
+    }
+
+    public BufferMode getBufferMode() {
+        return this.bufferMode;
+    }
+
+    // whether adaptive mode merged natural runs instead of building blocks
+    public boolean usedNaturalRuns() {
+        return this.naturalRuns;
+    }
+
+    // 0 if the strategy didn't collect keys
+    public int getKeysFound() {
+        return this.keysFound;
+    }
+
+    // how long the blocks Strategy 1 merged with its scrolling buffer were (see BlockLenPolicy);
+    // 0 if the sort didn't do that
+    public int getBlockLen() {
+        return this.blockLen;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder phases = new StringBuilder();
+        for(Phase phase : Phase.values()) {
+            phases.append(", ").append(phase).append(" = ").append(this.getPhaseNanos(phase) / 1000).append("us");
+        }
+
+        return "SortStats[length = " + this.length + ", strategy = " + this.strategy + ", buffer = " + this.bufferMode +
+               (this.naturalRuns ? " (natural runs)" : "") + ", keys found = " + this.keysFound +
+               ", block length = " + this.blockLen +
+               ", comparisons = " + this.getComparisons() + ", writes = " + this.writes + ", rotations = " + this.rotations +
+               phases + ", total = " + (this.totalNanos / 1000) + "us]";
+    }
+}
@@ -0,0 +1,133 @@
+package holygrail;
+
+import java.util.Arrays;
+
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2021 The Holy Grail Sort Project
+ *
+ * See LICENSE at the root of the repository for the full license text.
+ */
+
+// Sorting networks for the primitive ports' smallest sorts: commonSort's arrays of fewer than 16
+// items and sortIndependently's runs of 16. A network's compare-exchanges don't depend on the
+// data, and each one is a branch-free min and max, so there's nothing for the CPU to mispredict.
+// On random ints, longs and doubles they're two to three times as fast as insertSort (see
+// SortingNetworkBenchmark in the jmh module); a run that's already in order is left as soon as
+// that's been checked, since insertSort would only take one pass over it.
+//
+// A network can swap two equal items past each other, which no one can tell apart in an int[],
+// long[] or double[] (DoubleHolyGrailSort has taken out NaNs and -0.0 by then). That isn't true
+// of objects, so HolyGrailSort keeps its stable insertSort.
+final class SortingNetworks {
+    // the longest run a network is used for
+    final static int MAX_LENGTH = 16;
+
+    // NETWORKS[n] is Batcher's odd-even merge sort for n items, as pairs of offsets: the smaller
+    // item goes to the first one. It's the network for the next power of two with every
+    // comparator that reaches past n left out, as if those items were all larger than the rest.
+    private final static int[][] NETWORKS = new int[MAX_LENGTH + 1][];
+
+    static {
+        for(int length = 0; length <= MAX_LENGTH; length++) {
+            int size = 1;
+            while(size < length) {
+                size *= 2;
+            }
+
+            int[] network = new int[size * size];
+            int pairs = 0;
+
+            for(int p = 1; p < size; p *= 2) {
+                for(int k = p; k >= 1; k /= 2) {
+                    for(int j = k % p; j + k < size; j += 2 * k) {
+                        for(int i = 0; i < Math.min(k, size - j - k); i++) {
+                            int left  = i + j;
+                            int right = i + j + k;
+
+                            if(left / (2 * p) == right / (2 * p) && right < length) {
+                                network[pairs++] = left;
+                                network[pairs++] = right;
+                            }
+                        }
+                    }
+                }
+            }
+
+            NETWORKS[length] = Arrays.copyOf(network, pairs);
+        }
+    }
+
+    private SortingNetworks() {}
+
+    static void sort(int[] array, int start, int length) {
+        int item = start + 1;
+        while(item < start + length && array[item - 1] <= array[item]) {
+            item++;
+        }
+        if(item >= start + length) {
+            return;
+        }
+
+        int[] network = NETWORKS[length];
+        for(int i = 0; i < network.length; i += 2) {
+            int left  = start + network[i];
+            int right = start + network[i + 1];
+
+            int a = array[left];
+            int b = array[right];
+            array[left]  = Math.min(a, b);
+            array[right] = Math.max(a, b);
+        }
+    }
+
+    // Math.min(long, long) gets compiled to a branch, so this uses the overflow-safe
+    // "a < b" from Hacker's Delight to build a mask that picks the smaller item
+    static void sort(long[] array, int start, int length) {
+        int item = start + 1;
+        while(item < start + length && array[item - 1] <= array[item]) {
+            item++;
+        }
+        if(item >= start + length) {
+            return;
+        }
+
+        int[] network = NETWORKS[length];
+        for(int i = 0; i < network.length; i += 2) {
+            int left  = start + network[i];
+            int right = start + network[i + 1];
+
+            long a = array[left];
+            long b = array[right];
+            long difference = a - b;
+            long   lessThan = (difference ^ ((a ^ b) & (difference ^ a))) >> 63;
+            long    smaller = b ^ ((a ^ b) & lessThan);
+
+            array[left]  = smaller;
+            array[right] = a ^ b ^ smaller;
+        }
+    }
+
+    // Math.min and Math.max only disagree with '<' on NaNs and -0.0, and neither gets here
+    static void sort(double[] array, int start, int length) {
+        int item = start + 1;
+        while(item < start + length && array[item - 1] <= array[item]) {
+            item++;
+        }
+        if(item >= start + length) {
+            return;
+        }
+
+        int[] network = NETWORKS[length];
+        for(int i = 0; i < network.length; i += 2) {
+            int left  = start + network[i];
+            int right = start + network[i + 1];
+
+            double a = array[left];
+            double b = array[right];
+            array[left]  = Math.min(a, b);
+            array[right] = Math.max(a, b);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package holygrail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Comparator;
+
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2021 The Holy Grail Sort Project
+ *
+ * See LICENSE at the root of the repository for the full license text.
+ */
+
+// A HolyGrailSort of its own for every comparator class. The JIT only inlines the comparator into
+// the sort's loops while the calls to it have only ever seen that one comparator class; once a JVM
+// sorts with a few different ones, those calls go megamorphic and every comparison is a virtual call.
+// Here, each comparator class gets its own copy of HolyGrailSort, defined from the same bytecode as
+// a hidden class, so the copy's calls never see another one. Every copy is compiled separately,
+// though, so this is for the few comparators that do most of the sorting. Hidden classes are new in
+// Java 15; older JVMs get HolyGrailSort itself, which sorts the same, just without specializing.
+//
+// Natural order (HolyGrailSort.sort) goes one step further: every element class also gets its own
+// copy of NaturalOrder, so its compareTo call only ever sees that class, and with both inlined,
+// the kernels end up calling compareTo directly.
+//
+// HolyGrailSort.sort is the only public way in; the setters below are for tests and benchmarks.
+final class SpecializedHolyGrailSort<T> {
+    // The constructor and methods of one copy of HolyGrailSort, typed with Object for the copy
+    final private static class SorterClass {
+        final MethodHandle constructor;
+        final MethodHandle commonSort;
+        final MethodHandle setAdaptive, setDistinctHint, setBlockLenPolicy, setSortListener;
+
+        SorterClass(MethodHandles.Lookup lookup, Class<?> sorterClass) throws ReflectiveOperationException {
+            this.constructor = lookup.findConstructor(sorterClass, MethodType.methodType(void.class, Comparator.class))
+                                     .asType(MethodType.methodType(Object.class, Comparator.class));
+
+            this.commonSort        = find(lookup, sorterClass, "commonSort",        Object[].class, int.class, int.class,
+                                                                                    Object[].class, int.class);
+            this.setAdaptive       = find(lookup, sorterClass, "setAdaptive",       boolean.class);
+            this.setDistinctHint   = find(lookup, sorterClass, "setDistinctHint",   int.class);
+            this.setBlockLenPolicy = find(lookup, sorterClass, "setBlockLenPolicy", BlockLenPolicy.class);
+            this.setSortListener   = find(lookup, sorterClass, "setSortListener",   HolyGrailSort.SortListener.class);
+        }
+
+        private static MethodHandle find(MethodHandles.Lookup lookup, Class<?> sorterClass, String name,
+                                         Class<?>... paramTypes) throws ReflectiveOperationException {
+            MethodHandle method = lookup.findVirtual(sorterClass, name, MethodType.methodType(void.class, paramTypes));
+            return method.asType(method.type().changeParameterType(0, Object.class));
+        }
+    }
+
+    // Comparator.naturalOrder(), as a class of this package's own that can be copied
+    final static class NaturalOrder<T extends Comparable<? super T>> implements Comparator<T> {
+        @Override
+        public int compare(T left, T right) {
+            return left.compareTo(right);
+        }
+    }
+
+    private static final ClassValue<SorterClass> SORTER_CLASSES = new ClassValue<SorterClass>() {
+        @Override
+        protected SorterClass computeValue(Class<?> cmpClass) {
+            try {
+                return defineSorterClass();
+            }
+            catch(ReflectiveOperationException | IOException e) {
+                throw new IllegalStateException("Couldn't copy HolyGrailSort for " + cmpClass.getName(), e);
+            }
+        }
+    };
+
+    private static final ClassValue<Comparator<?>> NATURAL_ORDERS = new ClassValue<Comparator<?>>() {
+        @Override
+        protected Comparator<?> computeValue(Class<?> elementClass) {
+            try {
+                MethodHandles.Lookup lookup = defineHiddenCopy(NaturalOrder.class);
+                if(lookup == null) {
+                    return NATURAL_ORDER;
+                }
+                return (Comparator<?>) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                                             .invoke();
+            }
+            catch(Throwable t) {
+                throw new IllegalStateException("Couldn't copy NaturalOrder for " + elementClass.getName(), t);
+            }
+        }
+    };
+
+    // HolyGrailSort itself, for JVMs without hidden classes
+    private static final SorterClass FALLBACK;
+
+    private static final NaturalOrder<?> NATURAL_ORDER = new NaturalOrder<>();
+
+    // Lookup.defineHiddenClass(byte[], boolean, ClassOption...), or null without hidden classes
+    private static final Method DEFINE_HIDDEN_CLASS;
+    private static final Object NO_CLASS_OPTIONS;
+
+    static {
+        try {
+            FALLBACK = new SorterClass(MethodHandles.lookup(), HolyGrailSort.class);
+        }
+        catch(ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+
+        Method define  = null;
+        Object options = null;
+        try {
+            Class<?> optionClass = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            options = Array.newInstance(optionClass, 0);
+            define  = MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class,
+                                                                                options.getClass());
+        }
+        catch(ReflectiveOperationException e) {
+            define = null;
+        }
+        DEFINE_HIDDEN_CLASS = define;
+        NO_CLASS_OPTIONS    = options;
+    }
+
+    private final Object sorter;
+    private final SorterClass sorterClass;
+
+    SpecializedHolyGrailSort(Comparator<T> cmp) {
+        this.sorterClass = DEFINE_HIDDEN_CLASS != null ? SORTER_CLASSES.get(cmp.getClass()) : FALLBACK;
+        try {
+            this.sorter = (Object) this.sorterClass.constructor.invokeExact(cmp);
+        }
+        catch(Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    // The comparator HolyGrailSort.sort uses for arrays of 'elementClass'
+    @SuppressWarnings("unchecked")
+    static <T> Comparator<T> naturalOrder(Class<?> elementClass) {
+        return (Comparator<T>) (DEFINE_HIDDEN_CLASS != null ? NATURAL_ORDERS.get(elementClass) : NATURAL_ORDER);
+    }
+
+    private static SorterClass defineSorterClass() throws ReflectiveOperationException, IOException {
+        MethodHandles.Lookup lookup = defineHiddenCopy(HolyGrailSort.class);
+        return lookup != null ? new SorterClass(lookup, lookup.lookupClass()) : FALLBACK;
+    }
+
+    // A hidden class can be defined from the very same bytes as the class it copies: its references to
+    // its own name are to itself, and all others, like those to HolyGrailSort's nested classes, are to
+    // the classes everyone else uses. Returns the copy's lookup, or null if the bytes can't be found.
+    private static MethodHandles.Lookup defineHiddenCopy(Class<?> original) throws ReflectiveOperationException,
+                                                                                   IOException {
+        String name = original.getName();
+        byte[] bytes;
+        try(InputStream in = original.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+            if(in == null) {
+                return null;
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[1 << 14];
+            for(int read; (read = in.read(chunk)) != -1;) {
+                out.write(chunk, 0, read);
+            }
+            bytes = out.toByteArray();
+        }
+
+        return (MethodHandles.Lookup) DEFINE_HIDDEN_CLASS.invoke(MethodHandles.lookup(), bytes, true, NO_CLASS_OPTIONS);
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if(t instanceof RuntimeException) throw (RuntimeException) t;
+        if(t instanceof Error)            throw (Error) t;
+        throw new IllegalStateException(t);
+    }
+
+    // See HolyGrailSort.setAdaptive
+    void setAdaptive(boolean adaptive) {
+        try {
+            this.sorterClass.setAdaptive.invokeExact(this.sorter, adaptive);
+        }
+        catch(Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    // See HolyGrailSort.setDistinctHint
+    void setDistinctHint(int distinct) {
+        try {
+            this.sorterClass.setDistinctHint.invokeExact(this.sorter, distinct);
+        }
+        catch(Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    // See HolyGrailSort.setBlockLenPolicy
+    void setBlockLenPolicy(BlockLenPolicy policy) {
+        try {
+            this.sorterClass.setBlockLenPolicy.invokeExact(this.sorter, policy);
+        }
+        catch(Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    // See HolyGrailSort.setSortListener
+    void setSortListener(HolyGrailSort.SortListener listener) {
+        try {
+            this.sorterClass.setSortListener.invokeExact(this.sorter, listener);
+        }
+        catch(Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    // Whether this sorts with a copy of HolyGrailSort of its own, or with HolyGrailSort itself
+    boolean isSpecialized() {
+        return this.sorterClass != FALLBACK;
+    }
+
+    void commonSort(T[] array, int start, int length, T[] extBuffer, int extBufferLen) {
+        try {
+            this.sorterClass.commonSort.invokeExact(this.sorter, array, start, length, extBuffer, extBufferLen);
+        }
+        catch(Throwable t) {
+            throw rethrow(t);
+        }
+    }
+}
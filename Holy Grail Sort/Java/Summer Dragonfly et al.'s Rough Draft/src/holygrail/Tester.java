@@ -1,10 +1,17 @@
 package holygrail;
 
+import java.io.IOException;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 public class Tester {
     final static class RewrittenGrailsort<K> {
@@ -106,9 +113,22 @@ public class Tester {
         }
     }
 
+    // GrailPair in its natural order, which is GrailComparator's: by key only
+    static class ComparablePair extends GrailPair implements Comparable<ComparablePair> {
+        public ComparablePair(int key, int value) {
+            super(key, value);
+        }
+
+        @Override
+        public int compareTo(ComparablePair other) {
+            return Integer.compare(this.getKey(), other.getKey());
+        }
+    }
+
     private int averages;
     private int seed;
     private int maxLength, maxKeyCount;
+    private int runCount;
 
     private GrailPair[] keyArray;
     private GrailPair[] referenceArray;
@@ -149,6 +169,39 @@ public class Tester {
                 array[i] = new GrailPair(this.getRandomNumber(1000000000), 0);
             }
         }
+
+        if(this.runCount != 0) {
+            this.arrangeIntoRuns(array, start, length, keyCount);
+        }
+    }
+
+    // Sorts the test array into 'runCount' runs, every other one descending, for the adaptive tests
+    private void arrangeIntoRuns(GrailPair[] array, int start, int length, int keyCount) {
+        GrailComparator cmp = new GrailComparator();
+
+        for(int run = 0; run < this.runCount; run++) {
+            int runStart = start + (int) ((long) length *  run      / this.runCount);
+            int runEnd   = start + (int) ((long) length * (run + 1) / this.runCount);
+
+            Arrays.sort(array, runStart, runEnd, cmp);
+            if(run % 2 != 0) {
+                for(int i = runStart, j = runEnd - 1; i < j; i++, j--) {
+                    GrailPair temp = array[i];
+                    array[i] = array[j];
+                    array[j] = temp;
+                }
+            }
+        }
+
+        if(keyCount != 0) {
+            Arrays.fill(this.valueArray, 0, keyCount, 0);
+
+            for(int i = start; i < start + length; i++) {
+                int key = array[i].getKey();
+                array[i] = new GrailPair(key, this.valueArray[key]);
+                this.valueArray[key]++;
+            }
+        }
     }
 
     private boolean testArray(int start, int length, GrailComparator test) {
@@ -179,11 +232,20 @@ public class Tester {
         else if(grailBufferType == 2) {
             grailType = "w/ O(sqrt n) Buffer";
         }
+        else if(grailBufferType == 3) {
+            grailType = "w/ O(n) Buffer     ";
+        }
 
         if(algorithm == 0) {
             System.out.println("\n* Holy Grail Sort " + grailType + ", " + grailStrategy + " \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
         } else if(algorithm == 1) {
             System.out.println("\n* Rewritten Grailsort " + grailType + ", " + grailStrategy + " \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+        } else if(algorithm == 3) {
+            System.out.println("\n* Parallel Holy Grail Sort " + grailType + ", " + grailStrategy + " \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+        } else if(algorithm == 4) {
+            System.out.println("\n* Adaptive Holy Grail Sort " + grailType + ", " + grailStrategy + " \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+        } else if(algorithm == 5) {
+            System.out.println("\n* Specialized Holy Grail Sort " + grailType + ", " + grailStrategy + " \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
         } else {
             System.out.println("\n* Arrays.sort (Tim Sort)  \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
         }
@@ -246,11 +308,20 @@ public class Tester {
             else if(grailBufferType == 2) {
                 grailType = "w/ O(sqrt n) Buffer";
             }
+            else if(grailBufferType == 3) {
+                grailType = "w/ O(n) Buffer     ";
+            }
 
             if(algorithm == 0) {
                 System.out.println("\n* Holy Grail Sort " + grailType + ", " + grailStrategy + " \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
             } else if(algorithm == 1) {
                 System.out.println("\n* Rewritten Grailsort " + grailType + ", " + grailStrategy + " \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+            } else if(algorithm == 3) {
+                System.out.println("\n* Parallel Holy Grail Sort " + grailType + ", " + grailStrategy + " \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+            } else if(algorithm == 4) {
+                System.out.println("\n* Adaptive Holy Grail Sort " + grailType + ", " + grailStrategy + " \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+            } else if(algorithm == 5) {
+                System.out.println("\n* Specialized Holy Grail Sort " + grailType + ", " + grailStrategy + " \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
             }
         } else if (algorithm == 2) {
             System.out.println("\n* Arrays.sort (Tim Sort)  \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
@@ -275,6 +346,11 @@ public class Tester {
                 }
                 buffer = (GrailPair[]) Array.newInstance(array.getClass().getComponentType(), bufferLen);
             }
+            // Holy Grail Sort with half-length buffer
+            else if(grailBufferType == 3) {
+                bufferLen = length / 2;
+                buffer = (GrailPair[]) Array.newInstance(array.getClass().getComponentType(), bufferLen);
+            }
         }
 
         if(algorithm == 0) {
@@ -282,6 +358,22 @@ public class Tester {
             begin = System.nanoTime();
             grail.commonSort(array, start, length, buffer, bufferLen);
             time = System.nanoTime() - begin;
+        } else if (algorithm == 3) {
+            HolyGrailSort<GrailPair> grail = new HolyGrailSort<>(test, ForkJoinPool.commonPool());
+            begin = System.nanoTime();
+            grail.commonSort(array, start, length, buffer, bufferLen);
+            time = System.nanoTime() - begin;
+        } else if (algorithm == 4) {
+            HolyGrailSort<GrailPair> grail = new HolyGrailSort<>(test);
+            grail.setAdaptive(true);
+            begin = System.nanoTime();
+            grail.commonSort(array, start, length, buffer, bufferLen);
+            time = System.nanoTime() - begin;
+        } else if (algorithm == 5) {
+            SpecializedHolyGrailSort<GrailPair> grail = new SpecializedHolyGrailSort<>(test);
+            begin = System.nanoTime();
+            grail.commonSort(array, start, length, buffer, bufferLen);
+            time = System.nanoTime() - begin;
         } else if (algorithm == 1) {
             RewrittenGrailsort<GrailPair> grail = new RewrittenGrailsort<>(test);
             begin = System.nanoTime();
@@ -301,13 +393,13 @@ public class Tester {
             boolean success = this.testArray(start, length, test);
             if(success) {
                 System.out.println(" and the sort was successful!");
-                if (algorithm == 0) this.successes++;
+                if (algorithm != 1) this.successes++;
             }
             else {
                 System.out.println(" but the sort was NOT successful!!\nReason: " + this.failReason);
-                if (algorithm == 0) this.failures++;
+                if (algorithm != 1) this.failures++;
             }
-            if (algorithm == 0) this.count++;
+            if (algorithm != 1) this.count++;
         }
 
         Arrays.fill(this.keyArray, null);
@@ -338,7 +430,688 @@ public class Tester {
         System.gc();
     }
 
-    private static String getJOpt(String[] args, String optName, String orDefault) {
+    private void checkPrimitive(String name, boolean success) {
+        if(success) {
+            System.out.println("- " + name + " sort was successful!");
+            this.successes++;
+        }
+        else {
+            System.out.println("- " + name + " sort was NOT successful!!");
+            this.failures++;
+        }
+        this.count++;
+    }
+
+    // Every network sorts every array of 0s and 1s of its length, which by the 0-1 principle means it
+    // sorts anything; longs near the ends of their range check that the branch-free compare can't overflow
+    private void checkSortingNetworks() {
+        System.out.println("\n* Sorting networks \n* lengths = 0 to " + SortingNetworks.MAX_LENGTH);
+
+        int tempSeed = this.seed;
+        boolean success = true;
+
+        for(int length = 0; length <= SortingNetworks.MAX_LENGTH; length++) {
+            for(int bits = 0; bits < (1 << length); bits++) {
+                int[]       intArray = new int[length];
+                long[]     longArray = new long[length];
+                double[] doubleArray = new double[length];
+
+                for(int i = 0; i < length; i++) {
+                    intArray[i]    = (bits >> i) & 1;
+                    longArray[i]   = intArray[i] == 0 ? Long.MIN_VALUE + this.getRandomNumber(2) : Long.MAX_VALUE;
+                    doubleArray[i] = intArray[i] - 0.5d;
+                }
+
+                int[]       intReference =    intArray.clone();
+                long[]     longReference =   longArray.clone();
+                double[] doubleReference = doubleArray.clone();
+
+                Arrays.sort(intReference);
+                Arrays.sort(longReference);
+                Arrays.sort(doubleReference);
+
+                SortingNetworks.sort(intArray, 0, length);
+                SortingNetworks.sort(longArray, 0, length);
+                SortingNetworks.sort(doubleArray, 0, length);
+
+                success &= Arrays.equals(intArray, intReference) &&
+                           Arrays.equals(longArray, longReference) &&
+                           Arrays.equals(doubleArray, doubleReference);
+            }
+        }
+        this.checkPrimitive("Sorting network", success);
+
+        this.seed = tempSeed;
+    }
+
+    // Whichever PrimitiveKernels the JVM loaded has to agree with the plain Java ones, at every length
+    // around the vector widths and for targets below, inside and above the items
+    private void checkPrimitiveKernels() {
+        PrimitiveKernels kernels = PrimitiveKernels.INSTANCE;
+        PrimitiveKernels  scalar = new PrimitiveKernels();
+        System.out.println("\n* " + kernels.getClass().getSimpleName() + " against scalar PrimitiveKernels \n* lengths = 0 to 300");
+
+        int tempSeed = this.seed;
+        boolean success = true;
+
+        for(int length = 0; length <= 300; length++) {
+            int[]   intArray = new int[length + 2];
+            long[] longArray = new long[length + 2];
+
+            for(int i = 2; i < length + 2; i++) {
+                intArray[i]  = this.getRandomNumber(length + 1) - (length / 2);
+                longArray[i] = ((long) intArray[i] << 32) - this.getRandomNumber(2);
+            }
+
+            int[]   intReference =  intArray.clone();
+            long[] longReference = longArray.clone();
+
+            kernels.sortPairs(intArray,  2, length);
+            kernels.sortPairs(longArray, 2, length);
+            scalar.sortPairs(intReference,  2, length);
+            scalar.sortPairs(longReference, 2, length);
+
+            success &= Arrays.equals(intArray, intReference) && Arrays.equals(longArray, longReference);
+
+            Arrays.sort(intArray,  2, length + 2);
+            Arrays.sort(longArray, 2, length + 2);
+
+            for(int target = -(length / 2) - 1; target <= length - (length / 2) + 1; target++) {
+                long longTarget = (long) target << 32;
+
+                success &= kernels.binarySearchLeft(intArray, 2, length, target)  == scalar.binarySearchLeft(intArray, 2, length, target) &&
+                           kernels.binarySearchRight(intArray, 2, length, target) == scalar.binarySearchRight(intArray, 2, length, target) &&
+                           kernels.binarySearchLeft(longArray, 2, length, longTarget)  == scalar.binarySearchLeft(longArray, 2, length, longTarget) &&
+                           kernels.binarySearchRight(longArray, 2, length, longTarget) == scalar.binarySearchRight(longArray, 2, length, longTarget);
+            }
+        }
+        this.checkPrimitive(kernels.getClass().getSimpleName(), success);
+
+        this.seed = tempSeed;
+    }
+
+    private void checkPrimitiveSorts() {
+        this.checkSortingNetworks();
+        this.checkPrimitiveKernels();
+
+        this.checkPrimitives(       0,       15,        8);
+        this.checkPrimitives(       0,  1000000,        3);
+        this.checkPrimitives(       0,  1000000,     1023);
+        this.checkPrimitives(  500000,   500000,   250000);
+        this.checkPrimitives(       0, 10000000,     4095);
+        this.checkPrimitives(       0, 10000000,  5000000);
+    }
+
+    // A JVM that can't load the kernels it was meant to quietly falls back to the scalar ones, which
+    // would leave them untested
+    private void checkKernelsLoaded(String expected) {
+        String loaded = PrimitiveKernels.INSTANCE.getClass().getSimpleName();
+        if(loaded.equals(expected)) {
+            System.out.println("- Loaded " + loaded + " as expected");
+            this.successes++;
+        }
+        else {
+            System.out.println("- Loaded " + loaded + " instead of " + expected + "!!");
+            this.failures++;
+        }
+        this.count++;
+    }
+
+    private void checkPrimitives(int start, int length, int keyCount) {
+        System.out.println("\n* Holy Grail Sort for primitives \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+
+        int tempSeed = this.seed;
+
+        int[]       intArray = new int[start + length];
+        long[]     longArray = new long[start + length];
+        double[] doubleArray = new double[start + length];
+
+        for(int i = start; i < start + length; i++) {
+            int key = keyCount != 0 ? this.getRandomNumber(keyCount) : this.getRandomNumber(1000000000);
+            intArray[i]    = key - (keyCount / 2);
+            longArray[i]   = (long) intArray[i] << 32;
+            doubleArray[i] = intArray[i] * 0.5d;
+        }
+
+        int[]       intReference =    intArray.clone();
+        long[]     longReference =   longArray.clone();
+        double[] doubleReference = doubleArray.clone();
+
+        Arrays.sort(   intReference, start, start + length);
+        Arrays.sort(  longReference, start, start + length);
+        Arrays.sort(doubleReference, start, start + length);
+
+        new IntHolyGrailSort().commonSort(intArray, start, length, null, 0);
+        this.checkPrimitive("int[]", Arrays.equals(intArray, intReference));
+
+        new LongHolyGrailSort().commonSort(longArray, start, length, null, 0);
+        this.checkPrimitive("long[]", Arrays.equals(longArray, longReference));
+
+        new DoubleHolyGrailSort().commonSort(doubleArray, start, length, null, 0);
+        this.checkPrimitive("double[]", Arrays.equals(doubleArray, doubleReference));
+
+        this.seed = tempSeed;
+    }
+
+    // 12-byte records: an int key followed by the record's original index as a long,
+    // so sorting the keys stably is the same as sorting both fields
+    private void checkRecords(int start, int length, int keyCount) {
+        System.out.println("\n* Holy Grail Sort for records in a ByteBuffer \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+
+        int tempSeed = this.seed;
+        int recordLen = 12;
+
+        ByteBuffer records = ByteBuffer.allocateDirect((start + length) * recordLen).order(ByteOrder.nativeOrder());
+        long[]   reference = new long[start + length];
+
+        for(int i = start; i < start + length; i++) {
+            int key = keyCount != 0 ? this.getRandomNumber(keyCount) : this.getRandomNumber(1000000000);
+            key -= keyCount / 2;
+
+            records.putInt(i * recordLen, key);
+            records.putLong(i * recordLen + 4, i);
+            reference[i] = ((long) key << 32) | i;
+        }
+
+        Arrays.sort(reference, start, start + length);
+
+        new RecordHolyGrailSort(recordLen, (left, leftOffset, right, rightOffset) ->
+                                           Integer.compare(left.getInt(leftOffset), right.getInt(rightOffset)))
+                               .commonSort(records, start, length);
+
+        boolean success = true;
+        for(int i = start; i < start + length && success; i++) {
+            success = records.getInt(i * recordLen) == (int) (reference[i] >> 32) &&
+                      records.getLong(i * recordLen + 4) == (int) reference[i];
+        }
+        this.checkPrimitive("12-byte record", success);
+
+        this.seed = tempSeed;
+    }
+
+    // Same records as checkRecords, but in a file sorted with only 'memoryLen' bytes of memory
+    private void checkExternal(int length, int keyCount, int memoryLen) throws IOException {
+        System.out.println("\n* External Holy Grail Sort \n* length = " + length + ", unique items = " + keyCount + ", memory = " + memoryLen + " bytes");
+
+        int tempSeed = this.seed;
+        int recordLen = 12;
+
+        ByteBuffer records = ByteBuffer.allocate(length * recordLen);
+        long[]   reference = new long[length];
+
+        for(int i = 0; i < length; i++) {
+            int key = keyCount != 0 ? this.getRandomNumber(keyCount) : this.getRandomNumber(1000000000);
+            key -= keyCount / 2;
+
+            records.putInt(i * recordLen, key);
+            records.putLong(i * recordLen + 4, i);
+            reference[i] = ((long) key << 32) | i;
+        }
+
+        Arrays.sort(reference);
+
+        Path input  = Files.createTempFile("holygrail-input", ".tmp");
+        Path output = Files.createTempFile("holygrail-output", ".tmp");
+        try {
+            Files.write(input, records.array());
+            records = null;
+
+            new ExternalHolyGrailSort(recordLen, (left, leftOffset, right, rightOffset) ->
+                                                 Integer.compare(left.getInt(leftOffset), right.getInt(rightOffset)),
+                                      memoryLen).sort(input, output);
+
+            records = ByteBuffer.wrap(Files.readAllBytes(output));
+        }
+        finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+
+        boolean success = records.capacity() == length * recordLen;
+        for(int i = 0; i < length && success; i++) {
+            success = records.getInt(i * recordLen) == (int) (reference[i] >> 32) &&
+                      records.getLong(i * recordLen + 4) == (int) reference[i];
+        }
+        this.checkPrimitive("External", success);
+
+        this.seed = tempSeed;
+    }
+
+    // Fails in the middle of a merge pass, once some of the pass's runs are written and their inputs
+    // deleted: with 'memoryLen' left room to merge only two runs at a time, records of chunks 4 and 5
+    // are first compared with those of chunks 6 and 7 in the second group of the second pass. No run
+    // file may be left in the temporary directory.
+    private void checkExternalFailure(int length, int memoryLen) throws IOException {
+        System.out.println("\n* External Holy Grail Sort failing mid-merge \n* length = " + length + ", memory = " + memoryLen + " bytes");
+
+        int recordLen = 12;
+        int chunkLen  = memoryLen / recordLen;
+
+        ByteBuffer records = ByteBuffer.allocate(length * recordLen);
+        for(int i = 0; i < length; i++) {
+            records.putInt(i * recordLen, this.getRandomNumber(1000000000));
+            records.putLong(i * recordLen + 4, i);
+        }
+
+        Path tempDir = Files.createTempDirectory("holygrail-runs");
+        Path input   = Files.createTempFile("holygrail-input", ".tmp");
+        Path output  = Files.createTempFile("holygrail-output", ".tmp");
+        boolean success = false;
+        try {
+            Files.write(input, records.array());
+
+            ExternalHolyGrailSort sorter = new ExternalHolyGrailSort(recordLen, (left, leftOffset, right, rightOffset) -> {
+                long  leftChunk = left.getLong(leftOffset + 4)   / chunkLen;
+                long rightChunk = right.getLong(rightOffset + 4) / chunkLen;
+                if(leftChunk / 2 != rightChunk / 2 && Math.min(leftChunk, rightChunk) >= 4) {
+                    throw new IllegalStateException("failing on purpose");
+                }
+                return Integer.compare(left.getInt(leftOffset), right.getInt(rightOffset));
+            }, memoryLen);
+            sorter.setTempDirectory(tempDir);
+
+            try {
+                sorter.sort(input, output);
+            }
+            catch(IllegalStateException e) {
+                try(Stream<Path> left = Files.list(tempDir)) {
+                    success = left.count() == 0;
+                }
+            }
+        }
+        finally {
+            try(Stream<Path> left = Files.list(tempDir)) {
+                for(Path run : (Iterable<Path>) left::iterator) {
+                    Files.delete(run);
+                }
+            }
+            Files.delete(tempDir);
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+        this.checkPrimitive("Failed external", success);
+    }
+
+    private void checkKeyExtractors(int start, int length, int keyCount, GrailComparator test) {
+        System.out.println("\n* Holy Grail Sort by extracted keys \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+
+        int tempSeed = this.seed;
+        this.generateTestArray(this.referenceArray, start, length, keyCount);
+        this.seed = tempSeed;
+
+        GrailPair[] unsorted = this.referenceArray.clone();
+        GrailPair[] array    = unsorted.clone();
+        Arrays.sort(this.referenceArray, start, start + length, test);
+
+        HolyGrailSort.sortByIntKey(array, start, length, GrailPair::getKey);
+        this.checkPrimitive("int key", Arrays.equals(array, this.referenceArray));
+
+        // too far apart to pack next to an index
+        System.arraycopy(unsorted, start, array, start, length);
+        HolyGrailSort.sortByLongKey(array, start, length, pair -> pair.getKey() * 3000000000L);
+        this.checkPrimitive("long key", Arrays.equals(array, this.referenceArray));
+
+        // close enough to pack next to an index with up to 429497 distinct keys; 250000 of them span more than 2^31
+        System.arraycopy(unsorted, start, array, start, length);
+        HolyGrailSort.sortByLongKey(array, start, length, pair -> pair.getKey() * 10000L - 5000000000L);
+        this.checkPrimitive("packed long key", Arrays.equals(array, this.referenceArray));
+
+        System.arraycopy(unsorted, start, array, start, length);
+        HolyGrailSort.sortByDoubleKey(array, start, length, pair -> (pair.getKey() - (keyCount / 2)) * 0.5d);
+        this.checkPrimitive("double key", Arrays.equals(array, this.referenceArray));
+
+        Arrays.fill(this.referenceArray, null);
+        System.gc();
+    }
+
+    // Sorts the indices of the items and of their keys, then applies the order to both as parallel columns
+    private void checkArgsort(int start, int length, int keyCount, GrailComparator test) {
+        System.out.println("\n* Holy Grail Sort by index \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+
+        int tempSeed = this.seed;
+        this.generateTestArray(this.referenceArray, start, length, keyCount);
+        this.seed = tempSeed;
+
+        GrailPair[] array = this.referenceArray.clone();
+        int[] keys = new int[start + length];
+        for(int i = start; i < start + length; i++) {
+            keys[i] = array[i].getKey();
+        }
+        Arrays.sort(this.referenceArray, start, start + length, test);
+
+        int[] order = IndexHolyGrailSort.argsort(array, start, length, test);
+        boolean success = Arrays.equals(order, IndexHolyGrailSort.argsort(keys, start, length));
+
+        IndexHolyGrailSort.applyOrder(order, start, length, array, keys);
+        for(int i = start; i < start + length; i++) {
+            success &= keys[i] == this.referenceArray[i].getKey();
+        }
+        this.checkPrimitive("Index", success && Arrays.equals(array, this.referenceArray));
+
+        Arrays.fill(this.referenceArray, null);
+        System.gc();
+    }
+
+    // Sorts parallel columns of keys, ids and items by the keys, then by the items, without making a row object
+    private void checkColumns(int start, int length, int keyCount, GrailComparator test) {
+        System.out.println("\n* Holy Grail Sort for parallel columns \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+
+        int tempSeed = this.seed;
+        this.generateTestArray(this.referenceArray, start, length, keyCount);
+        this.seed = tempSeed;
+
+        GrailPair[] items = this.referenceArray.clone();
+        long[]       keys = new long[start + length];
+        int[]         ids = new int[start + length];
+        for(int i = start; i < start + length; i++) {
+            keys[i] = (long) items[i].getKey() << 32;
+            ids[i]  = items[i].getValue();
+        }
+        Arrays.sort(this.referenceArray, start, start + length, test);
+
+        ColumnHolyGrailSort.sort(keys, start, length, ids, items);
+
+        boolean success = Arrays.equals(items, this.referenceArray);
+        for(int i = start; i < start + length; i++) {
+            success &= keys[i] == (long) this.referenceArray[i].getKey() << 32 &&
+                       ids[i]  == this.referenceArray[i].getValue();
+        }
+        this.checkPrimitive("long[] key column", success);
+
+        ColumnHolyGrailSort.sort(items, start, length, test, keys, ids);
+
+        success = Arrays.equals(items, this.referenceArray);
+        for(int i = start; i < start + length; i++) {
+            success &= keys[i] == (long) this.referenceArray[i].getKey() << 32 &&
+                       ids[i]  == this.referenceArray[i].getValue();
+        }
+        this.checkPrimitive("T[] key column", success);
+
+        Arrays.fill(this.referenceArray, null);
+        System.gc();
+    }
+
+    // Sorts with a listener attached and checks the result along with the strategy it reports
+    private void checkSortStats(int start, int length, int keyCount, SortStats.Strategy strategy, GrailComparator test) {
+        System.out.println("\n* Holy Grail Sort with a SortListener, expecting " + strategy + " \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+
+        int tempSeed = this.seed;
+        this.generateTestArray(this.referenceArray, start, length, keyCount);
+        this.seed = tempSeed;
+
+        GrailPair[] array = this.referenceArray.clone();
+        Arrays.sort(this.referenceArray, start, start + length, test);
+
+        SortStats[] reported = new SortStats[1];
+        HolyGrailSort<GrailPair> sorter = new HolyGrailSort<>(test);
+        sorter.setSortListener(stats -> reported[0] = stats);
+        sorter.commonSort(array, start, length, null, 0);
+
+        System.out.println("- " + reported[0]);
+        this.checkPrimitive("Instrumented", Arrays.equals(array, this.referenceArray) && reported[0].getStrategy() == strategy &&
+                                            reported[0].getComparisons() > 0);
+
+        Arrays.fill(this.referenceArray, null);
+        System.gc();
+    }
+
+    // Sorts with a distinct count hint, which may be wrong on purpose, and checks the result along
+    // with the strategy it reports
+    private void checkDistinctHint(int start, int length, int keyCount, int hint, SortStats.Strategy strategy, GrailComparator test) {
+        System.out.println("\n* Holy Grail Sort with " + hint + " distinct items hinted, expecting " + strategy + " \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+
+        int tempSeed = this.seed;
+        this.generateTestArray(this.referenceArray, start, length, keyCount);
+        this.seed = tempSeed;
+
+        GrailPair[] array = this.referenceArray.clone();
+        Arrays.sort(this.referenceArray, start, start + length, test);
+
+        SortStats[] reported = new SortStats[1];
+        HolyGrailSort<GrailPair> sorter = new HolyGrailSort<>(test);
+        sorter.setDistinctHint(hint);
+        sorter.setSortListener(stats -> reported[0] = stats);
+        sorter.commonSort(array, start, length, null, 0);
+
+        System.out.println("- " + reported[0]);
+        this.checkPrimitive("Hinted", Arrays.equals(array, this.referenceArray) && reported[0].getStrategy() == strategy);
+
+        Arrays.fill(this.referenceArray, null);
+        System.gc();
+    }
+
+    // Three items make up all but 'rareCount' of the array, and the rest are all different and spread
+    // out, so a sample most likely sees only the common three. Without a hint, key collection still
+    // has to find every key; stopping at 4 would leave Strategy 2 with far too few.
+    private void checkRareKeys(int length, int rareCount, GrailComparator test) {
+        System.out.println("\n* Holy Grail Sort with 3 common items and " + rareCount + " rare ones \n* length = " + length);
+
+        int tempSeed = this.seed;
+        GrailPair[] array = new GrailPair[length];
+        int[] counts = new int[3];
+
+        for(int i = 0; i < length; i++) {
+            int key = this.getRandomNumber(3);
+            array[i] = new GrailPair(key, counts[key]);
+            counts[key]++;
+        }
+
+        int stretch = length / rareCount;
+        for(int rare = 0; rare < rareCount; rare++) {
+            array[(rare * stretch) + this.getRandomNumber(stretch)] = new GrailPair(3 + rare, 0);
+        }
+        this.seed = tempSeed;
+
+        GrailPair[] reference = array.clone();
+        Arrays.sort(reference, test);
+
+        SortStats[] reported = new SortStats[1];
+        HolyGrailSort<GrailPair> sorter = new HolyGrailSort<>(test);
+        sorter.setSortListener(stats -> reported[0] = stats);
+        sorter.commonSort(array, 0, length, null, 0);
+
+        System.out.println("- " + reported[0]);
+        this.checkPrimitive("Rare key", Arrays.equals(array, reference) && reported[0].getKeysFound() == 3 + rareCount);
+    }
+
+    // Sorts with 'policy' through HolyGrailSort, the int[] port, SpecializedHolyGrailSort, and
+    // ConcurrentHolyGrailSort with a STATIC buffer (the one kind it can shorten blocks with);
+    // HolyGrailSort has to report blocks of 'blockLen' (0 for Strategy 2)
+    private void checkBlockLenPolicy(int start, int length, int keyCount, BlockLenPolicy policy, int blockLen,
+                                     GrailComparator test) {
+        System.out.println("\n* Holy Grail Sort with " + policy + " blocks \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+
+        int tempSeed = this.seed;
+        this.generateTestArray(this.referenceArray, start, length, keyCount);
+        this.seed = tempSeed;
+
+        GrailPair[] array = this.referenceArray.clone();
+        GrailPair[] specializedArray = this.referenceArray.clone();
+        GrailPair[] concurrentArray  = this.referenceArray.clone();
+        int[] intArray = new int[start + length];
+        for(int i = start; i < start + length; i++) {
+            intArray[i] = this.referenceArray[i].getKey();
+        }
+        Arrays.sort(this.referenceArray, start, start + length, test);
+
+        int[] intReference = intArray.clone();
+        Arrays.sort(intReference, start, start + length);
+
+        SortStats[] reported = new SortStats[1];
+        HolyGrailSort<GrailPair> sorter = new HolyGrailSort<>(test);
+        sorter.setBlockLenPolicy(policy);
+        sorter.setSortListener(stats -> reported[0] = stats);
+        sorter.commonSort(array, start, length, null, 0);
+
+        System.out.println("- " + reported[0]);
+        this.checkPrimitive(policy.toString(), Arrays.equals(array, this.referenceArray) && reported[0].getBlockLen() == blockLen);
+
+        IntHolyGrailSort intSorter = new IntHolyGrailSort();
+        intSorter.setBlockLenPolicy(policy);
+        intSorter.commonSort(intArray, start, length, null, 0);
+        this.checkPrimitive(policy + " int[]", Arrays.equals(intArray, intReference));
+
+        SpecializedHolyGrailSort<GrailPair> specialized = new SpecializedHolyGrailSort<>(test);
+        specialized.setBlockLenPolicy(policy);
+        specialized.commonSort(specializedArray, start, length, null, 0);
+        this.checkPrimitive(policy + " specialized", Arrays.equals(specializedArray, this.referenceArray));
+
+        ConcurrentHolyGrailSort<GrailPair> concurrent = new ConcurrentHolyGrailSort<>(test, ConcurrentHolyGrailSort.BufferLen.STATIC,
+                                                                                     false, policy);
+        concurrent.sort(concurrentArray, start, length);
+        this.checkPrimitive(policy + " concurrent", Arrays.equals(concurrentArray, this.referenceArray));
+
+        Arrays.fill(this.referenceArray, null);
+        System.gc();
+    }
+
+    private void checkExtBuffer(int start, int length, int keyCount, String grailStrategy, GrailComparator test) {
+        this.checkAlgorithm(start, length, keyCount, 2, 0, null, test);
+
+        for(int i = 1; i <= 3; i++) {
+            this.checkAlgorithmWithAverage(start, length, keyCount, 0, i, grailStrategy, test);
+        }
+
+        Arrays.fill(this.referenceArray, null);
+        System.gc();
+    }
+
+    private void checkParallel(int start, int length, int keyCount, String grailStrategy, GrailComparator test) {
+        this.checkAlgorithm(start, length, keyCount, 2, 0, null, test);
+        this.checkAlgorithmWithAverage(start, length, keyCount, 0, 0, grailStrategy, test);
+        this.checkAlgorithmWithAverage(start, length, keyCount, 3, 0, grailStrategy, test);
+
+        Arrays.fill(this.referenceArray, null);
+        System.gc();
+    }
+
+    // Java 15 added hidden classes, so from then on, both the sorter and natural order have to get
+    // copies of their own; before, they fall back to HolyGrailSort and NaturalOrder themselves
+    private void checkHiddenClasses(GrailComparator test) {
+        String version = System.getProperty("java.specification.version");
+        boolean hidden = !version.startsWith("1.") && Integer.parseInt(version) >= 15;
+        System.out.println("\n* Specialized Holy Grail Sort on Java " + version + ", expecting " + (hidden ? "hidden copies" : "no copies"));
+
+        boolean sorterCopied  = new SpecializedHolyGrailSort<>(test).isSpecialized();
+        boolean naturalCopied = SpecializedHolyGrailSort.naturalOrder(Integer.class).getClass() != SpecializedHolyGrailSort.NaturalOrder.class;
+        this.checkPrimitive("Hidden class", sorterCopied == hidden && naturalCopied == hidden);
+    }
+
+    // Also sorts with a listener, which counts comparisons with a comparator of its own
+    private void checkSpecialized(int start, int length, int keyCount, String grailStrategy, GrailComparator test) {
+        this.checkAlgorithm(start, length, keyCount, 2, 0, null, test);
+        this.checkAlgorithmWithAverage(start, length, keyCount, 5, 0, grailStrategy, test);
+        this.checkAlgorithmWithAverage(start, length, keyCount, 5, 2, grailStrategy, test);
+
+        System.out.println("\n* Specialized Holy Grail Sort with a SortListener \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+
+        int tempSeed = this.seed;
+        this.generateTestArray(this.referenceArray, start, length, keyCount);
+        this.seed = tempSeed;
+
+        GrailPair[] array = this.referenceArray.clone();
+        Arrays.sort(this.referenceArray, start, start + length, test);
+
+        SortStats[] reported = new SortStats[1];
+        SpecializedHolyGrailSort<GrailPair> sorter = new SpecializedHolyGrailSort<>(test);
+        sorter.setSortListener(stats -> reported[0] = stats);
+        sorter.commonSort(array, start, length, null, 0);
+
+        System.out.println("- " + reported[0]);
+        this.checkPrimitive("Instrumented", Arrays.equals(array, this.referenceArray) && reported[0].getComparisons() > 0);
+
+        Arrays.fill(this.referenceArray, null);
+        System.gc();
+    }
+
+    private void checkNaturalOrder(int start, int length, int keyCount, GrailComparator test) {
+        System.out.println("\n* Holy Grail Sort in natural order \n* start = " + start + ", length = " + length + ", unique items = " + keyCount);
+
+        int tempSeed = this.seed;
+        this.generateTestArray(this.referenceArray, start, length, keyCount);
+        this.seed = tempSeed;
+
+        ComparablePair[] array = new ComparablePair[start + length];
+        for(int i = start; i < start + length; i++) {
+            array[i] = new ComparablePair(this.referenceArray[i].getKey(), this.referenceArray[i].getValue());
+        }
+        Arrays.sort(this.referenceArray, start, start + length, test);
+
+        HolyGrailSort.sort(array, start, length);
+        this.checkPrimitive("Natural order", Arrays.equals(array, Arrays.copyOf(this.referenceArray, start + length)));
+
+        Arrays.fill(this.referenceArray, null);
+        System.gc();
+    }
+
+    private void checkAdaptive(int start, int length, int keyCount, int runCount, String grailStrategy, GrailComparator test) {
+        this.runCount = runCount;
+        grailStrategy += ", " + runCount + " run(s)";
+
+        this.checkAlgorithm(start, length, keyCount, 2, 0, null, test);
+        this.checkAlgorithmWithAverage(start, length, keyCount, 0, 0, grailStrategy, test);
+        this.checkAlgorithmWithAverage(start, length, keyCount, 4, 0, grailStrategy, test);
+
+        this.runCount = 0;
+        Arrays.fill(this.referenceArray, null);
+        System.gc();
+    }
+
+    // Has 'threads' threads share one sorter, each sorting a short array and then a long one with it,
+    // so every thread reuses its buffer, and O(sqrt n) buffers have to grow
+    private void checkConcurrent(int threads, int length, int keyCount, ConcurrentHolyGrailSort.BufferLen bufferLen, GrailComparator test) {
+        System.out.println("\n* Concurrent Holy Grail Sort w/ " + bufferLen + " Buffers, " + threads + " threads \n* length = " + length + ", unique items = " + keyCount);
+
+        int tempSeed = this.seed;
+
+        GrailPair[][] arrays     = new GrailPair[2 * threads][];
+        GrailPair[][] references = new GrailPair[2 * threads][];
+        for(int i = 0; i < arrays.length; i++) {
+            int arrayLen = i % 2 == 0 ? length / 16 : length;
+
+            arrays[i] = new GrailPair[arrayLen];
+            this.generateTestArray(arrays[i], 0, arrayLen, keyCount);
+
+            references[i] = arrays[i].clone();
+            Arrays.sort(references[i], test);
+        }
+
+        this.seed = tempSeed;
+
+        ConcurrentHolyGrailSort<GrailPair> sorter = new ConcurrentHolyGrailSort<>(test, bufferLen);
+
+        Thread[] workers = new Thread[threads];
+        for(int i = 0; i < threads; i++) {
+            GrailPair[] shortArray = arrays[2 * i];
+            GrailPair[]  longArray = arrays[2 * i + 1];
+
+            workers[i] = new Thread(() -> {
+                sorter.sort(shortArray);
+                sorter.sort(longArray);
+            });
+            workers[i].start();
+        }
+
+        boolean success = true;
+        try {
+            for(Thread worker : workers) {
+                worker.join();
+            }
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            success = false;
+        }
+
+        for(int i = 0; i < arrays.length; i++) {
+            success &= Arrays.equals(arrays[i], references[i]);
+        }
+        this.checkPrimitive("Concurrent", success);
+
+        System.gc();
+    }
+
+    static String getJOpt(String[] args, String optName, String orDefault) {
         optName = "-" + optName;
         for (int i = 0; i < args.length - 1; i++) {
             if (args[i].equals(optName)) {
@@ -348,11 +1121,11 @@ public class Tester {
         return orDefault;
     }
 
-    private static String getJOpt(String[] args, String optName) {
+    static String getJOpt(String[] args, String optName) {
         return getJOpt(args, optName, null);
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         int maxLength   = 50000000;
         int maxKeyCount = 25000000;
 
@@ -363,6 +1136,18 @@ public class Tester {
             System.out.println("Average timings based off of " + tester.averages + " averages.");
         }
 
+        // "-kernels VectorKernels" only tests the primitive sorts, with the kernels the JVM has to have loaded
+        String kernels = getJOpt(args, "kernels");
+        if (kernels != null) {
+            System.out.println("\n*** Testing Holy Grail Sort for primitives with " + kernels + " against Arrays.sort ***");
+
+            tester.checkKernelsLoaded(kernels);
+            tester.checkPrimitiveSorts();
+
+            System.out.println("Ran " + tester.count + " tests with " + tester.successes + " success(es) and " + tester.failures + " failure(s).");
+            System.exit(tester.failures);
+        }
+
         System.out.println("Warming-up the JVM...");
 
         for(int u = 5; u <= (maxLength / 100); u *= 10) {
@@ -404,6 +1189,144 @@ public class Tester {
         tester.checkBoth(25000000, 25000000,     8191, "Strategy 2", testCompare);
         tester.checkBoth(25000000, 25000000, 12500000, "Strategy 1", testCompare);
 
+        System.out.println("\n*** Testing Holy Grail Sort with external buffers against Tim Sort ***");
+
+        tester.checkExtBuffer(       0,  1000000,        3, "Strategy 3", testCompare);
+        tester.checkExtBuffer(       0,  1000000,     1023, "Strategy 2", testCompare);
+        tester.checkExtBuffer(       0,  1000000,   500000, "Strategy 1", testCompare);
+        tester.checkExtBuffer(  500000,   500000,   250000, "Strategy 1", testCompare);
+        tester.checkExtBuffer(       0, 10000000,     4095, "Strategy 2", testCompare);
+        tester.checkExtBuffer(       0, 10000000,  5000000, "Strategy 1", testCompare);
+
+        // a few distinct items, so that combineOutOfPlace's blocks are as long as its keys allow,
+        // with static and sqrt n buffers that are long enough for it
+        tester.checkExtBuffer(       0,      287,        4, "Strategy 2", testCompare);
+        tester.checkExtBuffer(       0,    66833,        4, "Strategy 2", testCompare);
+        tester.checkExtBuffer(       0,   100000,        8, "Strategy 2", testCompare);
+        tester.checkExtBuffer(       0,   200000,       16, "Strategy 2", testCompare);
+
+        System.out.println("\n*** Testing parallel Holy Grail Sort against Holy Grail Sort ***");
+
+        tester.checkParallel(       0,  1000000,   500000, "Strategy 1", testCompare);
+        tester.checkParallel(  500000,   500000,   250000, "Strategy 1", testCompare);
+        tester.checkParallel(       0, 10000000,  5000000, "Strategy 1", testCompare);
+        tester.checkParallel(       0, 10000000,     4095, "Strategy 2", testCompare);
+
+        System.out.println("\n*** Testing specialized Holy Grail Sort against Tim Sort ***");
+
+        tester.checkHiddenClasses(testCompare);
+        tester.checkSpecialized(       0,  1000000,        3, "Strategy 3", testCompare);
+        tester.checkSpecialized(       0,  1000000,     1023, "Strategy 2", testCompare);
+        tester.checkSpecialized(  500000,   500000,   250000, "Strategy 1", testCompare);
+
+        System.out.println("\n*** Testing Holy Grail Sort in natural order against Tim Sort ***");
+
+        tester.checkNaturalOrder(       0,       15,        8, testCompare);
+        tester.checkNaturalOrder(       0,  1000000,        3, testCompare);
+        tester.checkNaturalOrder(       0,  1000000,     1023, testCompare);
+        tester.checkNaturalOrder(  500000,   500000,   250000, testCompare);
+
+        System.out.println("\n*** Testing adaptive Holy Grail Sort against Holy Grail Sort ***");
+
+        tester.checkAdaptive(       0,  1000000,   500000,    1, "Strategy 1", testCompare);
+        tester.checkAdaptive(       0,  1000000,        0,    2, "Strategy 1", testCompare);
+        tester.checkAdaptive(  500000,   500000,   250000,   16, "Strategy 1", testCompare);
+        tester.checkAdaptive(       0,  1000000,     1023,    8, "Strategy 2", testCompare);
+        tester.checkAdaptive(       0,  1000000,        3,    4, "Strategy 3", testCompare);
+        tester.checkAdaptive(       0, 10000000,  5000000,  100, "Strategy 1", testCompare);
+        tester.checkAdaptive(       0, 10000000,  5000000, 5000, "Strategy 1", testCompare);
+
+        System.out.println("\n*** Testing concurrent Holy Grail Sort against Tim Sort ***");
+
+        tester.checkConcurrent(4,  1000000,     1023, ConcurrentHolyGrailSort.BufferLen.STATIC, testCompare);
+        tester.checkConcurrent(4,  1000000,   500000, ConcurrentHolyGrailSort.BufferLen.SQRT,   testCompare);
+        tester.checkConcurrent(8,   100000,        3, ConcurrentHolyGrailSort.BufferLen.SQRT,   testCompare);
+
+        // a few distinct items take both kinds of buffer through combineOutOfPlace, as in the checkExtBuffer cases
+        tester.checkConcurrent(4,    66833,        4, ConcurrentHolyGrailSort.BufferLen.STATIC, testCompare);
+        tester.checkConcurrent(4,    66833,        8, ConcurrentHolyGrailSort.BufferLen.SQRT,   testCompare);
+
+        System.out.println("\n*** Testing Holy Grail Sort for primitives against Arrays.sort ***");
+
+        tester.checkPrimitiveSorts();
+
+        System.out.println("\n*** Testing Holy Grail Sort's statistics ***");
+
+        tester.checkSortStats(       0,       15,        8, SortStats.Strategy.INSERTION_SORT, testCompare);
+        tester.checkSortStats(       0,  1000000,        3, SortStats.Strategy.STRATEGY_3,     testCompare);
+        tester.checkSortStats(       0,  1000000,     1023, SortStats.Strategy.STRATEGY_2,     testCompare);
+        tester.checkSortStats(       0,  1000000,   500000, SortStats.Strategy.STRATEGY_1,     testCompare);
+
+        System.out.println("\n*** Testing Holy Grail Sort with distinct count hints against Tim Sort ***");
+
+        // right hints, then hints too low (which the sample catches) and too high
+        tester.checkDistinctHint(       0,  1000000,        3,        3, SortStats.Strategy.STRATEGY_3, testCompare);
+        tester.checkDistinctHint(       0,  1000000,     1023,     1023, SortStats.Strategy.STRATEGY_2, testCompare);
+        tester.checkDistinctHint(       0,  1000000,     1023,       16, SortStats.Strategy.STRATEGY_2, testCompare);
+        tester.checkDistinctHint(       0,  1000000,   500000,        8, SortStats.Strategy.STRATEGY_1, testCompare);
+        tester.checkDistinctHint(       0,  1000000,        3,  1000000, SortStats.Strategy.STRATEGY_3, testCompare);
+
+        // no hint: rare items a sample misses still count as keys
+        tester.checkRareKeys( 1000000, 1000, testCompare);
+        tester.checkRareKeys(  500000, 1000, testCompare);
+
+        System.out.println("\n*** Testing Holy Grail Sort with cache-sized blocks against Tim Sort ***");
+
+        // a 1-byte cache takes the shortest blocks a policy can, an eighth of SQRT's, wherever there are
+        // enough keys for them; 3000 distinct items are enough for SQRT's blocks, but not for those
+        BlockLenPolicy shortest = BlockLenPolicy.forCacheSize(1);
+        tester.checkBlockLenPolicy(       0,  1000000,   500000, shortest,           128, testCompare);
+        tester.checkBlockLenPolicy(  500000,   500000,   250000, shortest,           128, testCompare);
+        tester.checkBlockLenPolicy(       0,   500000,     1023, shortest,             0, testCompare);
+        tester.checkBlockLenPolicy(       0,  1000000,     3000, shortest,          1024, testCompare);
+        tester.checkBlockLenPolicy(       0,  6000000,  3000000, shortest,           512, testCompare);
+        tester.checkBlockLenPolicy(       0,  6000000,  3000000, BlockLenPolicy.L1,
+                                   BlockLenPolicy.L1.getBlockLen(4096, BlockLenPolicy.REFERENCE_BYTES), testCompare);
+        tester.checkBlockLenPolicy(       0,  6000000,  3000000, BlockLenPolicy.L2,
+                                   BlockLenPolicy.L2.getBlockLen(4096, BlockLenPolicy.REFERENCE_BYTES), testCompare);
+
+        // SQRT's 8192-item blocks, cut down to fit a 32K L1
+        tester.checkBlockLenPolicy(       0, 50000000, 25000000, BlockLenPolicy.forCacheSize(32 << 10), 1024, testCompare);
+
+        System.out.println("\n*** Testing Holy Grail Sort by extracted keys against Tim Sort ***");
+
+        tester.checkKeyExtractors(       0,       15,        8, testCompare);
+        tester.checkKeyExtractors(       0,  1000000,        3, testCompare);
+        tester.checkKeyExtractors(  500000,   500000,   250000, testCompare);
+        tester.checkKeyExtractors(       0, 10000000,  5000000, testCompare);
+
+        System.out.println("\n*** Testing Holy Grail Sort by index against Tim Sort ***");
+
+        tester.checkArgsort(       0,       15,        8, testCompare);
+        tester.checkArgsort(       0,  1000000,        3, testCompare);
+        tester.checkArgsort(       0,  1000000,     1023, testCompare);
+        tester.checkArgsort(  500000,   500000,   250000, testCompare);
+        tester.checkArgsort(       0, 10000000,  5000000, testCompare);
+
+        System.out.println("\n*** Testing Holy Grail Sort for parallel columns against Tim Sort ***");
+
+        tester.checkColumns(       0,       15,        8, testCompare);
+        tester.checkColumns(       0,  1000000,        3, testCompare);
+        tester.checkColumns(       0,  1000000,     1023, testCompare);
+        tester.checkColumns(  500000,   500000,   250000, testCompare);
+        tester.checkColumns(       0, 10000000,  5000000, testCompare);
+
+        System.out.println("\n*** Testing Holy Grail Sort for records against Arrays.sort ***");
+
+        tester.checkRecords(       0,       15,        8);
+        tester.checkRecords(       0,  1000000,        3);
+        tester.checkRecords(       0,  1000000,     1023);
+        tester.checkRecords(  500000,   500000,   250000);
+        tester.checkRecords(       0, 10000000,  5000000);
+
+        System.out.println("\n*** Testing external Holy Grail Sort against Arrays.sort ***");
+
+        tester.checkExternal(      15,        8,     1200);
+        tester.checkExternal( 1000000,     1023,  1200000);
+        tester.checkExternal( 1000000,   500000,   120000);
+        tester.checkExternal(10000000,  5000000, 16000000);
+        tester.checkExternalFailure(100000, 12000);
+
         System.out.println("Ran " + tester.count + " tests with " + tester.successes + " success(es) and " + tester.failures + " failure(s).");
         System.exit(tester.failures);
     }
@@ -0,0 +1,170 @@
+package holygrail;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020-2021 The Holy Grail Sort Project
+ *
+ * See LICENSE at the root of the repository for the full license text.
+ */
+
+// PrimitiveKernels written with the Vector API, which compiles them to whatever SIMD instructions
+// the CPU has (AVX2 and AVX-512 on x86, NEON on ARM). Only compiles and runs with
+// "--add-modules jdk.incubator.vector", in Java 16 and up; PrimitiveKernels loads it by name.
+final class VectorKernels extends PrimitiveKernels {
+    private final static VectorSpecies<Integer> INTS  = IntVector.SPECIES_PREFERRED;
+    private final static VectorSpecies<Long>    LONGS = LongVector.SPECIES_PREFERRED;
+
+    // every even lane paired with the odd lane after it, and a mask of the odd lanes, which get the larger item
+    private final static VectorShuffle<Integer> INT_PAIRS  = VectorShuffle.fromOp(INTS,  lane -> lane ^ 1);
+    private final static VectorShuffle<Long>    LONG_PAIRS = VectorShuffle.fromOp(LONGS, lane -> lane ^ 1);
+    private final static VectorMask<Integer>    INT_ODDS   = VectorMask.fromLong(INTS,  0xAAAAAAAAAAAAAAAAL);
+    private final static VectorMask<Long>       LONG_ODDS  = VectorMask.fromLong(LONGS, 0xAAAAAAAAAAAAAAAAL);
+
+    // the binary searches hand off to a linear scan of whole vectors once they're down to this many of them
+    private final static int SCAN_VECTORS = 4;
+
+    // A vector of pairs is loaded, every pair's min and max are put in its even and odd lane, and the
+    // vector is stored two indices down, over items that have already been loaded
+    @Override
+    void sortPairs(int[] array, int start, int length) {
+        int index = 0;
+        for(; index <= length - INTS.length(); index += INTS.length()) {
+            IntVector items = IntVector.fromArray(INTS, array, start + index);
+            IntVector pairs = items.rearrange(INT_PAIRS);
+
+            items.min(pairs).blend(items.max(pairs), INT_ODDS).intoArray(array, start + index - 2);
+        }
+
+        super.sortPairs(array, start + index, length - index);
+    }
+
+    @Override
+    void sortPairs(long[] array, int start, int length) {
+        int index = 0;
+        if(LONGS.length() >= 2) {
+            for(; index <= length - LONGS.length(); index += LONGS.length()) {
+                LongVector items = LongVector.fromArray(LONGS, array, start + index);
+                LongVector pairs = items.rearrange(LONG_PAIRS);
+
+                items.min(pairs).blend(items.max(pairs), LONG_ODDS).intoArray(array, start + index - 2);
+            }
+        }
+
+        super.sortPairs(array, start + index, length - index);
+    }
+
+    // The items are sorted, so the answer is how many of them are less than (or, searching right, no
+    // greater than) 'target'. Binary search narrows it down to a few vectors, and the first vector
+    // that isn't entirely less has the answer in its count of lanes that are.
+    @Override
+    int binarySearchLeft(int[] array, int start, int length, int target) {
+        int  left = 0;
+        int right = length;
+
+        while(right - left > SCAN_VECTORS * INTS.length()) {
+            int middle = (left + right) >>> 1;
+
+            if(array[start + middle] < target) {
+                left = middle + 1;
+            }
+            else {
+                right = middle;
+            }
+        }
+
+        for(; left <= right - INTS.length(); left += INTS.length()) {
+            int less = IntVector.fromArray(INTS, array, start + left)
+                                .compare(VectorOperators.LT, target).trueCount();
+            if(less < INTS.length()) {
+                return left + less;
+            }
+        }
+        return left + super.binarySearchLeft(array, start + left, right - left, target);
+    }
+
+    @Override
+    int binarySearchLeft(long[] array, int start, int length, long target) {
+        int  left = 0;
+        int right = length;
+
+        while(right - left > SCAN_VECTORS * LONGS.length()) {
+            int middle = (left + right) >>> 1;
+
+            if(array[start + middle] < target) {
+                left = middle + 1;
+            }
+            else {
+                right = middle;
+            }
+        }
+
+        for(; left <= right - LONGS.length(); left += LONGS.length()) {
+            int less = LongVector.fromArray(LONGS, array, start + left)
+                                 .compare(VectorOperators.LT, target).trueCount();
+            if(less < LONGS.length()) {
+                return left + less;
+            }
+        }
+        return left + super.binarySearchLeft(array, start + left, right - left, target);
+    }
+
+    @Override
+    int binarySearchRight(int[] array, int start, int length, int target) {
+        int  left = 0;
+        int right = length;
+
+        while(right - left > SCAN_VECTORS * INTS.length()) {
+            int middle = (left + right) >>> 1;
+
+            if(array[start + middle] > target) {
+                right = middle;
+            }
+            else {
+                left = middle + 1;
+            }
+        }
+
+        for(; left <= right - INTS.length(); left += INTS.length()) {
+            int notGreater = IntVector.fromArray(INTS, array, start + left)
+                                      .compare(VectorOperators.LE, target).trueCount();
+            if(notGreater < INTS.length()) {
+                return left + notGreater;
+            }
+        }
+        return left + super.binarySearchRight(array, start + left, right - left, target);
+    }
+
+    @Override
+    int binarySearchRight(long[] array, int start, int length, long target) {
+        int  left = 0;
+        int right = length;
+
+        while(right - left > SCAN_VECTORS * LONGS.length()) {
+            int middle = (left + right) >>> 1;
+
+            if(array[start + middle] > target) {
+                right = middle;
+            }
+            else {
+                left = middle + 1;
+            }
+        }
+
+        for(; left <= right - LONGS.length(); left += LONGS.length()) {
+            int notGreater = LongVector.fromArray(LONGS, array, start + left)
+                                       .compare(VectorOperators.LE, target).trueCount();
+            if(notGreater < LONGS.length()) {
+                return left + notGreater;
+            }
+        }
+        return left + super.binarySearchRight(array, start + left, right - left, target);
+    }
+}
@@ -0,0 +1,129 @@
+// "smart block selection" sort with a tournament tree over the scrambled area
+// (see "Smart Block Selection Sort" for the linear scan it replaces)
+
+// Of two blocks given by their keys, returns the one that comes first, comparing keys on ties
+// so that equal blocks keep their order; -1 stands for no block
+private static <T> int tournamentWinner(T[] array, int firstKey, int start, int blockLen, int cmpIndex, int leftKey, int rightKey, Comparator<T> cmp) {
+	if(leftKey  == -1) return rightKey;
+	if(rightKey == -1) return  leftKey;
+
+	int compare = cmp.compare(array[start + ((leftKey  - firstKey) * blockLen) + cmpIndex],
+	                          array[start + ((rightKey - firstKey) * blockLen) + cmpIndex]);
+	if(compare < 0 || (compare == 0 && cmp.compare(array[leftKey], array[rightKey]) < 0)) {
+		return leftKey;
+	}
+	return rightKey;
+}
+
+// Sets the tree's leaf for 'key' to 'leaf' (either the same key, or -1 to take it out of the
+// running) and replays the matches on its way up to the root
+private static <T> void updateTournament(T[] array, int firstKey, int start, int blockLen, int cmpIndex, int[] tree, int leaves, int firstLeafKey, int key, int leaf, Comparator<T> cmp) {
+	int node = leaves + (key - firstLeafKey);
+	tree[node] = leaf;
+
+	for(node /= 2; node > 0; node /= 2) {
+		tree[node] = tournamentWinner(array, firstKey, start, blockLen, cmpIndex,
+		                              tree[2 * node], tree[2 * node + 1], cmp);
+	}
+}
+
+// Same result as smart block selection sort, but the scrambled area is kept in a tournament
+// tree -- an int[] of twice as many nodes as there are right blocks -- so each block is found in
+// O(log blockCount) comparisons instead of one per block in the scrambled area. The tree holds
+// the keys of the blocks that are in the running, which are also where those blocks are.
+private static <T> void sortBlocks(T[] array, int firstKey, int start, int blockCount, int leftBlocks, int blockLen, boolean sortByTail, Comparator<T> cmp) {
+	if(blockCount == leftBlocks) return;
+
+	int cmpIndex   = sortByTail ? blockLen - 1 : 0;
+
+	int blockIndex = start;
+	int keyIndex   = firstKey;
+
+	int rightBlock = start    + (leftBlocks * blockLen);
+	int rightKey   = firstKey +  leftBlocks;
+
+	boolean sorted = true;
+
+	// phase one: same as smart block selection sort
+	do {
+		if(cmp.compare(array[rightBlock + cmpIndex], array[blockIndex + cmpIndex]) < 0) {
+			swapBlocksForwards(array, blockIndex, rightBlock, blockLen);
+			swap(array, keyIndex, rightKey);
+			sorted = false;
+		}
+		blockIndex += blockLen;
+		keyIndex++;
+	} while(sorted && keyIndex < rightKey);
+
+	if(sorted) return;
+
+	int lastKey = firstKey + blockCount - 1;
+	int scrambledEnd = rightKey < lastKey ? rightKey + 1 : rightKey;
+
+	// one leaf for every right block; the tree starts with the scrambled area in the running
+	int leaves = 1;
+	while(leaves < blockCount - leftBlocks) {
+		leaves *= 2;
+	}
+	int[] tree = new int[2 * leaves];
+	Arrays.fill(tree, -1);
+
+	for(int key = rightKey; key <= scrambledEnd; key++) {
+		tree[leaves + (key - rightKey)] = key;
+	}
+	for(int node = leaves - 1; node > 0; node--) {
+		tree[node] = tournamentWinner(array, firstKey, start, blockLen, cmpIndex,
+		                              tree[2 * node], tree[2 * node + 1], cmp);
+	}
+
+	// phase two: the winner replaces the next left block, which takes the winner's place in
+	//            the scrambled area
+	while(keyIndex < rightKey) {
+		int selectKey   = tree[1];
+		int selectBlock = start + ((selectKey - firstKey) * blockLen);
+
+		swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+		swap(array, keyIndex, selectKey);
+
+		updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+		                 selectKey, selectKey, cmp);
+
+		if(selectKey == scrambledEnd && scrambledEnd < lastKey) {
+			scrambledEnd++;
+			updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+			                 scrambledEnd, scrambledEnd, cmp);
+		}
+
+		blockIndex += blockLen;
+		keyIndex++;
+	}
+
+	// phases three and four: the winner trades places with the next block, which then leaves
+	//                        the running, until the rest of the blocks are in order
+	while(keyIndex < lastKey) {
+		int selectKey = tree[1];
+
+		if(selectKey != keyIndex) {
+			int selectBlock = start + ((selectKey - firstKey) * blockLen);
+
+			swapBlocksForwards(array, blockIndex, selectBlock, blockLen);
+			swap(array, keyIndex, selectKey);
+
+			updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+			                 selectKey, selectKey, cmp);
+
+			if(selectKey == scrambledEnd && scrambledEnd < lastKey) {
+				scrambledEnd++;
+				updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+				                 scrambledEnd, scrambledEnd, cmp);
+			}
+		}
+		updateTournament(array, firstKey, start, blockLen, cmpIndex, tree, leaves, rightKey,
+		                 keyIndex, -1, cmp);
+
+		blockIndex += blockLen;
+		keyIndex++;
+
+		if(keyIndex == scrambledEnd && scrambledEnd < lastKey) return;
+	}
+}